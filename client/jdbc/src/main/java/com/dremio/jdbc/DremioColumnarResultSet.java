@@ -0,0 +1,65 @@
+/*
+ * Copyright (C) 2017-2018 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.jdbc;
+
+import java.sql.SQLException;
+import java.util.List;
+
+import org.apache.arrow.vector.ValueVector;
+
+/**
+ * Batch-at-a-time access to the results of a query, as the Arrow vectors
+ * received from the server, for applications that would otherwise convert
+ * every value through the row accessors.
+ * <p>
+ *   Obtained from a Dremio result set with
+ *   {@code resultSet.unwrap(DremioColumnarResultSet.class)}.
+ * </p>
+ * <p>
+ *   The vectors returned by {@link #getBatchVectors()} belong to the result
+ *   set: they are only valid until the result set moves to another batch or is
+ *   closed, and must not be modified.
+ * </p>
+ */
+public interface DremioColumnarResultSet {
+
+  /**
+   * Moves to the next batch of results, skipping the rows of the current batch
+   * not read yet.  The row cursor of the result set is then on the last row of
+   * the batch, so that {@link java.sql.ResultSet#next()} moves to the first
+   * row of the following batch.
+   *
+   * @return  true if the result set is on a new batch, false if there are no
+   *   more batches
+   * @throws  SQLException  if this method is called on a closed result set, or
+   *   if the query failed
+   */
+  boolean nextBatch() throws SQLException;
+
+  /**
+   * Gets the number of rows of the current batch.
+   *
+   * @throws  SQLException  if this method is called on a closed result set
+   */
+  int getBatchRowCount() throws SQLException;
+
+  /**
+   * Gets the vectors of the current batch, in column order.
+   *
+   * @throws  SQLException  if this method is called on a closed result set
+   */
+  List<ValueVector> getBatchVectors() throws SQLException;
+}
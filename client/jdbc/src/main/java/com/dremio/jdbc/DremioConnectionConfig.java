@@ -71,4 +71,13 @@ public class DremioConnectionConfig extends ConnectionConfigImpl {
   public boolean isServerMetadataDisabled() {
     return Boolean.valueOf(props.getProperty("server.metadata.disabled"));
   }
+
+  /**
+   * Number of result batches decoded ahead of the application, on a separate
+   * thread, while it reads the current batch. 0 (the default) decodes each
+   * batch when the application reaches it.
+   */
+  public int getPrefetchBatches() {
+    return Integer.parseInt(props.getProperty("prefetch.batches", "0"));
+  }
 }
@@ -0,0 +1,161 @@
+/*
+ * Copyright (C) 2017-2018 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.jdbc.impl;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeoutException;
+
+import org.apache.arrow.memory.BufferAllocator;
+
+import com.dremio.common.concurrent.NamedThreadFactory;
+import com.dremio.common.exceptions.UserException;
+import com.dremio.exec.record.RecordBatchLoader;
+import com.dremio.jdbc.impl.DremioCursor.ResultsListener;
+import com.dremio.sabot.rpc.user.QueryDataBatch;
+import com.google.common.base.Throwables;
+
+/**
+ * Decodes the batches received for a query on a separate thread, so the next
+ * batches are ready while the application reads the current one.  At most
+ * {@code window} decoded batches are held ahead of the application; once the
+ * window is full, the results listener queue fills up and throttles the
+ * server as usual.
+ */
+class BatchPrefetcher implements AutoCloseable {
+  private static final org.slf4j.Logger logger =
+      org.slf4j.LoggerFactory.getLogger(BatchPrefetcher.class);
+
+  private static final ThreadFactory THREAD_FACTORY = new NamedThreadFactory("jdbc-prefetch-");
+
+  /** Queued after the last batch. */
+  private static final Object END = new Object();
+
+  private final ResultsListener resultsListener;
+  private final BufferAllocator allocator;
+  /** Decoded batches, then {@link #END} or the failure that stopped decoding. */
+  private final BlockingQueue<Object> decoded;
+  private final Thread thread;
+
+  private volatile boolean closed = false;
+
+  BatchPrefetcher(ResultsListener resultsListener, BufferAllocator allocator, int window) {
+    this.resultsListener = resultsListener;
+    this.allocator = allocator;
+    this.decoded = new ArrayBlockingQueue<>(window);
+    this.thread = THREAD_FACTORY.newThread(this::decodeBatches);
+  }
+
+  void start() {
+    thread.start();
+  }
+
+  private void decodeBatches() {
+    Object last;
+    try {
+      boolean afterFirstBatch = false;
+      while (true) {
+        final QueryDataBatch batch = resultsListener.getNext();
+        if (batch == null) {
+          last = END;
+          break;
+        }
+
+        // Skip spurious empty batches, other than the first batch (which
+        // carries the initial schema but no rows).
+        if (afterFirstBatch
+            && (batch.getHeader().getRowCount() == 0 || batch.getData() == null)) {
+          logger.warn("Spurious batch read: {}", batch);
+          batch.release();
+          continue;
+        }
+        afterFirstBatch = true;
+
+        final RecordBatchLoader loader = new RecordBatchLoader(allocator);
+        try {
+          loader.load(batch.getHeader().getDef(), batch.getData());
+        } catch (RuntimeException e) {
+          loader.clear();
+          throw e;
+        } finally {
+          batch.release();
+        }
+
+        try {
+          decoded.put(loader);
+        } catch (InterruptedException e) {
+          loader.clear();
+          throw e;
+        }
+      }
+    } catch (Throwable t) {
+      if (closed) {
+        return;
+      }
+      last = t;
+    }
+
+    try {
+      decoded.put(last);
+    } catch (InterruptedException e) {
+      // closed while waiting for the application to read the decoded batches
+    }
+  }
+
+  /**
+   * Gets the next decoded batch, waiting for it to be decoded if necessary.
+   * The caller owns the returned batch.
+   *
+   * @return  the next batch, or {@code null} after last batch has been returned
+   * @throws UserException
+   *         if the query failed
+   * @throws TimeoutException
+   *         if data was not received before timeout expiration
+   * @throws InterruptedException
+   *         if waiting on the queue was interrupted
+   */
+  RecordBatchLoader getNext() throws UserException, TimeoutException, InterruptedException {
+    final Object next = decoded.take();
+    if (next == END) {
+      // so that later calls also report the end of the batches
+      decoded.put(END);
+      return null;
+    }
+    if (next instanceof Throwable) {
+      final Throwable failure = (Throwable) next;
+      decoded.put(failure);
+      Throwables.propagateIfPossible(failure, TimeoutException.class, InterruptedException.class);
+      throw new RuntimeException(failure);
+    }
+    return (RecordBatchLoader) next;
+  }
+
+  @Override
+  public void close() throws InterruptedException {
+    closed = true;
+    thread.interrupt();
+    if (thread != Thread.currentThread()) {
+      thread.join();
+    }
+    Object next;
+    while ((next = decoded.poll()) != null) {
+      if (next instanceof RecordBatchLoader) {
+        ((RecordBatchLoader) next).clear();
+      }
+    }
+  }
+}
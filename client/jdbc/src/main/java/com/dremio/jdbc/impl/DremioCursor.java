@@ -27,6 +27,7 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
 
+import org.apache.arrow.vector.ValueVector;
 import org.apache.calcite.avatica.AvaticaStatement;
 import org.apache.calcite.avatica.ColumnMetaData;
 import org.apache.calcite.avatica.Meta;
@@ -46,6 +47,7 @@ import com.dremio.exec.proto.UserProtos.PreparedStatement;
 import com.dremio.common.utils.protos.QueryIdHelper;
 import com.dremio.exec.record.BatchSchema;
 import com.dremio.exec.record.RecordBatchLoader;
+import com.dremio.exec.record.VectorWrapper;
 import com.dremio.exec.rpc.ConnectionThrottle;
 import com.dremio.exec.store.ischema.InfoSchemaConstants;
 import com.dremio.jdbc.SchemaChangeListener;
@@ -293,9 +295,11 @@ class DremioCursor implements Cursor {
   private final Meta.Signature signature;
 
   /** Holds current batch of records (none before first load). */
-  private final RecordBatchLoader currentBatchHolder;
+  private RecordBatchLoader currentBatchHolder;
 
   private final ResultsListener resultsListener;
+  /** Decodes batches ahead of the application (null if not enabled). */
+  private final BatchPrefetcher prefetcher;
   private SchemaChangeListener changeListener;
 
   private final DremioAccessorList accessors = new DremioAccessorList();
@@ -353,6 +357,10 @@ class DremioCursor implements Cursor {
             ExecConstants.JDBC_BATCH_QUEUE_THROTTLING_THRESHOLD );
     resultsListener = new ResultsListener(batchQueueThrottlingThreshold);
     currentBatchHolder = new RecordBatchLoader(client.getRecordAllocator());
+    final int prefetchBatches = connection.getConfig().getPrefetchBatches();
+    prefetcher = prefetchBatches > 0
+        ? new BatchPrefetcher(resultsListener, client.getRecordAllocator(), prefetchBatches)
+        : null;
   }
 
   protected int getCurrentRecordNumber() {
@@ -391,6 +399,13 @@ class DremioCursor implements Cursor {
       connection.getClient().cancelQuery(resultsListener.getQueryId());
     }
     resultsListener.close();
+    if (prefetcher != null) {
+      try {
+        prefetcher.close();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
     currentBatchHolder.clear();
   }
 
@@ -445,6 +460,10 @@ class DremioCursor implements Cursor {
       // (First call always takes this branch.)
 
       try {
+        if (prefetcher != null) {
+          return nextPrefetchedBatch();
+        }
+
         QueryDataBatch qrb = resultsListener.getNext();
 
         // (Apparently:)  Skip any spurious empty batches (batches that have
@@ -529,6 +548,41 @@ class DremioCursor implements Cursor {
     }
   }
 
+  /**
+   * Moves to the next batch decoded by the prefetcher, the same way
+   * {@link #nextRowInternally()} moves to the next batch received.
+   */
+  private boolean nextPrefetchedBatch()
+      throws UserException, TimeoutException, InterruptedException {
+    final RecordBatchLoader next = prefetcher.getNext();
+    afterFirstBatch = true;
+
+    // The previous batch is released in both cases.
+    currentBatchHolder.clear();
+    if (next == null) {
+      afterLastRow = true;
+      return false;
+    }
+
+    currentBatchHolder = next;
+    currentRecordNumber = 0;
+
+    final boolean schemaChanged = !next.getSchema().equals(schema);
+    schema = next.getSchema();
+    if (schemaChanged) {
+      updateColumns();
+    } else {
+      // Accessors are bound to the vectors of the previous batch.
+      accessors.generateAccessors(this, currentBatchHolder);
+    }
+
+    if (returnTrueForNextCallToNext
+        && currentBatchHolder.getRecordCount() == 0) {
+      returnTrueForNextCallToNext = false;
+    }
+    return true;
+  }
+
   /**
    * Advances to first batch to load schema data into result set metadata.
    * <p>
@@ -590,6 +644,9 @@ class DremioCursor implements Cursor {
 
     returnTrueForNextCallToNext = true;
 
+    if (prefetcher != null) {
+      prefetcher.start();
+    }
     nextRowInternally();
 
     initialSchemaLoaded = true;
@@ -629,6 +686,55 @@ class DremioCursor implements Cursor {
     }
   }
 
+  /**
+   * Moves to the next batch, skipping the remaining rows of the current batch,
+   * and positions this cursor on the last row of the new batch.
+   *
+   * @return  whether cursor is positioned at a batch (false when after end of
+   *   results)
+   */
+  boolean nextBatch() throws SQLException {
+    if ( ! initialSchemaLoaded ) {
+      throw new IllegalStateException(
+          "nextBatch() called but loadInitialSchema() was not called" );
+    }
+
+    if ( afterLastRow ) {
+      return false;
+    }
+
+    accessors.clearLastColumnIndexedInRow();
+    if ( returnTrueForNextCallToNext ) {
+      // First batch was loaded by loadInitialSchema() but not read yet.
+      returnTrueForNextCallToNext = false;
+    } else {
+      currentRecordNumber = currentBatchHolder.getRecordCount() - 1;
+      if ( ! nextRowInternally() ) {
+        return false;
+      }
+    }
+
+    final int recordCount = currentBatchHolder.getRecordCount();
+    currentRecordNumber = recordCount - 1;
+    currentRowNumber += recordCount;
+    return true;
+  }
+
+  /**
+   * Gets the vectors of the current batch, in column order.
+   */
+  List<ValueVector> getBatchVectors() {
+    final List<ValueVector> vectors = new ArrayList<>();
+    for (VectorWrapper<?> wrapper : currentBatchHolder) {
+      vectors.add(wrapper.getValueVector());
+    }
+    return vectors;
+  }
+
+  int getBatchRowCount() {
+    return currentBatchHolder.getRecordCount();
+  }
+
   public void cancel() {
     close();
   }
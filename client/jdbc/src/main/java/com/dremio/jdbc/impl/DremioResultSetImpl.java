@@ -35,6 +35,7 @@ import java.sql.Time;
 import java.sql.Timestamp;
 import java.sql.Types;
 import java.util.Calendar;
+import java.util.List;
 import java.util.Map;
 import java.util.TimeZone;
 import java.util.concurrent.CountDownLatch;
@@ -42,6 +43,7 @@ import java.util.concurrent.LinkedBlockingDeque;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
+import org.apache.arrow.vector.ValueVector;
 import org.apache.calcite.avatica.AvaticaResultSet;
 import org.apache.calcite.avatica.AvaticaSite;
 import org.apache.calcite.avatica.AvaticaStatement;
@@ -59,6 +61,7 @@ import com.dremio.exec.proto.UserBitShared.QueryResult;
 import com.dremio.exec.record.RecordBatchLoader;
 import com.dremio.exec.rpc.ConnectionThrottle;
 import com.dremio.jdbc.AlreadyClosedSqlException;
+import com.dremio.jdbc.DremioColumnarResultSet;
 import com.dremio.jdbc.DremioResultSet;
 import com.dremio.jdbc.ExecutionCanceledSqlException;
 import com.dremio.jdbc.SchemaChangeListener;
@@ -70,7 +73,8 @@ import com.google.common.collect.Queues;
 /**
  * Dremio's implementation of {@link ResultSet}.
  */
-class DremioResultSetImpl extends AvaticaResultSet implements DremioResultSet {
+class DremioResultSetImpl extends AvaticaResultSet
+    implements DremioResultSet, DremioColumnarResultSet {
   @SuppressWarnings("unused")
   private static final org.slf4j.Logger logger =
       org.slf4j.LoggerFactory.getLogger(DremioResultSetImpl.class);
@@ -1889,6 +1893,34 @@ class DremioResultSetImpl extends AvaticaResultSet implements DremioResultSet {
     return null;
   }
 
+  // DremioColumnarResultSet methods:
+
+  @Override
+  public boolean nextBatch() throws SQLException {
+    throwIfClosed();
+    return getDremioCursor().nextBatch();
+  }
+
+  @Override
+  public int getBatchRowCount() throws SQLException {
+    throwIfClosed();
+    return getDremioCursor().getBatchRowCount();
+  }
+
+  @Override
+  public List<ValueVector> getBatchVectors() throws SQLException {
+    throwIfClosed();
+    return getDremioCursor().getBatchVectors();
+  }
+
+  private DremioCursor getDremioCursor() throws SQLException {
+    if (!(cursor instanceof DremioCursor)) {
+      throw new SQLFeatureNotSupportedException(
+          "Batch access is not supported for this result set.");
+    }
+    return (DremioCursor) cursor;
+  }
+
 
   ////////////////////////////////////////
 
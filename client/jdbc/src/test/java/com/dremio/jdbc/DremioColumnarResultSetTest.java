@@ -0,0 +1,102 @@
+/*
+ * Copyright (C) 2017-2018 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.jdbc;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Properties;
+
+import org.apache.arrow.vector.ValueVector;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Tests batch access to results, with decoded batches prefetched.
+ */
+public class DremioColumnarResultSetTest extends JdbcWithServerTestBase {
+  private static final String EMPLOYEES_SQL =
+      "SELECT employee_id, full_name FROM cp.\"employee.json\"";
+
+  @BeforeClass
+  public static void setUpConnection() throws SQLException {
+    Properties properties = new Properties();
+    properties.setProperty("prefetch.batches", "2");
+    setupConnection(properties);
+    assertThat(((DremioConnection) getConnection()).getConfig().getPrefetchBatches(), is(2));
+  }
+
+  @Test
+  public void testUnwrap() throws SQLException {
+    try (Statement statement = getConnection().createStatement();
+         ResultSet resultSet = statement.executeQuery(EMPLOYEES_SQL)) {
+      assertTrue(resultSet.isWrapperFor(DremioColumnarResultSet.class));
+      assertThat(resultSet.unwrap(DremioColumnarResultSet.class) != null, is(true));
+    }
+  }
+
+  @Test
+  public void testRowsMatchBatches() throws SQLException {
+    int rowCount = 0;
+    long idSum = 0;
+    try (Statement statement = getConnection().createStatement();
+         ResultSet resultSet = statement.executeQuery(EMPLOYEES_SQL)) {
+      while (resultSet.next()) {
+        rowCount++;
+        idSum += resultSet.getLong(1);
+      }
+    }
+
+    int batchRowCount = 0;
+    long batchIdSum = 0;
+    try (Statement statement = getConnection().createStatement();
+         ResultSet resultSet = statement.executeQuery(EMPLOYEES_SQL)) {
+      final DremioColumnarResultSet batches = resultSet.unwrap(DremioColumnarResultSet.class);
+      while (batches.nextBatch()) {
+        final List<ValueVector> vectors = batches.getBatchVectors();
+        assertThat(vectors.size(), equalTo(2));
+        for (int i = 0; i < batches.getBatchRowCount(); i++) {
+          batchIdSum += ((Number) vectors.get(0).getObject(i)).longValue();
+        }
+        batchRowCount += batches.getBatchRowCount();
+      }
+      assertThat(resultSet.next(), is(false));
+    }
+
+    assertThat(batchRowCount, equalTo(rowCount));
+    assertThat(batchIdSum, equalTo(idSum));
+  }
+
+  @Test
+  public void testNextAfterNextBatch() throws SQLException {
+    try (Statement statement = getConnection().createStatement();
+         ResultSet resultSet = statement.executeQuery("VALUES (1), (2)")) {
+      final DremioColumnarResultSet batches = resultSet.unwrap(DremioColumnarResultSet.class);
+      assertThat(batches.nextBatch(), is(true));
+      assertThat(batches.getBatchRowCount(), equalTo(2));
+      // on the last row of the batch
+      assertThat(resultSet.getInt(1), equalTo(2));
+      assertThat(resultSet.next(), is(false));
+      assertThat(batches.nextBatch(), is(false));
+    }
+  }
+}
@@ -58,6 +58,7 @@ public class DremioConfig extends NestedConfig {
   public static final String EMBEDDED_MASTER_ZK_ENABLED_PORT_INT = "services.coordinator.master.embedded-zookeeper.port";
   public static final String EMBEDDED_MASTER_ZK_ENABLED_PATH_STRING = "services.coordinator.master.embedded-zookeeper.path";
   public static final String ENABLE_MASTERLESS_BOOL = "services.masterless";
+  public static final String PARALLEL_START_BOOL = "services.parallel-start";
   public static final String WEB_ENABLED_BOOL = "services.coordinator.web.enabled";
   public static final String WEB_AUTH_TYPE = "services.coordinator.web.auth.type"; // Possible values are "internal", "ldap"
   public static final String WEB_AUTH_LDAP_CONFIG_FILE = "services.coordinator.web.auth.ldap_config";
@@ -88,6 +89,7 @@ public class DremioConfig extends NestedConfig {
   public static final String RESULTS_PATH_STRING = "paths.results";
   public static final String SCRATCH_PATH_STRING = "paths.scratch";
   public static final String SPILLING_PATH_STRING = "paths.spilling";
+  public static final String CODE_CACHE_PATH_STRING = "paths.codecache";
 
   public static final String ZOOKEEPER_QUORUM = "zookeeper";
   public static final String ZK_CLIENT_SESSION_TIMEOUT = "zk.client.session.timeout";
@@ -16,44 +16,78 @@
 package com.dremio.service;
 
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.ListIterator;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import javax.annotation.Nullable;
 
 import com.dremio.common.AutoCloseables;
+import com.dremio.common.concurrent.NamedThreadFactory;
 import com.dremio.common.perf.Timer;
 import com.dremio.common.perf.Timer.TimedBlock;
 import com.google.common.base.Objects;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 
 /**
  * A simple service registry to start and stop services in order.
+ *
+ * By default services are started one after the other, in registration order. When parallel start is enabled, a
+ * service starts as soon as the services it depends on are started, so independent services start concurrently. A
+ * service without declared dependencies depends on all the services registered before it. Services are always closed
+ * in reverse registration order.
  */
 public class ServiceRegistry implements Service {
   private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(SingletonRegistry.class);
 
   private volatile boolean closed = false;
+  private final boolean parallelStart;
   private final List<Service> services = new ArrayList<>();
+  private volatile long startNanos;
 
   public ServiceRegistry(){
+    this(false);
+  }
+
+  public ServiceRegistry(boolean parallelStart) {
+    this.parallelStart = parallelStart;
   }
 
   public <T extends Service> T register(@Nullable T service) {
+    return service == null ? null : register(service, service.getClass().getSimpleName());
+  }
+
+  /**
+   * Register a service under the given name, used to report its start time.
+   */
+  public <T extends Service> T register(@Nullable T service, String name) {
     if (service != null) {
-      services.add(Timer.enabled() ? new TimedService(service) : service);
+      services.add(new TimedService(service, name));
     }
     return service;
   }
 
   public <T extends Service> T replace(@Nullable T service) {
+    return service == null ? null : replace(service, service.getClass().getSimpleName());
+  }
+
+  public <T extends Service> T replace(@Nullable T service, String name) {
     if (service == null) {
       return null;
     }
 
     for(ListIterator<Service> it = services.listIterator(); it.hasNext(); ) {
-      Service s = it.next();
-      if (service.equals(s)) {
+      TimedService s = (TimedService) it.next();
+      if (service.equals(s.delegate)) {
         it.remove();
         try {
           // Closing service in case some resources are already allocated
@@ -61,17 +95,89 @@ public class ServiceRegistry implements Service {
         } catch (Exception e) {
           logger.warn("Exception when closing service {}", s, e);
         }
-        it.add(Timer.enabled() ? new TimedService(service) : service);
+        final TimedService replacement = new TimedService(service, name);
+        replacement.dependencies = s.dependencies;
+        it.add(replacement);
         return service;
       }
     }
     throw new IllegalArgumentException("Trying to replace an unregistered service");
   }
 
+  /**
+   * Declare the services a service needs to be started before it starts. The service is then no longer started after
+   * all the services registered before it, and may start concurrently to them when parallel start is enabled.
+   *
+   * @param service a registered service
+   * @param dependencies services registered before the service
+   */
+  public void declareDependencies(Service service, Service... dependencies) {
+    final int index = indexOf(service);
+    Preconditions.checkArgument(index >= 0, "Service %s is not registered", service);
+    final ImmutableList.Builder<TimedService> builder = ImmutableList.builder();
+    for (Service dependency : dependencies) {
+      final int dependencyIndex = indexOf(dependency);
+      // services are closed in reverse order, so a dependency closed before the service could fail it
+      Preconditions.checkArgument(dependencyIndex >= 0 && dependencyIndex < index,
+          "Service %s must be registered before service %s", dependency, service);
+      builder.add((TimedService) services.get(dependencyIndex));
+    }
+    ((TimedService) services.get(index)).dependencies = builder.build();
+  }
+
+  private int indexOf(Service service) {
+    for (int i = 0; i < services.size(); i++) {
+      if (service.equals(((TimedService) services.get(i)).delegate)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
   @Override
   public void start() throws Exception {
-    for(Service service: services) {
-      service.start();
+    startNanos = System.nanoTime();
+    if (!parallelStart) {
+      for(Service service: services) {
+        service.start();
+      }
+      return;
+    }
+
+    final ExecutorService executor = Executors.newCachedThreadPool(new NamedThreadFactory("service-start-"));
+    try {
+      final Map<TimedService, CompletableFuture<Void>> started = new LinkedHashMap<>();
+      for (Service service : services) {
+        final TimedService timed = (TimedService) service;
+        final CompletableFuture<Void> dependencies;
+        if (timed.dependencies == null) {
+          dependencies = CompletableFuture.allOf(started.values().toArray(new CompletableFuture<?>[0]));
+        } else {
+          dependencies = CompletableFuture.allOf(timed.dependencies.stream()
+              .map(started::get)
+              .toArray(CompletableFuture<?>[]::new));
+        }
+        final CompletableFuture<Void> future = dependencies.thenRunAsync(() -> {
+          try {
+            timed.start();
+          } catch (Exception e) {
+            throw new CompletionException(e);
+          }
+        }, executor);
+        started.put(timed, future);
+      }
+
+      try {
+        CompletableFuture.allOf(started.values().toArray(new CompletableFuture<?>[0])).join();
+      } catch (CompletionException e) {
+        if (e.getCause() instanceof Exception) {
+          throw (Exception) e.getCause();
+        }
+        throw e;
+      }
+    } finally {
+      executor.shutdown();
+      executor.awaitTermination(1, TimeUnit.MINUTES);
     }
   }
 
@@ -87,14 +193,55 @@ public class ServiceRegistry implements Service {
     return services;
   }
 
+  /**
+   * @return time it took to start each started service in milliseconds, by name and in start order
+   */
+  public Map<String, Long> getStartTimes() {
+    final Map<String, Long> startTimes = new LinkedHashMap<>();
+    for (TimedService service : getStartedServices()) {
+      startTimes.put(service.name, TimeUnit.NANOSECONDS.toMillis(service.startDuration));
+    }
+    return startTimes;
+  }
+
+  /**
+   * @return a description of when each started service started relatively to the registry, and how long it took
+   */
+  public String getStartupReport() {
+    final StringBuilder sb = new StringBuilder("Service startup (");
+    sb.append(parallelStart ? "parallel" : "sequential").append("):\n");
+    for (TimedService service : getStartedServices()) {
+      sb.append(String.format("  %-40s started at %6d ms, took %6d ms%n", service.name,
+          TimeUnit.NANOSECONDS.toMillis(service.startedAt - startNanos),
+          TimeUnit.NANOSECONDS.toMillis(service.startDuration)));
+    }
+    return sb.toString();
+  }
+
+  private List<TimedService> getStartedServices() {
+    final List<TimedService> started = new ArrayList<>();
+    for (Service service : services) {
+      final TimedService timed = (TimedService) service;
+      if (timed.startDuration >= 0) {
+        started.add(timed);
+      }
+    }
+    started.sort(Comparator.comparingLong(s -> s.startedAt));
+    return started;
+  }
+
   private static final class TimedService implements Service {
 
     private final Service delegate;
     private final String name;
+    // null if the service depends on all the services registered before it
+    private volatile List<TimedService> dependencies;
+    private volatile long startedAt;
+    private volatile long startDuration = -1;
 
-    private TimedService(Service delegate) {
+    private TimedService(Service delegate, String name) {
       this.delegate = delegate;
-      this.name = delegate.getClass().getSimpleName();
+      this.name = name;
     }
 
     @Override
@@ -106,9 +253,12 @@ public class ServiceRegistry implements Service {
 
     @Override
     public void start() throws Exception {
+      final long start = System.nanoTime();
       try (TimedBlock b = Timer.time(name + ".start")) {
         delegate.start();
       }
+      startedAt = start;
+      startDuration = System.nanoTime() - start;
     }
 
     @Override
@@ -125,5 +275,10 @@ public class ServiceRegistry implements Service {
 
       return Objects.equal(delegate, other.delegate);
     }
+
+    @Override
+    public String toString() {
+      return name;
+    }
   }
 }
@@ -15,6 +15,8 @@
  */
 package com.dremio.service;
 
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Objects;
 
 import com.google.common.base.Preconditions;
@@ -27,12 +29,53 @@ public class SingletonRegistry extends BinderImpl implements AutoCloseable {
 
   private static enum ServiceState {INIT, STARTED, STOPPED};
 
-  private final ServiceRegistry registry = new ServiceRegistry();
+  private final ServiceRegistry registry;
+  private final Map<Class<?>, Service> references = new HashMap<>();
+
+  public SingletonRegistry() {
+    this(false);
+  }
+
+  /**
+   * @param parallelStart whether services are started as soon as their declared dependencies are started
+   */
+  public SingletonRegistry(boolean parallelStart) {
+    this.registry = new ServiceRegistry(parallelStart);
+  }
 
   public void start() throws Exception {
     registry.start();
   }
 
+  /**
+   * Declare the services bound to the given interfaces as the only ones the service bound to iface needs to be
+   * started before it starts.
+   */
+  public void dependsOn(Class<?> iface, Class<?>... dependencies) {
+    final Service[] dependencyReferences = new Service[dependencies.length];
+    for (int i = 0; i < dependencies.length; i++) {
+      dependencyReferences[i] = getReference(dependencies[i]);
+    }
+    registry.declareDependencies(getReference(iface), dependencyReferences);
+  }
+
+  private Service getReference(Class<?> iface) {
+    final Service reference = references.get(iface);
+    Preconditions.checkArgument(reference != null, "No service bound to %s", iface.getName());
+    return reference;
+  }
+
+  /**
+   * @return time it took to start each service in milliseconds, by interface name and in start order
+   */
+  public Map<String, Long> getStartTimes() {
+    return registry.getStartTimes();
+  }
+
+  public String getStartupReport() {
+    return registry.getStartupReport();
+  }
+
   protected Iterable<Service> getServices() {
     return Iterables.unmodifiableIterable(registry.getServices());
   }
@@ -50,14 +93,14 @@ public class SingletonRegistry extends BinderImpl implements AutoCloseable {
   public <IFACE extends Service, IMPL extends IFACE> IMPL bind(Class<IFACE> iface, IMPL service) {
     ServiceReference<IFACE> ref = wrap(iface, service);
     super.bind(iface, ref);
-    registry.register(ref);
+    register(iface, ref);
     return service;
   }
 
   public <IFACE extends AutoCloseable, IMPL extends IFACE> IMPL bind(Class<IFACE> iface, IMPL autoCloseable) {
     CloseableReference<?> ref = wrap(iface, new CloseableAsService<IFACE>(autoCloseable));
     super.bind(iface, ref);
-    registry.register(ref);
+    register(iface, ref);
     return autoCloseable;
   }
 
@@ -74,17 +117,24 @@ public class SingletonRegistry extends BinderImpl implements AutoCloseable {
   public <IFACE extends Service, IMPL extends IFACE> IMPL replace(Class<IFACE> iface, IMPL service) {
     ServiceReference<IFACE> ref = wrap(iface, service);
     super.replace(iface, ref);
-    registry.replace(ref);
+    registry.replace(ref, iface.getSimpleName());
+    references.put(iface, ref);
     return service;
   }
 
   public <IFACE extends AutoCloseable, IMPL extends IFACE> IMPL replace(Class<IFACE> iface, IMPL autoCloseable) {
     CloseableReference<IFACE> ref = wrap(iface, new CloseableAsService<IFACE>(autoCloseable));
     super.replace(iface, ref);
-    registry.replace(ref);
+    registry.replace(ref, iface.getSimpleName());
+    references.put(iface, ref);
     return autoCloseable;
   }
 
+  private void register(Class<?> iface, Service ref) {
+    registry.register(ref, iface.getSimpleName());
+    references.put(iface, ref);
+  }
+
   @Override
   public void close() throws Exception {
     registry.close();
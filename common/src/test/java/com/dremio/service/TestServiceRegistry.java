@@ -0,0 +1,141 @@
+/*
+ * Copyright (C) 2017-2018 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Tests of the start order of the services of a registry.
+ */
+public class TestServiceRegistry {
+
+  private final List<String> events = new CopyOnWriteArrayList<>();
+
+  @Test
+  public void sequentialStart() throws Exception {
+    try (ServiceRegistry registry = new ServiceRegistry()) {
+      registry.register(new NamedService("a"), "a");
+      registry.register(new NamedService("b"), "b");
+      registry.register(new NamedService("c"), "c");
+      registry.start();
+      assertEquals(ImmutableList.of("a", "b", "c"), events);
+      assertEquals(ImmutableList.of("a", "b", "c"), ImmutableList.copyOf(registry.getStartTimes().keySet()));
+    }
+    assertEquals(ImmutableList.of("a", "b", "c", "close c", "close b", "close a"), events);
+  }
+
+  @Test
+  public void parallelStartWaitsForDependencies() throws Exception {
+    try (ServiceRegistry registry = new ServiceRegistry(true)) {
+      registry.register(new NamedService("a"), "a");
+      final NamedService b = registry.register(new NamedService("b"), "b");
+      registry.register(new NamedService("c"), "c");
+      registry.declareDependencies(b);
+      registry.start();
+      // c depends on both a and b
+      assertEquals("c", events.get(2));
+      assertTrue(events.containsAll(ImmutableList.of("a", "b")));
+    }
+  }
+
+  @Test
+  public void parallelStartOfIndependentServices() throws Exception {
+    // both services only start once the other one is starting
+    final CountDownLatch latch = new CountDownLatch(2);
+    try (ServiceRegistry registry = new ServiceRegistry(true)) {
+      registry.register(new AwaitingService(latch), "a");
+      final AwaitingService b = registry.register(new AwaitingService(latch), "b");
+      registry.declareDependencies(b);
+      registry.start();
+      assertEquals(0, latch.getCount());
+    }
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void parallelStartFailure() throws Exception {
+    try (ServiceRegistry registry = new ServiceRegistry(true)) {
+      registry.register(new NamedService("a") {
+        @Override
+        public void start() {
+          throw new IllegalStateException();
+        }
+      }, "a");
+      registry.register(new NamedService("b"), "b");
+      registry.start();
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void dependencyRegisteredAfter() throws Exception {
+    try (ServiceRegistry registry = new ServiceRegistry(true)) {
+      final NamedService a = registry.register(new NamedService("a"), "a");
+      final NamedService b = registry.register(new NamedService("b"), "b");
+      registry.declareDependencies(a, b);
+    }
+  }
+
+  /**
+   * Test service recording when it starts and closes.
+   */
+  private class NamedService implements Service {
+    private final String name;
+
+    private NamedService(String name) {
+      this.name = name;
+    }
+
+    @Override
+    public void start() throws Exception {
+      events.add(name);
+    }
+
+    @Override
+    public void close() throws Exception {
+      events.add("close " + name);
+    }
+  }
+
+  /**
+   * Test service waiting for the latch to be released by the other services.
+   */
+  private static class AwaitingService implements Service {
+    private final CountDownLatch latch;
+
+    private AwaitingService(CountDownLatch latch) {
+      this.latch = latch;
+    }
+
+    @Override
+    public void start() throws Exception {
+      latch.countDown();
+      assertTrue(latch.await(10, TimeUnit.SECONDS));
+    }
+
+    @Override
+    public void close() throws Exception {
+    }
+  }
+}
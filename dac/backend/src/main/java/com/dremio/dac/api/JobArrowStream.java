@@ -0,0 +1,196 @@
+/*
+ * Copyright (C) 2017-2018 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.dac.api;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.util.List;
+
+import javax.ws.rs.BadRequestException;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.StreamingOutput;
+
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.ValueVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.VectorUnloader;
+import org.apache.arrow.vector.ipc.WriteChannel;
+import org.apache.arrow.vector.ipc.message.ArrowRecordBatch;
+import org.apache.arrow.vector.ipc.message.MessageSerializer;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.apache.arrow.vector.util.TransferPair;
+
+import com.dremio.exec.record.BatchSchema;
+import com.dremio.service.jobs.RecordBatchHolder;
+import com.dremio.service.jobs.RecordBatchIterator;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+
+/**
+ * Writes the results of a job as an Arrow IPC stream. The stored batches are written as is, without converting the
+ * values, one batch at a time so the response is streamed while the results are read.
+ */
+public class JobArrowStream implements StreamingOutput {
+  public static final String MEDIA_TYPE = "application/vnd.apache.arrow.stream";
+
+  private final RecordBatchIterator batches;
+  private final BatchSchema jobSchema;
+  private final List<String> columns;
+
+  /**
+   * @param batches batches of results to write, each batch is closed once written and the iterator once the stream
+   *                is written. Nothing is read from it before then
+   * @param jobSchema schema of the job results, used when there are no batches to write, may be null
+   * @param columns names of the columns to write, all of them if empty
+   */
+  public JobArrowStream(RecordBatchIterator batches, BatchSchema jobSchema, List<String> columns) {
+    this.batches = batches;
+    this.jobSchema = jobSchema;
+    this.columns = columns == null ? ImmutableList.<String>of() : columns;
+  }
+
+  /**
+   * Checks the requested columns are part of the results.
+   */
+  public static void validateColumns(BatchSchema jobSchema, List<String> columns) {
+    if (jobSchema == null || columns == null) {
+      return;
+    }
+    for (String column : columns) {
+      if (findField(jobSchema.getFields(), column) < 0) {
+        throw new BadRequestException(String.format("Column [%s] is not part of the job results.", column));
+      }
+    }
+  }
+
+  @Override
+  public void write(OutputStream output) throws IOException, WebApplicationException {
+    try {
+      final WriteChannel channel = new WriteChannel(Channels.newChannel(output));
+      Schema schema = null;
+      while (batches.hasNext()) {
+        final RecordBatchHolder holder = batches.next();
+        try {
+          final List<FieldVector> vectors = project(holder.getData().getVectors());
+          if (schema == null) {
+            schema = new Schema(getFields(vectors));
+            MessageSerializer.serialize(channel, schema);
+          }
+          writeBatch(channel, vectors, holder);
+        } finally {
+          holder.getData().close();
+        }
+      }
+
+      if (schema == null) {
+        schema = new Schema(jobSchema == null ? ImmutableList.<Field>of() : projectFields(jobSchema.getFields()));
+        MessageSerializer.serialize(channel, schema);
+      }
+      // end of stream
+      channel.writeIntLittleEndian(0);
+    } finally {
+      batches.close();
+    }
+  }
+
+  private void writeBatch(WriteChannel channel, List<FieldVector> vectors, RecordBatchHolder holder) throws IOException {
+    final int start = holder.getStart();
+    final int length = holder.size();
+    if (start == 0 && length == holder.getData().getRecordCount()) {
+      write(channel, vectors, length);
+      return;
+    }
+
+    // only part of the batch is in the requested range
+    final List<FieldVector> split = Lists.newArrayList();
+    try {
+      for (FieldVector vector : vectors) {
+        final TransferPair transferPair = vector.getTransferPair(vector.getAllocator());
+        transferPair.splitAndTransfer(start, length);
+        split.add((FieldVector) transferPair.getTo());
+      }
+      write(channel, split, length);
+    } finally {
+      for (FieldVector vector : split) {
+        vector.close();
+      }
+    }
+  }
+
+  private static void write(WriteChannel channel, List<FieldVector> vectors, int rowCount) throws IOException {
+    final VectorSchemaRoot root = new VectorSchemaRoot(getFields(vectors), vectors, rowCount);
+    try (ArrowRecordBatch batch = new VectorUnloader(root).getRecordBatch()) {
+      MessageSerializer.serialize(channel, batch);
+    }
+  }
+
+  private List<FieldVector> project(List<ValueVector> vectors) {
+    final List<FieldVector> projected = Lists.newArrayList();
+    if (columns.isEmpty()) {
+      for (ValueVector vector : vectors) {
+        projected.add((FieldVector) vector);
+      }
+      return projected;
+    }
+
+    final List<Field> fields = Lists.newArrayList();
+    for (ValueVector vector : vectors) {
+      fields.add(vector.getField());
+    }
+    for (String column : columns) {
+      final int index = findField(fields, column);
+      if (index < 0) {
+        throw new IllegalStateException(String.format("Column [%s] is not part of the job results.", column));
+      }
+      projected.add((FieldVector) vectors.get(index));
+    }
+    return projected;
+  }
+
+  private List<Field> projectFields(List<Field> fields) {
+    if (columns.isEmpty()) {
+      return fields;
+    }
+
+    final List<Field> projected = Lists.newArrayList();
+    for (String column : columns) {
+      final int index = findField(fields, column);
+      if (index >= 0) {
+        projected.add(fields.get(index));
+      }
+    }
+    return projected;
+  }
+
+  private static List<Field> getFields(List<FieldVector> vectors) {
+    final List<Field> fields = Lists.newArrayList();
+    for (FieldVector vector : vectors) {
+      fields.add(vector.getField());
+    }
+    return fields;
+  }
+
+  private static int findField(List<Field> fields, String name) {
+    for (int i = 0; i < fields.size(); i++) {
+      if (fields.get(i).getName().equalsIgnoreCase(name)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+}
@@ -17,6 +17,8 @@ package com.dremio.dac.api;
 
 import static javax.ws.rs.core.MediaType.APPLICATION_JSON;
 
+import java.util.List;
+
 import javax.annotation.security.RolesAllowed;
 import javax.inject.Inject;
 import javax.validation.Valid;
@@ -30,18 +32,23 @@ import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.Response;
 import javax.ws.rs.core.SecurityContext;
 
 import com.dremio.dac.annotations.APIResource;
 import com.dremio.dac.annotations.Secured;
+import com.dremio.exec.record.BatchSchema;
 import com.dremio.service.job.proto.JobId;
 import com.dremio.service.job.proto.JobState;
 import com.dremio.service.jobs.Job;
 import com.dremio.service.jobs.JobException;
 import com.dremio.service.jobs.JobNotFoundException;
 import com.dremio.service.jobs.JobsService;
+import com.dremio.service.jobs.RecordBatchIterator;
 import com.google.common.base.Preconditions;
 
+import io.protostuff.ByteString;
+
 /**
  * Jobs API resource
  */
@@ -91,6 +98,34 @@ public class JobResource {
     }
   }
 
+  @GET
+  @Path("/{id}/results/arrow")
+  @Produces(JobArrowStream.MEDIA_TYPE)
+  public Response getQueryResultsAsArrow(@PathParam("id") String id, @QueryParam("offset") @DefaultValue("0") Long offset, @QueryParam("limit") Long limit, @QueryParam("column") List<String> columns) {
+    if (offset < 0) {
+      throw new BadRequestException("offset can not be negative");
+    }
+    if (limit != null && limit < 0) {
+      throw new BadRequestException("limit can not be negative");
+    }
+    try {
+      Job job = jobs.getJob(new JobId(id), securityContext.getUserPrincipal().getName());
+
+      if (job.getJobAttempt().getState() != JobState.COMPLETED) {
+        throw new BadRequestException(String.format("Can not fetch details for a job that is in [%s] state.", job.getJobAttempt().getState()));
+      }
+
+      final ByteString schemaBytes = job.getJobAttempt().getInfo().getBatchSchema();
+      final BatchSchema schema = schemaBytes == null ? null : BatchSchema.deserialize(schemaBytes);
+      JobArrowStream.validateColumns(schema, columns);
+
+      final RecordBatchIterator batches = jobs.streamJobData(job.getJobId(), offset, limit == null ? Long.MAX_VALUE : limit);
+      return Response.ok(new JobArrowStream(batches, schema, columns), JobArrowStream.MEDIA_TYPE).build();
+    } catch (JobNotFoundException e) {
+      throw new NotFoundException(String.format("Could not find a job with id [%s]", id));
+    }
+  }
+
   @POST
   @Path("/{id}/cancel")
   public void cancelJob(@PathParam("id") String id) throws JobException {
@@ -17,6 +17,7 @@ package com.dremio.dac.daemon;
 
 import java.io.IOException;
 import java.util.EnumSet;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CountDownLatch;
 
@@ -24,6 +25,8 @@ import javax.net.ssl.HttpsURLConnection;
 
 import org.apache.hadoop.security.UserGroupInformation;
 
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
 import com.dremio.common.AutoCloseables;
 import com.dremio.common.perf.Timer;
 import com.dremio.common.perf.Timer.TimedBlock;
@@ -35,6 +38,7 @@ import com.dremio.dac.server.LivenessService;
 import com.dremio.dac.server.WebServer;
 import com.dremio.dac.service.exec.MasterStatusListener;
 import com.dremio.exec.ExecConstants;
+import com.dremio.metrics.Metrics;
 import com.dremio.service.BindingCreator;
 import com.dremio.service.BindingProvider;
 import com.dremio.service.SingletonRegistry;
@@ -101,6 +105,7 @@ public final class DACDaemon implements AutoCloseable {
         .withSabotValue(ExecConstants.ZK_CONNECTION, incomingConfig.getString(DremioConfig.ZOOKEEPER_QUORUM))
         .withSabotValue(ExecConstants.INITIAL_USER_PORT, incomingConfig.getString(DremioConfig.CLIENT_PORT_INT))
         .withSabotValue(ExecConstants.SPILL_DIRS, incomingConfig.getList(DremioConfig.SPILLING_PATH_STRING))
+        .withSabotValue(ExecConstants.CODE_CACHE_PATH_CONFIG, incomingConfig.getString(DremioConfig.CODE_CACHE_PATH_STRING))
         .withSabotValue(ExecConstants.REGISTRATION_ADDRESS, incomingConfig.getString(DremioConfig.REGISTRATION_ADDRESS))
         .withSabotValue(ExecConstants.ZK_SESSION_TIMEOUT, incomingConfig.getString(DremioConfig.ZK_CLIENT_SESSION_TIMEOUT))
         .withSabotValue(ExecConstants.MASTERLESS_MODE, incomingConfig.getBoolean(DremioConfig.ENABLE_MASTERLESS_BOOL));
@@ -164,7 +169,7 @@ public final class DACDaemon implements AutoCloseable {
 
     this.bootstrapRegistry = new SingletonRegistry();
     if (isMaster || isMasterless) {
-      registry = new SingletonRegistry();
+      registry = new SingletonRegistry(config.getBoolean(DremioConfig.PARALLEL_START_BOOL));
     } else {
       // retry if service start fails due to master is unavailable.
       registry = new NonMasterSingletonRegistry(bootstrapRegistry.provider(MasterStatusListener.class));
@@ -182,6 +187,12 @@ public final class DACDaemon implements AutoCloseable {
   @VisibleForTesting
   public void startServices() throws Exception {
     registry.start();
+    logger.info(registry.getStartupReport());
+    for (Map.Entry<String, Long> entry : registry.getStartTimes().entrySet()) {
+      final long startMillis = entry.getValue();
+      Metrics.registerGauge(MetricRegistry.name("services", entry.getKey(), "start_millis"),
+          (Gauge<Long>) () -> startMillis);
+    }
   }
 
   public final void init() throws Exception {
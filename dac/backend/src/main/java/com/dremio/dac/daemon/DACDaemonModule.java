@@ -605,6 +605,23 @@ public class DACDaemonModule implements DACModule {
     registry.bindSelf(ReflectionServiceHelper.class);
     registry.bindSelf(CatalogServiceHelper.class);
     registry.bindSelf(CollaborationHelper.class);
+
+    // services only needing these services to be started first, so they start concurrently to the others when
+    // services.parallel-start is set. Other services start after all the services registered before them.
+    registry.dependsOn(SchedulerService.class);
+    registry.dependsOn(FabricService.class);
+    registry.dependsOn(KVStoreProvider.class, FabricService.class);
+    registry.dependsOn(CatalogService.class, ContextService.class, SchedulerService.class,
+        SystemTablePluginConfigProvider.class, FabricService.class, PDFSService.class);
+    if (isMaster) {
+      registry.dependsOn(SplitOrphansCleanerService.class, SchedulerService.class, KVStoreProvider.class);
+    }
+    if (isCoordinator) {
+      registry.dependsOn(ProvisioningService.class, KVStoreProvider.class);
+      registry.dependsOn(SearchService.class, ContextService.class, KVStoreProvider.class, SchedulerService.class,
+          FabricService.class);
+      registry.dependsOn(TokenManager.class, KVStoreProvider.class, SchedulerService.class);
+    }
   }
 
   /**
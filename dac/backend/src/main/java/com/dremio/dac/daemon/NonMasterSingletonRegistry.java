@@ -55,13 +55,13 @@ public class NonMasterSingletonRegistry extends SingletonRegistry {
           servicesStarted.add(service);
           break;
         } catch (ConnectionFailedException connectionFailedException) {
-          logger.error("Service {} failed to start due to connection failure, waiting for master", service.getClass().getName(), connectionFailedException);
+          logger.error("Service {} failed to start due to connection failure, waiting for master", service, connectionFailedException);
           masterStatusListener.waitForMaster();
         } catch (RpcException rpcException) {
-          logger.error("Service {} failed to start", service.getClass().getName(), rpcException);
+          logger.error("Service {} failed to start", service, rpcException);
           throw rpcException;
         } catch (DatastoreFatalException remoteException) {
-          logger.error("Service {} failed to start", service.getClass().getName(), remoteException);
+          logger.error("Service {} failed to start", service, remoteException);
           if (remoteException.getCause() instanceof ConnectionFailedException) {
             masterStatusListener.waitForMaster();
           } else {
@@ -0,0 +1,158 @@
+/*
+ * Copyright (C) 2017-2018 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.dac.api;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.IntVector;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.dremio.exec.record.VectorContainer;
+import com.dremio.sabot.op.sort.external.RecordBatchData;
+import com.dremio.service.jobs.RecordBatchHolder;
+import com.dremio.service.jobs.RecordBatchIterator;
+import com.google.common.collect.Lists;
+
+/**
+ * Tests {@link JobArrowStream}
+ */
+public class TestJobArrowStream {
+
+  private BufferAllocator allocator;
+
+  @Before
+  public void setUp() {
+    allocator = new RootAllocator(Long.MAX_VALUE);
+  }
+
+  @After
+  public void tearDown() {
+    allocator.close();
+  }
+
+  @Test
+  public void writeFailureReleasesBatches() throws Exception {
+    final ListBatchIterator batches = new ListBatchIterator(Lists.newArrayList(newBatch(10), newBatch(10), newBatch(10)));
+    final JobArrowStream stream = new JobArrowStream(batches, null, Collections.<String>emptyList());
+
+    try {
+      stream.write(new FailingOutputStream(100));
+      fail("expected the write to fail");
+    } catch (IOException e) {
+      assertEquals("client went away", e.getMessage());
+    }
+
+    assertTrue(batches.closed);
+    assertEquals(0, allocator.getAllocatedMemory());
+  }
+
+  @Test
+  public void writeReleasesBatches() throws Exception {
+    final ListBatchIterator batches = new ListBatchIterator(Lists.newArrayList(newBatch(10), newBatch(5)));
+    final JobArrowStream stream = new JobArrowStream(batches, null, Collections.<String>emptyList());
+
+    stream.write(new OutputStream() {
+      @Override
+      public void write(int b) {
+      }
+    });
+
+    assertTrue(batches.closed);
+    assertEquals(0, allocator.getAllocatedMemory());
+  }
+
+  private RecordBatchHolder newBatch(int rows) {
+    final IntVector vector = new IntVector("a", allocator);
+    vector.allocateNew(rows);
+    for (int i = 0; i < rows; i++) {
+      vector.set(i, i);
+    }
+    vector.setValueCount(rows);
+
+    final VectorContainer container = new VectorContainer();
+    container.add(vector);
+    container.setRecordCount(rows);
+    container.buildSchema();
+    final RecordBatchData data = new RecordBatchData(container, allocator);
+    return RecordBatchHolder.newRecordBatchHolder(data, 0, rows);
+  }
+
+  /**
+   * Iterates over batches already read, closing the ones not returned yet once closed.
+   */
+  private static final class ListBatchIterator implements RecordBatchIterator {
+    private final Iterator<RecordBatchHolder> delegate;
+    private boolean closed;
+
+    private ListBatchIterator(List<RecordBatchHolder> batches) {
+      this.delegate = batches.iterator();
+    }
+
+    @Override
+    public boolean hasNext() {
+      return !closed && delegate.hasNext();
+    }
+
+    @Override
+    public RecordBatchHolder next() {
+      return delegate.next();
+    }
+
+    @Override
+    public void close() {
+      closed = true;
+      while (delegate.hasNext()) {
+        delegate.next().getData().close();
+      }
+    }
+  }
+
+  /**
+   * Fails once more than the given number of bytes are written.
+   */
+  private static final class FailingOutputStream extends OutputStream {
+    private int remaining;
+
+    private FailingOutputStream(int maxBytes) {
+      this.remaining = maxBytes;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+      write(new byte[] {(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+      remaining -= len;
+      if (remaining < 0) {
+        throw new IOException("client went away");
+      }
+    }
+  }
+}
@@ -17,12 +17,19 @@ package com.dremio.dac.api;
 
 import static org.junit.Assert.assertEquals;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 import javax.ws.rs.core.Response;
 
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.ipc.ArrowStreamReader;
+import org.apache.arrow.vector.types.pojo.Field;
 import org.junit.Assert;
 import org.junit.BeforeClass;
 import org.junit.Rule;
@@ -83,6 +90,61 @@ public class TestJobResource extends BaseTestServer {
     }
   }
 
+  @Test
+  public void testGetJobResultsAsArrow() throws Exception {
+    JobsService jobs = l(JobsService.class);
+
+    SqlQuery query = new SqlQuery("select * from sys.version", Collections.emptyList(), SystemUser.SYSTEM_USERNAME);
+
+    Job job = jobs.submitJob(JobRequest.newBuilder()
+      .setSqlQuery(query)
+      .setQueryType(QueryType.REST)
+      .build(), NoOpJobStatusListener.INSTANCE);
+
+    String id = job.getJobId().getId();
+    while (expectSuccess(getBuilder(getPublicAPI(3).path(JOB_PATH).path(id)).buildGet(), JobStatus.class).getJobState() != JobState.COMPLETED) {
+      Thread.sleep(TimeUnit.MILLISECONDS.toMillis(100));
+    }
+
+    try (BufferAllocator allocator = new RootAllocator(Long.MAX_VALUE)) {
+      byte[] all = expectSuccess(getPublicAPI(3).path(JOB_PATH).path(id).path("results").path("arrow")
+        .request(JobArrowStream.MEDIA_TYPE).header(getAuthHeaderName(), getAuthHeaderValue()).buildGet(), byte[].class);
+      try (ArrowStreamReader reader = new ArrowStreamReader(new ByteArrayInputStream(all), allocator)) {
+        assertEquals(6, reader.getVectorSchemaRoot().getSchema().getFields().size());
+        assertEquals(1, countRows(reader));
+      }
+
+      byte[] projected = expectSuccess(getPublicAPI(3).path(JOB_PATH).path(id).path("results").path("arrow")
+        .queryParam("column", "commit_id").queryParam("offset", 1)
+        .request(JobArrowStream.MEDIA_TYPE).header(getAuthHeaderName(), getAuthHeaderValue()).buildGet(), byte[].class);
+      try (ArrowStreamReader reader = new ArrowStreamReader(new ByteArrayInputStream(projected), allocator)) {
+        assertEquals(Collections.singletonList("commit_id"), reader.getVectorSchemaRoot().getSchema().getFields().stream()
+          .map(Field::getName).collect(Collectors.toList()));
+        assertEquals(0, countRows(reader));
+      }
+
+      expectStatus(Response.Status.BAD_REQUEST, getPublicAPI(3).path(JOB_PATH).path(id).path("results").path("arrow")
+        .queryParam("column", "unknown")
+        .request(JobArrowStream.MEDIA_TYPE).header(getAuthHeaderName(), getAuthHeaderValue()).buildGet());
+
+      expectStatus(Response.Status.BAD_REQUEST, getPublicAPI(3).path(JOB_PATH).path(id).path("results").path("arrow")
+        .queryParam("offset", -1)
+        .request(JobArrowStream.MEDIA_TYPE).header(getAuthHeaderName(), getAuthHeaderValue()).buildGet());
+
+      expectStatus(Response.Status.BAD_REQUEST, getPublicAPI(3).path(JOB_PATH).path(id).path("results").path("arrow")
+        .queryParam("limit", -1)
+        .request(JobArrowStream.MEDIA_TYPE).header(getAuthHeaderName(), getAuthHeaderValue()).buildGet());
+    }
+  }
+
+  private static int countRows(ArrowStreamReader reader) throws IOException {
+    int rows = 0;
+    while (reader.loadNextBatch()) {
+      rows += reader.getVectorSchemaRoot().getRowCount();
+    }
+    return rows;
+  }
+
   @Test
   public void testCancelJob() throws InterruptedException {
     JobsService jobs = l(JobsService.class);
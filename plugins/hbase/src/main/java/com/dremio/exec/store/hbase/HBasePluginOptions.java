@@ -0,0 +1,43 @@
+/*
+ * Copyright (C) 2017-2018 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.hbase;
+
+import com.dremio.options.Options;
+import com.dremio.options.TypeValidators.BooleanValidator;
+import com.dremio.options.TypeValidators.RangeLongValidator;
+
+/**
+ * Dremio advanced configuration options for HBase storage plugin
+ */
+@Options
+public interface HBasePluginOptions {
+
+  /**
+   * Regions larger than this size (in MB) are split into several key ranges so that they can be
+   * scanned by multiple fragments in parallel. A value of 0 disables region splitting.
+   */
+  RangeLongValidator REGION_SPLIT_SIZE_MB = new RangeLongValidator("store.hbase.region_split_size_mb", 0, Long.MAX_VALUE, 1024);
+
+  /**
+   * Upper bound on the number of key ranges a single region can be split into.
+   */
+  RangeLongValidator MAX_SPLITS_PER_REGION = new RangeLongValidator("store.hbase.max_splits_per_region", 1, 1024, 16);
+
+  /**
+   * Fetch the next batch of results from the region server while the current batch is being copied into vectors.
+   */
+  BooleanValidator ASYNC_PREFETCH = new BooleanValidator("store.hbase.scan.async_prefetch", true);
+}
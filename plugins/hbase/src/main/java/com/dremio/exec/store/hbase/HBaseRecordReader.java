@@ -67,7 +67,7 @@ public class HBaseRecordReader extends AbstractRecordReader implements HBaseCons
   private VarBinaryVector rowKeyVector;
 
   private Table hTable;
-  private ResultScanner resultScanner;
+  private PrefetchingResultScanner resultScanner;
 
   private TableName hbaseTableName;
   private final Scan hbaseScan;
@@ -190,7 +190,9 @@ public class HBaseRecordReader extends AbstractRecordReader implements HBaseCons
           }
         }
       }
-      resultScanner = hTable.getScanner(hbaseScan);
+      final ResultScanner scanner = hTable.getScanner(hbaseScan);
+      final boolean prefetch = context != null && context.getOptions().getOption(HBasePluginOptions.ASYNC_PREFETCH);
+      resultScanner = new PrefetchingResultScanner(scanner, prefetch ? context.getExecutor() : null, (int) numRowsPerBatch);
     } catch (SchemaChangeException | IOException e) {
       throw new ExecutionSetupException(e);
     }
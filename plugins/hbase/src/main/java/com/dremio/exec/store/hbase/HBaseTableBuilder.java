@@ -15,6 +15,7 @@
  */
 package com.dremio.exec.store.hbase;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
@@ -22,6 +23,7 @@ import java.util.UUID;
 import org.apache.arrow.memory.BufferAllocator;
 import org.apache.arrow.vector.ValueVector;
 import org.apache.hadoop.hbase.HColumnDescriptor;
+import org.apache.hadoop.hbase.HConstants;
 import org.apache.hadoop.hbase.HRegionInfo;
 import org.apache.hadoop.hbase.HRegionLocation;
 import org.apache.hadoop.hbase.HTableDescriptor;
@@ -29,6 +31,12 @@ import org.apache.hadoop.hbase.TableName;
 import org.apache.hadoop.hbase.client.Admin;
 import org.apache.hadoop.hbase.client.Connection;
 import org.apache.hadoop.hbase.client.RegionLocator;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.client.ResultScanner;
+import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.client.Table;
+import org.apache.hadoop.hbase.filter.FirstKeyOnlyFilter;
+import org.apache.hadoop.hbase.util.Bytes;
 
 import com.dremio.common.exceptions.ExecutionSetupException;
 import com.dremio.common.exceptions.UserException;
@@ -54,6 +62,7 @@ import com.dremio.service.namespace.dataset.proto.ScanStats;
 import com.dremio.service.namespace.dataset.proto.ScanStatsType;
 import com.dremio.service.namespace.proto.EntityId;
 import com.dremio.service.users.SystemUser;
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
 
 import io.protostuff.ByteString;
@@ -129,12 +138,30 @@ public class HBaseTableBuilder implements SourceTableDefinition {
 
       TableStatsCalculator statsCalculator = new TableStatsCalculator(conn, tableName, context.getConfig(), enableRegionCalc);
 
+      final long splitSize = context.getOptionManager().getOption(HBasePluginOptions.REGION_SPLIT_SIZE_MB) * 1024L * 1024L;
+      final int maxSplitsPerRegion = (int) context.getOptionManager().getOption(HBasePluginOptions.MAX_SPLITS_PER_REGION);
+
       List<DatasetSplit> splits = new ArrayList<>();
-      for (HRegionLocation regionLocation : regionLocations) {
-        HRegionInfo regionInfo = regionLocation.getRegionInfo();
-        long estRowCount = statsCalculator.getRegionSizeInBytes(regionInfo.getRegionName());
-        count+= estRowCount;
-        splits.add(toSplit(regionLocation.getHostname(), regionInfo, estRowCount));
+      try (Table hTable = conn.getTable(tableName)) {
+        for (HRegionLocation regionLocation : regionLocations) {
+          HRegionInfo regionInfo = regionLocation.getRegionInfo();
+          long estRowCount = statsCalculator.getRegionSizeInBytes(regionInfo.getRegionName());
+          count+= estRowCount;
+          byte[] firstRow = null;
+          byte[] lastRow = null;
+          if (getNumRanges(estRowCount, splitSize, maxSplitsPerRegion) > 1) {
+            // the first and last regions, and the single region of a small table, have no start or end key: use their
+            // actual first and last rows to split them by key range
+            if (isEmpty(regionInfo.getStartKey())) {
+              firstRow = getBoundaryRow(hTable, regionInfo, false);
+            }
+            if (isEmpty(regionInfo.getEndKey())) {
+              lastRow = getBoundaryRow(hTable, regionInfo, true);
+            }
+          }
+          splits.addAll(toSplits(regionLocation.getHostname(), regionInfo, firstRow, lastRow, estRowCount, splitSize,
+              maxSplitsPerRegion));
+        }
       }
 
 
@@ -161,9 +188,92 @@ public class HBaseTableBuilder implements SourceTableDefinition {
     }
   }
 
-  private DatasetSplit toSplit(String hostname, HRegionInfo info, long estimatedRows) {
+  /**
+   * Divides a region into several key ranges when its estimated size exceeds the split size, so that a large
+   * region can be read by multiple fragments. Regions without a start or end key can only be divided given the
+   * first or last row they hold, see {@link #toSplits(String, HRegionInfo, byte[], byte[], long, long, int)}.
+   */
+  @VisibleForTesting
+  public static List<DatasetSplit> toSplits(String hostname, HRegionInfo info, long estimatedRows, long splitSize, int maxSplits) {
+    return toSplits(hostname, info, null, null, estimatedRows, splitSize, maxSplits);
+  }
+
+  /**
+   * Divides a region into several key ranges when its estimated size exceeds the split size, so that a large
+   * region can be read by multiple fragments. The ranges evenly divide the keys between the region start key, or its
+   * first row if it has no start key, and the region end key, or just past its last row if it has no end key. The
+   * first and last ranges still extend to the region boundaries, so rows written outside of the sampled rows are
+   * read as well. Regions without start key (resp. end key) and without first row (resp. last row) are kept as a
+   * single split.
+   *
+   * @param firstRow first row of the region, only used if it has no start key. May be null.
+   * @param lastRow last row of the region, only used if it has no end key. May be null.
+   */
+  @VisibleForTesting
+  public static List<DatasetSplit> toSplits(String hostname, HRegionInfo info, byte[] firstRow, byte[] lastRow,
+      long estimatedRows, long splitSize, int maxSplits) {
+    final byte[] start = info.getStartKey() == null ? HConstants.EMPTY_START_ROW : info.getStartKey();
+    final byte[] stop = info.getEndKey() == null ? HConstants.EMPTY_END_ROW : info.getEndKey();
+    final byte[] lower = !isEmpty(start) ? start : firstRow;
+    // the stop key of a range is exclusive, the smallest key after the last row is the row followed by a 0 byte
+    final byte[] upper = !isEmpty(stop) ? stop : lastRow == null ? null : Bytes.add(lastRow, new byte[1]);
+
+    final long numRanges = getNumRanges(estimatedRows, splitSize, maxSplits);
+    if (numRanges <= 1 || lower == null || upper == null || Bytes.compareTo(lower, upper) >= 0) {
+      return ImmutableList.of(toSplit(hostname, info.getEncodedName(), info.getStartKey(), info.getEndKey(), estimatedRows));
+    }
+
+    final byte[][] boundaries = Bytes.split(lower, upper, (int) numRanges - 1);
+    if (boundaries == null) {
+      return ImmutableList.of(toSplit(hostname, info.getEncodedName(), info.getStartKey(), info.getEndKey(), estimatedRows));
+    }
+    boundaries[0] = start;
+    boundaries[boundaries.length - 1] = stop;
+
+    final long rowsPerRange = estimatedRows / (boundaries.length - 1);
+    final List<DatasetSplit> splits = new ArrayList<>(boundaries.length - 1);
+    for (int i = 0; i < boundaries.length - 1; i++) {
+      if (Bytes.equals(boundaries[i], boundaries[i + 1])) {
+        // range too narrow to be divided any further.
+        continue;
+      }
+      splits.add(toSplit(hostname, info.getEncodedName() + "_" + i, boundaries[i], boundaries[i + 1], rowsPerRange));
+    }
+    return splits;
+  }
+
+  private static long getNumRanges(long estimatedRows, long splitSize, int maxSplits) {
+    return splitSize <= 0 ? 1 : Math.min(maxSplits, (estimatedRows + splitSize - 1) / splitSize);
+  }
+
+  private static boolean isEmpty(byte[] key) {
+    return key == null || key.length == 0;
+  }
+
+  /**
+   * @return the first (or last) row key of the region, or null if it is empty
+   */
+  private static byte[] getBoundaryRow(Table table, HRegionInfo info, boolean last) throws IOException {
+    final Scan scan = new Scan();
+    if (last) {
+      // reversed scans go from their start row down to their (exclusive) stop row
+      scan.setReversed(true);
+      scan.setStopRow(info.getStartKey());
+    } else {
+      scan.setStartRow(info.getStartKey());
+      scan.setStopRow(info.getEndKey());
+    }
+    scan.setFilter(new FirstKeyOnlyFilter());
+    scan.setCaching(1);
+    try (ResultScanner scanner = table.getScanner(scan)) {
+      final Result result = scanner.next();
+      return result == null ? null : result.getRow();
+    }
+  }
+
+  private static DatasetSplit toSplit(String hostname, String splitKey, byte[] start, byte[] stop, long estimatedRows) {
     DatasetSplit split = new DatasetSplit()
-        .setSplitKey(info.getEncodedName())
+        .setSplitKey(splitKey)
         .setSize(estimatedRows)
         .setAffinitiesList(ImmutableList.of(
             new Affinity().setFactor((double)estimatedRows).setHost(hostname)
@@ -171,12 +281,12 @@ public class HBaseTableBuilder implements SourceTableDefinition {
         .setRowCount(estimatedRows);
 
     HBaseSplitXattr.Builder xattr = HBaseSplitXattr.newBuilder();
-    if(info.getStartKey() != null) {
-      xattr.setStart(com.google.protobuf.ByteString.copyFrom(info.getStartKey()));
+    if(start != null) {
+      xattr.setStart(com.google.protobuf.ByteString.copyFrom(start));
     }
 
-    if(info.getEndKey() != null) {
-      xattr.setStop(com.google.protobuf.ByteString.copyFrom(info.getEndKey()));
+    if(stop != null) {
+      xattr.setStop(com.google.protobuf.ByteString.copyFrom(stop));
     }
 
     split.setExtendedProperty(ByteString.copyFrom(xattr.build().toByteArray()));
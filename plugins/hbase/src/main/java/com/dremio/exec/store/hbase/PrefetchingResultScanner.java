@@ -0,0 +1,158 @@
+/*
+ * Copyright (C) 2017-2018 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.hbase;
+
+import java.io.IOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.client.ResultScanner;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Throwables;
+
+/**
+ * Wraps a {@link ResultScanner} and reads results from it in chunks. When an executor is provided, the next
+ * chunk is requested from the region server in the background while the caller consumes the current one.
+ *
+ * Not thread safe: a single consumer is expected.
+ */
+class PrefetchingResultScanner implements AutoCloseable {
+
+  private static final Result[] EMPTY = new Result[0];
+
+  private final ResultScanner scanner;
+  private final ExecutorService executor;
+  private final int chunkSize;
+
+  private Fetch pendingFetch;
+  private Future<Result[]> pending;
+  private Result[] current = EMPTY;
+  private int index;
+  private boolean exhausted;
+
+  /**
+   * @param scanner underlying scanner
+   * @param executor executor used to prefetch chunks, or null to read synchronously
+   * @param chunkSize number of results requested from the scanner at once
+   */
+  PrefetchingResultScanner(ResultScanner scanner, ExecutorService executor, int chunkSize) {
+    Preconditions.checkArgument(chunkSize > 0, "chunk size must be positive");
+    this.scanner = Preconditions.checkNotNull(scanner);
+    this.executor = executor;
+    this.chunkSize = chunkSize;
+  }
+
+  /**
+   * Returns the next result, or null if the scanner is exhausted.
+   */
+  public Result next() throws IOException {
+    if (index == current.length && !fetch()) {
+      return null;
+    }
+    return current[index++];
+  }
+
+  private boolean fetch() throws IOException {
+    if (exhausted) {
+      return false;
+    }
+
+    final Result[] chunk;
+    if (pending != null) {
+      chunk = await(pending);
+      pending = null;
+      pendingFetch = null;
+    } else {
+      chunk = scanner.next(chunkSize);
+    }
+
+    current = chunk;
+    index = 0;
+    if (chunk.length == 0) {
+      exhausted = true;
+      return false;
+    }
+
+    if (executor != null) {
+      pendingFetch = new Fetch();
+      pending = executor.submit(pendingFetch);
+    }
+    return true;
+  }
+
+  /**
+   * Background read of the next chunk. Once the scanner is closed, fetches that haven't started yet never use it.
+   */
+  private final class Fetch implements Callable<Result[]> {
+    private final AtomicBoolean claimed = new AtomicBoolean();
+    private final CountDownLatch done = new CountDownLatch(1);
+
+    @Override
+    public Result[] call() throws Exception {
+      if (!claimed.compareAndSet(false, true)) {
+        return EMPTY;
+      }
+      try {
+        return scanner.next(chunkSize);
+      } finally {
+        done.countDown();
+      }
+    }
+
+    /**
+     * Prevents the fetch from starting, or waits for it to finish if it already started.
+     */
+    void stop() throws InterruptedException {
+      if (!claimed.compareAndSet(false, true)) {
+        done.await();
+      }
+    }
+  }
+
+  private static Result[] await(Future<Result[]> future) throws IOException {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while waiting for HBase results", e);
+    } catch (ExecutionException e) {
+      Throwables.propagateIfPossible(e.getCause(), IOException.class);
+      throw new IOException(e.getCause());
+    }
+  }
+
+  @Override
+  public void close() throws Exception {
+    try {
+      // make sure no background fetch is still using the scanner before closing it. Cancelling the future isn't
+      // enough: it succeeds even if the fetch is running, and get() then returns without waiting for it
+      if (pending != null) {
+        pending.cancel(false);
+        pendingFetch.stop();
+      }
+    } finally {
+      pending = null;
+      pendingFetch = null;
+      scanner.close();
+    }
+  }
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright (C) 2017-2018 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.hbase;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Iterator;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.client.ResultScanner;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests {@link PrefetchingResultScanner}
+ */
+public class TestPrefetchingResultScanner {
+
+  private ExecutorService executor;
+
+  @Before
+  public void setup() {
+    executor = Executors.newCachedThreadPool();
+  }
+
+  @After
+  public void cleanup() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void readsAllChunks() throws Exception {
+    final Result r1 = new Result();
+    final Result r2 = new Result();
+    final Result r3 = new Result();
+    final ResultScanner scanner = mock(ResultScanner.class);
+    when(scanner.next(anyInt())).thenReturn(new Result[] {r1, r2}, new Result[] {r3}, new Result[0]);
+
+    try (PrefetchingResultScanner prefetching = new PrefetchingResultScanner(scanner, executor, 2)) {
+      assertSame(r1, prefetching.next());
+      assertSame(r2, prefetching.next());
+      assertSame(r3, prefetching.next());
+      assertNull(prefetching.next());
+      assertNull(prefetching.next());
+    }
+  }
+
+  @Test
+  public void closeWaitsForRunningPrefetch() throws Exception {
+    final SlowScanner scanner = new SlowScanner();
+    final PrefetchingResultScanner prefetching = new PrefetchingResultScanner(scanner, executor, 1);
+    // the first chunk is read synchronously, and the second one in the background
+    prefetching.next();
+    assertTrue(scanner.prefetchStarted.await(10, TimeUnit.SECONDS));
+
+    final Future<?> closing = executor.submit(() -> {
+      prefetching.close();
+      return null;
+    });
+    // close() must not close the scanner while the prefetch is using it
+    Thread.sleep(100);
+    assertFalse(closing.isDone());
+    assertFalse(scanner.closed.get());
+
+    scanner.release.countDown();
+    closing.get(10, TimeUnit.SECONDS);
+    assertTrue(scanner.closed.get());
+    assertFalse(scanner.usedAfterClose.get());
+  }
+
+  @Test
+  public void closeSkipsQueuedPrefetch() throws Exception {
+    final ResultScanner scanner = mock(ResultScanner.class);
+    when(scanner.next(anyInt())).thenReturn(new Result[] {new Result()});
+
+    // nothing runs the prefetch until the scanner is closed
+    final ExecutorService blocked = Executors.newSingleThreadExecutor();
+    final CountDownLatch release = new CountDownLatch(1);
+    blocked.submit(() -> {
+      release.await();
+      return null;
+    });
+
+    try {
+      final PrefetchingResultScanner prefetching = new PrefetchingResultScanner(scanner, blocked, 1);
+      prefetching.next();
+      prefetching.close();
+      release.countDown();
+      blocked.shutdown();
+      assertTrue(blocked.awaitTermination(10, TimeUnit.SECONDS));
+      verify(scanner, times(1)).next(anyInt());
+    } finally {
+      blocked.shutdownNow();
+    }
+  }
+
+  /**
+   * Scanner whose second read blocks until released.
+   */
+  private static final class SlowScanner implements ResultScanner {
+    private final CountDownLatch prefetchStarted = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private final AtomicBoolean usedAfterClose = new AtomicBoolean();
+    private int reads;
+
+    @Override
+    public Result next() {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Result[] next(int nbRows) {
+      if (closed.get()) {
+        usedAfterClose.set(true);
+      }
+      if (reads++ == 1) {
+        prefetchStarted.countDown();
+        try {
+          release.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        if (closed.get()) {
+          usedAfterClose.set(true);
+        }
+      }
+      return new Result[] {new Result()};
+    }
+
+    @Override
+    public void close() {
+      closed.set(true);
+    }
+
+    @Override
+    public Iterator<Result> iterator() {
+      throw new UnsupportedOperationException();
+    }
+  }
+}
@@ -36,6 +36,7 @@ import org.junit.runner.RunWith;
 import org.junit.runners.Suite;
 import org.junit.runners.Suite.SuiteClasses;
 
+import com.dremio.exec.store.hbase.TestPrefetchingResultScanner;
 import com.dremio.exec.util.GuavaPatcher;
 import com.dremio.hbase.test.Drill2130StorageHBaseHamcrestConfigurationTest;
 
@@ -48,7 +49,9 @@ import com.dremio.hbase.test.Drill2130StorageHBaseHamcrestConfigurationTest;
   TestHBaseProjectPushDown.class,
   TestHBaseQueries.class,
   TestHBaseRegexParser.class,
-  TestOrderedBytesConvertFunctions.class
+  TestHBaseRegionSplits.class,
+  TestOrderedBytesConvertFunctions.class,
+  TestPrefetchingResultScanner.class
 })
 public class HBaseTestsSuite {
   static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(HBaseTestsSuite.class);
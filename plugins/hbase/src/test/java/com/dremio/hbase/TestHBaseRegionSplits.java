@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) 2017-2018 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.hbase;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.List;
+
+import org.apache.hadoop.hbase.HRegionInfo;
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.junit.Test;
+
+import com.dremio.exec.store.hbase.HBaseTableBuilder;
+import com.dremio.exec.store.hbase.KeyRange;
+import com.dremio.service.namespace.dataset.proto.DatasetSplit;
+import com.dremio.test.DremioTest;
+
+public class TestHBaseRegionSplits extends DremioTest {
+
+  private static final TableName TABLE = TableName.valueOf("TestRegionSplits");
+  private static final long MB = 1024L * 1024L;
+
+  @Test
+  public void smallRegionIsNotSplit() {
+    HRegionInfo info = new HRegionInfo(TABLE, Bytes.toBytes("a"), Bytes.toBytes("z"));
+    List<DatasetSplit> splits = HBaseTableBuilder.toSplits("host", info, 10 * MB, 100 * MB, 16);
+    assertEquals(1, splits.size());
+    assertEquals(info.getEncodedName(), splits.get(0).getSplitKey());
+  }
+
+  @Test
+  public void largeRegionIsSplitIntoContiguousRanges() {
+    HRegionInfo info = new HRegionInfo(TABLE, Bytes.toBytes("a"), Bytes.toBytes("z"));
+    List<DatasetSplit> splits = HBaseTableBuilder.toSplits("host", info, 400 * MB, 100 * MB, 16);
+    assertEquals(4, splits.size());
+
+    byte[] previousStop = Bytes.toBytes("a");
+    for (DatasetSplit split : splits) {
+      KeyRange range = KeyRange.fromSplit(split);
+      assertArrayEquals(previousStop, range.getStart());
+      assertEquals(100 * MB, split.getSize().longValue());
+      previousStop = range.getStop();
+    }
+    assertArrayEquals(Bytes.toBytes("z"), previousStop);
+  }
+
+  @Test
+  public void splitCountIsCapped() {
+    HRegionInfo info = new HRegionInfo(TABLE, Bytes.toBytes("a"), Bytes.toBytes("z"));
+    assertEquals(2, HBaseTableBuilder.toSplits("host", info, 1000 * MB, 1 * MB, 2).size());
+  }
+
+  @Test
+  public void unboundedRegionWithoutRowsIsNotSplit() {
+    HRegionInfo info = new HRegionInfo(TABLE, Bytes.toBytes("a"), new byte[0]);
+    assertEquals(1, HBaseTableBuilder.toSplits("host", info, 1000 * MB, 1 * MB, 16).size());
+  }
+
+  @Test
+  public void singleRegionIsSplitBetweenItsFirstAndLastRows() {
+    HRegionInfo info = new HRegionInfo(TABLE, new byte[0], new byte[0]);
+    List<DatasetSplit> splits = HBaseTableBuilder.toSplits("host", info, Bytes.toBytes("b"), Bytes.toBytes("y"),
+        400 * MB, 100 * MB, 16);
+    assertEquals(4, splits.size());
+
+    // first and last ranges stay unbounded, so rows outside of [b, y] are still read
+    byte[] previousStop = new byte[0];
+    for (DatasetSplit split : splits) {
+      KeyRange range = KeyRange.fromSplit(split);
+      assertArrayEquals(previousStop, range.getStart());
+      previousStop = range.getStop();
+    }
+    assertArrayEquals(new byte[0], previousStop);
+  }
+
+  @Test
+  public void lastRegionIsSplitUpToItsLastRow() {
+    HRegionInfo info = new HRegionInfo(TABLE, Bytes.toBytes("a"), new byte[0]);
+    List<DatasetSplit> splits = HBaseTableBuilder.toSplits("host", info, null, Bytes.toBytes("z"),
+        400 * MB, 100 * MB, 16);
+    assertEquals(4, splits.size());
+    assertArrayEquals(Bytes.toBytes("a"), KeyRange.fromSplit(splits.get(0)).getStart());
+    assertArrayEquals(new byte[0], KeyRange.fromSplit(splits.get(3)).getStop());
+  }
+
+  @Test
+  public void splittingDisabled() {
+    HRegionInfo info = new HRegionInfo(TABLE, Bytes.toBytes("a"), Bytes.toBytes("z"));
+    assertEquals(1, HBaseTableBuilder.toSplits("host", info, 1000 * MB, 0, 16).size());
+  }
+}
@@ -38,6 +38,7 @@ import org.apache.hadoop.hive.common.StatsSetupConst;
 import org.apache.hadoop.hive.common.type.HiveDecimal;
 import org.apache.hadoop.hive.conf.HiveConf;
 import org.apache.hadoop.hive.metastore.MetaStoreUtils;
+import org.apache.hadoop.hive.metastore.Warehouse;
 import org.apache.hadoop.hive.metastore.api.FieldSchema;
 import org.apache.hadoop.hive.metastore.api.Partition;
 import org.apache.hadoop.hive.metastore.api.StorageDescriptor;
@@ -100,6 +101,7 @@ import com.google.common.base.Stopwatch;
 import com.google.common.collect.FluentIterable;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import com.google.common.io.ByteArrayDataOutput;
 import com.google.common.io.ByteStreams;
 
@@ -127,11 +129,13 @@ class DatasetBuilder implements SourceTableDefinition {
   private final int maxMetadataLeafColumns;
 
   private final StatsEstimationParameters statsParams;
+  private final HivePartitionCache partitionCache;
+  private final int partitionBatchSize;
 
 
   private DatasetBuilder(HiveClient client, String user, NamespaceKey datasetPath, boolean ignoreAuthzErrors,
-      int maxMetadataLeafColumns, StatsEstimationParameters statsParams, HiveConf hiveConf, String dbName,
-      String tableName, Table table, DatasetConfig oldConfig) {
+      int maxMetadataLeafColumns, StatsEstimationParameters statsParams, HivePartitionCache partitionCache,
+      int partitionBatchSize, HiveConf hiveConf, String dbName, String tableName, Table table, DatasetConfig oldConfig) {
     if(oldConfig == null) {
       datasetConfig = new DatasetConfig()
           .setPhysicalDataset(new PhysicalDataset())
@@ -151,6 +155,8 @@ class DatasetBuilder implements SourceTableDefinition {
     this.ignoreAuthzErrors = ignoreAuthzErrors;
     this.maxMetadataLeafColumns = maxMetadataLeafColumns;
     this.statsParams = statsParams;
+    this.partitionCache = partitionCache;
+    this.partitionBatchSize = partitionBatchSize;
   }
 
   /**
@@ -186,6 +192,8 @@ class DatasetBuilder implements SourceTableDefinition {
   }
 
   /**
+   * @param partitionCache cache of previously generated partition splits, or null to always regenerate them
+   * @param partitionBatchSize maximum number of partitions fetched from the metastore in a single call
    * @return null if datasetPath is not canonical and couldn't find a corresponding table in the source
    */
   static DatasetBuilder getDatasetBuilder(
@@ -196,6 +204,8 @@ class DatasetBuilder implements SourceTableDefinition {
       boolean ignoreAuthzErrors,
       int maxMetadataLeafColumns,
       StatsEstimationParameters statsParams,
+      HivePartitionCache partitionCache,
+      int partitionBatchSize,
       HiveConf hiveConf,
       DatasetConfig oldConfig) throws TException {
     final List<String> noSourceSchemaPath =
@@ -238,7 +248,7 @@ class DatasetBuilder implements SourceTableDefinition {
 
     final List<String> canonicalDatasetPath = Lists.newArrayList(datasetPath.getRoot(), canonicalDbName, canonicalTableName);
     return new DatasetBuilder(client, user, new NamespaceKey(canonicalDatasetPath), ignoreAuthzErrors, maxMetadataLeafColumns,
-    statsParams, hiveConf, canonicalDbName, canonicalTableName, table, oldConfig);
+    statsParams, partitionCache, partitionBatchSize, hiveConf, canonicalDbName, canonicalTableName, table, oldConfig);
   }
 
   @Override
@@ -409,15 +419,23 @@ class DatasetBuilder implements SourceTableDefinition {
     private final Partition partition;
     private final int partitionId;
     private final int estimatedRecordSize;
+    private final FileSystemPartitionUpdateKey updateKey;
 
     public HiveSplitsGenerator(final InputFormat<?, ?> format, StorageDescriptor storageDescriptor,
                                final int estimatedRecordSize, HiveStats totalStats, Partition partition, int partitionId) {
+      this(format, storageDescriptor, estimatedRecordSize, totalStats, partition, partitionId, null);
+    }
+
+    public HiveSplitsGenerator(final InputFormat<?, ?> format, StorageDescriptor storageDescriptor,
+                               final int estimatedRecordSize, HiveStats totalStats, Partition partition, int partitionId,
+                               FileSystemPartitionUpdateKey updateKey) {
       this.format = format;
       this.storageDescriptor = storageDescriptor;
       this.estimatedRecordSize = estimatedRecordSize;
       this.totalStats = totalStats;
       this.partition = partition;
       this.partitionId = partitionId;
+      this.updateKey = updateKey;
     }
 
     @Override
@@ -591,8 +609,20 @@ class DatasetBuilder implements SourceTableDefinition {
       final List<PartitionProp> partitionProps = Lists.newArrayList();
       int partitionId = 0;
       List<Integer> partitionHashes = Lists.newArrayList();
-
-      for(Partition partition : client.getPartitions(dbName, tableName)) {
+      int reusedPartitions = 0;
+
+      // splits of partitions that didn't change since the last refresh are reused from the cache
+      final int tableSignature = Objects.hashCode(getHash(table), estimatedRecordSize, statsParams.useMetastoreStats());
+      final HivePartitionCache.CachedTable cachedTable = partitionCache == null ?
+          null : partitionCache.getTable(dbName, tableName, tableSignature);
+      final long refreshStart = System.currentTimeMillis();
+      final boolean reuseDefinitions = cachedTable != null && partitionCache.canReuseDefinitions(cachedTable, refreshStart);
+      final Map<String, HivePartitionCache.CachedPartition> refreshedPartitions = Maps.newHashMap();
+      final List<String> generatedPartitions = Lists.newArrayList();
+
+      for(Entry<String, Partition> namedPartition : getPartitions(dbName, tableName, reuseDefinitions ? cachedTable : null).entrySet()) {
+        final String partitionName = namedPartition.getKey();
+        final Partition partition = namedPartition.getValue();
         partitionHashes.add(getHash(partition));
         final Properties partitionProperties = getPartitionMetadata(partition, table);
 
@@ -606,17 +636,26 @@ class DatasetBuilder implements SourceTableDefinition {
         final HiveStats totalPartitionStats = getStatsFromProps(partitionProperties);
 
         StorageDescriptor sd = partition.getSd();
-        if (inputPathExists(sd, job)) {
-          splitsGenerators.add(new HiveSplitsGenerator(format, sd, estimatedRecordSize, totalPartitionStats, partition, partitionId));
-        }
+        FileSystemPartitionUpdateKey updateKey = null;
         if (format instanceof FileInputFormat || format instanceof OrcInputFormat) {
-          final FileSystemPartitionUpdateKey updateKey = getFSBasedUpdateKey(sd.getLocation(), job, isRecursive(partitionProperties), partitionId);
+          updateKey = getFSBasedUpdateKey(sd.getLocation(), job, isRecursive(partitionProperties), partitionId);
           if (updateKey != null) {
             updateKeys.add(updateKey);
           }
         } else {
           allFSBasedPartitions = false;
         }
+
+        final HivePartitionCache.CachedPartition cached = cachedTable == null ? null : cachedTable.getPartition(partitionName);
+        if (cached != null && cached.isValid(partition, updateKey)) {
+          splits.addAll(cached.getSplits(partitionId));
+          observedStats.add(cached.getStats());
+          refreshedPartitions.put(partitionName, cached);
+          reusedPartitions++;
+        } else if (inputPathExists(sd, job)) {
+          splitsGenerators.add(new HiveSplitsGenerator(format, sd, estimatedRecordSize, totalPartitionStats, partition, partitionId, updateKey));
+          generatedPartitions.add(partitionName);
+        }
         ++partitionId;
       }
 
@@ -627,12 +666,22 @@ class DatasetBuilder implements SourceTableDefinition {
 
       if (!splitsGenerators.isEmpty()) {
         final List<HiveSplitWork> hiveSplitWorks = TimedRunnable.run("Get splits for hive table " + tableName, logger, splitsGenerators, HIVE_SPLITS_GENERATOR_PARALLELISM);
-        for (HiveSplitWork splitWork : hiveSplitWorks) {
+        for (int i = 0; i < hiveSplitWorks.size(); i++) {
+          final HiveSplitWork splitWork = hiveSplitWorks.get(i);
+          final HiveSplitsGenerator generator = (HiveSplitsGenerator) splitsGenerators.get(i);
           splits.addAll(splitWork.getSplits());
           observedStats.add(splitWork.getHiveStats());
+          refreshedPartitions.put(generatedPartitions.get(i), new HivePartitionCache.CachedPartition(
+              generator.partition, generator.updateKey, splitWork.getSplits(), splitWork.getHiveStats()));
         }
       }
 
+      if (partitionCache != null) {
+        partitionCache.putTable(dbName, tableName, tableSignature, refreshedPartitions,
+            reuseDefinitions ? cachedTable.getDefinitionsFetchedMillis() : refreshStart);
+      }
+      logger.debug("Reused splits of {} out of {} partitions for table {}", reusedPartitions, partitionId, datasetPath);
+
       // If all partitions had filesystem based partitions then set updatekey
       if (allFSBasedPartitions && !updateKeys.isEmpty()) {
         metadata.setReadSignature(ByteString.copyFrom(
@@ -662,6 +711,35 @@ class DatasetBuilder implements SourceTableDefinition {
     logger.debug("Computing splits for table {} took {} ms", datasetPath, splitStart.elapsed(TimeUnit.MILLISECONDS));
   }
 
+  /**
+   * Returns the current partitions of the table. Partitions are listed by name, and only the ones missing from the
+   * given cached table are fetched from the metastore; for the others, the definitions the read signature check just
+   * fetched and recorded in the cache are used.
+   *
+   * @param cachedTable partitions whose recorded definitions can be reused, or null to fetch all partitions
+   * @return partitions by name
+   */
+  private Map<String, Partition> getPartitions(String dbName, String tableName,
+      HivePartitionCache.CachedTable cachedTable) throws TException {
+    final Map<String, Partition> partitions = Maps.newLinkedHashMap();
+    final List<String> missingPartitions = Lists.newArrayList();
+    for (String partitionName : client.getPartitionNames(dbName, tableName)) {
+      final HivePartitionCache.CachedPartition cached = cachedTable == null ? null : cachedTable.getPartition(partitionName);
+      if (cached != null) {
+        partitions.put(partitionName, cached.getPartition());
+      } else {
+        missingPartitions.add(partitionName);
+      }
+    }
+
+    for (Partition partition : client.getPartitionsByNames(dbName, tableName, missingPartitions, partitionBatchSize)) {
+      partitions.put(Warehouse.makePartName(table.getPartitionKeys(), partition.getValues()), partition);
+    }
+    logger.debug("Fetched {} out of {} partitions of table {} from the metastore", missingPartitions.size(),
+        partitions.size(), datasetPath);
+    return partitions;
+  }
+
   /**
    * Find the rowcount based on stats in Hive metastore or estimate using filesize/filetype/recordSize/split size
    * @param statsParams parameters controling the stats calculations
@@ -20,6 +20,7 @@ import static com.google.common.base.Preconditions.checkNotNull;
 import java.io.IOException;
 import java.lang.reflect.UndeclaredThrowableException;
 import java.security.PrivilegedExceptionAction;
+import java.util.ArrayList;
 import java.util.List;
 
 import org.apache.hadoop.hive.conf.HiveConf;
@@ -39,6 +40,7 @@ import com.dremio.common.exceptions.UserException;
 import com.dremio.exec.util.ImpersonationUtil;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Throwables;
+import com.google.common.collect.Lists;
 
 /**
  * Override HiveMetaStoreClient to provide additional capabilities such as caching, reconnecting with user
@@ -236,6 +238,45 @@ public class HiveClient implements AutoCloseable {
       }});
   }
 
+  /**
+   * Get all partitions of the given table, fetching them from the metastore in batches of at most <i>batchSize</i>
+   * partitions instead of in a single call.
+   */
+  List<Partition> getPartitions(final String dbName, final String tableName, final int batchSize) throws TException {
+    return getPartitionsByNames(dbName, tableName, getPartitionNames(dbName, tableName), batchSize);
+  }
+
+  /**
+   * Get the partitions with the given names, fetching them from the metastore in batches of at most
+   * <i>batchSize</i> partitions. Partitions dropped since their names were listed are not returned.
+   */
+  List<Partition> getPartitionsByNames(final String dbName, final String tableName, final List<String> partitionNames,
+      final int batchSize) throws TException {
+    Preconditions.checkArgument(batchSize > 0, "batch size must be positive");
+    final List<Partition> partitions = new ArrayList<>(partitionNames.size());
+    for (final List<String> batch : Lists.partition(partitionNames, batchSize)) {
+      partitions.addAll(getPartitionsByNames(dbName, tableName, batch));
+    }
+    return partitions;
+  }
+
+  List<String> getPartitionNames(final String dbName, final String tableName) throws TException {
+    return doCommand(new RetryableClientCommand<List<String>>(){
+      @Override
+      public List<String> run(HiveMetaStoreClient client) throws TException {
+        return client.listPartitionNames(dbName, tableName, (short) -1);
+      }});
+  }
+
+  List<Partition> getPartitionsByNames(final String dbName, final String tableName, final List<String> partitionNames)
+      throws TException {
+    return doCommand(new RetryableClientCommand<List<Partition>>(){
+      @Override
+      public List<Partition> run(HiveMetaStoreClient client) throws TException {
+        return client.getPartitionsByNames(dbName, tableName, partitionNames);
+      }});
+  }
+
   String getDelegationToken(final String proxyUser) throws TException {
     return doCommand(new RetryableClientCommand<String>() {
       @Override
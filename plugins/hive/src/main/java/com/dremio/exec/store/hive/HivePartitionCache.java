@@ -0,0 +1,278 @@
+/*
+ * Copyright (C) 2017-2018 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.hive;
+
+import static org.apache.hadoop.hive.metastore.api.hive_metastoreConstants.DDL_TIME;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hadoop.hive.metastore.api.Partition;
+
+import com.dremio.hive.proto.HiveReaderProto.FileSystemPartitionUpdateKey;
+import com.dremio.hive.proto.HiveReaderProto.HiveSplitXattr;
+import com.dremio.service.namespace.dataset.proto.DatasetSplit;
+import com.google.common.base.Objects;
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.FluentIterable;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.protobuf.InvalidProtocolBufferException;
+
+import io.protostuff.ByteString;
+
+/**
+ * Caches the splits generated for each partition of recently refreshed Hive tables, together with the partition
+ * metadata they were generated from. On the next refresh of the table, splits are only regenerated for partitions
+ * that were added, or whose metastore definition (transient_lastDdlTime or storage location) or files changed.
+ *
+ * The read signature check fetches the current partition definitions from the metastore and records them with
+ * {@link #refreshDefinitions}, so that the refresh following it compares the cached splits against them instead of
+ * fetching the definitions again. Definitions older than the configured maximum age are fetched again by the refresh.
+ *
+ * The partitions of a table are cached as an immutable snapshot, replaced as a whole once a refresh completes.
+ */
+class HivePartitionCache {
+
+  private final Cache<String, CachedTable> tables;
+  private final long maxDefinitionAgeMillis;
+
+  /**
+   * @param maxTables maximum number of tables whose partitions are cached. 0 disables caching.
+   * @param maxDefinitionAgeMillis maximum time the partition definitions recorded by the read signature check are
+   *                               reused by the refresh. 0 fetches all partitions on every refresh.
+   */
+  HivePartitionCache(long maxTables, long maxDefinitionAgeMillis) {
+    this.tables = CacheBuilder.newBuilder()
+        .maximumSize(maxTables)
+        .expireAfterAccess(1, TimeUnit.DAYS)
+        .build();
+    this.maxDefinitionAgeMillis = maxDefinitionAgeMillis;
+  }
+
+  /**
+   * Returns the partitions cached for the given table. Cached partitions are discarded if the table signature
+   * changed, since splits depend on the table definition as well.
+   *
+   * @param tableSignature hash of the table level inputs used to generate splits
+   * @return cached partitions, null if none are cached for the given table signature
+   */
+  CachedTable getTable(String dbName, String tableName, int tableSignature) {
+    final CachedTable table = tables.getIfPresent(getKey(dbName, tableName));
+    return table == null || table.signature != tableSignature ? null : table;
+  }
+
+  /**
+   * Whether the partition definitions of the given cached table can be used instead of fetching them again.
+   */
+  boolean canReuseDefinitions(CachedTable table, long now) {
+    return table != null && now - table.definitionsFetchedMillis < maxDefinitionAgeMillis;
+  }
+
+  /**
+   * Replaces the cached partitions of the given table, dropping the partitions that no longer exist.
+   *
+   * @param partitions current partitions by name
+   * @param definitionsFetchedMillis time at which the oldest of the partition definitions was fetched
+   */
+  void putTable(String dbName, String tableName, int tableSignature, Map<String, CachedPartition> partitions,
+      long definitionsFetchedMillis) {
+    tables.put(getKey(dbName, tableName),
+        new CachedTable(tableSignature, definitionsFetchedMillis, ImmutableMap.copyOf(partitions)));
+  }
+
+  /**
+   * Records the partition definitions just fetched from the metastore for a cached table. Cached partitions that no
+   * longer exist are dropped, and the others keep their splits along with the definition those were generated from,
+   * so that the next refresh only regenerates the splits of partitions whose definition changed. Partitions that
+   * aren't cached yet are left to the refresh. Does nothing if the table isn't cached.
+   *
+   * @param partitions current partitions by name
+   * @param definitionsFetchedMillis time at which the partitions were fetched
+   * @return number of cached partitions whose splits are stale, either dropped or with a changed definition
+   */
+  int refreshDefinitions(String dbName, String tableName, Map<String, Partition> partitions,
+      long definitionsFetchedMillis) {
+    final int[] stale = new int[1];
+    tables.asMap().computeIfPresent(getKey(dbName, tableName), (key, table) -> {
+      final ImmutableMap.Builder<String, CachedPartition> refreshed = ImmutableMap.builder();
+      int kept = 0;
+      for (Map.Entry<String, Partition> partition : partitions.entrySet()) {
+        final CachedPartition cached = table.getPartition(partition.getKey());
+        if (cached != null) {
+          if (!cached.isDefinitionValid(partition.getValue())) {
+            stale[0]++;
+          }
+          refreshed.put(partition.getKey(), cached.withDefinition(partition.getValue()));
+          kept++;
+        }
+      }
+      stale[0] += table.size() - kept;
+      return new CachedTable(table.signature, definitionsFetchedMillis, refreshed.build());
+    });
+    return stale[0];
+  }
+
+  /**
+   * Drops the cached partitions of the given table, so that the next refresh fetches all of its partitions.
+   */
+  void invalidateTable(String dbName, String tableName) {
+    tables.invalidate(getKey(dbName, tableName));
+  }
+
+  private static String getKey(String dbName, String tableName) {
+    return dbName + "." + tableName;
+  }
+
+  /**
+   * Immutable snapshot of the partitions of a table.
+   */
+  static final class CachedTable {
+    private final int signature;
+    private final long definitionsFetchedMillis;
+    private final Map<String, CachedPartition> partitions;
+
+    private CachedTable(int signature, long definitionsFetchedMillis, Map<String, CachedPartition> partitions) {
+      this.signature = signature;
+      this.definitionsFetchedMillis = definitionsFetchedMillis;
+      this.partitions = partitions;
+    }
+
+    long getDefinitionsFetchedMillis() {
+      return definitionsFetchedMillis;
+    }
+
+    /**
+     * @return the cached partition with the given name, null if not cached
+     */
+    CachedPartition getPartition(String name) {
+      return partitions.get(name);
+    }
+
+    int size() {
+      return partitions.size();
+    }
+  }
+
+  /**
+   * Splits and stats of a single partition, along with the metadata used to decide whether they are still valid.
+   */
+  static final class CachedPartition {
+    private final Partition partition;
+    private final String lastDdlTime;
+    private final String location;
+    private final FileSystemPartitionUpdateKey updateKey;
+    private final List<DatasetSplit> splits;
+    private final HiveStats stats;
+
+    CachedPartition(Partition partition, FileSystemPartitionUpdateKey updateKey, List<DatasetSplit> splits,
+        HiveStats stats) {
+      this(partition.deepCopy(), getDdlTime(partition), partition.getSd().getLocation(), updateKey,
+          ImmutableList.copyOf(splits), new HiveStats(stats.getNumRows(), stats.getSizeInBytes()));
+    }
+
+    private CachedPartition(Partition partition, String lastDdlTime, String location,
+        FileSystemPartitionUpdateKey updateKey, List<DatasetSplit> splits, HiveStats stats) {
+      this.partition = partition;
+      this.lastDdlTime = lastDdlTime;
+      this.location = location;
+      this.updateKey = updateKey;
+      this.splits = splits;
+      this.stats = stats;
+    }
+
+    /**
+     * Returns a copy of this partition with the given current definition, keeping the splits along with the definition
+     * they were generated from.
+     */
+    CachedPartition withDefinition(Partition current) {
+      return new CachedPartition(current.deepCopy(), lastDdlTime, location, updateKey, splits, stats);
+    }
+
+    /**
+     * Whether the cached splits are still valid for the current partition definition and file system state.
+     *
+     * @param partition partition as currently defined in the metastore
+     * @param currentUpdateKey current file system state of the partition, or null if not file system based
+     */
+    boolean isValid(Partition partition, FileSystemPartitionUpdateKey currentUpdateKey) {
+      if (!isDefinitionValid(partition)) {
+        return false;
+      }
+
+      if (updateKey == null || currentUpdateKey == null) {
+        return updateKey == currentUpdateKey;
+      }
+      return updateKey.getPartitionRootDir().equals(currentUpdateKey.getPartitionRootDir())
+          && updateKey.getCachedEntitiesList().equals(currentUpdateKey.getCachedEntitiesList());
+    }
+
+    /**
+     * Whether the cached splits were generated from a definition with the same transient_lastDdlTime and location as
+     * the given one.
+     */
+    private boolean isDefinitionValid(Partition partition) {
+      return lastDdlTime != null && lastDdlTime.equals(getDdlTime(partition))
+          && Objects.equal(location, partition.getSd().getLocation());
+    }
+
+    /**
+     * @return the latest known metastore definition of the partition, which may be more recent than the one the splits
+     *         were generated from
+     */
+    Partition getPartition() {
+      return partition;
+    }
+
+    HiveStats getStats() {
+      return new HiveStats(stats.getNumRows(), stats.getSizeInBytes());
+    }
+
+    /**
+     * Returns copies of the cached splits, assigned to the given partition id.
+     */
+    List<DatasetSplit> getSplits(final int partitionId) {
+      return FluentIterable.from(splits)
+          .transform(split -> new DatasetSplit()
+              .setSplitKey(split.getSplitKey())
+              .setSize(split.getSize())
+              .setRowCount(split.getRowCount())
+              .setAffinitiesList(split.getAffinitiesList())
+              .setPartitionValuesList(split.getPartitionValuesList())
+              .setExtendedProperty(withPartitionId(split.getExtendedProperty(), partitionId)))
+          .toList();
+    }
+
+    private static String getDdlTime(Partition partition) {
+      return partition.getParameters() == null ? null : partition.getParameters().get(DDL_TIME);
+    }
+
+    private static ByteString withPartitionId(ByteString extendedProperty, int partitionId) {
+      try {
+        final HiveSplitXattr splitAttr = HiveSplitXattr.parseFrom(extendedProperty.toByteArray());
+        if (splitAttr.getPartitionId() == partitionId) {
+          return extendedProperty;
+        }
+        return ByteString.copyFrom(splitAttr.toBuilder().setPartitionId(partitionId).build().toByteArray());
+      } catch (InvalidProtocolBufferException e) {
+        throw Throwables.propagate(e);
+      }
+    }
+  }
+}
@@ -15,9 +15,12 @@
  */
 package com.dremio.exec.store.hive;
 
+import java.util.concurrent.TimeUnit;
+
 import com.dremio.options.OptionValidator;
 import com.dremio.options.Options;
 import com.dremio.options.TypeValidators.BooleanValidator;
+import com.dremio.options.TypeValidators.RangeLongValidator;
 
 /**
  * Dremio advanced configuration options for Hive storage plugin
@@ -32,6 +35,11 @@ public interface HivePluginOptions {
   BooleanValidator ENABLE_FILTER_PUSHDOWN_HIVE_ORC =
       new BooleanValidator("store.hive.orc.vectorize.enable_filter_pushdown", true);
 
+  /**
+   * Use ORC file and stripe statistics to skip stripes that can't match the filter pushed into the vectorized ORC reader
+   */
+  BooleanValidator HIVE_ORC_STRIPE_PRUNING = new BooleanValidator("store.hive.orc.vectorize.stripe_pruning", true);
+
   /**
    * Use Dremio native parquet reader to read Hive parquet files.
    */
@@ -46,4 +54,27 @@ public interface HivePluginOptions {
    */
   String HIVE_USE_STATS_IN_METASTORE_KEY = "store.hive.use_stats_in_metastore";
   BooleanValidator HIVE_USE_STATS_IN_METASTORE = new BooleanValidator(HIVE_USE_STATS_IN_METASTORE_KEY, false);
+
+  /**
+   * Maximum number of partitions fetched from the Hive metastore in a single call.
+   */
+  RangeLongValidator HIVE_PARTITION_BATCH_SIZE = new RangeLongValidator("store.hive.partition_batch_size", 1, 100_000, 1_000);
+
+  /**
+   * Maximum number of tables whose per partition splits are cached on the coordinator, so that metadata refresh only
+   * regenerates splits for changed partitions. 0 disables the cache. Read when the source starts: changes apply to
+   * Hive sources started afterwards, e.g. once the source is edited or the coordinator restarted.
+   */
+  RangeLongValidator HIVE_PARTITION_CACHE_MAX_TABLES =
+      new RangeLongValidator("store.hive.partition_cache.max_tables", 0, 10_000, 100);
+
+  /**
+   * Maximum age, in seconds, of the partition definitions fetched by the read signature check of a table that metadata
+   * refresh reuses instead of fetching them again. Older definitions, e.g. on a forced refresh long after the last
+   * check, are fetched again. 0 fetches all partitions on every refresh. Read when the source starts, same as
+   * {@link #HIVE_PARTITION_CACHE_MAX_TABLES}.
+   */
+  RangeLongValidator HIVE_PARTITION_CACHE_MAX_DEFINITION_AGE_SECONDS =
+      new RangeLongValidator("store.hive.partition_cache.max_definition_age_seconds", 0, TimeUnit.HOURS.toSeconds(1),
+          TimeUnit.MINUTES.toSeconds(1));
 }
@@ -18,6 +18,7 @@ package com.dremio.exec.store.hive;
 import java.io.IOException;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
@@ -27,6 +28,7 @@ import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.fs.permission.FsAction;
 import org.apache.hadoop.hive.conf.HiveConf;
 import org.apache.hadoop.hive.conf.HiveConf.ConfVars;
+import org.apache.hadoop.hive.metastore.Warehouse;
 import org.apache.hadoop.hive.metastore.api.MetaException;
 import org.apache.hadoop.hive.metastore.api.Partition;
 import org.apache.hadoop.hive.metastore.api.Table;
@@ -75,6 +77,7 @@ import com.google.common.cache.RemovalListener;
 import com.google.common.cache.RemovalNotification;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import com.google.common.util.concurrent.UncheckedExecutionException;
 import com.google.protobuf.InvalidProtocolBufferException;
 
@@ -93,6 +96,7 @@ public class HiveStoragePlugin implements StoragePlugin {
   private final boolean metastoreImpersonationEnabled;
   private final boolean isCoordinator;
   private final OptionManager options;
+  private HivePartitionCache partitionCache;
 
   public HiveStoragePlugin(HiveConf hiveConf, SabotContext context, String name) {
     this.isCoordinator = context.isCoordinator();
@@ -338,6 +342,7 @@ public class HiveStoragePlugin implements StoragePlugin {
     table = client.getTable(dbName, tableName, true);
 
     if (table == null) { // missing table?
+      invalidatePartitions(dbName, tableName);
       return UpdateStatus.DELETED;
     }
     if (DatasetBuilder.getHash(table) != tableHash) {
@@ -345,9 +350,13 @@ public class HiveStoragePlugin implements StoragePlugin {
     }
 
     List<Integer> partitionHashes = Lists.newArrayList();
-    for (Partition partition : client.getPartitions(dbName, tableName)) {
+    final Map<String, Partition> partitions = Maps.newLinkedHashMap();
+    final long fetchedMillis = System.currentTimeMillis();
+    for (Partition partition : client.getPartitions(dbName, tableName, getPartitionBatchSize())) {
       partitionHashes.add(DatasetBuilder.getHash(partition));
+      partitions.put(Warehouse.makePartName(table.getPartitionKeys(), partition.getValues()), partition);
     }
+    refreshPartitionDefinitions(dbName, tableName, partitions, fetchedMillis);
 
     if (partitionHash == null || partitionHash == 0) {
       if (partitionHashes.isEmpty()) {
@@ -367,6 +376,29 @@ public class HiveStoragePlugin implements StoragePlugin {
     return UpdateStatus.UNCHANGED;
   }
 
+  /**
+   * Hands the partition definitions fetched by the read signature check to the partition cache, so that the refresh
+   * following a change only regenerates the splits of the partitions that were added, changed or removed, and reuses
+   * the cached splits of the others.
+   */
+  private void refreshPartitionDefinitions(String dbName, String tableName, Map<String, Partition> partitions,
+      long fetchedMillis) {
+    if (partitionCache != null) {
+      final int stale = partitionCache.refreshDefinitions(dbName, tableName, partitions, fetchedMillis);
+      logger.debug("Found {} changed or removed cached partitions out of {} partitions of table {}.{}", stale,
+          partitions.size(), dbName, tableName);
+    }
+  }
+
+  /**
+   * Drops the cached partitions of a table that no longer exists in the metastore.
+   */
+  private void invalidatePartitions(String dbName, String tableName) {
+    if (partitionCache != null) {
+      partitionCache.invalidateTable(dbName, tableName);
+    }
+  }
+
   @Override
   public CheckResult checkReadSignature(ByteString key, final DatasetConfig datasetConfig, DatasetRetrievalOptions retrievalOptions) throws Exception {
     boolean newUpdateKey = false;
@@ -448,6 +480,8 @@ public class HiveStoragePlugin implements StoragePlugin {
               false,
               retrievalOptions.maxMetadataLeafColumns(),
               getStatsParams(),
+              partitionCache,
+              getPartitionBatchSize(),
               hiveConf,
               datasetConfig);
           } catch (TException e) {
@@ -477,6 +511,10 @@ public class HiveStoragePlugin implements StoragePlugin {
     );
   }
 
+  private int getPartitionBatchSize() {
+    return (int) options.getOption(HivePluginOptions.HIVE_PARTITION_BATCH_SIZE);
+  }
+
   @Override
   public SourceTableDefinition getDataset(NamespaceKey datasetPath, DatasetConfig oldConfig, DatasetRetrievalOptions retrievalOptions) throws Exception {
     try {
@@ -489,6 +527,8 @@ public class HiveStoragePlugin implements StoragePlugin {
         retrievalOptions.ignoreAuthzErrors(),
         retrievalOptions.maxMetadataLeafColumns(),
         getStatsParams(),
+        partitionCache,
+        getPartitionBatchSize(),
         hiveConf,
         oldConfig);
     } catch(RuntimeException e){
@@ -528,6 +568,8 @@ public class HiveStoragePlugin implements StoragePlugin {
               retrievalOptions.ignoreAuthzErrors(),
               retrievalOptions.maxMetadataLeafColumns(),
               getStatsParams(),
+              partitionCache,
+              getPartitionBatchSize(),
               hiveConf,
               null);
             if(builder != null){
@@ -581,6 +623,12 @@ public class HiveStoragePlugin implements StoragePlugin {
         throw Throwables.propagate(e);
       }
 
+      final long maxCachedTables = options.getOption(HivePluginOptions.HIVE_PARTITION_CACHE_MAX_TABLES);
+      final long maxDefinitionAge = options.getOption(HivePluginOptions.HIVE_PARTITION_CACHE_MAX_DEFINITION_AGE_SECONDS);
+      partitionCache = maxCachedTables > 0
+          ? new HivePartitionCache(maxCachedTables, TimeUnit.SECONDS.toMillis(maxDefinitionAge))
+          : null;
+
       boolean useZeroCopy = OrcConf.USE_ZEROCOPY.getBoolean(hiveConf);
       logger.info("ORC Zero-Copy {}.", useZeroCopy ? "enabled" : "disabled");
 
@@ -613,6 +661,7 @@ public class HiveStoragePlugin implements StoragePlugin {
     } else {
       processUserMetastoreClient = null;
       clientsByUser = null;
+      partitionCache = null;
     }
   }
 
@@ -17,14 +17,17 @@ package com.dremio.exec.store.hive.exec;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.nio.ByteOrder;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
 
+import org.apache.arrow.vector.BaseFixedWidthVector;
 import org.apache.arrow.vector.BaseVariableWidthVector;
 import org.apache.arrow.vector.BigIntVector;
 import org.apache.arrow.vector.BitVector;
+import org.apache.arrow.vector.BitVectorHelper;
 import org.apache.arrow.vector.DateMilliVector;
 import org.apache.arrow.vector.DecimalVector;
 import org.apache.arrow.vector.Float4Vector;
@@ -47,6 +50,8 @@ import org.apache.hadoop.hive.serde2.io.HiveDecimalWritable;
 
 import com.dremio.common.exceptions.UserException;
 
+import io.netty.buffer.ArrowBuf;
+
 public class HiveORCCopiers {
 
   private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(HiveORCCopiers.class);
@@ -182,6 +187,35 @@ public class HiveORCCopiers {
         .build(logger);
   }
 
+  /**
+   * Copies a run of non-null values into an 8 byte wide vector with a single memory copy instead of
+   * setting values one at a time. The vector is expected to have enough capacity.
+   */
+  private static void bulkCopy(long[] input, int inputIdx, int count, BaseFixedWidthVector output, int outputIdx) {
+    output.getDataBuffer()
+      .nioBuffer(outputIdx * 8, count * 8)
+      .order(ByteOrder.LITTLE_ENDIAN)
+      .asLongBuffer()
+      .put(input, inputIdx, count);
+    markDefined(output, outputIdx, count);
+  }
+
+  private static void bulkCopy(double[] input, int inputIdx, int count, BaseFixedWidthVector output, int outputIdx) {
+    output.getDataBuffer()
+      .nioBuffer(outputIdx * 8, count * 8)
+      .order(ByteOrder.LITTLE_ENDIAN)
+      .asDoubleBuffer()
+      .put(input, inputIdx, count);
+    markDefined(output, outputIdx, count);
+  }
+
+  private static void markDefined(BaseFixedWidthVector output, int outputIdx, int count) {
+    final ArrowBuf validity = output.getValidityBuffer();
+    for (int i = 0; i < count; i++) {
+      BitVectorHelper.setValidityBitToOne(validity, outputIdx + i);
+    }
+  }
+
   private static class NoOpCopier implements ORCCopier{
 
     NoOpCopier(ColumnVector inputVector, ValueVector outputVector) {
@@ -261,9 +295,7 @@ public class HiveORCCopiers {
           outputVector.set(outputIdx, value);
         }
       } else if (inputVector.noNulls) {
-        for (int i = 0; i < count; i++, inputIdx++, outputIdx++) {
-          outputVector.set(outputIdx, input[inputIdx]);
-        }
+        bulkCopy(input, inputIdx, count, outputVector, outputIdx);
       } else {
         final boolean[] isNull = inputVector.isNull;
         for (int i = 0; i < count; i++, inputIdx++, outputIdx++) {
@@ -828,9 +860,7 @@ public class HiveORCCopiers {
           outputVector.set(outputIdx, value);
         }
       } else if (inputVector.noNulls) {
-        for (int i = 0; i < count; i++, inputIdx++, outputIdx++) {
-          outputVector.set(outputIdx, input[inputIdx]);
-        }
+        bulkCopy(input, inputIdx, count, outputVector, outputIdx);
       } else {
         final boolean[] isNull = inputVector.isNull;
         for (int i = 0; i < count; i++, inputIdx++, outputIdx++) {
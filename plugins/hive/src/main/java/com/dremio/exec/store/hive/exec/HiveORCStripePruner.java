@@ -0,0 +1,114 @@
+/*
+ * Copyright (C) 2017-2018 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.hive.exec;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.hadoop.hive.ql.io.orc.OrcFile;
+import org.apache.hadoop.hive.ql.io.orc.Reader;
+import org.apache.hadoop.hive.ql.io.sarg.PredicateLeaf;
+import org.apache.hadoop.hive.ql.io.sarg.SearchArgument;
+import org.apache.hadoop.hive.ql.io.sarg.SearchArgument.TruthValue;
+import org.apache.orc.ColumnStatistics;
+import org.apache.orc.StripeInformation;
+import org.apache.orc.StripeStatistics;
+import org.apache.orc.impl.RecordReaderImpl;
+
+/**
+ * Uses the file and stripe level column statistics of an ORC file to find the stripes of a split that may contain
+ * rows matching a {@link SearchArgument}. Row groups within the selected stripes are still pruned by the ORC reader
+ * itself, which evaluates the same search argument against the row index of each stripe.
+ */
+final class HiveORCStripePruner {
+
+  private final Reader reader;
+  private final SearchArgument sarg;
+  private final int[] filterColumns;
+  private int numPruned;
+
+  /**
+   * @param reader ORC file reader
+   * @param sarg search argument pushed into the scan
+   * @param sargColumnNames column names indexed by ORC column id, as returned by
+   *                        {@link org.apache.hadoop.hive.ql.io.orc.OrcInputFormat#getSargColumnNames}
+   */
+  HiveORCStripePruner(Reader reader, SearchArgument sarg, String[] sargColumnNames) {
+    this.reader = reader;
+    this.sarg = sarg;
+    this.filterColumns = RecordReaderImpl.mapSargColumnsToOrcInternalColIdx(sarg.getLeaves(), sargColumnNames, 0);
+  }
+
+  /**
+   * Returns the stripes starting within [start, start + length) that can't be ruled out using statistics,
+   * in file order.
+   */
+  List<StripeInformation> selectStripes(long start, long length) throws IOException {
+    final List<StripeInformation> stripes = reader.getStripes();
+    final List<StripeInformation> inSplit = new ArrayList<>();
+    for (StripeInformation stripe : stripes) {
+      if (stripe.getOffset() >= start && stripe.getOffset() < start + length) {
+        inSplit.add(stripe);
+      }
+    }
+
+    // files written before HIVE-8732 have unreliable min/max statistics
+    if (inSplit.isEmpty() || reader.getWriterVersion() == OrcFile.WriterVersion.ORIGINAL) {
+      return inSplit;
+    }
+
+    if (!isNeeded(reader.getStatistics())) {
+      numPruned = inSplit.size();
+      return Collections.emptyList();
+    }
+
+    final List<StripeStatistics> stripeStats = reader.getStripeStatistics();
+    final List<StripeInformation> selected = new ArrayList<>(inSplit.size());
+    for (StripeInformation stripe : inSplit) {
+      final int stripeIdx = stripes.indexOf(stripe);
+      if (stripeStats == null || stripeIdx >= stripeStats.size()
+          || isNeeded(stripeStats.get(stripeIdx).getColumnStatistics())) {
+        selected.add(stripe);
+      }
+    }
+    numPruned = inSplit.size() - selected.size();
+    return selected;
+  }
+
+  /**
+   * Number of stripes excluded by the last call to {@link #selectStripes}.
+   */
+  int getNumPruned() {
+    return numPruned;
+  }
+
+  private boolean isNeeded(ColumnStatistics[] stats) {
+    final List<PredicateLeaf> leaves = sarg.getLeaves();
+    final TruthValue[] truthValues = new TruthValue[leaves.size()];
+    for (int i = 0; i < truthValues.length; i++) {
+      final int column = filterColumns[i];
+      if (column != -1 && column < stats.length) {
+        truthValues[i] = RecordReaderImpl.evaluatePredicate(stats[column], leaves.get(i), null);
+      } else {
+        // no statistics for this predicate, assume it can match anything
+        truthValues[i] = TruthValue.YES_NO_NULL;
+      }
+    }
+    return sarg.evaluate(truthValues).isNeeded();
+  }
+}
@@ -47,11 +47,13 @@ import org.apache.hadoop.hive.serde2.typeinfo.DecimalTypeInfo;
 import org.apache.hadoop.mapred.InputSplit;
 import org.apache.hadoop.mapred.JobConf;
 import org.apache.orc.OrcProto;
+import org.apache.orc.StripeInformation;
 
 import com.dremio.common.exceptions.UserException;
 import com.dremio.common.expression.SchemaPath;
 import com.dremio.exec.store.dfs.FileSystemWrapper;
 import com.dremio.exec.store.ScanFilter;
+import com.dremio.exec.store.hive.HivePluginOptions;
 import com.dremio.exec.store.hive.ORCScanFilter;
 import com.dremio.exec.store.hive.exec.HiveORCCopiers.ORCCopier;
 import com.dremio.hive.proto.HiveReaderProto.HiveTableXattr;
@@ -120,10 +122,28 @@ public class HiveORCVectorizedReader extends HiveAbstractReader {
       selectedColNames = ArrayUtils.addAll(new String[]{"row"}, selectedColNames);
     }
 
+    // Store the number of vectorized columns for stats/to find whether vectorized ORC reader is used or not, also when
+    // all the stripes of the split get pruned
+    context.getStats().setLongStat(Metric.NUM_VECTORIZED_COLUMNS, vectors.length);
+
     if (filter != null) {
       final ORCScanFilter orcScanFilter = (ORCScanFilter) filter;
       final SearchArgument sarg = orcScanFilter.getSarg();
-      options.searchArgument(sarg, OrcInputFormat.getSargColumnNames(selectedColNames, types, options.getInclude(), fSplit.isOriginal()));
+      final String[] sargColumnNames = OrcInputFormat.getSargColumnNames(selectedColNames, types, options.getInclude(), fSplit.isOriginal());
+      options.searchArgument(sarg, sargColumnNames);
+
+      // skip the stripes of this split whose statistics can't satisfy the filter before reading any of them
+      if (fSplit.isOriginal() && context.getOptions().getOption(HivePluginOptions.HIVE_ORC_STRIPE_PRUNING)) {
+        final HiveORCStripePruner pruner = new HiveORCStripePruner(hiveReader, sarg, sargColumnNames);
+        final List<StripeInformation> stripes = pruner.selectStripes(offset, length);
+        context.getStats().addLongStat(Metric.NUM_ORC_STRIPES_PRUNED, pruner.getNumPruned());
+        if (stripes.isEmpty()) {
+          return;
+        }
+        final StripeInformation first = stripes.get(0);
+        final StripeInformation last = stripes.get(stripes.size() - 1);
+        options.range(first.getOffset(), last.getOffset() + last.getLength() - first.getOffset());
+      }
     }
 
     hiveOrcReader = hiveReader.rowsOptions(options);
@@ -132,11 +152,14 @@ public class HiveORCVectorizedReader extends HiveAbstractReader {
     final List<Integer> projectedColOrdinals = ColumnProjectionUtils.getReadColumnIDs(jobConf);
     copiers = HiveORCCopiers.createCopiers(projectedColOrdinals, vectors, hiveBatch, fSplit.isOriginal());
 
-    // Store the number of vectorized columns for stats/to find whether vectorized ORC reader is used or not
-    context.getStats().setLongStat(Metric.NUM_VECTORIZED_COLUMNS, vectors.length);
   }
 
   protected int populateData() {
+    if (hiveOrcReader == null) {
+      // all stripes in the split were pruned
+      return 0;
+    }
+
     try {
       final int numRowsPerBatch = (int) this.numRowsPerBatch;
 
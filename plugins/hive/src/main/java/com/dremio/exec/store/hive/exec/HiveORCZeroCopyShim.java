@@ -61,6 +61,7 @@ class HiveORCZeroCopyShim implements org.apache.orc.Reader.ZeroCopyPoolShim {
     for (ArrowBuf buf : directBufMap.values()) {
       buf.release();
     }
+    directBufMap.clear();
   }
 
   @Override
@@ -15,10 +15,18 @@
  */
 package com.dremio.exec.hive;
 
+import static com.dremio.QueryTestUtil.getOperatorMetric;
+import static com.dremio.QueryTestUtil.getQueryProfile;
+import static java.lang.String.format;
 import static java.util.regex.Pattern.quote;
+import static org.junit.Assert.assertEquals;
 
 import org.junit.Test;
 
+import com.dremio.exec.proto.UserBitShared.CoreOperatorType;
+import com.dremio.exec.proto.UserBitShared.QueryProfile;
+import com.dremio.sabot.op.scan.ScanOperator.Metric;
+
 /**
  * Test pushing filter into ORC vectorized reader.
  */
@@ -113,4 +121,24 @@ public class TestORCFilterPushDown extends HiveTestBase {
         .baselineValues(4L, "MIDDLE EAST", "uickly special accou")
         .go();
   }
+
+  @Test
+  public void outOfStatisticsRange() throws Exception {
+    // no stripe can match, so the whole split is skipped using the file statistics
+    final String query = "SELECT * from hive.orc_region where r_regionkey > 100";
+    testPlanMatchingPatterns(query,
+        new String[] {quote("[leaf-0 = (LESS_THAN_EQUALS r_regionkey 100), expr = (not leaf-0)]")});
+
+    testBuilder()
+        .sqlQuery(query)
+        .unOrdered()
+        .expectsEmptyResultSet()
+        .go();
+
+    final QueryProfile profile = getQueryProfile(getLocalQueryExecutor(), query,
+        format("%s.\"%s\"", TEMP_SCHEMA, "orcFilterPushDown"));
+    assertEquals(1L, getOperatorMetric(profile, CoreOperatorType.HIVE_SUB_SCAN, Metric.NUM_ORC_STRIPES_PRUNED));
+    // recorded even though no stripe is left to read
+    assertEquals(3L, getOperatorMetric(profile, CoreOperatorType.HIVE_SUB_SCAN, Metric.NUM_VECTORIZED_COLUMNS));
+  }
 }
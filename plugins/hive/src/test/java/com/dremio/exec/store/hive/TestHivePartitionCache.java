@@ -0,0 +1,214 @@
+/*
+ * Copyright (C) 2017-2018 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.hive;
+
+import static org.apache.hadoop.hive.metastore.api.hive_metastoreConstants.DDL_TIME;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.hadoop.hive.metastore.api.Partition;
+import org.apache.hadoop.hive.metastore.api.StorageDescriptor;
+import org.junit.Test;
+
+import com.dremio.hive.proto.HiveReaderProto.FileSystemCachedEntity;
+import com.dremio.hive.proto.HiveReaderProto.FileSystemPartitionUpdateKey;
+import com.dremio.hive.proto.HiveReaderProto.HiveSplitXattr;
+import com.dremio.service.namespace.dataset.proto.DatasetSplit;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import io.protostuff.ByteString;
+
+/**
+ * Unit tests for {@link HivePartitionCache}
+ */
+public class TestHivePartitionCache {
+
+  private static Partition partition(String location, String ddlTime) {
+    final Partition partition = new Partition();
+    partition.setValues(ImmutableList.of("2018"));
+    partition.setSd(new StorageDescriptor());
+    partition.getSd().setLocation(location);
+    partition.setParameters(new HashMap<>());
+    partition.getParameters().put(DDL_TIME, ddlTime);
+    return partition;
+  }
+
+  private static FileSystemPartitionUpdateKey updateKey(int partitionId, long modificationTime) {
+    return FileSystemPartitionUpdateKey.newBuilder()
+        .setPartitionId(partitionId)
+        .setPartitionRootDir("/warehouse/t/year=2018")
+        .addCachedEntities(FileSystemCachedEntity.newBuilder()
+            .setPath("")
+            .setIsDir(true)
+            .setLastModificationTime(modificationTime))
+        .build();
+  }
+
+  private static DatasetSplit split(int partitionId) {
+    return new DatasetSplit()
+        .setSplitKey("/warehouse/t/year=2018__0")
+        .setSize(10L)
+        .setRowCount(5L)
+        .setExtendedProperty(ByteString.copyFrom(HiveSplitXattr.newBuilder().setPartitionId(partitionId).build().toByteArray()));
+  }
+
+  @Test
+  public void validity() {
+    final Partition partition = partition("/warehouse/t/year=2018", "100");
+    final HivePartitionCache.CachedPartition cached = new HivePartitionCache.CachedPartition(
+        partition, updateKey(0, 1L), ImmutableList.of(split(0)), new HiveStats(5, 10));
+
+    // partition id is allowed to change between refreshes
+    assertTrue(cached.isValid(partition("/warehouse/t/year=2018", "100"), updateKey(3, 1L)));
+    assertFalse(cached.isValid(partition("/warehouse/t/year=2018", "200"), updateKey(0, 1L)));
+    assertFalse(cached.isValid(partition("/warehouse/t2/year=2018", "100"), updateKey(0, 1L)));
+    assertFalse(cached.isValid(partition("/warehouse/t/year=2018", "100"), updateKey(0, 2L)));
+    assertFalse(cached.isValid(partition("/warehouse/t/year=2018", "100"), null));
+  }
+
+  @Test
+  public void splitsAreReassignedToNewPartitionId() throws Exception {
+    final DatasetSplit original = split(0);
+    final HivePartitionCache.CachedPartition cached = new HivePartitionCache.CachedPartition(
+        partition("/warehouse/t/year=2018", "100"), null, ImmutableList.of(original), new HiveStats(5, 10));
+
+    final List<DatasetSplit> splits = cached.getSplits(7);
+    assertEquals(1, splits.size());
+    assertNotSame(original, splits.get(0));
+    assertEquals(original.getSplitKey(), splits.get(0).getSplitKey());
+    assertEquals(7, HiveSplitXattr.parseFrom(splits.get(0).getExtendedProperty().toByteArray()).getPartitionId());
+    assertEquals(0, HiveSplitXattr.parseFrom(original.getExtendedProperty().toByteArray()).getPartitionId());
+  }
+
+  @Test
+  public void tableSignatureChangeDiscardsPartitions() {
+    final HivePartitionCache cache = new HivePartitionCache(10, 1000);
+    cache.putTable("db", "t", 1, ImmutableMap.of("year=2018", new HivePartitionCache.CachedPartition(
+        partition("/warehouse/t/year=2018", "100"), null, Collections.emptyList(), new HiveStats(5, 10))), 0);
+
+    assertEquals(1, cache.getTable("db", "t", 1).size());
+    assertNotNull(cache.getTable("db", "t", 1).getPartition("year=2018"));
+    assertNull(cache.getTable("db", "t", 2));
+    assertNull(cache.getTable("db", "t2", 1));
+  }
+
+  @Test
+  public void refreshReplacesPartitions() {
+    final HivePartitionCache cache = new HivePartitionCache(10, 1000);
+    final Map<String, HivePartitionCache.CachedPartition> partitions = new HashMap<>();
+    partitions.put("year=2018", new HivePartitionCache.CachedPartition(
+        partition("/warehouse/t/year=2018", "100"), null, Collections.emptyList(), new HiveStats(5, 10)));
+    cache.putTable("db", "t", 1, partitions, 0);
+    final HivePartitionCache.CachedTable previous = cache.getTable("db", "t", 1);
+
+    // the cached snapshot isn't affected by later changes to the partitions it was created from
+    partitions.clear();
+    assertEquals(1, previous.size());
+
+    cache.putTable("db", "t", 1, ImmutableMap.of("year=2019", new HivePartitionCache.CachedPartition(
+        partition("/warehouse/t/year=2019", "100"), null, Collections.emptyList(), new HiveStats(5, 10))), 0);
+    assertNull(cache.getTable("db", "t", 1).getPartition("year=2018"));
+    assertNotNull(cache.getTable("db", "t", 1).getPartition("year=2019"));
+    // readers of the previous snapshot still see all of its partitions
+    assertNotNull(previous.getPartition("year=2018"));
+  }
+
+  @Test
+  public void invalidatedTableIsDropped() {
+    final HivePartitionCache cache = new HivePartitionCache(10, 1000);
+    cache.putTable("db", "t", 1, Collections.emptyMap(), 0);
+    cache.putTable("db", "t2", 1, Collections.emptyMap(), 0);
+
+    cache.invalidateTable("db", "t");
+    assertNull(cache.getTable("db", "t", 1));
+    assertNotNull(cache.getTable("db", "t2", 1));
+  }
+
+  @Test
+  public void refreshedDefinitionsOnlyInvalidateChangedPartitions() {
+    final HivePartitionCache cache = new HivePartitionCache(10, 1000);
+    cache.putTable("db", "t", 1, ImmutableMap.of(
+        "year=2017", new HivePartitionCache.CachedPartition(
+            partition("/warehouse/t/year=2017", "100"), updateKey(0, 1L), ImmutableList.of(split(0)), new HiveStats(5, 10)),
+        "year=2018", new HivePartitionCache.CachedPartition(
+            partition("/warehouse/t/year=2018", "100"), updateKey(1, 1L), ImmutableList.of(split(1)), new HiveStats(5, 10)),
+        "year=2019", new HivePartitionCache.CachedPartition(
+            partition("/warehouse/t/year=2019", "100"), updateKey(2, 1L), ImmutableList.of(split(2)), new HiveStats(5, 10))),
+        0);
+
+    // year=2017 is unchanged, year=2018 was altered, year=2019 was dropped and year=2020 added
+    final Map<String, Partition> current = ImmutableMap.of(
+        "year=2017", partition("/warehouse/t/year=2017", "100"),
+        "year=2018", partition("/warehouse/t/year=2018", "200"),
+        "year=2020", partition("/warehouse/t/year=2020", "100"));
+    assertEquals(2, cache.refreshDefinitions("db", "t", current, 5000));
+
+    final HivePartitionCache.CachedTable table = cache.getTable("db", "t", 1);
+    assertEquals(5000, table.getDefinitionsFetchedMillis());
+    assertEquals(2, table.size());
+    assertNull(table.getPartition("year=2019"));
+    // new partitions are left to the refresh
+    assertNull(table.getPartition("year=2020"));
+
+    final HivePartitionCache.CachedPartition unchanged = table.getPartition("year=2017");
+    assertTrue(unchanged.isValid(unchanged.getPartition(), updateKey(0, 1L)));
+
+    // the refreshed definition is reused, but no longer matches the one the splits were generated from
+    final HivePartitionCache.CachedPartition changed = table.getPartition("year=2018");
+    assertEquals("200", changed.getPartition().getParameters().get(DDL_TIME));
+    assertFalse(changed.isValid(changed.getPartition(), updateKey(1, 1L)));
+  }
+
+  @Test
+  public void refreshingDefinitionsOfUncachedTable() {
+    final HivePartitionCache cache = new HivePartitionCache(10, 1000);
+    assertEquals(0, cache.refreshDefinitions("db", "t",
+        ImmutableMap.of("year=2018", partition("/warehouse/t/year=2018", "100")), 5000));
+    assertNull(cache.getTable("db", "t", 1));
+  }
+
+  @Test
+  public void definitionsAreReusedUntilMaxAge() {
+    final HivePartitionCache cache = new HivePartitionCache(10, 1000);
+    cache.putTable("db", "t", 1, Collections.emptyMap(), 5000);
+    final HivePartitionCache.CachedTable table = cache.getTable("db", "t", 1);
+
+    assertTrue(cache.canReuseDefinitions(table, 5999));
+    assertFalse(cache.canReuseDefinitions(table, 6000));
+    assertFalse(cache.canReuseDefinitions(null, 5000));
+    assertFalse(new HivePartitionCache(10, 0).canReuseDefinitions(table, 5000));
+  }
+
+  @Test
+  public void cachedDefinitionIsACopy() {
+    final Partition partition = partition("/warehouse/t/year=2018", "100");
+    final HivePartitionCache.CachedPartition cached = new HivePartitionCache.CachedPartition(
+        partition, null, Collections.emptyList(), new HiveStats(5, 10));
+    partition.getSd().setLocation("/warehouse/t2/year=2018");
+
+    assertEquals("/warehouse/t/year=2018", cached.getPartition().getSd().getLocation());
+  }
+}
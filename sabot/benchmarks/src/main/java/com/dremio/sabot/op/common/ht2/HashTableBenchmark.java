@@ -0,0 +1,139 @@
+/*
+ * Copyright (C) 2017-2018 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.op.common.ht2;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.dremio.common.AutoCloseables;
+import com.koloboke.collect.hash.HashConfig;
+
+/**
+ * Insert and find throughput of {@link LBlockHashTable}. Each invocation goes through all the keys of
+ * {@link #BATCHES} batches, so scores are per batchSize * {@link #BATCHES} keys.
+ *
+ * insert starts from a table sized for all the distinct keys while insertWithRehash starts from the smallest table,
+ * the difference between the two is the cost of rehashing.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class HashTableBenchmark {
+
+  private static final int BATCHES = 64;
+  private static final int MIN_SIZE = 16;
+
+  // number of 8 byte key columns
+  @Param({"1", "2", "4"})
+  public int fixedColumns;
+
+  // length of the variable width key, 0 for fixed width keys only
+  @Param({"0", "16"})
+  public int varLength;
+
+  // number of distinct keys, the highest is about as many as there are keys
+  @Param({"1024", "65536", "1048576"})
+  public int cardinality;
+
+  @Param({"1024", "4096"})
+  public int batchSize;
+
+  private BufferAllocator allocator;
+  private KeyBatches keys;
+  private LBlockHashTable populated;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    allocator = new RootAllocator(Long.MAX_VALUE);
+    keys = new KeyBatches(allocator, fixedColumns, varLength, cardinality, BATCHES, batchSize);
+    populated = newTable(getInitialSize());
+    for (int b = 0; b < keys.getBatchCount(); b++) {
+      final long fixedAddr = keys.getFixed(b).getMemoryAddress();
+      final long varAddr = keys.getVariable(b).getMemoryAddress();
+      for (int i = 0; i < batchSize; i++) {
+        populated.add(fixedAddr, varAddr, i, keys.getHash(b, i));
+      }
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws Exception {
+    AutoCloseables.close(populated, keys, allocator);
+  }
+
+  @Benchmark
+  public void insert(Blackhole blackhole) throws Exception {
+    try (LBlockHashTable table = newTable(getInitialSize())) {
+      insert(table, blackhole);
+    }
+  }
+
+  @Benchmark
+  public void insertWithRehash(Blackhole blackhole) throws Exception {
+    try (LBlockHashTable table = newTable(MIN_SIZE)) {
+      insert(table, blackhole);
+    }
+  }
+
+  @Benchmark
+  public void find(Blackhole blackhole) {
+    for (int b = 0; b < keys.getBatchCount(); b++) {
+      final long fixedAddr = keys.getFixed(b).getMemoryAddress();
+      final long varAddr = keys.getVariable(b).getMemoryAddress();
+      for (int i = 0; i < batchSize; i++) {
+        blackhole.consume(populated.find(fixedAddr, varAddr, i, keys.getHash(b, i)));
+      }
+    }
+  }
+
+  private void insert(LBlockHashTable table, Blackhole blackhole) {
+    for (int b = 0; b < keys.getBatchCount(); b++) {
+      final long fixedAddr = keys.getFixed(b).getMemoryAddress();
+      final long varAddr = keys.getVariable(b).getMemoryAddress();
+      for (int i = 0; i < batchSize; i++) {
+        blackhole.consume(table.add(fixedAddr, varAddr, i, keys.getHash(b, i)));
+      }
+    }
+  }
+
+  private int getInitialSize() {
+    return Math.min(cardinality, BATCHES * batchSize);
+  }
+
+  private LBlockHashTable newTable(int initialSize) {
+    return new LBlockHashTable(HashConfig.getDefault(), keys.getPivot(), allocator, initialSize, varLength, false,
+      ResizeListener.NO_OP, batchSize);
+  }
+}
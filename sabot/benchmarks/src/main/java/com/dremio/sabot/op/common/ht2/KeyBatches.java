@@ -0,0 +1,147 @@
+/*
+ * Copyright (C) 2017-2018 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.op.common.ht2;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.SimpleBigIntVector;
+import org.apache.arrow.vector.VarCharVector;
+
+import com.dremio.common.AutoCloseables;
+import com.google.common.base.Strings;
+import com.google.common.collect.Lists;
+
+/**
+ * Batches of generated keys, pivoted and hashed the way the hash aggregate and hash join operators do before probing
+ * their hash table. Keys are made of BIGINT columns, optionally followed by a VARCHAR column, and drawn at random
+ * out of a given number of distinct keys. The random generator is seeded, so every run works on the same keys.
+ */
+class KeyBatches implements AutoCloseable {
+
+  private static final long SEED = 0x5EED;
+
+  private final PivotDef pivot;
+  private final List<FieldVector> incoming = Lists.newArrayList();
+  private final List<FieldVector> outgoing = Lists.newArrayList();
+  private final FixedBlockVector[] fixed;
+  private final VariableBlockVector[] variable;
+  private final SimpleBigIntVector[] hashes;
+  private final int batchSize;
+
+  /**
+   * @param allocator allocator for the vectors
+   * @param fixedColumns number of BIGINT key columns
+   * @param varLength length of the values of the VARCHAR key column, no VARCHAR column if 0
+   * @param cardinality number of distinct keys
+   * @param batchCount number of batches
+   * @param batchSize number of keys in each batch
+   */
+  KeyBatches(BufferAllocator allocator, int fixedColumns, int varLength, int cardinality, int batchCount, int batchSize) {
+    this.batchSize = batchSize;
+    final List<FieldVectorPair> pairs = Lists.newArrayList();
+    for (int i = 0; i < fixedColumns; i++) {
+      final BigIntVector in = new BigIntVector("key" + i, allocator);
+      final BigIntVector out = new BigIntVector("key" + i, allocator);
+      in.allocateNew(batchSize);
+      add(pairs, in, out);
+    }
+    if (varLength > 0) {
+      final VarCharVector in = new VarCharVector("varkey", allocator);
+      final VarCharVector out = new VarCharVector("varkey", allocator);
+      in.allocateNew((long) varLength * batchSize, batchSize);
+      add(pairs, in, out);
+    }
+    this.pivot = PivotBuilder.getBlockDefinition(pairs);
+
+    final Random random = new Random(SEED);
+    this.fixed = new FixedBlockVector[batchCount];
+    this.variable = new VariableBlockVector[batchCount];
+    this.hashes = new SimpleBigIntVector[batchCount];
+    for (int b = 0; b < batchCount; b++) {
+      // the incoming vectors are left holding the keys of the last batch
+      for (int i = 0; i < batchSize; i++) {
+        final long key = random.nextInt(cardinality);
+        for (int c = 0; c < fixedColumns; c++) {
+          // different values in each column, so all of the key bytes matter
+          ((BigIntVector) incoming.get(c)).set(i, key * (c + 1));
+        }
+        if (varLength > 0) {
+          final byte[] value = Strings.padStart(Long.toString(key), varLength, '0').getBytes(StandardCharsets.UTF_8);
+          ((VarCharVector) incoming.get(fixedColumns)).setSafe(i, value, 0, value.length);
+        }
+      }
+      for (FieldVector vector : incoming) {
+        vector.setValueCount(batchSize);
+      }
+
+      fixed[b] = new FixedBlockVector(allocator, pivot.getBlockWidth());
+      variable[b] = new VariableBlockVector(allocator, pivot.getVariableCount());
+      Pivots.pivot(pivot, batchSize, fixed[b], variable[b]);
+      hashes[b] = new SimpleBigIntVector("hashes" + b, allocator);
+      hashes[b].allocateNew(batchSize);
+      computeHash(b);
+    }
+  }
+
+  private void add(List<FieldVectorPair> pairs, FieldVector in, FieldVector out) {
+    incoming.add(in);
+    outgoing.add(out);
+    pairs.add(new FieldVectorPair(in, out));
+  }
+
+  PivotDef getPivot() {
+    return pivot;
+  }
+
+  int getBatchCount() {
+    return fixed.length;
+  }
+
+  int getBatchSize() {
+    return batchSize;
+  }
+
+  FixedBlockVector getFixed(int batch) {
+    return fixed[batch];
+  }
+
+  VariableBlockVector getVariable(int batch) {
+    return variable[batch];
+  }
+
+  int getHash(int batch, int record) {
+    return (int) hashes[batch].get(record);
+  }
+
+  /**
+   * Computes the hash values of the keys of the given batch.
+   */
+  void computeHash(int batch) {
+    HashComputation.computeHash(new BlockChunk(fixed[batch].getMemoryAddress(), variable[batch].getMemoryAddress(),
+      pivot.getVariableCount() == 0, pivot.getBlockWidth(), batchSize, hashes[batch].getBufferAddress(), 0));
+  }
+
+  @Override
+  public void close() throws Exception {
+    AutoCloseables.close(incoming, outgoing, Lists.newArrayList(fixed), Lists.newArrayList(variable),
+      Lists.newArrayList(hashes));
+  }
+}
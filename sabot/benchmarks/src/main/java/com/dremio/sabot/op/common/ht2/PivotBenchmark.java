@@ -0,0 +1,95 @@
+/*
+ * Copyright (C) 2017-2018 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.op.common.ht2;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.dremio.common.AutoCloseables;
+
+/**
+ * Time to pivot a batch of key columns into fixed and variable blocks, and to unpivot them back into columns. Scores
+ * are per batch.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class PivotBenchmark {
+
+  // number of 8 byte key columns
+  @Param({"1", "2", "4"})
+  public int fixedColumns;
+
+  // length of the variable width key, 0 for fixed width keys only
+  @Param({"0", "16"})
+  public int varLength;
+
+  @Param({"1024", "4096"})
+  public int batchSize;
+
+  private BufferAllocator allocator;
+  private KeyBatches keys;
+  private FixedBlockVector fixed;
+  private VariableBlockVector variable;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    allocator = new RootAllocator(Long.MAX_VALUE);
+    keys = new KeyBatches(allocator, fixedColumns, varLength, batchSize, 1, batchSize);
+    fixed = new FixedBlockVector(allocator, keys.getPivot().getBlockWidth());
+    variable = new VariableBlockVector(allocator, keys.getPivot().getVariableCount());
+    // sizes the blocks, bounded pivots don't expand them
+    Pivots.pivot(keys.getPivot(), batchSize, fixed, variable);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws Exception {
+    AutoCloseables.close(fixed, variable, keys, allocator);
+  }
+
+  @Benchmark
+  public void pivot() {
+    Pivots.pivot(keys.getPivot(), batchSize, fixed, variable);
+  }
+
+  @Benchmark
+  public void boundedPivot() {
+    BoundedPivots.pivot(keys.getPivot(), 0, batchSize, fixed, variable);
+  }
+
+  @Benchmark
+  public void unpivot() {
+    Unpivots.unpivot(keys.getPivot(), keys.getFixed(0), keys.getVariable(0), 0, batchSize);
+  }
+}
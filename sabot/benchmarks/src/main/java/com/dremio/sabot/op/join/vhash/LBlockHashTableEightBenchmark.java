@@ -0,0 +1,119 @@
+/*
+ * Copyright (C) 2017-2018 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.op.join.vhash;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.dremio.common.AutoCloseables;
+import com.dremio.sabot.op.common.ht2.HashComputation;
+import com.koloboke.collect.hash.HashConfig;
+
+/**
+ * Insert and get throughput of {@link LBlockHashTableEight}, the hash table of the hash joins on a single 8 byte key.
+ * Scores are per {@link #KEYS} keys.
+ *
+ * insert starts from a table sized for all the distinct keys while insertWithRehash starts from the smallest table,
+ * the difference between the two is the cost of rehashing.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class LBlockHashTableEightBenchmark {
+
+  private static final long SEED = 0x5EED;
+  private static final int KEYS = 1 << 18;
+  private static final int MIN_SIZE = 16;
+
+  // number of distinct keys, the highest is about as many as there are keys
+  @Param({"1024", "65536", "262144"})
+  public int cardinality;
+
+  private BufferAllocator allocator;
+  private long[] keys;
+  private int[] hashes;
+  private LBlockHashTableEight populated;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    allocator = new RootAllocator(Long.MAX_VALUE);
+    final Random random = new Random(SEED);
+    keys = new long[KEYS];
+    hashes = new int[KEYS];
+    for (int i = 0; i < KEYS; i++) {
+      keys[i] = random.nextInt(cardinality);
+      // same hash values as computed by the hash join before inserting or probing
+      hashes[i] = (int) HashComputation.computeHash(keys[i]);
+    }
+
+    populated = new LBlockHashTableEight(HashConfig.getDefault(), allocator, cardinality);
+    for (int i = 0; i < KEYS; i++) {
+      populated.insert(keys[i], hashes[i]);
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws Exception {
+    AutoCloseables.close(populated, allocator);
+  }
+
+  @Benchmark
+  public void insert(Blackhole blackhole) throws Exception {
+    try (LBlockHashTableEight table = new LBlockHashTableEight(HashConfig.getDefault(), allocator, cardinality)) {
+      insert(table, blackhole);
+    }
+  }
+
+  @Benchmark
+  public void insertWithRehash(Blackhole blackhole) throws Exception {
+    try (LBlockHashTableEight table = new LBlockHashTableEight(HashConfig.getDefault(), allocator, MIN_SIZE)) {
+      insert(table, blackhole);
+    }
+  }
+
+  @Benchmark
+  public void get(Blackhole blackhole) {
+    for (int i = 0; i < KEYS; i++) {
+      blackhole.consume(populated.get(keys[i], hashes[i]));
+    }
+  }
+
+  private void insert(LBlockHashTableEight table, Blackhole blackhole) {
+    for (int i = 0; i < KEYS; i++) {
+      blackhole.consume(table.insert(keys[i], hashes[i]));
+    }
+  }
+}
@@ -78,6 +78,9 @@ public interface ExecConstants {
   // Splits are enabled when this is set to true and QUERY_EXEC_OPTION is set to Gandiva
   BooleanValidator SPLIT_ENABLED = new BooleanValidator("exec.expression.split.enabled", true);
 
+  // When enabled, java expressions are interpreted while they are compiled in the background
+  BooleanValidator ASYNC_COMPILATION_ENABLED = new BooleanValidator("exec.expression.async_compilation.enabled", false);
+
   // Whether or not to replace a group of ORs with a set operation.
   BooleanValidator FAST_OR_ENABLE = new BooleanValidator("exec.operator.orfast", true);
 
@@ -120,8 +123,12 @@ public interface ExecConstants {
   BooleanValidator ENABLE_VECTORIZED_HASHAGG = new BooleanValidator("exec.operator.aggregate.vectorize", true);
   BooleanValidator ENABLE_VECTORIZED_HASHJOIN = new BooleanValidator("exec.operator.join.vectorize", true);
   BooleanValidator ENABLE_VECTORIZED_HASHJOIN_SPECIFIC = new BooleanValidator("exec.operator.join.vectorize.specific", false);
+  // build a broadcast hash join side once per node, and probe it from all the fragments of the join on the node
+  BooleanValidator ENABLE_SHARED_BROADCAST_HASHJOIN = new BooleanValidator("exec.operator.join.shared_broadcast_build", true);
   BooleanValidator ENABLE_VECTORIZED_COPIER = new BooleanValidator("exec.operator.copier.vectorize", true);
   BooleanValidator ENABLE_VECTORIZED_PARTITIONER = new BooleanValidator("exec.operator.partitioner.vectorize", true);
+  // hand batches sent to fragments of the same node directly to the receiver instead of going through the fabric
+  BooleanValidator ENABLE_LOCAL_EXCHANGE = new BooleanValidator("exec.exchange.local.enabled", true);
   BooleanValidator DEBUG_HASHJOIN_INSERTION = new BooleanValidator("exec.operator.join.debug-insertion", false);
 
   String OUTPUT_FORMAT_OPTION = "store.format";
@@ -318,6 +325,12 @@ public interface ExecConstants {
 
   String BOOTSTRAP_STORAGE_PLUGINS_FILE = "bootstrap-storage-plugins.json";
   String MAX_LOADING_CACHE_SIZE_CONFIG = "dremio.exec.compile.cache_max_size";
+  String CODE_CACHE_ENABLED_CONFIG = "dremio.exec.compile.disk_cache.enabled";
+  String CODE_CACHE_PATH_CONFIG = "dremio.exec.compile.disk_cache.path";
+  String CODE_CACHE_MAX_SIZE_CONFIG = "dremio.exec.compile.disk_cache.max_size";
+  String CODE_CACHE_SHARED_PATH_CONFIG = "dremio.exec.compile.disk_cache.shared_path";
+  String GANDIVA_CACHE_MAX_SIZE_CONFIG = "dremio.exec.gandiva.cache_max_size";
+  String GANDIVA_CACHE_EXPIRE_AFTER_ACCESS_MINUTES_CONFIG = "dremio.exec.gandiva.cache_expire_after_access_minutes";
 
   String ENABLE_WINDOW_FUNCTIONS = "window.enable";
   OptionValidator ENABLE_WINDOW_FUNCTIONS_VALIDATOR = new BooleanValidator(ENABLE_WINDOW_FUNCTIONS, true);
@@ -358,6 +371,8 @@ public interface ExecConstants {
   LongValidator PARQUET_MULTI_STREAM_SIZE_LIMIT = new LongValidator("store.parquet.multi_stream_limit", 1024*1024);
   BooleanValidator PARQUET_MULTI_STREAM_SIZE_LIMIT_ENABLE = new BooleanValidator("store.parquet.multi_stream_limit.enable", true);
   BooleanValidator PARQUET_CACHED_ENTITY_SET_FILE_SIZE = new BooleanValidator("store.parquet.set_file_length",true);
+  // number of parquet readers a scan creates ahead of the one it reads, so opening the next files overlaps reading
+  RangeLongValidator PARQUET_PREFETCH_READERS = new RangeLongValidator("store.parquet.prefetch_readers", 0, 2, 1);
   LongValidator RESULTS_MAX_AGE_IN_DAYS = new LongValidator("results.max.age_in_days", 30);
   //Configuration used for testing or debugging
   LongValidator DEBUG_RESULTS_MAX_AGE_IN_MILLISECONDS = new LongValidator("debug.results.max.age_in_milliseconds", 0);
@@ -374,6 +389,27 @@ public interface ExecConstants {
 
   PositiveLongValidator EXTERNAL_SORT_BATCHSIZE_MULTIPLIER = new PositiveLongValidator("exec.operator.sort.external.batchsize_multiplier", Character.MAX_VALUE, 2);
 
+  // sort batches on fixed width keys by radix sorting their normalized keys instead of using generated comparisons
+  BooleanValidator EXTERNAL_SORT_NORMALIZED_KEYS = new BooleanValidator("exec.operator.sort.external.normalized_keys", true);
+
+  // drop the records a full top n queue can't accept before transferring and heaping them
+  BooleanValidator TOPN_THRESHOLD_FILTER = new BooleanValidator("exec.operator.topn.threshold_filter", true);
+
+  BooleanValidator WINDOW_SPILL_ENABLED = new BooleanValidator("exec.operator.window.spill.enabled", true);
+
+  /**
+   * Once the batches buffered by the window operator exceed this size, batches in the middle of the current partition
+   * are spilled to disk.
+   */
+  PositiveLongValidator WINDOW_SPILL_THRESHOLD_BYTES = new PositiveLongValidator("exec.operator.window.spill.threshold_bytes", Long.MAX_VALUE, 256*1024*1024);
+
+  BooleanValidator NLJ_SPILL_ENABLED = new BooleanValidator("exec.operator.join.nlj.spill.enabled", true);
+
+  /**
+   * Once the right side batches buffered by the vectorized nested loop join exceed this size, they are spilled to disk.
+   */
+  PositiveLongValidator NLJ_SPILL_THRESHOLD_BYTES = new PositiveLongValidator("exec.operator.join.nlj.spill.threshold_bytes", Long.MAX_VALUE, 256*1024*1024);
+
   LongValidator VOTING_SCHEDULE = new PositiveLongValidator("vote.schedule.millis", Long.MAX_VALUE, 0);
   PositiveLongValidator LAST_SEARCH_REINDEX  = new PositiveLongValidator("dac.search.last_reindex",  Long.MAX_VALUE, 0);
   PositiveLongValidator SEARCH_MANAGER_REFRESH_MILLIS  = new PositiveLongValidator("dac.search.refresh",  Long.MAX_VALUE, TimeUnit.MINUTES.toMillis(1));
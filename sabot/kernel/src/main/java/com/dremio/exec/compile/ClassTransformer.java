@@ -169,35 +169,55 @@ public class ClassTransformer {
       final TemplateClassDefinition<?> templateDefinition,
       final String entireClass,
       final String materializedClassName) throws ClassTransformationException {
-    return getExtendedImplementationClass(classLoader, templateDefinition, entireClass, materializedClassName);
+    final long t1 = System.nanoTime();
+    final ClassBytes[] implementationClasses = compile(classLoader, templateDefinition, entireClass, materializedClassName);
+    final Class<?> c = loadImplementationClass(classLoader, templateDefinition, materializedClassName, implementationClasses);
+
+    long totalBytecodeSize = 0;
+    for (ClassBytes clazz : implementationClasses) {
+      totalBytecodeSize += clazz.getBytes().length;
+    }
+    logger.debug("Done compiling (bytecode size={}, time:{} millis).", DremioStringUtils.readable(totalBytecodeSize), (System.nanoTime() - t1) / 1000000);
+    return c;
   }
 
-  private Class<?> getExtendedImplementationClass(
+  /**
+   * Compiles the generated code into the bytecode of the implementation class and its inner classes.
+   */
+  public ClassBytes[] compile(
       final QueryClassLoader classLoader,
       final TemplateClassDefinition<?> templateDefinition,
       final String entireClass,
       final String materializedClassName) throws ClassTransformationException {
-
     try {
-      final long t1 = System.nanoTime();
       final ClassSet set = new ClassSet(null, templateDefinition.getTemplateClassName(), materializedClassName);
-      final ClassBytes[] implementationClasses = classLoader.getClassByteCode(set.generated, entireClass);
+      return classLoader.getClassByteCode(set.generated, entireClass);
+    } catch (CompileException | IOException | ClassNotFoundException e) {
+      throw new ClassTransformationException(String.format("Failure generating transformation classes for value: \n %s", entireClass), e);
+    }
+  }
 
-      long totalBytecodeSize = 0;
+  /**
+   * Loads previously compiled implementation classes in the given class loader.
+   */
+  public Class<?> loadImplementationClass(
+      final QueryClassLoader classLoader,
+      final TemplateClassDefinition<?> templateDefinition,
+      final String materializedClassName,
+      final ClassBytes[] implementationClasses) throws ClassTransformationException {
+    try {
       for (ClassBytes clazz : implementationClasses) {
-        totalBytecodeSize += clazz.getBytes().length;
         classLoader.injectByteCode(clazz.getName(), clazz.getBytes());
       }
 
-      Class<?> c = classLoader.findClass(set.generated.dot);
+      Class<?> c = classLoader.findClass(materializedClassName);
       if (templateDefinition.getExternalInterface().isAssignableFrom(c)) {
-        logger.debug("Done compiling (bytecode size={}, time:{} millis).", DremioStringUtils.readable(totalBytecodeSize), (System.nanoTime() - t1) / 1000000);
         return c;
       }
 
       throw new ClassTransformationException("The requested class did not implement the expected interface.");
-    } catch (CompileException | IOException | ClassNotFoundException e) {
-      throw new ClassTransformationException(String.format("Failure generating transformation classes for value: \n %s", entireClass), e);
+    } catch (IOException | ClassNotFoundException e) {
+      throw new ClassTransformationException(String.format("Failure loading transformation class %s", materializedClassName), e);
     }
   }
 
@@ -17,33 +17,54 @@ package com.dremio.exec.compile;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 
+import com.dremio.common.concurrent.NamedThreadFactory;
 import com.dremio.common.config.SabotConfig;
 import com.dremio.exec.ExecConstants;
 import com.dremio.exec.exception.ClassTransformationException;
 import com.dremio.exec.expr.CodeGenerator;
 import com.dremio.options.OptionManager;
+import com.dremio.sabot.op.llvm.GandivaModuleCache;
+import com.google.common.base.Stopwatch;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
 import com.google.common.collect.Lists;
 
-public class CodeCompiler {
-//  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(CodeCompiler.class);
+public class CodeCompiler implements AutoCloseable {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(CodeCompiler.class);
+
+  // compilations waiting for a background thread, beyond which they are done by the requesting thread
+  private static final int MAX_PENDING_ASYNC_COMPILATIONS = 64;
 
   private final ClassTransformer transformer;
   private final ClassCompilerSelector selector;
   private final LoadingCache<CodeGenerator<?>, GeneratedClassEntry> cache;
+  private final PersistentClassCache diskCache;
+  private final ThreadPoolExecutor asyncExecutor;
+  private final GandivaModuleCache gandivaModuleCache;
 
   public CodeCompiler(final SabotConfig config, final OptionManager optionManager) {
     transformer = new ClassTransformer(optionManager);
     selector = new ClassCompilerSelector(config, optionManager);
+    diskCache = PersistentClassCache.create(config);
+    final int asyncThreads = Math.max(1, Runtime.getRuntime().availableProcessors() / 4);
+    asyncExecutor = new ThreadPoolExecutor(asyncThreads, asyncThreads, 60, TimeUnit.SECONDS,
+        new LinkedBlockingQueue<>(MAX_PENDING_ASYNC_COMPILATIONS), new NamedThreadFactory("code-compiler-"),
+        new CompileInCallerPolicy());
+    asyncExecutor.allowCoreThreadTimeOut(true);
     final int cacheMaxSize = config.getInt(ExecConstants.MAX_LOADING_CACHE_SIZE_CONFIG);
     cache = CacheBuilder.newBuilder()
         .maximumSize(cacheMaxSize)
         .build(new Loader());
+    gandivaModuleCache = new GandivaModuleCache(config);
   }
 
   @SuppressWarnings("unchecked")
@@ -66,12 +87,62 @@ public class CodeCompiler {
     }
   }
 
+  /**
+   * Generates and compiles the implementation class on a background thread.
+   */
+  public <T> CompletableFuture<T> getImplementationClassAsync(final CodeGenerator<?> cg) {
+    return CompletableFuture.supplyAsync(() -> this.<T>getImplementationClass(cg), asyncExecutor);
+  }
+
+  /**
+   * @return the cache of the Gandiva modules built on this node
+   */
+  public GandivaModuleCache getGandivaModuleCache() {
+    return gandivaModuleCache;
+  }
+
+  @Override
+  public void close() {
+    // compilations still queued are dropped, callers keep interpreting their expressions until they are closed
+    asyncExecutor.shutdownNow();
+    gandivaModuleCache.invalidateAll();
+  }
+
+  /**
+   * Compiles in the requesting thread when too many compilations are pending, or once the compiler is closed.
+   */
+  private static class CompileInCallerPolicy implements RejectedExecutionHandler {
+    @Override
+    public void rejectedExecution(Runnable compilation, ThreadPoolExecutor executor) {
+      logger.debug("Background compilation unavailable, compiling synchronously");
+      compilation.run();
+    }
+  }
+
   private class Loader extends CacheLoader<CodeGenerator<?>, GeneratedClassEntry> {
     @Override
     public GeneratedClassEntry load(final CodeGenerator<?> cg) throws Exception {
       final QueryClassLoader loader = new QueryClassLoader(selector);
-      final Class<?> c = transformer.getImplementationClass(loader, cg.getDefinition(),
-          cg.getGeneratedCode(), cg.getMaterializedClassName());
+      if (diskCache == null) {
+        final Class<?> c = transformer.getImplementationClass(loader, cg.getDefinition(),
+            cg.getGeneratedCode(), cg.getMaterializedClassName());
+        return new GeneratedClassEntry(c);
+      }
+
+      final PersistentClassCache.Entry cached = diskCache.get(cg);
+      if (cached != null) {
+        // the cached classes keep the name they were compiled with, which is unique within the new class loader
+        return new GeneratedClassEntry(transformer.loadImplementationClass(loader, cg.getDefinition(),
+            cached.getClassName(), cached.getClasses()));
+      }
+
+      final Stopwatch watch = Stopwatch.createStarted();
+      final ClassBytes[] classes = transformer.compile(loader, cg.getDefinition(), cg.getGeneratedCode(),
+          cg.getMaterializedClassName());
+      final Class<?> c = transformer.loadImplementationClass(loader, cg.getDefinition(), cg.getMaterializedClassName(),
+          classes);
+      diskCache.put(cg, new PersistentClassCache.Entry(cg.getMaterializedClassName(), classes,
+          watch.elapsed(TimeUnit.MILLISECONDS)));
       return new GeneratedClassEntry(c);
     }
   }
@@ -0,0 +1,372 @@
+/*
+ * Copyright (C) 2017-2018 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.compile;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.MetricRegistry;
+import com.dremio.common.config.SabotConfig;
+import com.dremio.common.util.DremioVersionInfo;
+import com.dremio.exec.ExecConstants;
+import com.dremio.exec.expr.CodeGenerator;
+import com.dremio.metrics.Metrics;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Strings;
+import com.google.common.hash.Hashing;
+import com.google.common.io.Resources;
+
+/**
+ * Keeps the bytecode of generated classes on local disk, so a node doesn't have to generate and compile them again
+ * after a restart. Entries are keyed by a digest of the Dremio version, the template (including the bytecode of its
+ * class) and the generified code of the generator, so entries compiled against another template are never used.
+ *
+ * The local directory is bounded in size: once it grows over the limit, the least recently used entries are deleted.
+ *
+ * When a shared directory is configured, entries missing locally are looked up there and new entries are published
+ * there, so nodes can warm up from classes compiled by other nodes.
+ */
+class PersistentClassCache {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(PersistentClassCache.class);
+
+  private static final int FORMAT_VERSION = 1;
+  private static final String SUFFIX = ".classes";
+
+  private final Path localPath;
+  private final Path sharedPath;
+  private final String version;
+  private final long maxLocalBytes;
+  // digests of the bytecode of the templates, by template class name
+  private final ConcurrentMap<String, String> templateHashes = new ConcurrentHashMap<>();
+  // size of the entries in the local directory, computed on the first write
+  private long localBytes = -1;
+
+  private final Counter hits = Metrics.getInstance().counter(MetricRegistry.name("compile", "disk_cache", "hits"));
+  private final Counter misses = Metrics.getInstance().counter(MetricRegistry.name("compile", "disk_cache", "misses"));
+  private final Counter savedMillis = Metrics.getInstance().counter(MetricRegistry.name("compile", "disk_cache", "saved_millis"));
+  private final Counter evictions = Metrics.getInstance().counter(MetricRegistry.name("compile", "disk_cache", "evictions"));
+
+  /**
+   * @param maxLocalBytes maximum size of the entries kept in the local directory
+   */
+  PersistentClassCache(Path localPath, Path sharedPath, String version, long maxLocalBytes) {
+    this.localPath = localPath;
+    this.sharedPath = sharedPath;
+    this.version = version;
+    this.maxLocalBytes = maxLocalBytes;
+  }
+
+  /**
+   * @return the cache configured for this node, null if it is disabled
+   */
+  static PersistentClassCache create(SabotConfig config) {
+    if (!config.getBoolean(ExecConstants.CODE_CACHE_ENABLED_CONFIG)) {
+      return null;
+    }
+
+    final String local = config.getString(ExecConstants.CODE_CACHE_PATH_CONFIG);
+    if (Strings.isNullOrEmpty(local)) {
+      logger.warn("Generated classes disk cache is enabled but no path is configured, disabling it");
+      return null;
+    }
+
+    final String shared = config.getString(ExecConstants.CODE_CACHE_SHARED_PATH_CONFIG);
+    return new PersistentClassCache(Paths.get(local), Strings.isNullOrEmpty(shared) ? null : Paths.get(shared),
+      DremioVersionInfo.getVersion(), config.getBytes(ExecConstants.CODE_CACHE_MAX_SIZE_CONFIG));
+  }
+
+  /**
+   * Entry of the cache: the classes compiled for a generator, and the time it took to generate and compile them.
+   */
+  static class Entry {
+    private final String className;
+    private final ClassBytes[] classes;
+    private final long compileMillis;
+
+    Entry(String className, ClassBytes[] classes, long compileMillis) {
+      this.className = className;
+      this.classes = classes;
+      this.compileMillis = compileMillis;
+    }
+
+    String getClassName() {
+      return className;
+    }
+
+    ClassBytes[] getClasses() {
+      return classes;
+    }
+
+    long getCompileMillis() {
+      return compileMillis;
+    }
+  }
+
+  /**
+   * @return the classes previously compiled for an equivalent generator, or null if none were stored
+   */
+  Entry get(CodeGenerator<?> cg) {
+    final String key = getKey(cg);
+    return key == null ? null : get(key);
+  }
+
+  /**
+   * Stores the classes compiled for the given generator.
+   */
+  void put(CodeGenerator<?> cg, Entry entry) {
+    final String key = getKey(cg);
+    if (key != null) {
+      put(key, entry);
+    }
+  }
+
+  @VisibleForTesting
+  Entry get(String key) {
+    final Path localFile = localPath.resolve(key + SUFFIX);
+    Entry entry = read(localFile);
+    if (entry != null) {
+      // eviction deletes the entries that were least recently used first
+      touch(localFile);
+    } else if (sharedPath != null) {
+      entry = read(sharedPath.resolve(key + SUFFIX));
+      if (entry != null) {
+        writeLocal(key, entry);
+      }
+    }
+
+    if (entry == null) {
+      misses.inc();
+      return null;
+    }
+
+    hits.inc();
+    savedMillis.inc(entry.getCompileMillis());
+    return entry;
+  }
+
+  @VisibleForTesting
+  void put(String key, Entry entry) {
+    writeLocal(key, entry);
+    if (sharedPath != null) {
+      write(sharedPath, key, entry);
+    }
+  }
+
+  /**
+   * @return key of the classes compiled for the given generator, null if the template bytecode can't be read
+   */
+  private String getKey(CodeGenerator<?> cg) {
+    final String templateHash = getTemplateHash(cg.getDefinition().getTemplateClassName());
+    if (templateHash == null) {
+      return null;
+    }
+
+    return Hashing.sha256().newHasher()
+      .putString(version, StandardCharsets.UTF_8)
+      .putString(cg.getDefinition().getTemplateClassName(), StandardCharsets.UTF_8)
+      .putString(templateHash, StandardCharsets.UTF_8)
+      .putString(cg.getDefinition().getExternalInterface().getName(), StandardCharsets.UTF_8)
+      .putString(cg.getGenerifiedCode(), StandardCharsets.UTF_8)
+      .hash()
+      .toString();
+  }
+
+  private String getTemplateHash(String templateClassName) {
+    final String cached = templateHashes.get(templateClassName);
+    if (cached != null) {
+      return cached;
+    }
+
+    final URL url = PersistentClassCache.class.getResource("/" + templateClassName.replace('.', '/') + ".class");
+    if (url == null) {
+      logger.debug("Bytecode of template {} not found, its classes are not cached", templateClassName);
+      return null;
+    }
+
+    try {
+      final String hash = Hashing.sha256().hashBytes(Resources.toByteArray(url)).toString();
+      templateHashes.put(templateClassName, hash);
+      return hash;
+    } catch (IOException e) {
+      logger.warn("Failure while reading the bytecode of template {}, its classes are not cached", templateClassName, e);
+      return null;
+    }
+  }
+
+  private Entry read(Path file) {
+    try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+      if (in.readInt() != FORMAT_VERSION) {
+        return null;
+      }
+      final String className = in.readUTF();
+      final long compileMillis = in.readLong();
+      final ClassBytes[] classes = new ClassBytes[in.readInt()];
+      for (int i = 0; i < classes.length; i++) {
+        final String name = in.readUTF();
+        final byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        classes[i] = new ClassBytes(name, bytes);
+      }
+      return new Entry(className, classes, compileMillis);
+    } catch (NoSuchFileException e) {
+      return null;
+    } catch (IOException e) {
+      logger.warn("Failure while reading generated classes from {}, ignoring it", file, e);
+      return null;
+    }
+  }
+
+  private synchronized void writeLocal(String key, Entry entry) {
+    final long size = write(localPath, key, entry);
+    if (size < 0) {
+      return;
+    }
+
+    if (localBytes < 0) {
+      // the entries written before this node started
+      localBytes = listLocalEntries().stream().mapToLong(LocalEntry::getSize).sum();
+    } else {
+      localBytes += size;
+    }
+
+    if (localBytes > maxLocalBytes) {
+      evict();
+    }
+  }
+
+  /**
+   * Deletes the least recently used local entries, until the local entries take at most 3/4 of the maximum size so
+   * that the next writes don't evict again right away.
+   */
+  private void evict() {
+    final List<LocalEntry> entries = listLocalEntries();
+    entries.sort(Comparator.comparing(LocalEntry::getLastModified));
+    long remaining = entries.stream().mapToLong(LocalEntry::getSize).sum();
+    for (LocalEntry entry : entries) {
+      if (remaining <= maxLocalBytes / 4 * 3) {
+        break;
+      }
+      try {
+        Files.deleteIfExists(entry.getPath());
+        remaining -= entry.getSize();
+        evictions.inc();
+      } catch (IOException e) {
+        logger.warn("Failure while deleting generated classes {}", entry.getPath(), e);
+      }
+    }
+    localBytes = remaining;
+  }
+
+  private List<LocalEntry> listLocalEntries() {
+    final List<LocalEntry> entries = new ArrayList<>();
+    try (DirectoryStream<Path> files = Files.newDirectoryStream(localPath, "*" + SUFFIX)) {
+      for (Path file : files) {
+        try {
+          entries.add(new LocalEntry(file, Files.size(file), Files.getLastModifiedTime(file)));
+        } catch (NoSuchFileException e) {
+          // deleted meanwhile
+        }
+      }
+    } catch (IOException e) {
+      logger.warn("Failure while listing generated classes in {}", localPath, e);
+    }
+    return entries;
+  }
+
+  private static void touch(Path file) {
+    try {
+      Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+    } catch (IOException e) {
+      logger.debug("Failure while updating the modification time of {}", file, e);
+    }
+  }
+
+  /**
+   * @return the size of the written entry, -1 if it couldn't be written
+   */
+  private long write(Path directory, String key, Entry entry) {
+    // write to a temporary file first so concurrent readers, possibly on other nodes, never see partial entries
+    final Path tmp = directory.resolve(key + "." + UUID.randomUUID() + ".tmp");
+    try {
+      Files.createDirectories(directory);
+      try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+        out.writeInt(FORMAT_VERSION);
+        out.writeUTF(entry.getClassName());
+        out.writeLong(entry.getCompileMillis());
+        out.writeInt(entry.getClasses().length);
+        for (ClassBytes clazz : entry.getClasses()) {
+          out.writeUTF(clazz.getName());
+          out.writeInt(clazz.getBytes().length);
+          out.write(clazz.getBytes());
+        }
+      }
+      final long size = Files.size(tmp);
+      Files.move(tmp, directory.resolve(key + SUFFIX), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      return size;
+    } catch (IOException e) {
+      logger.warn("Failure while writing generated classes to {}", directory, e);
+      try {
+        Files.deleteIfExists(tmp);
+      } catch (IOException ex) {
+        // ignore
+      }
+      return -1;
+    }
+  }
+
+  private static final class LocalEntry {
+    private final Path path;
+    private final long size;
+    private final FileTime lastModified;
+
+    private LocalEntry(Path path, long size, FileTime lastModified) {
+      this.path = path;
+      this.size = size;
+      this.lastModified = lastModified;
+    }
+
+    Path getPath() {
+      return path;
+    }
+
+    long getSize() {
+      return size;
+    }
+
+    FileTime getLastModified() {
+      return lastModified;
+    }
+  }
+}
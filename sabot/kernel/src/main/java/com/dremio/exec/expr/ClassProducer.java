@@ -20,6 +20,7 @@ import com.dremio.common.expression.LogicalExpression;
 import com.dremio.exec.compile.TemplateClassDefinition;
 import com.dremio.exec.record.VectorAccessible;
 import com.dremio.sabot.exec.context.FunctionContext;
+import com.dremio.sabot.op.llvm.GandivaModuleCache;
 
 public interface ClassProducer {
   <T> CodeGenerator<T> createGenerator(TemplateClassDefinition<T> definition);
@@ -28,5 +29,6 @@ public interface ClassProducer {
   LogicalExpression materializeAndAllowComplex(ExpressionEvaluationOptions options, LogicalExpression expr, VectorAccessible batch);
   LogicalExpression addImplicitCast(LogicalExpression fromExpr, CompleteType toType);
   FunctionContext getFunctionContext();
+  GandivaModuleCache getGandivaModuleCache();
 
 }
@@ -38,6 +38,7 @@ import com.dremio.exec.store.PartitionExplorer;
 import com.dremio.sabot.exec.context.CompilationOptions;
 import com.dremio.sabot.exec.context.ContextInformation;
 import com.dremio.sabot.exec.context.FunctionContext;
+import com.dremio.sabot.op.llvm.GandivaModuleCache;
 import com.google.common.base.Function;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
@@ -111,6 +112,11 @@ public class ClassProducerImpl implements ClassProducer {
     return functionContext;
   }
 
+  @Override
+  public GandivaModuleCache getGandivaModuleCache() {
+    return compiler.getGandivaModuleCache();
+  }
+
   public class ProducerFunctionContext implements FunctionContext {
     /** Stores constants and their holders by type */
     private final Map<String, Map<MinorType, ValueHolder>> constantValueHolderCache;
@@ -17,6 +17,7 @@ package com.dremio.exec.expr;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.regex.Pattern;
 
 import com.dremio.exec.compile.CodeCompiler;
@@ -113,6 +114,14 @@ public class CodeGenerator<T> {
     return generatedCode;
   }
 
+  /**
+   * @return the generated code, with the name of the generated class replaced by a generic one. Equivalent
+   * generators have the same generified code
+   */
+  public String getGenerifiedCode() {
+    return generifiedCode;
+  }
+
   public TemplateClassDefinition<T> getDefinition() {
     return definition;
   }
@@ -168,6 +177,13 @@ public class CodeGenerator<T> {
     return compiler.getImplementationClass(this);
   }
 
+  /**
+   * Generates and compiles the implementation class on a background thread.
+   */
+  public CompletableFuture<T> getImplementationClassAsync(){
+    return compiler.getImplementationClassAsync(this);
+  }
+
   public List<T> getImplementationClass(final int instanceCount){
     return compiler.getImplementationClass(this, instanceCount);
   }
@@ -38,6 +38,7 @@ import com.dremio.exec.record.VectorAccessible;
 import com.dremio.exec.record.VectorContainer;
 import com.dremio.exec.record.VectorWrapper;
 import com.dremio.sabot.exec.context.OperatorContext;
+import com.dremio.sabot.op.filter.VectorContainerWithSV;
 import com.dremio.sabot.op.llvm.expr.GandivaPushdownSieve;
 import com.google.common.base.Stopwatch;
 import com.google.common.collect.Lists;
@@ -61,6 +62,9 @@ public class ExpressionSplitter implements AutoCloseable {
   // and the elements for the intermediate tree-roots
   final VectorContainer vectorContainer;
 
+  // selection vector mode of the incoming VectorAccessible
+  final BatchSchema.SelectionVectorMode selectionVectorMode;
+
   // Helper to decide if an intermediate node can be split and made tree-root
   final ExpressionSplitHelper gandivaSplitHelper;
 
@@ -104,7 +108,12 @@ public class ExpressionSplitter implements AutoCloseable {
     this.incoming = incoming;
 
     // Add all ValueVectors from incoming to vector
-    this.vectorContainer = new VectorContainer(context.getAllocator());
+    this.selectionVectorMode = incoming.getSchema().getSelectionVectorMode();
+    if (selectionVectorMode == BatchSchema.SelectionVectorMode.TWO_BYTE) {
+      this.vectorContainer = new VectorContainerWithSV(context.getAllocator(), incoming.getSelectionVector2());
+    } else {
+      this.vectorContainer = new VectorContainer(context.getAllocator());
+    }
     for (VectorWrapper wrapper : incoming) {
       this.vectorContainer.add(wrapper.getValueVector());
     }
@@ -139,7 +148,12 @@ public class ExpressionSplitter implements AutoCloseable {
     SplitDependencyTracker myTracker = new SplitDependencyTracker(expr.getExecutionEngineForExpression(), null, true);
     NamedExpression newExpr = namedExpression;
     int numSplitsBefore = this.splitExpressions.size();
-    if (isSplitEnabled) {
+    if (selectionVectorMode != BatchSchema.SelectionVectorMode.NONE) {
+      // splits write their outputs for the selected rows only, so other splits can't read them through the selection
+      // vector. Execute a single split, in the preferred engine if it supports the entire expression.
+      executionEngine.add(expr.isSubExpressionExecutableInEngine(this.preferredEngine) ? this.preferredEngine
+        : SupportedEngines.Engine.JAVA);
+    } else if (isSplitEnabled) {
       PreferenceBasedSplitter preferenceBasedSplitter = new PreferenceBasedSplitter(this, this
         .preferredEngine, this.nonPreferredEngine);
       CodeGenContext e = expr.accept(preferenceBasedSplitter, myTracker);
@@ -179,7 +193,7 @@ public class ExpressionSplitter implements AutoCloseable {
     }
 
     // Build the schema for the combined schema
-    vectorContainer.buildSchema(BatchSchema.SelectionVectorMode.NONE);
+    vectorContainer.buildSchema(selectionVectorMode);
     return split;
   }
 
@@ -16,9 +16,12 @@
 package com.dremio.exec.expr;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 
 import org.apache.arrow.gandiva.exceptions.GandivaException;
 import org.apache.arrow.vector.AllocationHelper;
+import org.apache.arrow.vector.BitVector;
 import org.apache.arrow.vector.FixedWidthVector;
 import org.apache.arrow.vector.ValueVector;
 import org.apache.arrow.vector.complex.impl.ComplexWriterImpl;
@@ -30,10 +33,14 @@ import com.dremio.common.expression.LogicalExpression;
 import com.dremio.common.expression.SchemaPath;
 import com.dremio.common.expression.SupportedEngines;
 import com.dremio.common.logical.data.NamedExpression;
+import com.dremio.exec.ExecConstants;
+import com.dremio.exec.expr.fn.interpreter.InterpreterEvaluator;
+import com.dremio.exec.record.BatchSchema.SelectionVectorMode;
 import com.dremio.exec.record.TypedFieldId;
 import com.dremio.exec.record.VectorAccessible;
 import com.dremio.exec.record.VectorAccessibleComplexWriter;
 import com.dremio.exec.record.VectorContainer;
+import com.dremio.exec.record.selection.SelectionVector2;
 import com.dremio.sabot.exec.context.OperatorContext;
 import com.dremio.sabot.op.filter.Filterer;
 import com.dremio.sabot.op.llvm.NativeFilter;
@@ -41,6 +48,7 @@ import com.dremio.sabot.op.llvm.NativeProjectEvaluator;
 import com.dremio.sabot.op.llvm.NativeProjectorBuilder;
 import com.dremio.sabot.op.project.Projector;
 import com.google.common.base.Stopwatch;
+import com.google.common.base.Throwables;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 
@@ -79,6 +87,15 @@ class SplitStageExecutor implements AutoCloseable {
   // Java evaluator
   Projector javaProjector;
 
+  // Java evaluator being compiled in the background, java splits are interpreted until it is ready
+  CompletableFuture<Projector> pendingJavaProjector;
+
+  // Container the java evaluator writes complex outputs to, kept to set it up once compiled in the background
+  VectorContainer javaOutgoing;
+
+  // Java splits, without code generation context, along with their output vector. Used to interpret them
+  final List<InterpretedSplit> interpretedSplits = Lists.newArrayList();
+
   // Vectors for intermediate output
   final List<ValueVector> allocationVectors = Lists.newArrayList();
 
@@ -111,7 +128,8 @@ class SplitStageExecutor implements AutoCloseable {
     this.hasOriginalExpression = false;
     this.nativeFilter = null;
     this.instanceCounter = instanceCounter;
-    this.nativeProjectorBuilder = NativeProjectEvaluator.builder(incoming);
+    this.nativeProjectorBuilder = NativeProjectEvaluator.builder(incoming, context.getAllocator(),
+      context.getClassProducer().getGandivaModuleCache());
     this.cg = context.getClassProducer().createGenerator(Projector.TEMPLATE_DEFINITION).getRoot();
     this.splitsForPreferredCodeGen = this.preferredEngine ==
       SupportedEngines.Engine.GANDIVA? gandivaSplits : javaSplits;
@@ -167,6 +185,7 @@ class SplitStageExecutor implements AutoCloseable {
     boolean useSetSafe = !(vector instanceof FixedWidthVector);
     ValueVectorWriteExpression write = new ValueVectorWriteExpression(fid, expr, useSetSafe);
     cg.addExpr(write, ClassGenerator.BlockCreateMode.NEW_IF_TOO_LARGE, true);
+    interpretedSplits.add(new InterpretedSplit(CodeGenerationContextRemover.removeCodeGenContext(expr), vector));
 
     if (expr instanceof ValueVectorReadExpression) {
       final ValueVectorReadExpression vectorRead = (ValueVectorReadExpression) expr;
@@ -187,7 +206,18 @@ class SplitStageExecutor implements AutoCloseable {
     gandivaCodeGenWatch.stop();
 
     javaCodeGenWatch.start();
-    javaProjector = cg.getCodeGenerator().getImplementationClass();
+    javaOutgoing = outgoing;
+    if (canInterpretJavaSplits()) {
+      log("Compiling java splits in the background, interpreting them meanwhile");
+      pendingJavaProjector = cg.getCodeGenerator().getImplementationClassAsync();
+    } else {
+      javaProjector = cg.getCodeGenerator().getImplementationClass();
+      setupJavaProjector();
+    }
+    javaCodeGenWatch.stop();
+  }
+
+  private void setupJavaProjector() {
     javaProjector.setup(
       context.getFunctionContext(),
       incoming,
@@ -196,14 +226,61 @@ class SplitStageExecutor implements AutoCloseable {
       new Projector.ComplexWriterCreator(){
         @Override
         public ComplexWriter addComplexWriter(String name) {
-          VectorAccessibleComplexWriter vc = new VectorAccessibleComplexWriter(outgoing);
+          VectorAccessibleComplexWriter vc = new VectorAccessibleComplexWriter(javaOutgoing);
           ComplexWriter writer = new ComplexWriterImpl(name, vc);
           complexWriters.add(writer);
           return writer;
         }
       }
     );
-    javaCodeGenWatch.stop();
+  }
+
+  // true if the expressions can be interpreted while their code is compiled in the background
+  private boolean canInterpret(LogicalExpression expr) {
+    return context.getOptions().getOption(ExecConstants.ASYNC_COMPILATION_ENABLED)
+      && incoming.getSchema().getSelectionVectorMode() == SelectionVectorMode.NONE
+      && expr.getCompleteType().isScalar()
+      && InterpreterEvaluator.canEvaluate(expr);
+  }
+
+  private boolean canInterpretJavaSplits() {
+    if (interpretedSplits.isEmpty()) {
+      return false;
+    }
+    for (InterpretedSplit split : interpretedSplits) {
+      if (!canInterpret(split.expr)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  // evaluates the java splits, interpreting them if their code is still being compiled
+  private void evaluateJavaProjector(int recordsToConsume) throws Exception {
+    if (pendingJavaProjector != null) {
+      if (!pendingJavaProjector.isDone()) {
+        for (InterpretedSplit split : interpretedSplits) {
+          InterpreterEvaluator.evaluate(recordsToConsume, context.getFunctionContext(), incoming, split.output, split.expr);
+        }
+        return;
+      }
+
+      javaProjector = getCompiled(pendingJavaProjector);
+      pendingJavaProjector = null;
+      setupJavaProjector();
+      log("Switching java splits from interpreted to compiled code");
+    }
+
+    javaProjector.projectRecords(recordsToConsume);
+  }
+
+  private static <T> T getCompiled(CompletableFuture<T> future) throws Exception {
+    try {
+      return future.get();
+    } catch (ExecutionException e) {
+      Throwables.propagateIfPossible(e.getCause(), Exception.class);
+      throw e;
+    }
   }
 
   // setup evaluation of projector for all splits
@@ -247,7 +324,8 @@ class SplitStageExecutor implements AutoCloseable {
       == this.preferredEngine) {
       log("Setting up filter for split in Gandiva {}", finalSplit.getNamedExpression().getExpr());
       gandivaCodeGenWatch.start();
-      nativeFilter = NativeFilter.build(finalSplit.getNamedExpression().getExpr(), incoming, outgoing.getSelectionVector2());
+      nativeFilter = NativeFilter.build(finalSplit.getNamedExpression().getExpr(), incoming, outgoing.getSelectionVector2(),
+        context.getAllocator(), context.getClassProducer().getGandivaModuleCache());
       gandivaCodeGenWatch.stop();
       this.filterFunction = new NativeTimedFilter(nativeFilter);
       return;
@@ -257,6 +335,13 @@ class SplitStageExecutor implements AutoCloseable {
     javaCodeGenWatch.start();
     final ClassGenerator<Filterer> filterClassGen = context.getClassProducer().createGenerator(Filterer.TEMPLATE_DEFINITION2).getRoot();
     filterClassGen.addExpr(new ReturnValueExpression(finalSplit.getNamedExpression().getExpr()), ClassGenerator.BlockCreateMode.MERGE, true);
+    final LogicalExpression condition = CodeGenerationContextRemover.removeCodeGenContext(finalSplit.getNamedExpression().getExpr());
+    if (canInterpret(condition)) {
+      log("Compiling filter in the background, interpreting it meanwhile");
+      this.filterFunction = new InterpretedTimedFilter(condition, filterClassGen.getCodeGenerator().getImplementationClassAsync(), outgoing);
+      javaCodeGenWatch.stop();
+      return;
+    }
     final Filterer javaFilter = filterClassGen.getCodeGenerator().getImplementationClass();
     javaFilter.setup(context.getClassProducer().getFunctionContext(), incoming, outgoing);
     javaCodeGenWatch.stop();
@@ -312,7 +397,7 @@ class SplitStageExecutor implements AutoCloseable {
       nativeProjectEvaluator.evaluate(recordsToConsume);
       gandivaWatch.stop();
       javaWatch.start();
-      javaProjector.projectRecords(recordsToConsume);
+      evaluateJavaProjector(recordsToConsume);
       javaWatch.stop();
 
       setValueCount(recordsToConsume);
@@ -349,6 +434,19 @@ class SplitStageExecutor implements AutoCloseable {
     if (nativeFilter != null) {
       nativeFilter.close();
     }
+    if (filterFunction instanceof InterpretedTimedFilter) {
+      ((InterpretedTimedFilter) filterFunction).close();
+    }
+  }
+
+  static class InterpretedSplit {
+    final LogicalExpression expr;
+    final ValueVector output;
+
+    InterpretedSplit(LogicalExpression expr, ValueVector output) {
+      this.expr = expr;
+      this.output = output;
+    }
   }
 
   class NativeTimedFilter implements TimedFilterFunction {
@@ -387,6 +485,70 @@ class SplitStageExecutor implements AutoCloseable {
     }
   }
 
+  // Interprets the filter condition until its code, compiled in the background, is ready
+  class InterpretedTimedFilter implements TimedFilterFunction, AutoCloseable {
+    final LogicalExpression condition;
+    final VectorContainer outgoing;
+    final BitVector conditionResults;
+    CompletableFuture<Filterer> pendingFilter;
+    Filterer javaFilter;
+
+    InterpretedTimedFilter(LogicalExpression condition, CompletableFuture<Filterer> pendingFilter, VectorContainer outgoing) {
+      this.condition = condition;
+      this.pendingFilter = pendingFilter;
+      this.outgoing = outgoing;
+      this.conditionResults = new BitVector("condition", context.getAllocator());
+    }
+
+    @Override
+    public Integer apply(Integer recordsToConsume, Stopwatch javaWatch, Stopwatch gandivaWatch) throws Exception {
+      javaWatch.start();
+      try {
+        if (pendingFilter != null && pendingFilter.isDone()) {
+          javaFilter = getCompiled(pendingFilter);
+          pendingFilter = null;
+          javaFilter.setup(context.getClassProducer().getFunctionContext(), incoming, outgoing);
+          conditionResults.clear();
+          log("Switching filter from interpreted to compiled code");
+        }
+
+        if (javaFilter != null) {
+          return javaFilter.filterBatch(recordsToConsume);
+        }
+        return interpret(recordsToConsume);
+      } finally {
+        javaWatch.stop();
+      }
+    }
+
+    private int interpret(int recordsToConsume) {
+      if (recordsToConsume == 0) {
+        return 0;
+      }
+
+      conditionResults.allocateNew(recordsToConsume);
+      InterpreterEvaluator.evaluate(recordsToConsume, context.getFunctionContext(), incoming, conditionResults, condition);
+
+      final SelectionVector2 sv2 = outgoing.getSelectionVector2();
+      sv2.allocateNew(recordsToConsume);
+      int svIndex = 0;
+      for (int i = 0; i < recordsToConsume; i++) {
+        if (!conditionResults.isNull(i) && conditionResults.get(i) == 1) {
+          sv2.setIndex(svIndex, (char) i);
+          svIndex++;
+        }
+      }
+      sv2.setRecordCount(svIndex);
+      conditionResults.clear();
+      return svIndex;
+    }
+
+    @Override
+    public void close() {
+      conditionResults.close();
+    }
+  }
+
   interface TimedFilterFunction {
     Integer apply(Integer recordsToConsume, Stopwatch javaWatch, Stopwatch gandivaWatch) throws Exception;
   }
@@ -88,6 +88,110 @@ public class InterpreterEvaluator {
 
   }
 
+  /**
+   * @return true if the interpreter can evaluate the given expression: it only uses simple functions, and only reads
+   * scalar fields of the incoming batch
+   */
+  public static boolean canEvaluate(LogicalExpression expr) {
+    return expr.accept(new CanEvaluateVisitor(), null);
+  }
+
+  private static class CanEvaluateVisitor extends AbstractExprVisitor<Boolean, Void, RuntimeException> {
+
+    private boolean canEvaluateChildren(LogicalExpression e) {
+      for (LogicalExpression child : e) {
+        if (!child.accept(this, null)) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    @Override
+    public Boolean visitFunctionHolderExpression(FunctionHolderExpression holderExpr, Void value) {
+      return holderExpr.getHolder() instanceof SimpleFunctionHolder && canEvaluateChildren(holderExpr);
+    }
+
+    @Override
+    public Boolean visitIfExpression(IfExpression ifExpr, Void value) {
+      return canEvaluateChildren(ifExpr);
+    }
+
+    @Override
+    public Boolean visitBooleanOperator(BooleanOperator op, Void value) {
+      return canEvaluateChildren(op);
+    }
+
+    @Override
+    public Boolean visitIntConstant(ValueExpressions.IntExpression intExpr, Void value) {
+      return true;
+    }
+
+    @Override
+    public Boolean visitLongConstant(ValueExpressions.LongExpression intExpr, Void value) {
+      return true;
+    }
+
+    @Override
+    public Boolean visitFloatConstant(ValueExpressions.FloatExpression fExpr, Void value) {
+      return true;
+    }
+
+    @Override
+    public Boolean visitDoubleConstant(ValueExpressions.DoubleExpression dExpr, Void value) {
+      return true;
+    }
+
+    @Override
+    public Boolean visitBooleanConstant(ValueExpressions.BooleanExpression e, Void value) {
+      return true;
+    }
+
+    @Override
+    public Boolean visitQuotedStringConstant(ValueExpressions.QuotedString e, Void value) {
+      return true;
+    }
+
+    @Override
+    public Boolean visitDateConstant(ValueExpressions.DateExpression intExpr, Void value) {
+      return true;
+    }
+
+    @Override
+    public Boolean visitTimeConstant(ValueExpressions.TimeExpression intExpr, Void value) {
+      return true;
+    }
+
+    @Override
+    public Boolean visitTimeStampConstant(ValueExpressions.TimeStampExpression intExpr, Void value) {
+      return true;
+    }
+
+    @Override
+    public Boolean visitIntervalYearConstant(ValueExpressions.IntervalYearExpression intExpr, Void value) {
+      return true;
+    }
+
+    @Override
+    public Boolean visitIntervalDayConstant(ValueExpressions.IntervalDayExpression intExpr, Void value) {
+      return true;
+    }
+
+    @Override
+    public Boolean visitNullConstant(TypedNullConstant e, Void value) {
+      return true;
+    }
+
+    @Override
+    public Boolean visitUnknown(LogicalExpression e, Void value) {
+      if (e instanceof ValueVectorReadExpression) {
+        final ValueVectorReadExpression read = (ValueVectorReadExpression) e;
+        return read.getCompleteType().isScalar() && !read.hasReadPath();
+      }
+      return false;
+    }
+  }
+
   private static class InitVisitor extends AbstractExprVisitor<LogicalExpression, VectorAccessible, RuntimeException> {
 
     private FunctionContext functionContext;
@@ -27,6 +27,7 @@ import com.dremio.exec.store.parquet.ParquetRecordWriter;
 import com.dremio.sabot.exec.context.MetricDef;
 import com.dremio.sabot.op.aggregate.vectorized.HashAggStats;
 import com.dremio.sabot.op.filter.FilterStats;
+import com.dremio.sabot.op.join.nlj.VectorizedNLJOperator;
 import com.dremio.sabot.op.join.vhash.HashJoinStats;
 import com.dremio.sabot.op.project.ProjectorStats;
 import com.dremio.sabot.op.receiver.merging.MergingReceiverOperator;
@@ -38,6 +39,8 @@ import com.dremio.sabot.op.sender.partition.PartitionSenderOperator;
 import com.dremio.sabot.op.sender.roundrobin.RoundRobinOperator;
 import com.dremio.sabot.op.sender.single.SingleSenderOperator;
 import com.dremio.sabot.op.sort.external.ExternalSortOperator;
+import com.dremio.sabot.op.sort.topn.TopNOperator;
+import com.dremio.sabot.op.windowframe.WindowFrameOperator;
 import com.dremio.sabot.op.writer.WriterOperator;
 
 /**
@@ -67,6 +70,9 @@ public class OperatorMetricRegistry {
     register(builder, CoreOperatorType.ARROW_WRITER_VALUE, WriterOperator.Metric.class);
     register(builder, CoreOperatorType.PROJECT_VALUE, ProjectorStats.Metric.class);
     register(builder, CoreOperatorType.FILTER_VALUE, FilterStats.Metric.class);
+    register(builder, CoreOperatorType.WINDOW_VALUE, WindowFrameOperator.Metric.class);
+    register(builder, CoreOperatorType.VECTORIZED_NESTED_LOOP_JOIN_VALUE, VectorizedNLJOperator.Metric.class);
+    register(builder, CoreOperatorType.TOP_N_SORT_VALUE, TopNOperator.Metric.class);
     CORE_OPERATOR_TYPE_METRICS_MAP = builder.build();
   }
 
@@ -61,6 +61,18 @@ public class HashJoinPOP extends AbstractBase implements MemoryCalcConsidered {
   private final List<JoinCondition> conditions;
   private final JoinRelType joinType;
   private final boolean vectorize;
+  // whether the fragments of this phase on the same node share a single build side, see VectorizedHashJoinOperator
+  private final boolean sharedBuild;
+
+  public HashJoinPOP(
+          PhysicalOperator left,
+          PhysicalOperator right,
+          List<JoinCondition> conditions,
+          JoinRelType joinType,
+          Boolean vectorize
+  ) {
+      this(left, right, conditions, joinType, vectorize, false);
+  }
 
   @JsonCreator
   public HashJoinPOP(
@@ -68,7 +80,8 @@ public class HashJoinPOP extends AbstractBase implements MemoryCalcConsidered {
           @JsonProperty("right") PhysicalOperator right,
           @JsonProperty("conditions") List<JoinCondition> conditions,
           @JsonProperty("joinType") JoinRelType joinType,
-          @JsonProperty("vectorize") Boolean vectorize
+          @JsonProperty("vectorize") Boolean vectorize,
+          @JsonProperty("sharedBuild") Boolean sharedBuild
   ) {
       this.left = left;
       this.right = right;
@@ -76,6 +89,7 @@ public class HashJoinPOP extends AbstractBase implements MemoryCalcConsidered {
       Preconditions.checkArgument(joinType != null, "Join type is missing!");
       this.joinType = joinType;
       this.vectorize = vectorize == null ? false : vectorize;
+      this.sharedBuild = sharedBuild == null ? false : sharedBuild;
   }
 
   @Override
@@ -86,7 +100,7 @@ public class HashJoinPOP extends AbstractBase implements MemoryCalcConsidered {
   @Override
   public PhysicalOperator getNewWithChildren(List<PhysicalOperator> children) {
       Preconditions.checkArgument(children.size() == 2);
-      HashJoinPOP hj = new HashJoinPOP(children.get(0), children.get(1), conditions, joinType, vectorize);
+      HashJoinPOP hj = new HashJoinPOP(children.get(0), children.get(1), conditions, joinType, vectorize, sharedBuild);
       hj.setMaxAllocation(this.getMaxAllocation());
       return hj;
   }
@@ -116,6 +130,10 @@ public class HashJoinPOP extends AbstractBase implements MemoryCalcConsidered {
     return vectorize;
   }
 
+  public boolean isSharedBuild() {
+    return sharedBuild;
+  }
+
   @Override
   protected BatchSchema constructSchema(FunctionLookupContext context) {
     SchemaBuilder b = BatchSchema.newBuilder();
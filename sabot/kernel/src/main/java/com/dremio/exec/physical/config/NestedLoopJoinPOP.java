@@ -22,6 +22,7 @@ import java.util.List;
 import org.apache.arrow.vector.types.pojo.Field;
 import org.apache.calcite.rel.core.JoinRelType;
 
+import com.dremio.common.expression.LogicalExpression;
 import com.dremio.common.logical.data.JoinCondition;
 import com.dremio.exec.expr.fn.FunctionLookupContext;
 import com.dremio.exec.physical.base.AbstractBase;
@@ -52,18 +53,35 @@ public class NestedLoopJoinPOP extends AbstractBase {
   private final List<JoinCondition> conditions;
   private final JoinRelType joinType;
 
+  /*
+   * Full join condition, only set when the join evaluates it itself (vectorized nested loop join). Otherwise the
+   * condition is evaluated by a filter on top of the join.
+   */
+  private final LogicalExpression condition;
+
+  public NestedLoopJoinPOP(
+      PhysicalOperator left,
+      PhysicalOperator right,
+      List<JoinCondition> conditions,
+      JoinRelType joinType
+  ) {
+    this(left, right, conditions, joinType, null);
+  }
+
   @JsonCreator
   public NestedLoopJoinPOP(
       @JsonProperty("left") PhysicalOperator left,
       @JsonProperty("right") PhysicalOperator right,
       @JsonProperty("conditions") List<JoinCondition> conditions,
-      @JsonProperty("joinType") JoinRelType joinType
+      @JsonProperty("joinType") JoinRelType joinType,
+      @JsonProperty("condition") LogicalExpression condition
   ) {
     this.left = left;
     this.right = right;
     this.conditions = conditions;
     Preconditions.checkArgument(joinType != null, "Join type is missing!");
     this.joinType = joinType;
+    this.condition = condition;
   }
 
   @Override
@@ -74,7 +92,7 @@ public class NestedLoopJoinPOP extends AbstractBase {
   @Override
   public PhysicalOperator getNewWithChildren(List<PhysicalOperator> children) {
     Preconditions.checkArgument(children.size() == 2);
-    return new NestedLoopJoinPOP(children.get(0), children.get(1), conditions, joinType);
+    return new NestedLoopJoinPOP(children.get(0), children.get(1), conditions, joinType, condition);
   }
 
   @Override
@@ -110,9 +128,14 @@ public class NestedLoopJoinPOP extends AbstractBase {
     return conditions;
   }
 
+  public LogicalExpression getCondition() {
+    return condition;
+  }
+
   @Override
   public int getOperatorType() {
-    return CoreOperatorType.NESTED_LOOP_JOIN_VALUE;
+    // the vectorized join reports its own metrics, under its own operator type
+    return condition != null ? CoreOperatorType.VECTORIZED_NESTED_LOOP_JOIN_VALUE : CoreOperatorType.NESTED_LOOP_JOIN_VALUE;
   }
 }
 
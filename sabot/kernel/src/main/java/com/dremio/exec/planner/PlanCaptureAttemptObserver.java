@@ -75,6 +75,10 @@ public class PlanCaptureAttemptObserver extends AbstractAttemptObserver {
 
   private boolean accelerated = false;
   private long findMaterializationMillis = 0;
+  // index of the find materializations phase in planPhases, -1 until it's reported
+  private int findMaterializationPhase = -1;
+  private int numMaterializationsConsidered = 0;
+  private int numMaterializationsPruned = 0;
   private long normalizationMillis = 0;
   private long substitutionMillis = 0;
   private int numSubstitutions = 0;
@@ -96,6 +100,8 @@ public class PlanCaptureAttemptObserver extends AbstractAttemptObserver {
       .setAccelerated(accelerated)
       .setNumSubstitutions(numSubstitutions)
       .setMillisTakenGettingMaterializations(findMaterializationMillis)
+      .setNumMaterializationsConsidered(numMaterializationsConsidered)
+      .setNumMaterializationsPruned(numMaterializationsPruned)
       .setMillisTakenNormalizing(normalizationMillis)
       .setMillisTakenSubstituting(substitutionMillis);
     if (normalizedQueryPlans != null) {
@@ -151,11 +157,24 @@ public class PlanCaptureAttemptObserver extends AbstractAttemptObserver {
   @Override
   public void planFindMaterializations(long millisTaken) {
     findMaterializationMillis = millisTaken;
-    planPhases.add(PlanPhaseProfile.newBuilder()
+    final PlanPhaseProfile phase = PlanPhaseProfile.newBuilder()
       .setPhaseName("Find Materializations")
       .setDurationMillis(millisTaken)
       .setPlan("")
-      .build());
+      .build();
+    // reported after each substitution pass, keep a single phase with the latest total
+    if (findMaterializationPhase < 0) {
+      findMaterializationPhase = planPhases.size();
+      planPhases.add(phase);
+    } else {
+      planPhases.set(findMaterializationPhase, phase);
+    }
+  }
+
+  @Override
+  public void planMaterializationsPruned(int considered, int pruned) {
+    numMaterializationsConsidered = considered;
+    numMaterializationsPruned = pruned;
   }
 
   @Override
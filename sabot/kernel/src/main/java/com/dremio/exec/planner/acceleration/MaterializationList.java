@@ -15,20 +15,25 @@
  */
 package com.dremio.exec.planner.acceleration;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.calcite.plan.RelOptMaterialization;
 
 import com.dremio.exec.planner.acceleration.substitution.MaterializationProvider;
+import com.dremio.exec.planner.observer.AttemptObserver;
 import com.dremio.exec.planner.sql.SqlConverter;
 import com.dremio.exec.server.MaterializationDescriptorProvider;
 import com.dremio.sabot.rpc.user.UserSession;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Optional;
 import com.google.common.base.Preconditions;
+import com.google.common.base.Stopwatch;
 import com.google.common.base.Supplier;
 import com.google.common.base.Suppliers;
 import com.google.common.collect.ImmutableList;
@@ -44,6 +49,13 @@ public class MaterializationList implements MaterializationProvider {
   private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(MaterializationList.class);
 
   private final Map<TablePath, MaterializationDescriptor> mapping = Maps.newHashMap();
+  // materializations expanded so far, by materialization id. Absent if the materialization couldn't be expanded
+  private final Map<String, Optional<DremioMaterialization>> expanded = Maps.newHashMap();
+  // ids of the materializations considered by at least one substitution pass, and of the ones pruned by all of them
+  private final Set<String> considered = Sets.newHashSet();
+  private final Set<String> pruned = Sets.newHashSet();
+  // time spent finding the materializations of all substitution passes
+  private long findMillis;
   private final Supplier<List<DremioMaterialization>> factory = Suppliers.memoize(new Supplier<List<DremioMaterialization>>() {
     @Override
     public List<DremioMaterialization> get() {
@@ -67,6 +79,9 @@ public class MaterializationList implements MaterializationProvider {
    *
    * Note that {@link MaterializationDescriptor descriptors} are converted to {@link RelOptMaterialization materializations}
    * lazily and cached when this method is called the very first time.
+   *
+   * This list isn't pruned: without the tables of a query there is nothing to prune against, so every available
+   * materialization is expanded. Substitution goes through {@link #getMaterializations(Set)} instead.
    */
   @Override
   public List<DremioMaterialization> getMaterializations() {
@@ -82,6 +97,18 @@ public class MaterializationList implements MaterializationProvider {
     return Optional.fromNullable(descriptor);
   }
 
+  /**
+   * Returns the materializations that may be used to accelerate a query scanning the given tables.
+   *
+   * Materializations whose dataset dependencies are known and share no dataset with the query can't match any part
+   * of it and are pruned before being expanded. Materializations are expanded lazily and cached, so they are
+   * expanded at most once per query.
+   */
+  @Override
+  public List<DremioMaterialization> getMaterializations(final Set<List<String>> queryTables) {
+    return build(provider, queryTables);
+  }
+
   /**
    * Builds materialization table from the given provider and returns list of available materializations.
    *
@@ -90,10 +117,64 @@ public class MaterializationList implements MaterializationProvider {
    */
   @VisibleForTesting
   protected List<DremioMaterialization> build(final MaterializationDescriptorProvider provider) {
+    final List<DremioMaterialization> materializations = Lists.newArrayList();
+    for (final MaterializationDescriptor descriptor : getDescriptors(provider)) {
+      final Optional<DremioMaterialization> materialization = expand(descriptor);
+      if (materialization.isPresent()) {
+        materializations.add(materialization.get());
+      }
+    }
+    return materializations;
+  }
+
+  /**
+   * Builds materialization table from the given provider, skipping the materializations that don't depend on any of
+   * the given tables, and returns list of materializations to consider for a query scanning those tables.
+   *
+   * @param provider  materialization provider.
+   * @param queryTables  qualified names of the tables scanned by the query
+   * @return materializations used by planner
+   */
+  @VisibleForTesting
+  protected List<DremioMaterialization> build(final MaterializationDescriptorProvider provider,
+                                              final Set<List<String>> queryTables) {
+    final Stopwatch watch = Stopwatch.createStarted();
+    final Set<List<String>> tables = normalize(queryTables);
+    final List<DremioMaterialization> materializations = Lists.newArrayList();
+    for (final MaterializationDescriptor descriptor : getDescriptors(provider)) {
+      final String id = descriptor.getMaterializationId();
+      final Optional<Set<List<String>>> dependencies = provider.getDatasetDependencies(descriptor);
+      if (dependencies != null && dependencies.isPresent() && Collections.disjoint(tables, normalize(dependencies.get()))) {
+        if (!considered.contains(id)) {
+          pruned.add(id);
+        }
+        continue;
+      }
+
+      considered.add(id);
+      pruned.remove(id);
+      final Optional<DremioMaterialization> materialization = expand(descriptor);
+      if (materialization.isPresent()) {
+        materializations.add(materialization.get());
+      }
+    }
+
+    // the planner may look for substitutions several times per query, the totals are reported after each pass
+    findMillis += watch.elapsed(TimeUnit.MILLISECONDS);
+    logger.debug("considered {} materializations, pruned {}", considered.size(), pruned.size());
+    final AttemptObserver observer = converter.getObserver();
+    if (observer != null) {
+      observer.planFindMaterializations(findMillis);
+      observer.planMaterializationsPruned(considered.size(), pruned.size());
+    }
+    return materializations;
+  }
+
+  private List<MaterializationDescriptor> getDescriptors(final MaterializationDescriptorProvider provider) {
     final Set<String> exclusions = Sets.newHashSet(session.getSubstitutionSettings().getExclusions());
     final Set<String> inclusions = Sets.newHashSet(session.getSubstitutionSettings().getInclusions());
     final boolean hasInclusions = !inclusions.isEmpty();
-    final List<DremioMaterialization> materializations = Lists.newArrayList();
+    final List<MaterializationDescriptor> descriptors = Lists.newArrayList();
     for (final MaterializationDescriptor descriptor : provider.get()) {
 
       if(
@@ -104,19 +185,44 @@ public class MaterializationList implements MaterializationProvider {
           continue;
       }
 
-      try {
-        final DremioMaterialization materialization = descriptor.getMaterializationFor(converter);
-        if (materialization == null) {
-          continue;
-        }
+      descriptors.add(descriptor);
+    }
+    return descriptors;
+  }
+
+  private Optional<DremioMaterialization> expand(final MaterializationDescriptor descriptor) {
+    final String key = descriptor.getMaterializationId();
+    final Optional<DremioMaterialization> cached = expanded.get(key);
+    if (cached != null) {
+      return cached;
+    }
 
+    Optional<DremioMaterialization> materialization = Optional.absent();
+    try {
+      materialization = Optional.fromNullable(descriptor.getMaterializationFor(converter));
+      if (materialization.isPresent()) {
         mapping.put(TablePath.of(descriptor.getPath()), descriptor);
-        materializations.add(materialization);
-      } catch (Throwable e) {
-        logger.warn("failed to expand materialization {}", descriptor.getMaterializationId(), e);
       }
+    } catch (Throwable e) {
+      logger.warn("failed to expand materialization {}", descriptor.getMaterializationId(), e);
     }
-    return materializations;
+    expanded.put(key, materialization);
+    return materialization;
+  }
+
+  /**
+   * dataset paths are case insensitive
+   */
+  private static Set<List<String>> normalize(final Set<List<String>> paths) {
+    final Set<List<String>> normalized = Sets.newHashSet();
+    for (List<String> path : paths) {
+      final List<String> lowerCase = Lists.newArrayListWithCapacity(path.size());
+      for (String component : path) {
+        lowerCase.add(component.toLowerCase(Locale.ROOT));
+      }
+      normalized.add(lowerCase);
+    }
+    return normalized;
   }
 
 
@@ -16,6 +16,7 @@
 package com.dremio.exec.planner.acceleration.substitution;
 
 import java.util.List;
+import java.util.Set;
 
 import com.dremio.exec.planner.acceleration.DremioMaterialization;
 
@@ -30,4 +31,14 @@ public interface MaterializationProvider {
    */
   List<DremioMaterialization> getMaterializations();
 
+  /**
+   * Returns list of materializations that provider considers for substitution in a query scanning the given tables.
+   * Providers may leave out materializations that can't be used as they share no table with the query.
+   *
+   * @param queryTables qualified names of the tables scanned by the query
+   */
+  default List<DremioMaterialization> getMaterializations(Set<List<String>> queryTables) {
+    return getMaterializations();
+  }
+
 }
@@ -124,7 +124,11 @@ public final class SubstitutionUtils {
 
   public static List<DremioMaterialization> findApplicableMaterializations(
     final RelNode query, final Collection<DremioMaterialization> materializations) {
-    final Set<List<String>> queryTablesUsed = SubstitutionUtils.findTables(query);
+    return findApplicableMaterializations(SubstitutionUtils.findTables(query), materializations);
+  }
+
+  public static List<DremioMaterialization> findApplicableMaterializations(
+    final Set<List<String>> queryTablesUsed, final Collection<DremioMaterialization> materializations) {
     return FluentIterable.from(materializations)
       .filter(new Predicate<DremioMaterialization>() {
         @Override
@@ -16,6 +16,7 @@
 package com.dremio.exec.planner.acceleration.substitution;
 
 import java.util.List;
+import java.util.Set;
 
 import org.apache.calcite.plan.MaterializedViewSubstitutionVisitor;
 import org.apache.calcite.plan.hep.HepPlanner;
@@ -48,8 +49,9 @@ public class UnifyingSubstitutionProvider extends AbstractSubstitutionProvider {
 
   @Override
   public SubstitutionStream findSubstitutions(final RelNode query) {
-    final List<DremioMaterialization> materializations =
-      SubstitutionUtils.findApplicableMaterializations(query, getMaterializations());
+    final Set<List<String>> queryTables = SubstitutionUtils.findTables(query);
+    final List<DremioMaterialization> materializations = SubstitutionUtils.findApplicableMaterializations(queryTables,
+      getMaterializationProvider().getMaterializations(queryTables));
 
     final List<Substitution> substitutions = Lists.newArrayList(Substitution.createRootEquivalent(query));
     for (final DremioMaterialization materialization : materializations) {
@@ -68,6 +68,10 @@ public abstract class AbstractAttemptObserver implements AttemptObserver {
   public void planFindMaterializations(long millisTaken) {
   }
 
+  @Override
+  public void planMaterializationsPruned(int considered, int pruned) {
+  }
+
   @Override
   public void recordExtraInfo(String name, byte[] bytes) {
   }
@@ -141,10 +141,18 @@ public interface AttemptObserver {
   void plansDistributionComplete(QueryWorkUnit unit);
 
   /**
-   * Report applicable materializations
+   * Report the total time spent finding applicable materializations so far. Reported after each substitution pass,
+   * each report replaces the previous one
    */
   void planFindMaterializations(long millisTaken);
 
+  /**
+   * Report how many distinct materializations were considered for substitution so far, and how many were pruned without
+   * being expanded as they don't depend on any of the tables scanned by the query. Reported after each substitution
+   * pass, each report replaces the previous one
+   */
+  void planMaterializationsPruned(int considered, int pruned);
+
   /**
    * Report normalization completion
    */
@@ -149,6 +149,13 @@ public class AttemptObservers implements AttemptObserver {
     }
   }
 
+  @Override
+  public void planMaterializationsPruned(int considered, int pruned) {
+    for (final AttemptObserver observer : observers) {
+      observer.planMaterializationsPruned(considered, pruned);
+    }
+  }
+
   @Override
   public void planNormalized(long millisTaken, List<RelNode> normalizedQueryPlans) {
     for (final AttemptObserver observer : observers) {
@@ -117,6 +117,11 @@ public class DelegatingAttemptObserver implements AttemptObserver {
     observer.planFindMaterializations(millisTaken);
   }
 
+  @Override
+  public void planMaterializationsPruned(int considered, int pruned) {
+    observer.planMaterializationsPruned(considered, pruned);
+  }
+
   @Override
   public void planNormalized(long millisTaken, List<RelNode> normalizedQueryPlans) {
     observer.planNormalized(millisTaken, normalizedQueryPlans);
@@ -139,6 +139,16 @@ public class OutOfBandAttemptObserver implements AttemptObserver {
     });
   }
 
+  @Override
+  public void planMaterializationsPruned(final int considered, final int pruned) {
+    serializedExec.execute(new DeferredRunnable() {
+      @Override
+      public void doRun() {
+        innerObserver.planMaterializationsPruned(considered, pruned);
+      }
+    });
+  }
+
   @Override
   public void planNormalized(final long millisTaken, final List<RelNode> normalizedQueryPlans) {
     serializedExec.execute(new DeferredRunnable() {
@@ -216,7 +216,8 @@ public class HashAggPrel extends AggPrelBase implements Prel{
   @Override
   public PhysicalOperator getPhysicalOperator(PhysicalPlanCreator creator) throws IOException {
     PhysicalOperator child = ((Prel) this.getInput()).getPhysicalOperator(creator);
-    HashAggregate g = new HashAggregate(child, keys, aggExprs, canVectorize(creator, child), 1.0f);
+    HashAggregate g = new HashAggregate(child, keys, aggExprs, canVectorize(creator, child), 1.0f,
+        getOperatorPhase() == OperatorPhase.PHASE_1of2);
     return creator.addMetadata(this, g);
   }
 
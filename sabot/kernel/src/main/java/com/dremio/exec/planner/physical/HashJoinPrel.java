@@ -120,7 +120,13 @@ public class HashJoinPrel  extends JoinPrel {
 
     final boolean vectorize = creator.getContext().getOptions().getOption(ExecConstants.ENABLE_VECTORIZED_HASHJOIN)
         && canVectorize(creator.getContext().getFunctionRegistry(), leftPop, rightPop, conditions);
-    final HashJoinPOP hjoin = new HashJoinPOP(leftPop, rightPop, conditions, jtype, vectorize);
+    // every fragment receives all the records of a broadcast build side, so fragments on the same node can share it as
+    // long as they don't need to track the build records that didn't match
+    final boolean sharedBuild = vectorize
+        && creator.getContext().getOptions().getOption(ExecConstants.ENABLE_SHARED_BROADCAST_HASHJOIN)
+        && (jtype == JoinRelType.INNER || jtype == JoinRelType.LEFT)
+        && right instanceof BroadcastExchangePrel;
+    final HashJoinPOP hjoin = new HashJoinPOP(leftPop, rightPop, conditions, jtype, vectorize, sharedBuild);
     return creator.addMetadata(this, hjoin);
   }
 
@@ -269,6 +269,11 @@ public abstract class JoinPruleBase extends Prule {
         if (joinCondition.isAlwaysTrue()) {
           call.transformTo(new NestedLoopJoinPrel(join.getCluster(), convertedLeft.getTraitSet(), convertedLeft, convertedRight, joinCondition,
             join.getJoinType()));
+        } else if (join.getJoinType() == JoinRelType.INNER
+            && PrelUtil.getPlannerSettings(call.getPlanner()).isNestedLoopJoinVectorized()) {
+          // evaluate the condition while joining, instead of filtering the full cartesian product
+          call.transformTo(new NestedLoopJoinPrel(join.getCluster(), convertedLeft.getTraitSet(), convertedLeft, convertedRight, joinCondition,
+            join.getJoinType(), true));
         } else {
           RexBuilder builder = join.getCluster().getRexBuilder();
           RexLiteral condition = builder.makeLiteral(true); // TRUE condition for the NLJ
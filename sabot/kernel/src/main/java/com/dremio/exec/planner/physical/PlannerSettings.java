@@ -82,6 +82,7 @@ public class PlannerSettings implements Context{
   public static final DoubleValidator BROADCAST_FACTOR = new RangeDoubleValidator("planner.broadcast_factor", 0, Double.MAX_VALUE, 2.0d);
   public static final DoubleValidator NESTEDLOOPJOIN_FACTOR = new RangeDoubleValidator("planner.nestedloopjoin_factor", 0, Double.MAX_VALUE, 100.0d);
   public static final BooleanValidator NLJOIN_FOR_SCALAR = new BooleanValidator("planner.enable_nljoin_for_scalar_only", true);
+  public static final BooleanValidator NESTEDLOOPJOIN_VECTORIZED = new BooleanValidator("planner.enable_nestedloopjoin_vectorized", false);
   public static final DoubleValidator JOIN_ROW_COUNT_ESTIMATE_FACTOR = new RangeDoubleValidator("planner.join.row_count_estimate_factor", 0, Double.MAX_VALUE, 1.0d);
   public static final BooleanValidator MUX_EXCHANGE = new BooleanValidator("planner.enable_mux_exchange", true);
   public static final BooleanValidator DEMUX_EXCHANGE = new BooleanValidator("planner.enable_demux_exchange", false);
@@ -96,6 +97,7 @@ public class PlannerSettings implements Context{
   public static final String ENABLE_DECIMAL_DATA_TYPE_KEY = "planner.enable_decimal_data_type";
   public static final BooleanValidator TRANSITIVE_JOIN = new BooleanValidator("planner.experimental.transitivejoin", false);
   public static final BooleanValidator ENABLE_TRANSPOSE_PROJECT_FILTER_LOGICAL = new BooleanValidator("planner.experimental.tpf_logical", false);
+  public static final BooleanValidator ENABLE_PROJECT_SV2_INPUT = new BooleanValidator("planner.enable_project_sv2_input", false);
   public static final BooleanValidator ENABLE_PROJECT_CLEANUP_LOGICAL = new BooleanValidator("planner.experimental.pclean_logical", false);
   public static final BooleanValidator ENABLE_CROSS_JOIN = new BooleanValidator("planner.experimental.cross_join", false);
   public static final BooleanValidator ENABLE_DECIMAL_DATA_TYPE = new BooleanValidator(ENABLE_DECIMAL_DATA_TYPE_KEY, false);
@@ -373,10 +375,18 @@ public class PlannerSettings implements Context{
     return options.getOption(MERGEJOIN);
   }
 
+  public boolean isProjectSV2InputEnabled() {
+    return options.getOption(ENABLE_PROJECT_SV2_INPUT);
+  }
+
   public boolean isNestedLoopJoinEnabled() {
     return options.getOption(NESTEDLOOPJOIN.getOptionName()).getBoolVal();
   }
 
+  public boolean isNestedLoopJoinVectorized() {
+    return options.getOption(NESTEDLOOPJOIN_VECTORIZED);
+  }
+
   public boolean isMultiPhaseAggEnabled() {
     return options.getOption(MULTIPHASE.getOptionName()).getBoolVal();
   }
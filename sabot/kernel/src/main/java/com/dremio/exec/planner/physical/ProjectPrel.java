@@ -80,6 +80,10 @@ public class ProjectPrel extends ProjectRelBase implements Prel{
 
   @Override
   public SelectionVectorMode[] getSupportedEncodings() {
+    // the projector evaluates the selected rows of its input, removing the need for a selection vector remover
+    if (PrelUtil.getPlannerSettings(getCluster()).isProjectSV2InputEnabled()) {
+      return SelectionVectorMode.NONE_AND_TWO;
+    }
     return SelectionVectorMode.DEFAULT;
   }
 
@@ -192,6 +192,11 @@ public class HandlerToPreparePlan implements CommandRunner<CreatePreparedStateme
       calls.add(observer -> observer.planFindMaterializations(millisTaken));
     }
 
+    @Override
+    public void planMaterializationsPruned(final int considered, final int pruned) {
+      calls.add(observer -> observer.planMaterializationsPruned(considered, pruned));
+    }
+
 
     @Override
     public void planNormalized(final long millisTaken, final List<RelNode> normalizedQueryPlans) {
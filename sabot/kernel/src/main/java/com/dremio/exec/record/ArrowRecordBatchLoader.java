@@ -80,7 +80,7 @@ public class ArrowRecordBatchLoader implements VectorAccessible, Iterable<Vector
     int size = 0;
     try {
       RecordBatch recordBatch = RecordBatch.getRootAsRecordBatch(batch.getHeader().getArrowRecordBatch().asReadOnlyByteBuffer());
-      if (batch.getBody() == null) {
+      if (!batch.hasBody()) {
         for (VectorWrapper<?> w : container) {
           AllocationHelper.allocate(w.getValueVector(), 0, 0, 0);
         }
@@ -94,8 +94,13 @@ public class ArrowRecordBatchLoader implements VectorAccessible, Iterable<Vector
       if (valueCount == 0) {
         return 0;
       }
-      size = batch.getBody().readableBytes();
-      load(recordBatch, container, batch.getBody());
+      if (batch.getBuffers() != null) {
+        size = (int) batch.getByteCount();
+        load(recordBatch, container, batch.getBuffers());
+      } else {
+        size = batch.getBody().readableBytes();
+        load(recordBatch, container, batch.getBody());
+      }
     } catch (final Throwable cause) {
       // We have to clean up new vectors created here and pass over the actual cause. It is upper layer who should
       // adjudicate to call upper layer specific clean up logic.
@@ -108,6 +113,15 @@ public class ArrowRecordBatchLoader implements VectorAccessible, Iterable<Vector
 
   public static ArrowRecordBatch deserializeRecordBatch(RecordBatch recordBatchFB,
                                                         ArrowBuf body) throws IOException {
+    return deserializeRecordBatch(recordBatchFB, body, null);
+  }
+
+  /**
+   * Deserializes a record batch whose buffers are either sliced out of a single body, or given one by one (in the
+   * order they are listed in the record batch) when body is null.
+   */
+  private static ArrowRecordBatch deserializeRecordBatch(RecordBatch recordBatchFB, ArrowBuf body,
+                                                         ArrowBuf[] bodyBuffers) throws IOException {
     // Now read the body
     int nodesLength = recordBatchFB.nodesLength();
     List<ArrowFieldNode> nodes = new ArrayList<>();
@@ -123,7 +137,9 @@ public class ArrowRecordBatchLoader implements VectorAccessible, Iterable<Vector
     List<ArrowBuf> buffers = new ArrayList<>();
     for (int i = 0; i < recordBatchFB.buffersLength(); ++i) {
       Buffer bufferFB = recordBatchFB.buffers(i);
-      ArrowBuf vectorBuffer = body.slice((int)bufferFB.offset(), (int)bufferFB.length());
+      ArrowBuf vectorBuffer = body != null
+        ? body.slice((int)bufferFB.offset(), (int)bufferFB.length())
+        : bodyBuffers[i].slice(bodyBuffers[i].readerIndex(), (int)bufferFB.length());
       buffers.add(vectorBuffer);
     }
     if ((int)recordBatchFB.length() != recordBatchFB.length()) {
@@ -138,6 +154,14 @@ public class ArrowRecordBatchLoader implements VectorAccessible, Iterable<Vector
   }
 
   public static void load(RecordBatch recordBatch, VectorAccessible vectorAccessible, ArrowBuf body) {
+    load(recordBatch, vectorAccessible, body, null);
+  }
+
+  public static void load(RecordBatch recordBatch, VectorAccessible vectorAccessible, ArrowBuf[] buffers) {
+    load(recordBatch, vectorAccessible, null, buffers);
+  }
+
+  private static void load(RecordBatch recordBatch, VectorAccessible vectorAccessible, ArrowBuf body, ArrowBuf[] buffers) {
     List<Field> fields = vectorAccessible.getSchema().getFields();
     List<FieldVector> fieldVectors = FluentIterable.from(vectorAccessible)
       .transform(new Function<VectorWrapper<?>, FieldVector>() {
@@ -147,7 +171,7 @@ public class ArrowRecordBatchLoader implements VectorAccessible, Iterable<Vector
         }
       }).toList();
     try {
-      ArrowRecordBatch arrowRecordBatch = deserializeRecordBatch(recordBatch, body);
+      ArrowRecordBatch arrowRecordBatch = deserializeRecordBatch(recordBatch, body, buffers);
       Iterator<ArrowFieldNode> nodes = arrowRecordBatch.getNodes().iterator();
       Iterator<ArrowBuf> buffers = arrowRecordBatch.getBuffers().iterator();
       for (int i = 0; i < fields.size(); ++i) {
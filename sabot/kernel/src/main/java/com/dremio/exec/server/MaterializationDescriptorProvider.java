@@ -16,8 +16,10 @@
 package com.dremio.exec.server;
 
 import java.util.List;
+import java.util.Set;
 
 import com.dremio.exec.planner.acceleration.MaterializationDescriptor;
+import com.google.common.base.Optional;
 import com.google.common.collect.ImmutableList;
 
 /**
@@ -31,6 +33,17 @@ public interface MaterializationDescriptorProvider {
    */
   List<MaterializationDescriptor> get();
 
+  /**
+   * Provides the paths of the physical datasets the given materialization depends on, directly or through other
+   * reflections. Materializations with unknown dependencies can't be pruned and are considered for every query.
+   *
+   * @param descriptor materialization returned by {@link #get()}
+   * @return dataset paths, or absent if unknown
+   */
+  default Optional<Set<List<String>>> getDatasetDependencies(MaterializationDescriptor descriptor) {
+    return Optional.absent();
+  }
+
   /**
    * Empty materialization provider.
    */
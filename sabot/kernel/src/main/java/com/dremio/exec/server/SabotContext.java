@@ -308,7 +308,7 @@ public class SabotContext implements AutoCloseable {
 
   @Override
   public void close() throws Exception {
-    AutoCloseables.close(systemOptions);
+    AutoCloseables.close(compiler, systemOptions);
   }
 
   public Provider<WorkStats> getWorkStatsProvider() {
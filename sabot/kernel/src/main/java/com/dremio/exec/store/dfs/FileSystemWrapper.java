@@ -189,6 +189,13 @@ public class FileSystemWrapper extends FileSystem implements OpenFileTracker, Pa
     }
   }
 
+  /**
+   * Wrap a stream opened through another file system, so that its reads are recorded in the stats of this one.
+   */
+  public FSDataInputStream wrap(Path f, FSDataInputStream is) throws IOException {
+    return newFSDataInputStreamWrapper(f, is);
+  }
+
   @Override
   public void initialize(URI name, Configuration conf) throws IOException {
     try (WaitRecorder recorder = OperatorStats.getWaitRecorder(operatorStats)) {
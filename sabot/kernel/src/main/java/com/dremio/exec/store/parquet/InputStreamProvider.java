@@ -35,10 +35,24 @@ public class InputStreamProvider implements AutoCloseable {
 
   private final List<FSDataInputStream> streams = new ArrayList<>();
 
+  // stream opened ahead of time, handed out by the first call to stream()
+  private FSDataInputStream openedStream;
+
   public InputStreamProvider(FileSystem fs, Path path, boolean singleStream) {
+    this(fs, path, singleStream, null);
+  }
+
+  /**
+   * @param openedStream stream already opened on the path, owned by this provider. Could be null.
+   */
+  public InputStreamProvider(FileSystem fs, Path path, boolean singleStream, FSDataInputStream openedStream) {
     this.fs = fs;
     this.path = path;
     this.singleStream = singleStream;
+    this.openedStream = openedStream;
+    if (openedStream != null) {
+      streams.add(openedStream);
+    }
   }
 
   public FSDataInputStream stream() throws IOException {
@@ -50,6 +64,12 @@ public class InputStreamProvider implements AutoCloseable {
       return streams.get(0);
     }
 
+    if (openedStream != null) {
+      final FSDataInputStream stream = openedStream;
+      openedStream = null;
+      return stream;
+    }
+
     FSDataInputStream stream = fs.open(path);
     streams.add(stream);
     return stream;
@@ -22,6 +22,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
+import org.apache.hadoop.fs.FSDataInputStream;
 import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.security.UserGroupInformation;
 import org.apache.parquet.hadoop.CodecFactory;
@@ -39,6 +40,7 @@ import com.dremio.exec.store.dfs.implicit.CompositeReaderConfig;
 import com.dremio.exec.store.dfs.implicit.ImplicitFilesystemColumnFinder;
 import com.dremio.parquet.reader.ParquetDirectByteBufferAllocator;
 import com.dremio.sabot.exec.context.OperatorContext;
+import com.dremio.sabot.exec.context.OperatorStats;
 import com.dremio.sabot.exec.fragment.FragmentExecutionContext;
 import com.dremio.sabot.op.scan.ScanOperator;
 import com.dremio.sabot.op.spi.ProducerOperator;
@@ -93,6 +95,7 @@ public class ParquetOperatorCreator implements Creator<ParquetSubScan> {
     final CompositeReaderConfig readerConfig = CompositeReaderConfig.getCompound(config.getSchema(), config.getColumns(), config.getPartitionColumns());
     final List<ParquetDatasetSplit> sortedSplits = Lists.newArrayList();
     final SingletonParquetFooterCache footerCache = new SingletonParquetFooterCache();
+    final int readersToPrefetch = (int) context.getOptions().getOption(ExecConstants.PARQUET_PREFETCH_READERS);
 
     for (DatasetSplit split : config.getSplits()) {
       sortedSplits.add(new ParquetDatasetSplit(split));
@@ -112,15 +115,36 @@ public class ParquetOperatorCreator implements Creator<ParquetSubScan> {
           (context.getOptions().getOption(ExecConstants.PARQUET_MULTI_STREAM_SIZE_LIMIT_ENABLE) &&
             split.getDatasetSplit().getSize() < context.getOptions().getOption(ExecConstants.PARQUET_MULTI_STREAM_SIZE_LIMIT));
 
+        // readers created ahead are created on another thread, while the scan reads the current split: the file system
+        // calls made to create them record their waits in their own stats, and the scan records the time it waits for
+        // them. The stream opened to read the footer is handed to the reader, so the file is only opened once. Once
+        // created, readers are only used by the scan, and their streams record waits in the operator stats.
+        final FileSystemWrapper creationFs = readersToPrefetch > 0
+          ? plugin.createFS(config.getUserName(), new OperatorStats(context.getStats(), true))
+          : fs;
+
         try {
           Path p = new Path(split.getSplitXAttr().getPath());
           Long length = split.getSplitXAttr().getFileLength();
           if (length == null || !context.getOptions().getOption(ExecConstants.PARQUET_CACHED_ENTITY_SET_FILE_SIZE)) {
-            length = fs.getFileStatus(p).getLen();
+            length = creationFs.getFileStatus(p).getLen();
           }
-          InputStreamProvider inputStreamProvider = new InputStreamProvider(fs, p, useSingleStream);
 
-          final ParquetMetadata footer = footerCache.getFooter(inputStreamProvider.stream(), split.getSplitXAttr().getPath(), length, fs);
+          final InputStreamProvider inputStreamProvider;
+          final ParquetMetadata footer;
+          if (creationFs == fs) {
+            inputStreamProvider = new InputStreamProvider(fs, p, useSingleStream);
+            footer = footerCache.getFooter(inputStreamProvider.stream(), split.getSplitXAttr().getPath(), length, fs);
+          } else {
+            final FSDataInputStream stream = creationFs.open(p);
+            try {
+              footer = footerCache.getFooter(stream, split.getSplitXAttr().getPath(), length, creationFs);
+              inputStreamProvider = new InputStreamProvider(fs, p, useSingleStream, fs.wrap(p, stream));
+            } catch (IOException | RuntimeException e) {
+              stream.close();
+              throw e;
+            }
+          }
 
           final SchemaDerivationHelper schemaHelper = SchemaDerivationHelper.builder()
               .readInt96AsTimeStamp(readInt96AsTimeStamp)
@@ -162,7 +186,8 @@ public class ParquetOperatorCreator implements Creator<ParquetSubScan> {
 
     final UserGroupInformation ugi = plugin.getUGIForUser(config.getUserName());
 
-    final ScanOperator scan = new ScanOperator(fragmentExecContext.getSchemaUpdater(), config, context, readers.iterator(), globalDictionaries, ugi);
+    final ScanOperator scan = new ScanOperator(fragmentExecContext.getSchemaUpdater(), config, context, readers.iterator(),
+      globalDictionaries, ugi, sortedSplits.size() > 1 ? readersToPrefetch : 0);
     logger.debug("Took {} ms to create Parquet Scan SqlOperatorImpl.", watch.elapsed(TimeUnit.MILLISECONDS));
     return scan;
   }
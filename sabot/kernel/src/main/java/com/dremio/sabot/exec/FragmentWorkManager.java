@@ -18,6 +18,7 @@ package com.dremio.sabot.exec;
 import java.sql.Timestamp;
 import java.util.Iterator;
 import java.util.Set;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
@@ -50,6 +51,7 @@ import com.dremio.sabot.exec.fragment.FragmentExecutorBuilder;
 import com.dremio.sabot.exec.rpc.CoordToExecHandlerImpl;
 import com.dremio.sabot.exec.rpc.ExecProtocol;
 import com.dremio.sabot.exec.rpc.ExecTunnel;
+import com.dremio.sabot.exec.rpc.LocalExecTunnel;
 import com.dremio.sabot.rpc.CoordToExecHandler;
 import com.dremio.sabot.rpc.Protocols;
 import com.dremio.sabot.task.TaskPool;
@@ -57,6 +59,7 @@ import com.dremio.service.BindingCreator;
 import com.dremio.service.Service;
 import com.dremio.service.coordinator.ClusterCoordinator;
 import com.dremio.service.users.SystemUser;
+import com.dremio.services.fabric.api.FabricCommandRunner;
 import com.dremio.services.fabric.api.FabricRunnerFactory;
 import com.dremio.services.fabric.api.FabricService;
 import com.google.common.base.Function;
@@ -89,6 +92,7 @@ public class FragmentWorkManager implements Service, SafeExit {
   private QueriesClerk clerk;
   private ExecutorService executor;
   private CloseableExecutorService closeableExecutor;
+  private FragmentExecutorBuilder builder;
 
   private ExtendedLatch exitLatch = null; // This is used to wait to exit when things are still running
 
@@ -265,9 +269,11 @@ public class FragmentWorkManager implements Service, SafeExit {
 
     fragmentExecutors = new FragmentExecutors(creator, callback, pool.get(), bitContext.getOptionManager());
 
-    final ExecConnectionCreator connectionCreator = new ExecConnectionCreator(fabricServiceProvider.get().registerProtocol(new ExecProtocol(bitContext.getConfig(), allocator, fragmentExecutors)));
+    final ExecProtocol execProtocol = new ExecProtocol(bitContext.getConfig(), allocator, fragmentExecutors);
+    final ExecConnectionCreator connectionCreator = new ExecConnectionCreator(fabricServiceProvider.get().registerProtocol(execProtocol),
+      execProtocol, executor, bitContext.getOptionManager());
 
-    final FragmentExecutorBuilder builder = new FragmentExecutorBuilder(
+    builder = new FragmentExecutorBuilder(
         clerk,
         bitContext.getConfig(),
         bitContext.getClusterCoordinator(),
@@ -315,20 +321,36 @@ public class FragmentWorkManager implements Service, SafeExit {
 
   public class ExecConnectionCreator {
     private final FabricRunnerFactory factory;
+    private final ExecProtocol protocol;
+    private final Executor executor;
+    private final OptionManager options;
 
-    public ExecConnectionCreator(FabricRunnerFactory factory) {
+    public ExecConnectionCreator(FabricRunnerFactory factory, ExecProtocol protocol, Executor executor,
+        OptionManager options) {
       super();
       this.factory = factory;
+      this.protocol = protocol;
+      this.executor = executor;
+      this.options = options;
     }
 
     public ExecTunnel getTunnel(NodeEndpoint endpoint) {
-      return new ExecTunnel(factory.getCommandRunner(endpoint.getAddress(), endpoint.getFabricPort()));
+      final FabricCommandRunner runner = factory.getCommandRunner(endpoint.getAddress(), endpoint.getFabricPort());
+      if (options.getOption(ExecConstants.ENABLE_LOCAL_EXCHANGE) && isLocal(endpoint)) {
+        return new LocalExecTunnel(runner, protocol, executor);
+      }
+      return new ExecTunnel(runner);
+    }
+
+    private boolean isLocal(NodeEndpoint endpoint) {
+      final NodeEndpoint local = identity.get();
+      return local.getAddress().equals(endpoint.getAddress()) && local.getFabricPort() == endpoint.getFabricPort();
     }
   }
 
   @Override
   public void close() throws Exception {
-    AutoCloseables.close(statusThread, statsCollectorThread, closeableExecutor, fragmentExecutors, allocator);
+    AutoCloseables.close(statusThread, statsCollectorThread, closeableExecutor, fragmentExecutors, builder, allocator);
   }
 
 }
@@ -17,7 +17,9 @@ package com.dremio.sabot.exec;
 
 import org.apache.arrow.memory.BufferAllocator;
 
+import com.dremio.common.AutoCloseables;
 import com.dremio.exec.proto.CoordExecRPC.NodePhaseStatus;
+import com.dremio.sabot.exec.context.SharedPhaseState;
 
 /**
  *  Manages the phase (major fragment) level allocator. Allows for reporting of phase-level stats to the coordinator.<br>
@@ -31,15 +33,20 @@ import com.dremio.exec.proto.CoordExecRPC.NodePhaseStatus;
  *
  *  The PhaseTicket tracks the child FragmentTickets. When the last FragmentTicket is closed, the PhaseTicket closes the
  *  phase-level allocator. Any further operations on the phase-level allocator will throw an {@link IllegalStateException}
+ *
+ *  The PhaseTicket also holds the state shared by the fragments of the phase on this node, which is released right
+ *  before the phase-level allocator
  */
 public class PhaseTicket extends TicketWithChildren {
   private final QueryTicket queryTicket;
   private final int majorFragmentId;
+  private final SharedPhaseState sharedState;
 
   public PhaseTicket(QueryTicket queryTicket, int majorFragmentId, BufferAllocator allocator) {
     super(allocator);
     this.queryTicket = queryTicket;
     this.majorFragmentId = majorFragmentId;
+    this.sharedState = new SharedPhaseState(allocator);
   }
 
   public int getMajorFragmentId() {
@@ -50,6 +57,10 @@ public class PhaseTicket extends TicketWithChildren {
     return queryTicket;
   }
 
+  public SharedPhaseState getSharedState() {
+    return sharedState;
+  }
+
   /**
    * Return the status of the query's phase tracked by this ticket, on this node.
    */
@@ -59,4 +70,9 @@ public class PhaseTicket extends TicketWithChildren {
       .setMaxMemoryUsed(getAllocator().getPeakMemoryAllocation())
       .build();
   }
+
+  @Override
+  public void close() throws Exception {
+    AutoCloseables.close(sharedState, super::close);
+  }
 }
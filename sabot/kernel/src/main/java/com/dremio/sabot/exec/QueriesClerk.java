@@ -24,6 +24,7 @@ import org.apache.arrow.memory.BufferAllocator;
 import com.dremio.exec.proto.CoordExecRPC.PlanFragment;
 import com.dremio.exec.proto.CoordExecRPC.SchedulingInfo;
 import com.dremio.exec.proto.UserBitShared.QueryId;
+import com.dremio.sabot.exec.context.SharedPhaseState;
 import com.dremio.sabot.task.AsyncTaskWrapper;
 import com.dremio.sabot.task.SchedulingGroup;
 import com.google.common.base.Preconditions;
@@ -107,6 +108,10 @@ public class QueriesClerk {
       return schedulingGroup;
     }
 
+    public SharedPhaseState getSharedPhaseState() {
+      return phaseTicket.getSharedState();
+    }
+
     @Override
     public void close() throws Exception {
       Preconditions.checkState(!closed, "Trying to close FragmentTicket more than once");
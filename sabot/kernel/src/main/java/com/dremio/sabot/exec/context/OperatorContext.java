@@ -35,6 +35,7 @@ import com.dremio.exec.testing.ExecutionControls;
 import com.dremio.options.OptionManager;
 import com.dremio.sabot.exec.rpc.TunnelProvider;
 import com.dremio.sabot.op.filter.VectorContainerWithSV;
+import com.dremio.sabot.threads.sharedres.SharedResourceGroup;
 import com.dremio.service.namespace.NamespaceService;
 import com.dremio.service.spill.SpillService;
 
@@ -105,6 +106,17 @@ public abstract class OperatorContext {
 
   public abstract List<FragmentAssignment> getAssignments();
 
+  /**
+   * @return state shared with the other fragments of the same phase running on this node
+   */
+  public abstract SharedPhaseState getSharedPhaseState();
+
+  /**
+   * @return group of the resources the pipeline of the fragment waits on, null if the operator doesn't run in a
+   * fragment pipeline
+   */
+  public abstract SharedResourceGroup getSharedResourceGroup();
+
 
   public static int getChildCount(PhysicalOperator popConfig) {
     Iterator<PhysicalOperator> iter = popConfig.iterator();
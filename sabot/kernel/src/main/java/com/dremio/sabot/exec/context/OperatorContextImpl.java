@@ -40,6 +40,7 @@ import com.dremio.exec.testing.ExecutionControls;
 import com.dremio.options.OptionManager;
 import com.dremio.sabot.exec.rpc.TunnelProvider;
 import com.dremio.sabot.op.filter.VectorContainerWithSV;
+import com.dremio.sabot.threads.sharedres.SharedResourceGroup;
 import com.dremio.service.namespace.NamespaceService;
 import com.dremio.service.spill.SpillService;
 import com.google.common.annotations.VisibleForTesting;
@@ -63,6 +64,8 @@ public class OperatorContextImpl extends OperatorContext implements AutoCloseabl
   private final ExecutorService executor;
   private final TunnelProvider tunnelProvider;
   private final List<FragmentAssignment> assignments;
+  private final SharedPhaseState sharedPhaseState;
+  private final SharedResourceGroup sharedResourceGroup;
 
   private final ClassProducer producer;
   private final OptionManager optionManager;
@@ -90,6 +93,57 @@ public class OperatorContextImpl extends OperatorContext implements AutoCloseabl
       int targetBatchSize,
       TunnelProvider tunnelProvider,
       List<FragmentAssignment> assignments) throws OutOfMemoryException {
+    this(config, handle, popConfig, allocator, fragmentOutputAllocator, compiler, stats, executionControls, executor,
+      functions, contextInformation, optionManager, namespaceService, spillService, nodeDebugContextProvider,
+      targetBatchSize, tunnelProvider, assignments, null);
+  }
+
+  public OperatorContextImpl(
+      SabotConfig config,
+      FragmentHandle handle,
+      PhysicalOperator popConfig,
+      BufferAllocator allocator,
+      BufferAllocator fragmentOutputAllocator,
+      CodeCompiler compiler,
+      OperatorStats stats,
+      ExecutionControls executionControls,
+      ExecutorService executor,
+      FunctionLookupContext functions,
+      ContextInformation contextInformation,
+      final OptionManager optionManager,
+      NamespaceService namespaceService,
+      SpillService spillService,
+      NodeDebugContextProvider nodeDebugContextProvider,
+      int targetBatchSize,
+      TunnelProvider tunnelProvider,
+      List<FragmentAssignment> assignments,
+      SharedPhaseState sharedPhaseState) throws OutOfMemoryException {
+    this(config, handle, popConfig, allocator, fragmentOutputAllocator, compiler, stats, executionControls, executor,
+      functions, contextInformation, optionManager, namespaceService, spillService, nodeDebugContextProvider,
+      targetBatchSize, tunnelProvider, assignments, sharedPhaseState, null);
+  }
+
+  public OperatorContextImpl(
+      SabotConfig config,
+      FragmentHandle handle,
+      PhysicalOperator popConfig,
+      BufferAllocator allocator,
+      BufferAllocator fragmentOutputAllocator,
+      CodeCompiler compiler,
+      OperatorStats stats,
+      ExecutionControls executionControls,
+      ExecutorService executor,
+      FunctionLookupContext functions,
+      ContextInformation contextInformation,
+      final OptionManager optionManager,
+      NamespaceService namespaceService,
+      SpillService spillService,
+      NodeDebugContextProvider nodeDebugContextProvider,
+      int targetBatchSize,
+      TunnelProvider tunnelProvider,
+      List<FragmentAssignment> assignments,
+      SharedPhaseState sharedPhaseState,
+      SharedResourceGroup sharedResourceGroup) throws OutOfMemoryException {
     this.config = config;
     this.handle = handle;
     this.allocator = allocator;
@@ -112,6 +166,8 @@ public class OperatorContextImpl extends OperatorContext implements AutoCloseabl
     this.spillService = spillService;
     this.tunnelProvider = tunnelProvider;
     this.assignments = assignments;
+    this.sharedPhaseState = sharedPhaseState;
+    this.sharedResourceGroup = sharedResourceGroup;
   }
 
   public OperatorContextImpl(
@@ -175,6 +231,19 @@ public class OperatorContextImpl extends OperatorContext implements AutoCloseabl
     return assignments;
   }
 
+  @Override
+  public SharedPhaseState getSharedPhaseState() {
+    if (sharedPhaseState == null) {
+      throw new UnsupportedOperationException("Operator context does not have a shared phase state");
+    }
+    return sharedPhaseState;
+  }
+
+  @Override
+  public SharedResourceGroup getSharedResourceGroup() {
+    return sharedResourceGroup;
+  }
+
   @Override
   public VectorContainer createOutputVectorContainer() {
     return new VectorContainer(fragmentOutputAllocator);
@@ -0,0 +1,63 @@
+/*
+ * Copyright (C) 2017-2018 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.exec.context;
+
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+import org.apache.arrow.memory.BufferAllocator;
+
+import com.dremio.common.AutoCloseables;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Maps;
+
+/**
+ * State shared by the fragments of a phase (major fragment) of a query running on the same node, keyed by operator
+ * id. Each shared object gets its own allocator, a child of the phase allocator, so its memory is accounted to the
+ * phase rather than to any of the fragments using it. The allocator is limited like the allocator of the operator
+ * sharing the object. Shared objects are closed along with the phase, once all its
+ * fragments on this node are done.
+ */
+public class SharedPhaseState implements AutoCloseable {
+
+  private final BufferAllocator allocator;
+  private final ConcurrentMap<Integer, AutoCloseable> objects = Maps.newConcurrentMap();
+  private volatile boolean closed;
+
+  public SharedPhaseState(BufferAllocator allocator) {
+    this.allocator = allocator;
+  }
+
+  /**
+   * Returns the object shared by the given operator, creating it if this is the first fragment asking for it.
+   * @param operatorId id of the operator sharing the object
+   * @param maxAllocation memory limit of the object, the max allocation of the operator
+   * @param factory creates the object from its allocator. The object owns the allocator and must close it.
+   */
+  @SuppressWarnings("unchecked")
+  public <T extends AutoCloseable> T getOrCreate(int operatorId, long maxAllocation, Function<BufferAllocator, T> factory) {
+    Preconditions.checkState(!closed, "Shared state of the phase is already closed");
+    return (T) objects.computeIfAbsent(operatorId,
+      id -> factory.apply(allocator.newChildAllocator("shared-op:" + id, 0, maxAllocation)));
+  }
+
+  @Override
+  public void close() throws Exception {
+    closed = true;
+    AutoCloseables.close(objects.values());
+    objects.clear();
+  }
+}
@@ -72,7 +72,7 @@ import com.google.common.base.Preconditions;
 /**
  * Singleton utility to help in constructing a FragmentExecutor.
  */
-public class FragmentExecutorBuilder {
+public class FragmentExecutorBuilder implements AutoCloseable {
 
   private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(FragmentExecutorBuilder.class);
 
@@ -229,7 +229,9 @@ public class FragmentExecutorBuilder {
           contextInfo,
           nodeDebugContextProvider,
           tunnelProvider,
-          fragment.getAllAssignmentList());
+          fragment.getAllAssignmentList(),
+          ticket.getSharedPhaseState(),
+          sharedResources.getGroup(PIPELINE_RES_GRP));
 
       final FragmentStatusReporter statusReporter = new FragmentStatusReporter(fragment.getHandle(), stats, coordTunnel, allocator);
       final FragmentExecutor executor = new FragmentExecutor(
@@ -265,6 +267,11 @@ public class FragmentExecutorBuilder {
 
   }
 
+  @Override
+  public void close() throws Exception {
+    AutoCloseables.close(compiler);
+  }
+
   @SuppressWarnings("serial")
   private class AutoCloseableList extends ArrayList<AutoCloseable> implements AutoCloseable {
     private final List<AutoCloseable> items = new ArrayList<>();
@@ -46,7 +46,9 @@ import com.dremio.sabot.exec.context.OpProfileDef;
 import com.dremio.sabot.exec.context.OperatorContext;
 import com.dremio.sabot.exec.context.OperatorContextImpl;
 import com.dremio.sabot.exec.context.OperatorStats;
+import com.dremio.sabot.exec.context.SharedPhaseState;
 import com.dremio.sabot.exec.rpc.TunnelProvider;
+import com.dremio.sabot.threads.sharedres.SharedResourceGroup;
 import com.dremio.service.namespace.NamespaceService;
 import com.dremio.service.spill.SpillService;
 import com.google.common.base.Preconditions;
@@ -70,12 +72,15 @@ class OperatorContextCreator implements OperatorContext.Creator, AutoCloseable {
   private final NodeDebugContextProvider nodeDebugContextProvider;
   private final TunnelProvider tunnelProvider;
   private final List<FragmentAssignment> assignments;
+  private final SharedPhaseState sharedPhaseState;
+  private final SharedResourceGroup sharedResourceGroup;
 
   public OperatorContextCreator(FragmentStats stats, BufferAllocator allocator, CodeCompiler compiler,
                                 SabotConfig config, FragmentHandle handle, ExecutionControls executionControls,
                                 FunctionLookupContext funcRegistry, NamespaceService namespaceService, OptionManager options,
                                 ExecutorService executor, SpillService spillService, ContextInformation contextInformation,
-                                NodeDebugContextProvider nodeDebugContextProvider, TunnelProvider tunnelProvider, List<FragmentAssignment> assignments) {
+                                NodeDebugContextProvider nodeDebugContextProvider, TunnelProvider tunnelProvider, List<FragmentAssignment> assignments,
+                                SharedPhaseState sharedPhaseState, SharedResourceGroup sharedResourceGroup) {
     super();
     this.stats = stats;
     this.allocator = allocator;
@@ -93,6 +98,8 @@ class OperatorContextCreator implements OperatorContext.Creator, AutoCloseable {
     this.nodeDebugContextProvider = nodeDebugContextProvider;
     this.tunnelProvider = tunnelProvider;
     this.assignments = assignments;
+    this.sharedPhaseState = sharedPhaseState;
+    this.sharedResourceGroup = sharedResourceGroup;
   }
 
   public void setFragmentOutputAllocator(BufferAllocator fragmentOutputAllocator) {
@@ -132,7 +139,9 @@ class OperatorContextCreator implements OperatorContext.Creator, AutoCloseable {
         nodeDebugContextProvider,
         calculateTargetRecordSize(popConfig),
         tunnelProvider,
-        assignments);
+        assignments,
+        sharedPhaseState,
+        sharedResourceGroup);
       operatorContexts.add(context);
       closeable.commit();
       return context;
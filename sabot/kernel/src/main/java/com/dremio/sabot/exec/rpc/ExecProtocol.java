@@ -16,6 +16,8 @@
 package com.dremio.sabot.exec.rpc;
 
 import java.io.IOException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ThreadLocalRandom;
 
 import org.apache.arrow.memory.BufferAllocator;
@@ -30,6 +32,7 @@ import com.dremio.exec.proto.ExecRPC.FragmentStreamComplete;
 import com.dremio.exec.proto.ExecRPC.OOBMessage;
 import com.dremio.exec.proto.ExecRPC.RpcType;
 import com.dremio.exec.proto.GeneralRPCProtos.Ack;
+import com.dremio.exec.record.FragmentWritableBatch;
 import com.dremio.exec.rpc.Acks;
 import com.dremio.exec.rpc.Response;
 import com.dremio.exec.rpc.ResponseSender;
@@ -37,6 +40,8 @@ import com.dremio.exec.rpc.RpcBus;
 import com.dremio.exec.rpc.RpcConfig;
 import com.dremio.exec.rpc.RpcConstants;
 import com.dremio.exec.rpc.RpcException;
+import com.dremio.exec.rpc.RpcOutcomeListener;
+import com.dremio.exec.rpc.UserRpcException;
 import com.dremio.sabot.exec.FragmentExecutors;
 import com.dremio.sabot.exec.fragment.OutOfBandMessage;
 import com.dremio.sabot.rpc.Protocols;
@@ -118,15 +123,84 @@ public class ExecProtocol implements FabricProtocol {
 
   private void handleFragmentRecordBatch(FragmentRecordBatch fragmentBatch, ByteBuf body, ResponseSender sender)
       throws RpcException {
-
     final AckSender ack = new AckSender(sender);
+    handleIncomingBatch(new IncomingDataBatch(fragmentBatch, (ArrowBuf) body, ack), ack, sender);
+  }
+
+  /**
+   * Handle a record batch sent by a fragment running in this process. The buffers of the batch are handed over to the
+   * receivers as is, without being copied or serialized into a message: each receiver takes ownership of them in its
+   * own allocator, and the sender's references are released once they did, as if the batch had been written out. As
+   * for a batch sent to a remote fragment, the sender must not write into the sent buffers anymore. The batch is
+   * delivered by the given executor, off the sender's thread, and the listener is acked once all receivers are done
+   * with the batch, same as a remote sender would be.
+   */
+  void handleLocalRecordBatch(final FragmentWritableBatch batch, final RpcOutcomeListener<Ack> listener,
+      Executor executor) {
+    final ByteBuf[] buffers = batch.getBuffers();
+    final ArrowBuf[] arrowBuffers = new ArrowBuf[buffers.length];
+    for (int i = 0; i < buffers.length; i++) {
+      arrowBuffers[i] = (ArrowBuf) buffers[i];
+    }
+
+    try {
+      executor.execute(new Runnable() {
+        @Override
+        public void run() {
+          final ResponseSender sender = new LocalResponseSender(listener);
+          final AckSender ack = new AckSender(sender);
+          try {
+            handleIncomingBatch(new IncomingDataBatch(batch.getHeader(), arrowBuffers, ack), ack, sender);
+          } finally {
+            // receivers hold their own references
+            release(arrowBuffers);
+          }
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      release(arrowBuffers);
+      listener.failed(RpcException.mapException(e));
+    }
+  }
+
+  private static void release(ArrowBuf[] buffers) {
+    for (ArrowBuf buffer : buffers) {
+      buffer.release();
+    }
+  }
+
+  /**
+   * Handle a stream completion sent by a fragment running in this process. The completion is delivered by the given
+   * executor, after the batches previously handed to it.
+   */
+  void handleLocalStreamComplete(final FragmentStreamComplete completion, final RpcOutcomeListener<Ack> listener,
+      Executor executor) {
+    try {
+      executor.execute(new Runnable() {
+        @Override
+        public void run() {
+          try {
+            handleFragmentStreamCompletion(completion);
+          } catch (Exception e) {
+            listener.failed(RpcException.mapException(e));
+            return;
+          }
+          listener.success(Acks.OK, null);
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      listener.failed(RpcException.mapException(e));
+    }
+  }
+
+  private void handleIncomingBatch(IncomingDataBatch batch, AckSender ack, ResponseSender sender) {
+    final FragmentRecordBatch fragmentBatch = batch.getHeader();
 
     // increment so we don't get false returns.
     ack.increment();
 
     try {
 
-      final IncomingDataBatch batch = new IncomingDataBatch(fragmentBatch, (ArrowBuf) body, ack);
       final int targetCount = fragmentBatch.getReceivingMinorFragmentIdCount();
 
       // randomize who gets first transfer (and thus ownership) so memory usage
@@ -205,6 +279,27 @@ public class ExecProtocol implements FabricProtocol {
   }
 
 
+  /**
+   * Delivers the ack of a batch sent from this process directly to the sender's listener.
+   */
+  private static class LocalResponseSender implements ResponseSender {
+    private final RpcOutcomeListener<Ack> listener;
+
+    LocalResponseSender(RpcOutcomeListener<Ack> listener) {
+      this.listener = listener;
+    }
+
+    @Override
+    public void send(Response r) {
+      listener.success((Ack) r.pBody, null);
+    }
+
+    @Override
+    public void sendFailure(UserRpcException e) {
+      listener.failed(e);
+    }
+  }
+
   private static RpcConfig getMapping(SabotConfig config) {
     return RpcConfig.newBuilder()
         .name("DATA")
@@ -31,6 +31,7 @@ public class IncomingDataBatch {
 
   private final FragmentRecordBatch header;
   private final ArrowBuf body;
+  private final ArrowBuf[] buffers;
   private final AckSender sender;
 
   /**
@@ -48,6 +49,28 @@ public class IncomingDataBatch {
     Preconditions.checkNotNull(sender);
     this.header = header;
     this.body = body;
+    this.buffers = null;
+    this.sender = sender;
+  }
+
+  /**
+   * Create a new batch from the buffers of a batch sent within this process. Does not impact reference counts of the
+   * buffers.
+   *
+   * @param header
+   *          Batch header
+   * @param buffers
+   *          Data buffers, in the order described by the header.
+   * @param sender
+   *          AckSender to use for underlying RawFragmentBatches.
+   */
+  public IncomingDataBatch(FragmentRecordBatch header, ArrowBuf[] buffers, AckSender sender) {
+    Preconditions.checkNotNull(header);
+    Preconditions.checkNotNull(buffers);
+    Preconditions.checkNotNull(sender);
+    this.header = header;
+    this.body = null;
+    this.buffers = buffers;
     this.sender = sender;
   }
 
@@ -60,6 +83,14 @@ public class IncomingDataBatch {
    * @return The newly created RawFragmentBatch
    */
   public RawFragmentBatch newRawFragmentBatch(final BufferAllocator allocator) {
+    if (buffers != null) {
+      final ArrowBuf[] transferredBuffers = new ArrowBuf[buffers.length];
+      for (int i = 0; i < buffers.length; i++) {
+        transferredBuffers[i] = buffers[i].transferOwnership(allocator).buffer;
+      }
+      sender.increment();
+      return new RawFragmentBatch(header, transferredBuffers, sender);
+    }
     final ArrowBuf transferredBuffer = body == null ? null : body.transferOwnership(allocator).buffer;
     sender.increment();
     return new RawFragmentBatch(header, transferredBuffer, sender);
@@ -84,6 +115,14 @@ public class IncomingDataBatch {
   }
 
   public long size(){
+    if(buffers != null){
+      long size = 0;
+      for(ArrowBuf buffer : buffers){
+        size += buffer.getPossibleMemoryConsumed();
+      }
+      return size;
+    }
+
     if(body == null){
       return 0;
     }
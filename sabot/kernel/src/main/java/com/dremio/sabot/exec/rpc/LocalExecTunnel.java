@@ -0,0 +1,70 @@
+/*
+ * Copyright (C) 2017-2018 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.exec.rpc;
+
+import java.util.concurrent.Executor;
+
+import com.dremio.common.SerializedExecutor;
+import com.dremio.exec.proto.ExecRPC.FragmentStreamComplete;
+import com.dremio.exec.proto.GeneralRPCProtos.Ack;
+import com.dremio.exec.record.FragmentWritableBatch;
+import com.dremio.exec.rpc.RpcOutcomeListener;
+import com.dremio.services.fabric.api.FabricCommandRunner;
+
+/**
+ * {@link ExecTunnel} to the fragments running in this process. Record batches and stream completions are handed to
+ * the receivers directly instead of being written to and read back from a loopback connection: the batch buffers are
+ * transferred to the receiving fragments without being copied, and the receivers get them from a separate thread, same
+ * as they would from a connection's event loop. Both go through the same serialized executor so their relative order is
+ * preserved. Other messages are infrequent and still go through the fabric.
+ */
+public class LocalExecTunnel extends ExecTunnel {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(LocalExecTunnel.class);
+
+  private final ExecProtocol protocol;
+  private final Executor executor;
+
+  public LocalExecTunnel(FabricCommandRunner runner, ExecProtocol protocol, Executor executor) {
+    super(runner);
+    this.protocol = protocol;
+    this.executor = new DeliveryExecutor(executor);
+  }
+
+  @Override
+  public void sendStreamComplete(RpcOutcomeListener<Ack> outcomeListener, FragmentStreamComplete streamComplete) {
+    protocol.handleLocalStreamComplete(streamComplete, outcomeListener, executor);
+  }
+
+  @Override
+  public void sendRecordBatch(RpcOutcomeListener<Ack> outcomeListener, FragmentWritableBatch batch) {
+    protocol.handleLocalRecordBatch(batch, outcomeListener, executor);
+  }
+
+  /**
+   * Delivers the messages sent through this tunnel one at a time, in the order they were sent.
+   */
+  private static class DeliveryExecutor extends SerializedExecutor {
+
+    DeliveryExecutor(Executor underlyingExecutor) {
+      super("local-exchange-delivery", underlyingExecutor);
+    }
+
+    @Override
+    protected void runException(Runnable command, Throwable t) {
+      logger.error("Failure while delivering a message to a local fragment", t);
+    }
+  }
+}
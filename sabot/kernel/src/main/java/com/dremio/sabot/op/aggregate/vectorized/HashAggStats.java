@@ -79,7 +79,11 @@ public class HashAggStats {
     OOB_DROP_UNDER_THRESHOLD, // Number of times OOB dropped spilling notification as it was under the threshold.
     OOB_DROP_NO_VICTIM, // Number of times OOB dropped spilling notification as all allocations were minimal.
     OOB_SPILL, // Spill was done due to oob.
-    OOB_DROP_ALREADY_SPILLING // Number of times operator dropped spilling notification as it was already spilling
+    OOB_DROP_ALREADY_SPILLING, // Number of times operator dropped spilling notification as it was already spilling
+
+    // adaptive partial aggregation related metrics
+    PASS_THROUGH_SWITCHES, // Number of times a partial aggregation started outputting its groups after every batch
+    PASS_THROUGH_RECORDS // Number of records consumed while outputting groups after every batch
 
     ;
 
@@ -296,6 +296,11 @@ public class VectorizedHashAggOperator implements SingleInputOperator {
   public static final DoubleValidator OOB_SPILL_TRIGGER_HEADROOM_FACTOR = new RangeDoubleValidator("exec.operator.aggregate.vectorize.oob_trigger_headroom_factor", 0.0d, 10.0d, .2d);
   public static final BooleanValidator OOB_SPILL_TRIGGER_ENABLED = new BooleanValidator("exec.operator.aggregate.vectorize.oob_trigger_enabled", true);
   public static final BooleanValidator VECTORIZED_HASHAGG_ENABLE_MICRO_SPILLS = new BooleanValidator("exec.operator.aggregate.vectorize.enable_micro_spills", true);
+  // partial aggregations on keys that hardly repeat output their groups after every batch instead of aggregating all the input
+  public static final BooleanValidator VECTORIZED_HASHAGG_ADAPTIVE_PARTIAL = new BooleanValidator("exec.operator.aggregate.vectorize.adaptive_partial.enabled", false);
+  public static final PositiveLongValidator VECTORIZED_HASHAGG_ADAPTIVE_PARTIAL_MIN_RECORDS = new PositiveLongValidator("exec.operator.aggregate.vectorize.adaptive_partial.min_records", Integer.MAX_VALUE, 100_000);
+  public static final DoubleValidator VECTORIZED_HASHAGG_ADAPTIVE_PARTIAL_RATIO = new RangeDoubleValidator("exec.operator.aggregate.vectorize.adaptive_partial.groups_to_records_ratio", 0.0d, 1.0d, .9d);
+  public static final PositiveLongValidator VECTORIZED_HASHAGG_ADAPTIVE_PARTIAL_SAMPLE_INTERVAL = new PositiveLongValidator("exec.operator.aggregate.vectorize.adaptive_partial.sample_interval_batches", Integer.MAX_VALUE, 1000);
 
   private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(VectorizedHashAggOperator.class);
 
@@ -372,6 +377,18 @@ public class VectorizedHashAggOperator implements SingleInputOperator {
   private OperatorStateBeforeOOB operatorStateBeforeOOB;
   private ForceSpillState forceSpillState;
 
+  /* adaptive partial aggregation */
+  private boolean adaptivePartial;
+  private final int adaptiveMinRecords;
+  private final double adaptiveRatio;
+  private final int passThroughSampleInterval;
+  private boolean passThrough;
+  private boolean flushing;
+  private long recordsSinceFlush;
+  private long passThroughBatches;
+  private long passThroughRecords;
+  private int passThroughSwitches;
+
   private int bitsInChunk;
   private int chunkOffsetMask;
 
@@ -428,6 +445,10 @@ public class VectorizedHashAggOperator implements SingleInputOperator {
     this.resumableInsertState = null;
     this.operatorStateBeforeOOB = null;
     this.forceSpillState = null;
+    this.adaptivePartial = popConfig.isPartial() && options.getOption(VECTORIZED_HASHAGG_ADAPTIVE_PARTIAL);
+    this.adaptiveMinRecords = (int) options.getOption(VECTORIZED_HASHAGG_ADAPTIVE_PARTIAL_MIN_RECORDS);
+    this.adaptiveRatio = options.getOption(VECTORIZED_HASHAGG_ADAPTIVE_PARTIAL_RATIO);
+    this.passThroughSampleInterval = (int) options.getOption(VECTORIZED_HASHAGG_ADAPTIVE_PARTIAL_SAMPLE_INTERVAL);
     logger.debug("partitions:{}, min-hashtable-size:{}, variable-width-key-size:{}, max-hashtable-batch-size:{}",
       numPartitions, minHashTableSize, estimatedVariableWidthKeySize, maxHashTableBatchSize);
   }
@@ -716,6 +737,60 @@ public class VectorizedHashAggOperator implements SingleInputOperator {
       VariableLengthValidator.validateVariable(v, records);
     }
     consumeDataHelper(records);
+    if (adaptivePartial) {
+      adaptPartialAggregation(records);
+    }
+  }
+
+  /**
+   * The first phase of a two phase aggregation only reduces the data sent to the next phase if its input keys
+   * repeat. Once enough records have been consumed, if the number of groups stays close to the number of records,
+   * aggregating the whole input only costs memory and spills: the groups are then output after every incoming batch,
+   * keeping the hash tables to the size of a batch. Every few batches, the operator goes back to aggregating to
+   * check whether the keys started repeating.
+   *
+   * Partitions spilled to disk are only processed at the end of the input, so the operator stops adapting once it
+   * has spilled.
+   *
+   * @param records number of records consumed
+   */
+  private void adaptPartialAggregation(final int records) {
+    if (partitionSpillHandler.getNumberOfSpills() > 0) {
+      adaptivePartial = false;
+      passThrough = false;
+      return;
+    }
+
+    if (state != State.CAN_CONSUME || internalStateMachine != InternalState.NONE) {
+      return;
+    }
+
+    recordsSinceFlush += records;
+    if (passThrough) {
+      passThroughRecords += records;
+      if (++passThroughBatches % passThroughSampleInterval == 0) {
+        /* aggregate the next records again to sample the reduction */
+        passThrough = false;
+      }
+      flushPartitions();
+      return;
+    }
+
+    if (recordsSinceFlush >= adaptiveMinRecords && getHashTableSize() >= adaptiveRatio * recordsSinceFlush) {
+      logger.debug("Partial aggregation reduced {} records to {} groups, outputting groups after every batch",
+        recordsSinceFlush, getHashTableSize());
+      passThrough = true;
+      passThroughSwitches++;
+      flushPartitions();
+    }
+  }
+
+  /**
+   * Output the groups of all partitions before consuming more data.
+   */
+  private void flushPartitions() {
+    flushing = true;
+    moveToOutputState();
   }
 
   /**
@@ -1771,6 +1846,8 @@ public class VectorizedHashAggOperator implements SingleInputOperator {
     stats.setLongStat(Metric.OOB_DROP_NO_VICTIM, oobDropNoVictim);
     stats.setLongStat(Metric.OOB_SPILL, oobSpills);
     stats.setLongStat(Metric.OOB_DROP_ALREADY_SPILLING, oobDropSpill);
+    stats.setLongStat(Metric.PASS_THROUGH_SWITCHES, passThroughSwitches);
+    stats.setLongStat(Metric.PASS_THROUGH_RECORDS, passThroughRecords);
 
     if (iterations == 1) {
       stats.setLongStat(Metric.ALLOCATED_FOR_FIXED_KEYS, statsHolder.allocatedForFixedBlocks);
@@ -2219,6 +2296,15 @@ public class VectorizedHashAggOperator implements SingleInputOperator {
    * are not done and need to start the next iteration.
    */
   private void postOutputProcessing() {
+    if (flushing) {
+      /* a partial aggregation output its groups early, go back to consuming */
+      flushing = false;
+      recordsSinceFlush = 0;
+      state = State.CAN_CONSUME;
+      internalStateMachine = InternalState.NONE;
+      return;
+    }
+
     if ((partitionSpillHandler.getActiveSpilledPartitionCount() == 0) && partitionSpillHandler.isSpillQueueEmpty()) {
       /* if we are inside recursion, that is we are outputting after
        * consuming the input from a spilled partition, we need to check if
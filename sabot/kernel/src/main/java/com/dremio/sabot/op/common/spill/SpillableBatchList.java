@@ -0,0 +1,345 @@
+/*
+ * Copyright (C) 2017-2018 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.op.common.spill;
+
+import java.io.IOException;
+import java.util.AbstractList;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.FileSystem;
+
+import com.dremio.common.AutoCloseables;
+import com.dremio.common.exceptions.UserException;
+import com.dremio.common.utils.protos.QueryIdHelper;
+import com.dremio.exec.cache.VectorAccessibleSerializable;
+import com.dremio.exec.proto.ExecProtos.FragmentHandle;
+import com.dremio.exec.record.VectorContainer;
+import com.dremio.exec.record.VectorWrapper;
+import com.dremio.exec.record.WritableBatch;
+import com.dremio.exec.store.LocalSyncableFileSystem;
+import com.dremio.exec.store.dfs.FileSystemPlugin;
+import com.dremio.sabot.exec.context.OperatorContext;
+import com.dremio.sabot.op.sort.external.SpillManager;
+import com.dremio.sabot.op.sort.external.SpillManager.SpillFile;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Stopwatch;
+
+/**
+ * Ordered list of batches buffered by an operator, that can grow beyond the memory available to the operator.<br>
+ * The first and the last batches are always kept in memory. Once the batches held in memory exceed the spill
+ * threshold, all batches in between are written to a spill file and read back on demand. Only the
+ * {@link #MAX_LOADED_BATCHES} most recently read spilled batches are kept in memory at any time, so a container
+ * returned by {@link #get(int)} for a spilled batch is only valid until the next couple of calls to {@link #get(int)}.
+ */
+public class SpillableBatchList extends AbstractList<VectorContainer> implements AutoCloseable {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(SpillableBatchList.class);
+
+  // enough for callers that read a batch while holding on to the previous one
+  public static final int MAX_LOADED_BATCHES = 2;
+
+  private final OperatorContext context;
+  private final String name;
+  private final int operatorId;
+  private final long spillThreshold;
+
+  private final List<Entry> entries = new ArrayList<>();
+  private final Deque<Entry> loaded = new ArrayDeque<>(MAX_LOADED_BATCHES);
+
+  private long inMemorySize;
+  private SpillManager spillManager;
+  private int spillFileCount;
+
+  private long spillCount;
+  private long batchesSpilled;
+  private long spilledDataSize;
+  private long spillTimeNanos;
+  private long readTimeNanos;
+
+  /**
+   * @param context operator context, used to allocate the batches read back from disk and to locate spill directories
+   * @param name short name of the operator, used in spill file names
+   * @param operatorId id of the operator
+   * @param spillThreshold size of the batches kept in memory above which batches are spilled, Long.MAX_VALUE to
+   *                       never spill
+   */
+  public SpillableBatchList(OperatorContext context, String name, int operatorId, long spillThreshold) {
+    this.context = context;
+    this.name = name;
+    this.operatorId = operatorId;
+    this.spillThreshold = spillThreshold;
+  }
+
+  @Override
+  public int size() {
+    return entries.size();
+  }
+
+  @Override
+  public VectorContainer get(int index) {
+    final Entry entry = entries.get(index);
+    if (entry.container == null) {
+      load(entry);
+    } else if (loaded.remove(entry)) {
+      // most recently used batches are at the tail of the queue
+      loaded.addLast(entry);
+    }
+    return entry.container;
+  }
+
+  /**
+   * appends a batch to the list, the list takes ownership of the batch. May spill batches in the middle of the list
+   */
+  @Override
+  public boolean add(VectorContainer batch) {
+    entries.add(new Entry(batch, getSize(batch)));
+    inMemorySize += entries.get(entries.size() - 1).size;
+    if (inMemorySize > spillThreshold) {
+      try {
+        spill();
+      } catch (Exception e) {
+        throw UserException.dataWriteError(e)
+          .message("Failure while spilling %s batches", name)
+          .build(logger);
+      }
+    }
+    return true;
+  }
+
+  /**
+   * removes and releases the first batch of the list. The next batch is made resident if it was spilled
+   */
+  public void removeFirst() throws Exception {
+    final Entry first = entries.remove(0);
+    inMemorySize -= first.size;
+    first.close();
+
+    if (!entries.isEmpty()) {
+      final Entry next = entries.get(0);
+      if (next.container == null) {
+        load(next);
+      }
+      if (loaded.remove(next)) {
+        inMemorySize += next.size;
+      }
+      next.releaseSpill();
+    }
+  }
+
+  public VectorContainer getFirst() {
+    return get(0);
+  }
+
+  public VectorContainer getLast() {
+    return get(entries.size() - 1);
+  }
+
+  /**
+   * writes all resident batches except the first and the last one into a single spill file
+   */
+  private void spill() throws Exception {
+    final List<Entry> toSpill = new ArrayList<>();
+    for (int i = 1; i < entries.size() - 1; i++) {
+      final Entry entry = entries.get(i);
+      if (entry.container != null && entry.file == null) {
+        toSpill.add(entry);
+      }
+    }
+    if (toSpill.isEmpty()) {
+      return;
+    }
+
+    final Stopwatch watch = Stopwatch.createStarted();
+    final SharedSpillFile file = new SharedSpillFile(getSpillManager().getSpillFile(name + "-" + spillFileCount++));
+    try (FSDataOutputStream out = file.spillFile.create()) {
+      for (Entry entry : toSpill) {
+        final long offset = out.getPos();
+        final VectorContainer container = entry.container;
+        try (WritableBatch batch = WritableBatch.getBatchNoHVWrap(container.getRecordCount(), container, false)) {
+          new VectorAccessibleSerializable(batch, null).writeToStream(out);
+        }
+        container.close();
+        entry.container = null;
+        entry.setSpill(file, offset);
+        inMemorySize -= entry.size;
+      }
+    } catch (Exception e) {
+      // batches already written keep referencing the file, only delete it if none made it to disk
+      if (file.refCount == 0) {
+        file.spillFile.close();
+      }
+      throw e;
+    }
+
+    spillCount++;
+    batchesSpilled += toSpill.size();
+    spilledDataSize += file.spillFile.getFileStatus().getLen();
+    spillTimeNanos += watch.elapsed(TimeUnit.NANOSECONDS);
+    logger.debug("spilled {} {} batches in {} us", toSpill.size(), name, watch.elapsed(TimeUnit.MICROSECONDS));
+  }
+
+  private void load(Entry entry) {
+    Preconditions.checkState(entry.file != null, "batch is neither in memory nor spilled");
+    final Stopwatch watch = Stopwatch.createStarted();
+    if (loaded.size() == MAX_LOADED_BATCHES) {
+      loaded.removeFirst().unload();
+    }
+
+    try (FSDataInputStream in = entry.file.spillFile.open()) {
+      in.seek(entry.offset);
+      final VectorAccessibleSerializable serializer = new VectorAccessibleSerializable(context.getAllocator());
+      serializer.readFromStream(in);
+      entry.container = serializer.get();
+    } catch (IOException e) {
+      throw UserException.dataReadError(e)
+        .message("Failure while reading spilled %s batch", name)
+        .build(logger);
+    }
+    loaded.addLast(entry);
+
+    readTimeNanos += watch.elapsed(TimeUnit.NANOSECONDS);
+  }
+
+  private SpillManager getSpillManager() {
+    if (spillManager == null) {
+      final Configuration conf = FileSystemPlugin.getNewFsConf();
+      conf.set(SpillManager.DREMIO_LOCAL_IMPL_STRING, LocalSyncableFileSystem.class.getName());
+      // If the location URI doesn't contain any schema, fall back to local.
+      conf.set(FileSystem.FS_DEFAULT_NAME_KEY, FileSystem.DEFAULT_FS);
+
+      final FragmentHandle handle = context.getFragmentHandle();
+      final String id = String.format("%s-%s.%s.%s.%s", name, QueryIdHelper.getQueryId(handle.getQueryId()),
+        handle.getMajorFragmentId(), handle.getMinorFragmentId(), operatorId);
+      spillManager = new SpillManager(context.getConfig(), context.getOptions(), id, conf,
+        context.getSpillService(), name + " spilling");
+    }
+    return spillManager;
+  }
+
+  /**
+   * @return number of times batches were spilled
+   */
+  public long getSpillCount() {
+    return spillCount;
+  }
+
+  public long getBatchesSpilled() {
+    return batchesSpilled;
+  }
+
+  public long getSpilledDataSize() {
+    return spilledDataSize;
+  }
+
+  public long getSpillTimeNanos() {
+    return spillTimeNanos;
+  }
+
+  /**
+   * @return time spent reading back spilled batches
+   */
+  public long getReadTimeNanos() {
+    return readTimeNanos;
+  }
+
+  private static long getSize(VectorContainer container) {
+    long size = 0;
+    for (VectorWrapper<?> vw : container) {
+      size += vw.getValueVector().getBufferSize();
+    }
+    return size;
+  }
+
+  @Override
+  public void close() throws Exception {
+    final List<AutoCloseable> closeables = new ArrayList<>(entries);
+    closeables.add(spillManager);
+    entries.clear();
+    loaded.clear();
+    AutoCloseables.close(closeables);
+  }
+
+  /**
+   * spill file shared by all batches spilled at the same time, deleted once all of them have been released
+   */
+  private static final class SharedSpillFile {
+    private final SpillFile spillFile;
+    private int refCount;
+
+    private SharedSpillFile(SpillFile spillFile) {
+      this.spillFile = spillFile;
+    }
+
+    private void retain() {
+      refCount++;
+    }
+
+    private void release() throws Exception {
+      if (--refCount == 0) {
+        spillFile.close();
+      }
+    }
+  }
+
+  private static final class Entry implements AutoCloseable {
+    private final long size;
+    private VectorContainer container;
+    private SharedSpillFile file;
+    private long offset;
+
+    private Entry(VectorContainer container, long size) {
+      this.container = container;
+      this.size = size;
+    }
+
+    private void setSpill(SharedSpillFile file, long offset) {
+      file.retain();
+      this.file = file;
+      this.offset = offset;
+    }
+
+    /**
+     * drops the in-memory copy of a spilled batch
+     */
+    private void unload() {
+      container.close();
+      container = null;
+    }
+
+    /**
+     * drops the on-disk copy of a batch that is now resident
+     */
+    private void releaseSpill() throws Exception {
+      if (file != null) {
+        final SharedSpillFile f = file;
+        file = null;
+        f.release();
+      }
+    }
+
+    @Override
+    public void close() throws Exception {
+      AutoCloseables.close(container, this::releaseSpill);
+      container = null;
+    }
+  }
+}
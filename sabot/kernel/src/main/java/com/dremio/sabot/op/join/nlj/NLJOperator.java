@@ -299,6 +299,9 @@ public class NLJOperator implements DualInputOperator {
   public static class Creator implements DualInputOperator.Creator<NestedLoopJoinPOP> {
     @Override
     public DualInputOperator create(OperatorContext context, NestedLoopJoinPOP config) throws ExecutionSetupException {
+      if (config.getCondition() != null) {
+        return new VectorizedNLJOperator(context, config);
+      }
       return new NLJOperator(context, config);
     }
 
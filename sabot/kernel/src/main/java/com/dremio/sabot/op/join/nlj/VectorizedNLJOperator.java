@@ -0,0 +1,349 @@
+/*
+ * Copyright (C) 2017-2018 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.op.join.nlj;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.arrow.vector.FieldVector;
+
+import com.dremio.common.AutoCloseables;
+import com.dremio.common.expression.LogicalExpression;
+import com.dremio.exec.ExecConstants;
+import com.dremio.exec.expr.ExpressionEvaluationOptions;
+import com.dremio.exec.expr.ExpressionSplitter;
+import com.dremio.exec.physical.config.NestedLoopJoinPOP;
+import com.dremio.exec.record.BatchSchema.SelectionVectorMode;
+import com.dremio.exec.record.VectorAccessible;
+import com.dremio.exec.record.VectorContainer;
+import com.dremio.exec.record.selection.SelectionVector2;
+import com.dremio.sabot.exec.context.MetricDef;
+import com.dremio.sabot.exec.context.OperatorContext;
+import com.dremio.sabot.exec.context.OperatorStats;
+import com.dremio.sabot.op.common.spill.SpillableBatchList;
+import com.dremio.sabot.op.copier.FieldBufferCopier;
+import com.dremio.sabot.op.filter.VectorContainerWithSV;
+import com.dremio.sabot.op.spi.DualInputOperator;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Stopwatch;
+
+import io.netty.buffer.ArrowBuf;
+import io.netty.util.internal.PlatformDependent;
+
+/**
+ * Nested loop join that evaluates the join condition itself, a batch pair at a time.<br>
+ * For every left batch, the (right row, left row) pairs with each right batch are materialized, in chunks of up to
+ * the target batch size, into a probe batch. The join condition is evaluated over the probe batch as a filter (in
+ * Java or Gandiva) producing a selection vector, and only the matching rows are copied to the output. Right batches
+ * are buffered in a {@link SpillableBatchList}, so the right side can be larger than the memory available to the
+ * operator.
+ */
+public class VectorizedNLJOperator implements DualInputOperator {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(VectorizedNLJOperator.class);
+
+  private static final int INDEX_SIZE = 2;
+
+  public enum Metric implements MetricDef {
+    SPILL_COUNT,             // number of times right batches were spilled to disk
+    BATCHES_SPILLED,         // total number of right batches spilled
+    TOTAL_SPILLED_DATA_SIZE, // total data spilled
+    SPILL_TIME_NANOS,        // time spent spilling right batches
+    READ_TIME_NANOS,         // time spent reading back spilled right batches
+    JAVA_BUILD_TIME,         // time taken to compile the condition for Java (in millis)
+    GANDIVA_BUILD_TIME,      // time taken to build the condition for Gandiva (in millis)
+    JAVA_EXECUTE_TIME,       // time taken to evaluate the condition in Java (in millis)
+    GANDIVA_EXECUTE_TIME;    // time taken to evaluate the condition in Gandiva (in millis)
+
+    @Override
+    public int metricId() {
+      return ordinal();
+    }
+  }
+
+  private final OperatorContext context;
+  private final NestedLoopJoinPOP config;
+  private final VectorContainer outgoing;
+  private final ExpressionEvaluationOptions conditionOptions;
+  private final Stopwatch javaCodeGenWatch = Stopwatch.createUnstarted();
+  private final Stopwatch gandivaCodeGenWatch = Stopwatch.createUnstarted();
+
+  private State state = State.NEEDS_SETUP;
+  private boolean leftCompleted;
+
+  private VectorAccessible left;
+  private VectorAccessible right;
+  private SpillableBatchList rightBatches;
+
+  // cartesian product chunk the condition is evaluated on. Same layout as the output: right fields first
+  private VectorContainer probe;
+  // holds the selection vector produced by the condition over the probe batch
+  private VectorContainerWithSV probeMatches;
+  private ExpressionSplitter splitter;
+
+  private List<FieldVector> probeRightVectors;
+  private List<FieldVector> outgoingRightVectors;
+  private List<FieldBufferCopier> leftProbeCopiers;
+  private List<FieldBufferCopier> leftOutputCopiers;
+  private List<FieldBufferCopier> rightProbeCopiers;
+  private List<FieldBufferCopier> rightOutputCopiers;
+
+  // left and right row of each probe row
+  private ArrowBuf probeLeftIndexes;
+  private ArrowBuf probeRightIndexes;
+  // left and right row of each match not yet copied to the output
+  private ArrowBuf matchLeftIndexes;
+  private ArrowBuf matchRightIndexes;
+  private int matchCount;
+
+  // position in the (right row, left row) pairs of the current left batch and current right batch
+  private int rightBatchIndex;
+  private VectorAccessible currentRight;
+  private long totalPairs;
+  private long nextPair;
+
+  public VectorizedNLJOperator(OperatorContext context, NestedLoopJoinPOP config) {
+    this.context = context;
+    this.config = config;
+    this.outgoing = context.createOutputVectorContainer();
+    this.conditionOptions = new ExpressionEvaluationOptions(context.getOptions());
+    this.conditionOptions.setCodeGenOption(context.getOptions().getOption(ExecConstants.QUERY_EXEC_OPTION.getOptionName()).getStringVal());
+  }
+
+  @Override
+  public State getState() {
+    return state;
+  }
+
+  @Override
+  public VectorAccessible setup(VectorAccessible left, VectorAccessible right) throws Exception {
+    state.is(State.NEEDS_SETUP);
+    Preconditions.checkNotNull(config.getCondition(), "Vectorized nested loop join requires a join condition");
+    this.left = left;
+    this.right = right;
+
+    final long spillThreshold = context.getOptions().getOption(ExecConstants.NLJ_SPILL_ENABLED)
+      ? Math.min(context.getOptions().getOption(ExecConstants.NLJ_SPILL_THRESHOLD_BYTES), context.getAllocator().getLimit() / 2)
+      : Long.MAX_VALUE;
+    rightBatches = new SpillableBatchList(context, "nlj", config.getOperatorId(), spillThreshold);
+
+    outgoing.addSchema(right.getSchema());
+    outgoing.addSchema(left.getSchema());
+    outgoing.buildSchema(SelectionVectorMode.NONE);
+    outgoing.setInitialCapacity(context.getTargetBatchSize());
+
+    probe = new VectorContainer(context.getAllocator());
+    probe.addSchema(right.getSchema());
+    probe.addSchema(left.getSchema());
+    probe.buildSchema(SelectionVectorMode.NONE);
+
+    probeMatches = new VectorContainerWithSV(context.getAllocator(), new SelectionVector2(context.getAllocator()));
+    probeMatches.buildSchema(SelectionVectorMode.TWO_BYTE);
+
+    final int rightFieldCount = right.getSchema().getFieldCount();
+    final List<FieldVector> probeVectors = VectorContainer.getFieldVectors(probe);
+    final List<FieldVector> outgoingVectors = VectorContainer.getFieldVectors(outgoing);
+    final List<FieldVector> leftVectors = VectorContainer.getFieldVectors(left);
+    probeRightVectors = probeVectors.subList(0, rightFieldCount);
+    outgoingRightVectors = outgoingVectors.subList(0, rightFieldCount);
+    leftProbeCopiers = FieldBufferCopier.getCopiers(leftVectors, probeVectors.subList(rightFieldCount, probeVectors.size()));
+    leftOutputCopiers = FieldBufferCopier.getCopiers(leftVectors, outgoingVectors.subList(rightFieldCount, outgoingVectors.size()));
+
+    final int targetBatchSize = context.getTargetBatchSize();
+    probeLeftIndexes = context.getAllocator().buffer(targetBatchSize * INDEX_SIZE);
+    probeRightIndexes = context.getAllocator().buffer(targetBatchSize * INDEX_SIZE);
+    matchLeftIndexes = context.getAllocator().buffer(targetBatchSize * INDEX_SIZE);
+    matchRightIndexes = context.getAllocator().buffer(targetBatchSize * INDEX_SIZE);
+
+    splitter = new ExpressionSplitter(context, probe, conditionOptions);
+    final LogicalExpression condition = context.getClassProducer().materializeAndAllowComplex(conditionOptions, config.getCondition(), probe);
+    splitter.setupFilter(condition, probeMatches, javaCodeGenWatch, gandivaCodeGenWatch);
+    context.getStats().addLongStat(Metric.JAVA_BUILD_TIME, javaCodeGenWatch.elapsed(TimeUnit.MILLISECONDS));
+    context.getStats().addLongStat(Metric.GANDIVA_BUILD_TIME, gandivaCodeGenWatch.elapsed(TimeUnit.MILLISECONDS));
+    javaCodeGenWatch.reset();
+    gandivaCodeGenWatch.reset();
+
+    state = State.CAN_CONSUME_R;
+    return outgoing;
+  }
+
+  @Override
+  public void consumeDataRight(int records) throws Exception {
+    state.is(State.CAN_CONSUME_R);
+    if (records == 0) {
+      return;
+    }
+    logger.debug("Adding batch on right. {} records", records);
+    rightBatches.add(VectorContainer.getTransferClone(right, context.getAllocator()));
+  }
+
+  @Override
+  public void noMoreToConsumeRight() throws Exception {
+    state.is(State.CAN_CONSUME_R);
+    if (rightBatches.isEmpty()) {
+      logger.debug("No more to consume on right. Right is empty. Done");
+      state = State.DONE;
+    } else {
+      state = State.CAN_CONSUME_L;
+    }
+  }
+
+  @Override
+  public void consumeDataLeft(int records) throws Exception {
+    state.is(State.CAN_CONSUME_L);
+    if (records == 0) {
+      return;
+    }
+    rightBatchIndex = 0;
+    state = State.CAN_PRODUCE;
+  }
+
+  @Override
+  public void noMoreToConsumeLeft() throws Exception {
+    state.is(State.CAN_CONSUME_L);
+    leftCompleted = true;
+    state = State.DONE;
+    updateStats();
+  }
+
+  @Override
+  public int outputData() throws Exception {
+    state.is(State.CAN_PRODUCE);
+
+    final int targetBatchSize = context.getTargetBatchSize();
+    while (rightBatchIndex < rightBatches.size()) {
+      if (currentRight == null) {
+        startRightBatch();
+      }
+
+      if (nextPair == totalPairs) {
+        currentRight = null;
+        rightBatchIndex++;
+        // the right copiers are bound to the current right batch, so matches can't be carried over to the next one
+        if (matchCount > 0) {
+          return flush();
+        }
+        continue;
+      }
+
+      evaluateProbe(targetBatchSize - matchCount);
+      if (matchCount == targetBatchSize) {
+        return flush();
+      }
+    }
+
+    // done with the current left batch
+    state = leftCompleted ? State.DONE : State.CAN_CONSUME_L;
+    return 0;
+  }
+
+  private void startRightBatch() {
+    final VectorContainer batch = rightBatches.get(rightBatchIndex);
+    final List<FieldVector> rightVectors = VectorContainer.getFieldVectors(batch);
+    rightProbeCopiers = FieldBufferCopier.getCopiers(rightVectors, probeRightVectors);
+    rightOutputCopiers = FieldBufferCopier.getCopiers(rightVectors, outgoingRightVectors);
+    currentRight = batch;
+    totalPairs = (long) batch.getRecordCount() * left.getRecordCount();
+    nextPair = 0;
+  }
+
+  /**
+   * materializes up to maxRecords of the remaining pairs into the probe batch, evaluates the condition over it and
+   * records the matching pairs
+   */
+  private void evaluateProbe(int maxRecords) throws Exception {
+    final int leftCount = left.getRecordCount();
+    final int records = (int) Math.min(maxRecords, totalPairs - nextPair);
+
+    // pairs are enumerated right row first, so consecutive probe rows share the same right row
+    final long leftAddr = probeLeftIndexes.memoryAddress();
+    final long rightAddr = probeRightIndexes.memoryAddress();
+    long pair = nextPair;
+    int leftIndex = (int) (pair % leftCount);
+    int rightIndex = (int) (pair / leftCount);
+    for (int i = 0; i < records; i++) {
+      PlatformDependent.putShort(leftAddr + i * INDEX_SIZE, (short) leftIndex);
+      PlatformDependent.putShort(rightAddr + i * INDEX_SIZE, (short) rightIndex);
+      if (++leftIndex == leftCount) {
+        leftIndex = 0;
+        rightIndex++;
+      }
+    }
+    nextPair += records;
+
+    for (FieldBufferCopier c : leftProbeCopiers) {
+      c.copy(leftAddr, records);
+    }
+    for (FieldBufferCopier c : rightProbeCopiers) {
+      c.copy(rightAddr, records);
+    }
+    probe.setAllCount(records);
+
+    final int matched = splitter.filterData(records, javaCodeGenWatch, gandivaCodeGenWatch);
+    final SelectionVector2 sv2 = probeMatches.getSelectionVector2();
+    final long matchLeftAddr = matchLeftIndexes.memoryAddress();
+    final long matchRightAddr = matchRightIndexes.memoryAddress();
+    for (int i = 0; i < matched; i++, matchCount++) {
+      final int probeIndex = sv2.getIndex(i);
+      PlatformDependent.putShort(matchLeftAddr + matchCount * INDEX_SIZE,
+        PlatformDependent.getShort(leftAddr + probeIndex * INDEX_SIZE));
+      PlatformDependent.putShort(matchRightAddr + matchCount * INDEX_SIZE,
+        PlatformDependent.getShort(rightAddr + probeIndex * INDEX_SIZE));
+    }
+  }
+
+  /**
+   * copies all pending matches to the output
+   * @return number of records output
+   */
+  private int flush() {
+    final int records = matchCount;
+    for (FieldBufferCopier c : leftOutputCopiers) {
+      c.copy(matchLeftIndexes.memoryAddress(), records);
+    }
+    for (FieldBufferCopier c : rightOutputCopiers) {
+      c.copy(matchRightIndexes.memoryAddress(), records);
+    }
+    matchCount = 0;
+    return outgoing.setAllCount(records);
+  }
+
+  @Override
+  public <OUT, IN, EXCEP extends Throwable> OUT accept(OperatorVisitor<OUT, IN, EXCEP> visitor, IN value) throws EXCEP {
+    return visitor.visitDualInput(this, value);
+  }
+
+  @Override
+  public void close() throws Exception {
+    updateStats();
+    AutoCloseables.close(outgoing, probe, probeMatches, splitter, rightBatches,
+      probeLeftIndexes, probeRightIndexes, matchLeftIndexes, matchRightIndexes);
+  }
+
+  private void updateStats() {
+    final OperatorStats stats = context.getStats();
+    stats.addLongStat(Metric.JAVA_EXECUTE_TIME, javaCodeGenWatch.elapsed(TimeUnit.MILLISECONDS));
+    stats.addLongStat(Metric.GANDIVA_EXECUTE_TIME, gandivaCodeGenWatch.elapsed(TimeUnit.MILLISECONDS));
+    javaCodeGenWatch.reset();
+    gandivaCodeGenWatch.reset();
+    if (rightBatches != null) {
+      stats.setLongStat(Metric.SPILL_COUNT, rightBatches.getSpillCount());
+      stats.setLongStat(Metric.BATCHES_SPILLED, rightBatches.getBatchesSpilled());
+      stats.setLongStat(Metric.TOTAL_SPILLED_DATA_SIZE, rightBatches.getSpilledDataSize());
+      stats.setLongStat(Metric.SPILL_TIME_NANOS, rightBatches.getSpillTimeNanos());
+      stats.setLongStat(Metric.READ_TIME_NANOS, rightBatches.getReadTimeNanos());
+    }
+  }
+}
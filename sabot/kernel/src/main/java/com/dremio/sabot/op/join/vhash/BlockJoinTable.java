@@ -30,6 +30,7 @@ import com.dremio.sabot.op.common.ht2.PivotDef;
 import com.dremio.sabot.op.common.ht2.Pivots;
 import com.dremio.sabot.op.common.ht2.ResizeListener;
 import com.dremio.sabot.op.common.ht2.VariableBlockVector;
+import com.google.common.base.Preconditions;
 import com.google.common.base.Stopwatch;
 import com.koloboke.collect.hash.HashConfig;
 
@@ -51,17 +52,29 @@ public class BlockJoinTable implements JoinTable {
   private final Stopwatch buildHashComputationWatch = Stopwatch.createUnstarted();
   private final Stopwatch probeHashComputationWatch = Stopwatch.createUnstarted();
   private boolean fixedOnly;
+  // false if the hash table belongs to another join table, see newProbeTable()
+  private final boolean ownsTable;
 
   public BlockJoinTable(PivotDef buildPivot, PivotDef probePivot, BufferAllocator allocator, NullComparator nullMask, int minSize, int varFieldAverageSize) {
+    this(new LBlockHashTable(HashConfig.getDefault(), buildPivot, allocator, minSize,
+        varFieldAverageSize, false, ResizeListener.NO_OP, MAX_VALUES_PER_BATCH), buildPivot, probePivot, allocator, nullMask, true);
+  }
+
+  private BlockJoinTable(LBlockHashTable table, PivotDef buildPivot, PivotDef probePivot, BufferAllocator allocator, NullComparator nullMask, boolean ownsTable) {
     super();
-    this.table = new LBlockHashTable(HashConfig.getDefault(), buildPivot, allocator, minSize,
-        varFieldAverageSize, false, ResizeListener.NO_OP, MAX_VALUES_PER_BATCH);
+    this.table = table;
     this.buildPivot = buildPivot;
     this.probePivot = probePivot;
     this.allocator = allocator;
     this.nullMask = nullMask;
     this.tableTracing = false;
     this.fixedOnly = buildPivot.getVariableCount() == 0;
+    this.ownsTable = ownsTable;
+  }
+
+  @Override
+  public JoinTable newProbeTable(PivotDef probePivot, BufferAllocator allocator) {
+    return new BlockJoinTable(table, buildPivot, probePivot, allocator, nullMask, false);
   }
 
   /* Copy the keys of the records specified in keyOffsetAddr to destination memory
@@ -111,6 +124,7 @@ public class BlockJoinTable implements JoinTable {
 
   @Override
   public void insert(long findAddr, int records) {
+    Preconditions.checkState(ownsTable, "Can't insert into a probe table");
     try(FixedBlockVector fbv = new FixedBlockVector(allocator, buildPivot.getBlockWidth());
         VariableBlockVector var = new VariableBlockVector(allocator, buildPivot.getVariableCount());
         ){
@@ -265,7 +279,9 @@ public class BlockJoinTable implements JoinTable {
 
   @Override
   public void close() throws Exception {
-    table.close();
+    if (ownsTable) {
+      table.close();
+    }
   }
 
   @Override
@@ -44,24 +44,40 @@ public class EightByteInnerLeftProbeOff implements JoinTable {
   private final LBlockHashTableEight map;
   private final FieldVector probe;
   private final FieldVector build;
+  private final PivotDef buildDef;
   private final Stopwatch findWatch = Stopwatch.createUnstarted();
   private final Stopwatch insertWatch = Stopwatch.createUnstarted();
   private final BufferAllocator allocator;
   private final Stopwatch buildHashComputationWatch = Stopwatch.createUnstarted();
   private final Stopwatch probeHashComputationWatch = Stopwatch.createUnstarted();
 
+  // false if the hash table belongs to another join table, see newProbeTable()
+  private final boolean ownsMap;
+
   public EightByteInnerLeftProbeOff(BufferAllocator allocator, int initialSize, PivotDef probeDef, PivotDef buildDef, boolean isEqualForNullKey){
+    this(allocator, new LBlockHashTableEight(HashConfig.getDefault(), allocator, initialSize), probeDef, buildDef, isEqualForNullKey, true);
+  }
+
+  private EightByteInnerLeftProbeOff(BufferAllocator allocator, LBlockHashTableEight map, PivotDef probeDef, PivotDef buildDef, boolean isEqualForNullKey, boolean ownsMap){
     Preconditions.checkArgument(probeDef.getFixedPivots().size() == 1);
     Preconditions.checkArgument(buildDef.getFixedPivots().size() == 1);
     this.allocator = allocator;
     this.probe = probeDef.getFixedPivots().get(0).getIncomingVector();
     this.build = buildDef.getFixedPivots().get(0).getIncomingVector();
-    this.map = new LBlockHashTableEight(HashConfig.getDefault(), allocator, initialSize);
+    this.buildDef = buildDef;
+    this.map = map;
     this.isEqualForNullKey = isEqualForNullKey;
+    this.ownsMap = ownsMap;
+  }
+
+  @Override
+  public JoinTable newProbeTable(PivotDef probePivot, BufferAllocator allocator) {
+    return new EightByteInnerLeftProbeOff(allocator, map, probePivot, buildDef, isEqualForNullKey, false);
   }
 
   @Override
   public void insert(long outputAddr, int count) {
+    Preconditions.checkState(ownsMap, "Can't insert into a probe table");
     insertWatch.start();
 
     long srcBitsAddr = build.getValidityBufferAddress();
@@ -323,7 +339,9 @@ public class EightByteInnerLeftProbeOff implements JoinTable {
 
   @Override
   public void close() throws Exception {
-    map.close();
+    if (ownsMap) {
+      map.close();
+    }
   }
 
   @Override
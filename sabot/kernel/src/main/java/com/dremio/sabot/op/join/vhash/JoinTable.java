@@ -17,6 +17,10 @@ package com.dremio.sabot.op.join.vhash;
 
 import java.util.concurrent.TimeUnit;
 
+import org.apache.arrow.memory.BufferAllocator;
+
+import com.dremio.sabot.op.common.ht2.PivotDef;
+
 public interface JoinTable extends AutoCloseable {
   public void insert(final long outputAddr, final int records);
   public void find(final long outputAddr, final int records);
@@ -29,6 +33,15 @@ public interface JoinTable extends AutoCloseable {
   public long getBuildPivotTime(TimeUnit unit);
   public long getInsertTime(TimeUnit unit);
 
+  /**
+   * Creates a table finding the keys of another probe side, e.g. of another fragment, in the entries of this table.
+   * The entries aren't copied: the returned table can't be inserted into, and closing it doesn't release them.
+   * @param probePivot pivot of the other probe side keys
+   * @param allocator allocator for the buffers used while probing
+   * @return the probe table
+   */
+  public JoinTable newProbeTable(PivotDef probePivot, BufferAllocator allocator);
+
   // Debugging methods
 
   /**
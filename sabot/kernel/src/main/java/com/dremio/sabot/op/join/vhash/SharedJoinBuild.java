@@ -0,0 +1,181 @@
+/*
+ * Copyright (C) 2017-2018 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.op.join.vhash;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.arrow.memory.BufferAllocator;
+
+import com.dremio.common.AutoCloseables;
+import com.dremio.exec.record.ExpandableHyperContainer;
+import com.dremio.sabot.op.join.hash.BuildInfo;
+import com.dremio.sabot.threads.sharedres.SharedResource;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+
+import io.netty.buffer.ArrowBuf;
+
+/**
+ * Build side of a hash join shared by the fragments of a phase running on the same node. When the build side is a
+ * broadcast, all these fragments receive the same records: the first fragment claiming the build inserts them in a
+ * single table, and the other fragments probe it once it is published instead of building their own copy.
+ *
+ * The build is allocated from the allocator of this object, and only released when the phase ends, as fragments may
+ * still be probing it after the building fragment completed. Fragments waiting for the build block on a shared
+ * resource, made available again once the build is published, abandoned or withdrawn.
+ */
+class SharedJoinBuild implements AutoCloseable {
+
+  private final BufferAllocator allocator;
+  private final AtomicBoolean claimed = new AtomicBoolean();
+  private volatile Build build;
+  private volatile boolean abandoned;
+  private volatile boolean withdrawn;
+  // resources of the fragments waiting for the build, guarded by this
+  private final List<SharedResource> waiting = Lists.newArrayList();
+
+  SharedJoinBuild(BufferAllocator allocator) {
+    this.allocator = allocator;
+  }
+
+  /**
+   * @return true if the caller is the first one to claim the build, and must then build and publish it
+   */
+  boolean claim() {
+    return claimed.compareAndSet(false, true);
+  }
+
+  /**
+   * @return allocator for the build
+   */
+  BufferAllocator getAllocator() {
+    return allocator;
+  }
+
+  /**
+   * Makes the build visible to the other fragments. The build is owned by this object afterwards.
+   */
+  synchronized void publish(Build build) {
+    Preconditions.checkState(this.build == null, "Build already published");
+    this.build = build;
+    wakeUpWaiting();
+  }
+
+  /**
+   * Marks the build as never published as building it failed. The fragments probing it fail as well.
+   */
+  synchronized void abandon() {
+    abandoned = true;
+    wakeUpWaiting();
+  }
+
+  /**
+   * Marks the build as never published as the building fragment was terminated without failing, e.g. as the
+   * fragments it sends to no longer need its output. The fragments probing the build send to the same fragments, so
+   * they finish without output instead of failing the query.
+   */
+  synchronized void withdraw() {
+    withdrawn = true;
+    wakeUpWaiting();
+  }
+
+  /**
+   * Blocks the given resource until the build is published, abandoned or withdrawn, unless it already is.
+   * @return true if the build is already published, abandoned or withdrawn
+   */
+  synchronized boolean await(SharedResource resource) {
+    if (build != null || abandoned || withdrawn) {
+      return true;
+    }
+    resource.markBlocked();
+    waiting.add(resource);
+    return false;
+  }
+
+  private void wakeUpWaiting() {
+    for (SharedResource resource : waiting) {
+      resource.markAvailable();
+    }
+    waiting.clear();
+  }
+
+  /**
+   * @return the published build, null if it isn't published yet
+   */
+  Build getBuild() {
+    return build;
+  }
+
+  boolean isAbandoned() {
+    return abandoned && build == null;
+  }
+
+  boolean isWithdrawn() {
+    return withdrawn && build == null;
+  }
+
+  @Override
+  public void close() throws Exception {
+    AutoCloseables.close(build, allocator);
+  }
+
+  /**
+   * The structures probed by the joins: build batches, hash table and links between the build records.
+   */
+  static class Build implements AutoCloseable {
+    private final ExpandableHyperContainer hyperContainer;
+    private final JoinTable table;
+    private final List<BuildInfo> buildInfoList;
+    private final List<ArrowBuf> startIndices;
+    private final int maxHashTableIndex;
+
+    Build(ExpandableHyperContainer hyperContainer, JoinTable table, List<BuildInfo> buildInfoList,
+        List<ArrowBuf> startIndices, int maxHashTableIndex) {
+      this.hyperContainer = hyperContainer;
+      this.table = table;
+      this.buildInfoList = ImmutableList.copyOf(buildInfoList);
+      this.startIndices = ImmutableList.copyOf(startIndices);
+      this.maxHashTableIndex = maxHashTableIndex;
+    }
+
+    ExpandableHyperContainer getHyperContainer() {
+      return hyperContainer;
+    }
+
+    JoinTable getTable() {
+      return table;
+    }
+
+    List<BuildInfo> getBuildInfoList() {
+      return buildInfoList;
+    }
+
+    List<ArrowBuf> getStartIndices() {
+      return startIndices;
+    }
+
+    int getMaxHashTableIndex() {
+      return maxHashTableIndex;
+    }
+
+    @Override
+    public void close() throws Exception {
+      AutoCloseables.close(hyperContainer, table, AutoCloseables.all(buildInfoList), AutoCloseables.all(startIndices));
+    }
+  }
+}
@@ -20,6 +20,7 @@ import java.util.BitSet;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
 
+import org.apache.arrow.memory.BufferAllocator;
 import org.apache.arrow.memory.OutOfMemoryException;
 import org.apache.arrow.vector.FieldVector;
 import org.apache.arrow.vector.VarBinaryVector;
@@ -51,6 +52,8 @@ import com.dremio.sabot.op.join.JoinUtils;
 import com.dremio.sabot.op.join.hash.BuildInfo;
 import com.dremio.sabot.op.join.vhash.HashJoinStats.Metric;
 import com.dremio.sabot.op.spi.DualInputOperator;
+import com.dremio.sabot.threads.sharedres.SharedResource;
+import com.dremio.sabot.threads.sharedres.SharedResourceType;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Stopwatch;
 
@@ -127,6 +130,19 @@ public class VectorizedHashJoinOperator implements DualInputOperator {
   private PivotDef buildUnpivot;
   private NullComparator comparator;
 
+  /* Build side shared with the other fragments of the phase running on this node, null if the build side isn't shared.
+   * The first fragment to set up builds it, the others skip their build side and probe the published build.
+   */
+  private SharedJoinBuild sharedBuild;
+  private boolean buildsShared = false;
+  private boolean published = false;
+  // whether inserting in the build side failed, in which case the shared build is abandoned rather than withdrawn
+  private boolean buildFailed = false;
+  // blocks the pipeline while waiting for the shared build, null if it can't be blocked
+  private SharedResource buildResource;
+  // Allocator for the build side: the one of the shared build when building it, the operator's one otherwise
+  private BufferAllocator buildAllocator;
+
   private VectorAccessible left;
   private VectorAccessible right;
   private int buildBatchIndex = 0;
@@ -286,22 +302,39 @@ public class VectorizedHashJoinOperator implements DualInputOperator {
     Preconditions.checkArgument(probePivot.getBitCount() == buildPivot.getBitCount(), "Bit width of build [%s] and probe pivots are not equal [%s].", buildPivot.getBitCount(), probePivot.getBitCount());
 
     this.mode = mode;
+
+    if (config.isSharedBuild()) {
+      sharedBuild = context.getSharedPhaseState().getOrCreate(config.getOperatorId(), config.getMaxAllocation(), SharedJoinBuild::new);
+      buildsShared = sharedBuild.claim();
+      if (!buildsShared && context.getSharedResourceGroup() != null) {
+        buildResource = context.getSharedResourceGroup().createResource("shared-join-build-" + config.getOperatorId(),
+          SharedResourceType.SHARED_JOIN_BUILD);
+      }
+    }
+    buildAllocator = buildsShared ? sharedBuild.getAllocator() : context.getAllocator();
+
     switch(mode){
       case VECTORIZED_BIGINT:
         // For only one eight byte key, we keep key in hyper container, so we don't need to unpivot the key
         this.buildUnpivot = null;
+        if (probesSharedBuild()) {
+          break;
+        }
         // Create the hyper container that all the fields, including key, will be added
-        hyperContainer = new ExpandableHyperContainer(context.getAllocator(), right.getSchema());
+        hyperContainer = new ExpandableHyperContainer(buildAllocator, right.getSchema());
         // Create eight byte key hash table to improve the performance for only one eight byte key
-        this.table = new EightByteInnerLeftProbeOff(context.getAllocator(), (int)context.getOptions().getOption(ExecConstants.MIN_HASH_TABLE_SIZE), probePivot, buildPivot, isEqualForNullKey);
+        this.table = new EightByteInnerLeftProbeOff(buildAllocator, (int)context.getOptions().getOption(ExecConstants.MIN_HASH_TABLE_SIZE), probePivot, buildPivot, isEqualForNullKey);
         break;
       case VECTORIZED_GENERIC:
         // Create the PivotDef for unpivot in projectBuildNonMatches
         this.buildUnpivot = PivotBuilder.getBlockDefinition(buildOutputFields);
+        if (probesSharedBuild()) {
+          break;
+        }
         // Create the hyper container with isKeyBits that indicates which field is key and will not be added to hyper container
-        hyperContainer = new ExpandableHyperContainer(context.getAllocator(), right.getSchema(), isKeyBits);
+        hyperContainer = new ExpandableHyperContainer(buildAllocator, right.getSchema(), isKeyBits);
         // Create generic hash table
-        this.table = new BlockJoinTable(buildPivot, probePivot, context.getAllocator(), comparator, (int)context.getOptions().getOption(ExecConstants.MIN_HASH_TABLE_SIZE), INITIAL_VAR_FIELD_AVERAGE_SIZE);
+        this.table = new BlockJoinTable(buildPivot, probePivot, buildAllocator, comparator, (int)context.getOptions().getOption(ExecConstants.MIN_HASH_TABLE_SIZE), INITIAL_VAR_FIELD_AVERAGE_SIZE);
         break;
       default:
         throw new UnsupportedOperationException();
@@ -322,6 +355,11 @@ public class VectorizedHashJoinOperator implements DualInputOperator {
     return ((ValueVectorReadExpression) materialized).getFieldId().getFieldIds();
   }
 
+  // Whether the build side is built by another fragment, so this one only probes it
+  private boolean probesSharedBuild() {
+    return sharedBuild != null && !buildsShared;
+  }
+
   // Get the field vector of a field
   private FieldVector getField(VectorAccessible accessible, LogicalExpression expr){
     return accessible.getValueAccessorById(FieldVector.class, getFieldIds(accessible, expr)).getValueVector();
@@ -337,6 +375,20 @@ public class VectorizedHashJoinOperator implements DualInputOperator {
   public void consumeDataRight(int records) throws Exception {
     state.is(State.CAN_CONSUME_R);
 
+    if (probesSharedBuild()) {
+      // the same records are inserted in the shared build by the fragment building it
+      return;
+    }
+
+    try {
+      insertBuildBatch(records);
+    } catch (Throwable t) {
+      buildFailed = true;
+      throw t;
+    }
+  }
+
+  private void insertBuildBatch(int records) throws Exception {
     // ensure that none of the variable length vectors are corrupt so we can avoid doing bounds checking later.
     for(FieldVector v : buildVectorsToValidate){
       VariableLengthValidator.validateVariable(v, records);
@@ -368,7 +420,7 @@ public class VectorizedHashJoinOperator implements DualInputOperator {
      * to the hyper vector container. Will be used when we want to retrieve
      * records that have matching keys on the probe side.
      */
-    hyperContainer.addBatch(VectorContainer.getTransferClone(right, context.getAllocator()));
+    hyperContainer.addBatch(VectorContainer.getTransferClone(right, buildAllocator));
     // completed processing a batch, increment batch index
 
     buildBatchIndex++;
@@ -501,13 +553,67 @@ public class VectorizedHashJoinOperator implements DualInputOperator {
   public void noMoreToConsumeRight() throws Exception {
     state.is(State.CAN_CONSUME_R);
 
+    if (probesSharedBuild()) {
+      // the build may not be published yet, outputData() waits for it
+      state = State.CAN_PRODUCE;
+      return;
+    }
+
+    if (buildsShared) {
+      sharedBuild.publish(new SharedJoinBuild.Build(hyperContainer, table, buildInfoList, startIndices, maxHashTableIndex));
+      published = true;
+    }
+
     if ((table.size() == 0) && !(joinType == JoinRelType.LEFT || joinType == JoinRelType.FULL)) {
       // nothing needs to be read on the left side as right side is empty
       state = State.DONE;
       return;
     }
 
-    this.probe = new VectorizedProbe(
+    this.probe = newProbe(hyperContainer, buildInfoList, startIndices, maxHashTableIndex);
+    state = State.CAN_CONSUME_L;
+  }
+
+  /**
+   * Starts probing the shared build once the fragment building it published it.
+   */
+  private void probeSharedBuild() {
+    final SharedJoinBuild.Build build = sharedBuild.getBuild();
+    if (build == null) {
+      if (sharedBuild.isAbandoned()) {
+        throw UserException.dataReadError()
+            .message("The fragment building the shared build side of the hash join failed before completing it.")
+            .build(logger);
+      }
+      if (sharedBuild.isWithdrawn()) {
+        // the fragments this phase sends to no longer need its output, this fragment is being terminated as well
+        state = State.DONE;
+        return;
+      }
+      // park the fragment until the build is published, instead of pumping again right away
+      if (buildResource != null) {
+        sharedBuild.await(buildResource);
+      }
+      return;
+    }
+
+    this.table = build.getTable().newProbeTable(probePivot, context.getAllocator());
+    if ((table.size() == 0) && !(joinType == JoinRelType.LEFT || joinType == JoinRelType.FULL)) {
+      // nothing needs to be read on the left side as right side is empty
+      state = State.DONE;
+      return;
+    }
+
+    for (int i = 0; i < build.getStartIndices().size(); i++) {
+      keyMatchBitVectors.add(new MatchBitSet(HashTable.BATCH_SIZE, context.getAllocator()));
+    }
+    this.probe = newProbe(build.getHyperContainer(), build.getBuildInfoList(), build.getStartIndices(), build.getMaxHashTableIndex());
+    state = State.CAN_CONSUME_L;
+  }
+
+  private VectorizedProbe newProbe(ExpandableHyperContainer hyperContainer, List<BuildInfo> buildInfoList,
+      List<ArrowBuf> startIndices, int maxHashTableIndex) {
+    return new VectorizedProbe(
         context.getAllocator(),
         hyperContainer,
         left,
@@ -526,7 +632,6 @@ public class VectorizedHashJoinOperator implements DualInputOperator {
         buildUnpivot,
         context.getTargetBatchSize(),
         comparator);
-    state = State.CAN_CONSUME_L;
   }
 
   @Override
@@ -545,6 +650,12 @@ public class VectorizedHashJoinOperator implements DualInputOperator {
   public int outputData() throws Exception {
     state.is(State.CAN_PRODUCE);
 
+    if (probe == null) {
+      // waiting for the shared build, nothing to output until probing starts
+      probeSharedBuild();
+      return 0;
+    }
+
     updateStats();
 
     if(!finishedProbe){
@@ -588,7 +699,7 @@ public class VectorizedHashJoinOperator implements DualInputOperator {
   public ArrowBuf newLinksBuffer(int recordCount) {
     // Each link is 6 bytes.
     // First 4 bytes are used to identify the batch and remaining 2 bytes for record within the batch.
-    final ArrowBuf linkBuf = context.getAllocator().buffer(recordCount * HashTable.BUILD_RECORD_LINK_SIZE);
+    final ArrowBuf linkBuf = buildAllocator.buffer(recordCount * HashTable.BUILD_RECORD_LINK_SIZE);
 
     // Initialize the buffer. Write -1 (int) in the first four bytes.
     long bufOffset = linkBuf.memoryAddress();
@@ -609,14 +720,25 @@ public class VectorizedHashJoinOperator implements DualInputOperator {
   public void close() throws Exception {
     updateStats();
     List<AutoCloseable> autoCloseables = new ArrayList<>();
-    autoCloseables.add(hyperContainer);
-    autoCloseables.add(table);
+    if (buildsShared && !published) {
+      // the fragment also stops before publishing when terminated early without failing
+      if (buildFailed) {
+        sharedBuild.abandon();
+      } else {
+        sharedBuild.withdraw();
+      }
+    }
+    // once published, the build side is released along with the shared build
+    if (!published) {
+      autoCloseables.add(hyperContainer);
+      autoCloseables.add(table);
+      autoCloseables.addAll(buildInfoList);
+      autoCloseables.addAll(startIndices);
+    }
     autoCloseables.add(probe);
     autoCloseables.add(outgoing);
-    autoCloseables.addAll(buildInfoList);
     autoCloseables.addAll(probeIncomingKeys);
     autoCloseables.addAll(buildOutputKeys);
-    autoCloseables.addAll(startIndices);
     autoCloseables.addAll(keyMatchBitVectors);
     AutoCloseables.close(autoCloseables);
   }
@@ -0,0 +1,247 @@
+/*
+ * Copyright (C) 2017-2018 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.op.llvm;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.arrow.gandiva.evaluator.Filter;
+import org.apache.arrow.gandiva.evaluator.Projector;
+import org.apache.arrow.gandiva.exceptions.GandivaException;
+import org.apache.arrow.gandiva.expression.Condition;
+import org.apache.arrow.gandiva.expression.ExpressionTree;
+import org.apache.arrow.vector.types.pojo.Schema;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import com.dremio.common.config.SabotConfig;
+import com.dremio.exec.ExecConstants;
+import com.dremio.exec.compile.CodeCompiler;
+import com.dremio.metrics.Metrics;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalListener;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+/**
+ * Node-wide cache of the Gandiva projectors and filters, keyed by the schema they read and the expressions they
+ * evaluate. Building a Gandiva module compiles its expressions with LLVM, which would otherwise be done by every
+ * minor fragment of every query using the same expressions. The cache is owned by the node's {@link CodeCompiler}.
+ *
+ * A cached module is shared by all the operators using it: Gandiva evaluators don't keep any state between
+ * evaluations, so they can be used concurrently. Modules are reference counted and only closed once they have been
+ * evicted and the last operator using them has released them.
+ */
+public final class GandivaModuleCache {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(GandivaModuleCache.class);
+
+  private final Cache<Key, Module<?>> cache;
+
+  private final Counter hits = Metrics.getInstance().counter(MetricRegistry.name("gandiva", "cache", "hits"));
+  private final Counter misses = Metrics.getInstance().counter(MetricRegistry.name("gandiva", "cache", "misses"));
+  private final Timer buildTime = Metrics.getInstance().timer(MetricRegistry.name("gandiva", "cache", "build"));
+
+  public GandivaModuleCache(SabotConfig config) {
+    this(config.getLong(ExecConstants.GANDIVA_CACHE_MAX_SIZE_CONFIG),
+        config.getLong(ExecConstants.GANDIVA_CACHE_EXPIRE_AFTER_ACCESS_MINUTES_CONFIG));
+  }
+
+  /**
+   * @param maxSize maximum number of cached modules
+   * @param expireAfterAccessMinutes time after which a module that wasn't used is evicted
+   */
+  @VisibleForTesting
+  GandivaModuleCache(long maxSize, long expireAfterAccessMinutes) {
+    this.cache = CacheBuilder.newBuilder()
+        .maximumSize(maxSize)
+        .expireAfterAccess(expireAfterAccessMinutes, TimeUnit.MINUTES)
+        .removalListener((RemovalListener<Key, Module<?>>) notification -> notification.getValue().release())
+        .build();
+  }
+
+  /**
+   * Returns a projector evaluating the given expressions over the given schema, building it if it isn't cached.
+   * The returned handle must be closed once the projector isn't used anymore.
+   */
+  public Handle<Projector> getProjector(final Schema schema, final List<ExpressionTree> exprs) throws GandivaException {
+    final ImmutableList.Builder<Object> expressions = ImmutableList.builder();
+    for (ExpressionTree expr : exprs) {
+      expressions.add(expr.toProtobuf());
+    }
+
+    return get(new Key(schema, expressions.build()), () -> {
+      final Projector projector = Projector.make(schema, exprs);
+      return new Module<>(projector, projector::close);
+    });
+  }
+
+  /**
+   * Returns a filter evaluating the given condition over the given schema, building it if it isn't cached.
+   * The returned handle must be closed once the filter isn't used anymore.
+   */
+  public Handle<Filter> getFilter(final Schema schema, final Condition condition) throws GandivaException {
+    return get(new Key(schema, condition.toProtobuf()), () -> {
+      final Filter filter = Filter.make(schema, condition);
+      return new Module<>(filter, filter::close);
+    });
+  }
+
+  /**
+   * Evicts all the cached modules. Modules still in use are closed once released.
+   */
+  public void invalidateAll() {
+    cache.invalidateAll();
+  }
+
+  @SuppressWarnings("unchecked")
+  private <T> Handle<T> get(final Key key, final ModuleBuilder<T> builder) throws GandivaException {
+    while (true) {
+      final boolean[] built = {false};
+      final Module<?> module;
+      try {
+        module = cache.get(key, () -> {
+          built[0] = true;
+          try (Timer.Context ignored = buildTime.time()) {
+            return builder.build();
+          }
+        });
+      } catch (ExecutionException | UncheckedExecutionException e) {
+        Throwables.propagateIfPossible(e.getCause(), GandivaException.class);
+        throw Throwables.propagate(e.getCause());
+      }
+
+      // the module may have been evicted and closed since we got it, build a new one in that case
+      if (module.retain()) {
+        if (built[0]) {
+          misses.inc();
+        } else {
+          hits.inc();
+        }
+        return new Handle<>((Module<T>) module, !built[0]);
+      }
+    }
+  }
+
+  /**
+   * Reference to a cached module, released when closed.
+   */
+  public static final class Handle<T> implements AutoCloseable {
+    private final Module<T> module;
+    private final boolean cached;
+    private boolean closed;
+
+    private Handle(Module<T> module, boolean cached) {
+      this.module = module;
+      this.cached = cached;
+    }
+
+    public T get() {
+      return module.evaluator;
+    }
+
+    /**
+     * @return true if the module was already built, false if it was built for this handle
+     */
+    public boolean isCached() {
+      return cached;
+    }
+
+    @Override
+    public void close() {
+      if (!closed) {
+        closed = true;
+        module.release();
+      }
+    }
+  }
+
+  private interface ModuleBuilder<T> {
+    Module<T> build() throws GandivaException;
+  }
+
+  private interface Closer {
+    void close() throws GandivaException;
+  }
+
+  /**
+   * A Gandiva module along with its reference count. The cache holds one reference until the module is evicted.
+   */
+  private static final class Module<T> {
+    private final T evaluator;
+    private final Closer closer;
+    private int references = 1;
+
+    private Module(T evaluator, Closer closer) {
+      this.evaluator = evaluator;
+      this.closer = closer;
+    }
+
+    private synchronized boolean retain() {
+      if (references == 0) {
+        return false;
+      }
+      references++;
+      return true;
+    }
+
+    private void release() {
+      synchronized (this) {
+        if (--references > 0) {
+          return;
+        }
+      }
+
+      try {
+        closer.close();
+      } catch (GandivaException e) {
+        logger.warn("Failure while closing Gandiva module", e);
+      }
+    }
+  }
+
+  private static final class Key {
+    private final Schema schema;
+    private final Object expressions;
+
+    private Key(Schema schema, Object expressions) {
+      this.schema = schema;
+      this.expressions = expressions;
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(schema, expressions);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (!(obj instanceof Key)) {
+        return false;
+      }
+      final Key other = (Key) obj;
+      return schema.equals(other.schema) && expressions.equals(other.expressions);
+    }
+  }
+}
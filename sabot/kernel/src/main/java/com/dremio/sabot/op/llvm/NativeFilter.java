@@ -23,10 +23,13 @@ import org.apache.arrow.gandiva.evaluator.SelectionVector;
 import org.apache.arrow.gandiva.evaluator.SelectionVectorInt16;
 import org.apache.arrow.gandiva.exceptions.GandivaException;
 import org.apache.arrow.gandiva.expression.Condition;
+import org.apache.arrow.memory.BufferAllocator;
 import org.apache.arrow.vector.FieldVector;
 import org.apache.arrow.vector.VectorSchemaRoot;
 
+import com.dremio.common.AutoCloseables;
 import com.dremio.common.expression.LogicalExpression;
+import com.dremio.exec.record.BatchSchema.SelectionVectorMode;
 import com.dremio.exec.record.VectorAccessible;
 import com.dremio.exec.record.selection.SelectionVector2;
 import com.google.common.collect.Lists;
@@ -39,14 +42,19 @@ import io.netty.buffer.ArrowBuf;
  */
 public class NativeFilter implements AutoCloseable {
 
-  private final Filter filter;
+  private final GandivaModuleCache.Handle<Filter> filter;
   private final VectorSchemaRoot root;
   private final SelectionVector2 selectionVector;
+  private final SelectionVector2 inputSelectionVector;
+  private final SelectedRowsGatherer gatherer;
 
-  private NativeFilter(Filter filter, VectorSchemaRoot root, SelectionVector2 selectionVector) {
+  private NativeFilter(GandivaModuleCache.Handle<Filter> filter, VectorSchemaRoot root, SelectionVector2 selectionVector,
+                       SelectionVector2 inputSelectionVector, SelectedRowsGatherer gatherer) {
     this.filter = filter;
     this.root = root;
     this.selectionVector = selectionVector;
+    this.inputSelectionVector = inputSelectionVector;
+    this.gatherer = gatherer;
   }
 
   /**
@@ -54,17 +62,25 @@ public class NativeFilter implements AutoCloseable {
    * @param expr the filter expression
    * @param input the input container.
    * @param selectionVector - the output selection vector
-   * @param stats
+   * @param allocator allocator used to gather the selected rows when the input has a selection vector
+   * @param moduleCache cache of the Gandiva modules built on this node
    * @return instance of Native Filter.
    * @throws GandivaException when we fail to make the gandiva filter
    */
   static public NativeFilter build(LogicalExpression expr, VectorAccessible input,
-                                   SelectionVector2 selectionVector) throws GandivaException {
+                                   SelectionVector2 selectionVector, BufferAllocator allocator,
+                                   GandivaModuleCache moduleCache) throws GandivaException {
     Set referencedFields = Sets.newHashSet();
     Condition condition = GandivaExpressionBuilder.serializeExprToCondition(input, expr, referencedFields);
     VectorSchemaRoot root = GandivaUtils.getSchemaRoot(input, referencedFields);
-    Filter filter = Filter.make(root.getSchema(), condition);
-    return new NativeFilter(filter, root, selectionVector);
+    GandivaModuleCache.Handle<Filter> filter = moduleCache.getFilter(root.getSchema(), condition);
+    if (input.getSchema().getSelectionVectorMode() != SelectionVectorMode.TWO_BYTE) {
+      return new NativeFilter(filter, root, selectionVector, null, null);
+    }
+
+    final SelectionVector2 inputSelectionVector = input.getSelectionVector2();
+    return new NativeFilter(filter, root, selectionVector, inputSelectionVector,
+      new SelectedRowsGatherer(allocator, root, inputSelectionVector));
   }
 
   /**
@@ -78,9 +94,15 @@ public class NativeFilter implements AutoCloseable {
       return 0;
     }
 
-    root.setRowCount(recordCount);
+    final VectorSchemaRoot input;
+    if (gatherer != null) {
+      input = gatherer.gather(recordCount);
+    } else {
+      input = root;
+      input.setRowCount(recordCount);
+    }
     List<ArrowBuf> buffers = Lists.newArrayList();
-    for (FieldVector v : root.getFieldVectors()) {
+    for (FieldVector v : input.getFieldVectors()) {
       buffers.addAll(v.getFieldBuffers());
     }
 
@@ -90,18 +112,25 @@ public class NativeFilter implements AutoCloseable {
     ArrowBuf svBuffer = selectionVector.getBuffer(false);
     SelectionVector selectionVectorGandiva = new SelectionVectorInt16(svBuffer);
 
-    filter.evaluate(recordCount, buffers, selectionVectorGandiva);
-    selectionVector.setRecordCount(selectionVectorGandiva.getRecordCount());
+    filter.get().evaluate(recordCount, buffers, selectionVectorGandiva);
+    final int count = selectionVectorGandiva.getRecordCount();
+    if (inputSelectionVector != null) {
+      // gandiva selected positions in the gathered rows, map them back to rows of the input
+      for (int i = 0; i < count; i++) {
+        selectionVector.setIndex(i, inputSelectionVector.getIndex(selectionVector.getIndex(i)));
+      }
+    }
+    selectionVector.setRecordCount(count);
     return selectionVector.getCount();
   }
 
   /**
-   * Close the underlying gandiva filter.
+   * Release the underlying gandiva filter.
    * @throws GandivaException
    */
   @Override
-  public void close() throws GandivaException {
-    filter.close();
+  public void close() throws Exception {
+    AutoCloseables.close(filter, gatherer);
   }
 
 }
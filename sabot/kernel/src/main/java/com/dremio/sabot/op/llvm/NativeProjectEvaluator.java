@@ -15,14 +15,17 @@
  */
 package com.dremio.sabot.op.llvm;
 
+import org.apache.arrow.memory.BufferAllocator;
+
 import com.dremio.exec.record.VectorAccessible;
 
 public abstract class NativeProjectEvaluator implements AutoCloseable {
 
   public abstract void evaluate(int recordCount) throws Exception;
 
-  public static NativeProjectorBuilder builder(VectorAccessible input) {
-    return new NativeProjectorBuilder(input);
+  public static NativeProjectorBuilder builder(VectorAccessible input, BufferAllocator allocator,
+                                               GandivaModuleCache moduleCache) {
+    return new NativeProjectorBuilder(input, allocator, moduleCache);
   }
 
 
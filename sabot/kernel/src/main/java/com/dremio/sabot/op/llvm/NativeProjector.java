@@ -22,13 +22,16 @@ import java.util.Set;
 import org.apache.arrow.gandiva.evaluator.Projector;
 import org.apache.arrow.gandiva.exceptions.GandivaException;
 import org.apache.arrow.gandiva.expression.ExpressionTree;
+import org.apache.arrow.memory.BufferAllocator;
 import org.apache.arrow.vector.FieldVector;
 import org.apache.arrow.vector.ValueVector;
 import org.apache.arrow.vector.VectorSchemaRoot;
 import org.apache.arrow.vector.types.pojo.Field;
 import org.apache.arrow.vector.types.pojo.Schema;
 
+import com.dremio.common.AutoCloseables;
 import com.dremio.common.expression.LogicalExpression;
+import com.dremio.exec.record.BatchSchema.SelectionVectorMode;
 import com.dremio.exec.record.VectorAccessible;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
@@ -38,14 +41,19 @@ import io.netty.buffer.ArrowBuf;
 public class NativeProjector implements AutoCloseable {
   private final VectorAccessible incoming;
   private List<ExpressionTree> columnExprList = new ArrayList<>();
-  private Projector projector = null;
+  private GandivaModuleCache.Handle<Projector> projector = null;
   private VectorSchemaRoot root;
+  private SelectedRowsGatherer gatherer;
   private final Schema schema;
   private final Set<Field> referencedFields;
+  private final BufferAllocator allocator;
+  private final GandivaModuleCache moduleCache;
 
-  NativeProjector(VectorAccessible incoming, Schema schema) {
+  NativeProjector(VectorAccessible incoming, Schema schema, BufferAllocator allocator, GandivaModuleCache moduleCache) {
     this.incoming = incoming;
     this.schema = schema;
+    this.allocator = allocator;
+    this.moduleCache = moduleCache;
     // preserve order of insertion
     referencedFields = Sets.newLinkedHashSet();
   }
@@ -58,22 +66,32 @@ public class NativeProjector implements AutoCloseable {
 
   public void build() throws GandivaException {
     root = GandivaUtils.getSchemaRoot(incoming, referencedFields);
-    projector = Projector.make(root.getSchema(), columnExprList);
+    if (incoming.getSchema().getSelectionVectorMode() == SelectionVectorMode.TWO_BYTE) {
+      // only evaluate the selected rows, the outputs are written contiguously as in the java projector
+      gatherer = new SelectedRowsGatherer(allocator, root, incoming.getSelectionVector2());
+    }
+    projector = moduleCache.getProjector(root.getSchema(), columnExprList);
   }
 
   public void execute(int recordCount, List<ValueVector> outVectors) throws Exception {
-    root.setRowCount(recordCount);
+    final VectorSchemaRoot input;
+    if (gatherer != null) {
+      input = gatherer.gather(recordCount);
+    } else {
+      input = root;
+      input.setRowCount(recordCount);
+    }
 
     List<ArrowBuf> buffers = Lists.newArrayList();
-    for (FieldVector v : root.getFieldVectors()) {
+    for (FieldVector v : input.getFieldVectors()) {
       buffers.addAll(v.getFieldBuffers());
     }
 
-    projector.evaluate(recordCount, buffers, outVectors);
+    projector.get().evaluate(recordCount, buffers, outVectors);
   }
 
   @Override
   public void close() throws Exception {
-    projector.close();
+    AutoCloseables.close(projector, gatherer);
   }
 }
@@ -19,6 +19,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import org.apache.arrow.gandiva.exceptions.GandivaException;
+import org.apache.arrow.memory.BufferAllocator;
 import org.apache.arrow.vector.FieldVector;
 import org.apache.arrow.vector.ValueVector;
 import org.apache.arrow.vector.types.pojo.Schema;
@@ -37,9 +38,13 @@ public class NativeProjectorBuilder {
   private List<ExprPairing> exprs = new ArrayList<>();
   private List<ValueVector> allocationVectors = new ArrayList<>();
   private final VectorAccessible incoming;
+  private final BufferAllocator allocator;
+  private final GandivaModuleCache moduleCache;
 
-  public NativeProjectorBuilder(VectorAccessible incoming) {
+  public NativeProjectorBuilder(VectorAccessible incoming, BufferAllocator allocator, GandivaModuleCache moduleCache) {
     this.incoming = incoming;
+    this.allocator = allocator;
+    this.moduleCache = moduleCache;
   }
 
   /**
@@ -58,7 +63,7 @@ public class NativeProjectorBuilder {
       return NO_OP;
     }
 
-    final NativeProjector projector = new NativeProjector(incoming, incomingSchema);
+    final NativeProjector projector = new NativeProjector(incoming, incomingSchema, allocator, moduleCache);
     for (ExprPairing e : exprs) {
       projector.add(e.expr, e.outputVector);
       allocationVectors.add(e.outputVector);
@@ -0,0 +1,72 @@
+/*
+ * Copyright (C) 2017-2018 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.op.llvm;
+
+import java.util.List;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+
+import com.dremio.exec.record.VectorContainer;
+import com.dremio.exec.record.selection.SelectionVector2;
+import com.dremio.sabot.op.copier.FieldBufferCopier;
+import com.google.common.collect.Lists;
+
+/**
+ * Copies the rows selected by a selection vector from the fields referenced by a Gandiva module into contiguous
+ * vectors, so the module only evaluates the selected rows. Row i of the gathered vectors is the row at index i of
+ * the selection vector.
+ */
+class SelectedRowsGatherer implements AutoCloseable {
+
+  private final SelectionVector2 selection;
+  private final VectorContainer gathered;
+  private final List<FieldVector> targets;
+  private final List<FieldBufferCopier> copiers;
+  private final VectorSchemaRoot root;
+
+  SelectedRowsGatherer(BufferAllocator allocator, VectorSchemaRoot source, SelectionVector2 selection) {
+    this.selection = selection;
+    this.gathered = new VectorContainer(allocator);
+    this.targets = Lists.newArrayList();
+    for (FieldVector vector : source.getFieldVectors()) {
+      targets.add((FieldVector) gathered.addOrGet(vector.getField()));
+    }
+    this.copiers = FieldBufferCopier.getCopiers(source.getFieldVectors(), targets);
+    this.root = new VectorSchemaRoot(source.getSchema(), targets, 0);
+  }
+
+  /**
+   * Gathers the rows at the first recordCount indices of the selection vector.
+   * @return the root holding the gathered rows
+   */
+  VectorSchemaRoot gather(int recordCount) {
+    for (FieldBufferCopier copier : copiers) {
+      copier.copy(selection.memoryAddress(), recordCount);
+    }
+    for (FieldVector vector : targets) {
+      vector.setValueCount(recordCount);
+    }
+    root.setRowCount(recordCount);
+    return root;
+  }
+
+  @Override
+  public void close() {
+    gathered.close();
+  }
+}
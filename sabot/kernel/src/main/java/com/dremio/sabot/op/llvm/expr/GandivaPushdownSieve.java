@@ -65,7 +65,8 @@ public class GandivaPushdownSieve extends AbstractExprVisitor<CodeGenContext, Co
     try {
       BatchSchema.SelectionVectorMode incomingSelectionVectorMode = batchSchema.getSelectionVectorMode();
 
-      if (incomingSelectionVectorMode != BatchSchema.SelectionVectorMode.NONE) {
+      // rows selected by a two byte selection vector are gathered before being evaluated in Gandiva
+      if (incomingSelectionVectorMode == BatchSchema.SelectionVectorMode.FOUR_BYTE) {
         return contextExpr;
       }
 
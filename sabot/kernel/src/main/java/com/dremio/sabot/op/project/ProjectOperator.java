@@ -109,7 +109,8 @@ public class ProjectOperator implements SingleInputOperator {
     this.allocationVectors = Lists.newArrayList();
     final List<NamedExpression> exprs = getExpressionList();
     final List<TransferPair> transfers = new ArrayList<>();
-    final NativeProjectorBuilder nativeProjectorBuilder = NativeProjectEvaluator.builder(incoming);
+    final NativeProjectorBuilder nativeProjectorBuilder = NativeProjectEvaluator.builder(incoming, context.getAllocator(),
+      context.getClassProducer().getGandivaModuleCache());
     splitter = new ExpressionSplitter(context, incoming, projectorOptions);
 
     final ClassGenerator<Projector> cg = context.getClassProducer().createGenerator(Projector.TEMPLATE_DEFINITION).getRoot();
@@ -122,9 +122,7 @@ public abstract class BaseRawBatchBuffer<T> implements RawBatchBuffer {
     while (!bufferQueue.isEmpty()) {
       RawFragmentBatch batch = bufferQueue.poll();
       assertAckSent(batch);
-      if (batch.getBody() != null) {
-        batch.getBody().release();
-      }
+      batch.close();
     }
   }
 
@@ -27,6 +27,8 @@ public class RawFragmentBatch implements AutoCloseable {
 
   private final FragmentRecordBatch header;
   private final ArrowBuf body;
+  // buffers of a batch handed over by a sender in the same process, in place of a single body
+  private final ArrowBuf[] buffers;
   private final AckSender sender;
   private final AtomicBoolean ackSent = new AtomicBoolean(false);
 
@@ -34,6 +36,7 @@ public class RawFragmentBatch implements AutoCloseable {
     this.header = header;
     this.sender = sender;
     this.body = body;
+    this.buffers = null;
     if (body != null) {
       body.retain(1);
     }
@@ -41,6 +44,21 @@ public class RawFragmentBatch implements AutoCloseable {
     ackSent.set(sender == null);
   }
 
+  /**
+   * Create a batch from the individual buffers of the sent batch, as listed in the header. Used for batches exchanged
+   * between fragments of the same process, which never get assembled into a single body.
+   */
+  public RawFragmentBatch(FragmentRecordBatch header, ArrowBuf[] buffers, AckSender sender) {
+    this.header = header;
+    this.sender = sender;
+    this.body = null;
+    this.buffers = buffers;
+    for (ArrowBuf buffer : buffers) {
+      buffer.retain(1);
+    }
+    ackSent.set(sender == null);
+  }
+
   public FragmentRecordBatch getHeader() {
     return header;
   }
@@ -49,6 +67,17 @@ public class RawFragmentBatch implements AutoCloseable {
     return body;
   }
 
+  /**
+   * @return the buffers of a batch sent from the same process, or null if the data is held in a single body
+   */
+  public ArrowBuf[] getBuffers() {
+    return buffers;
+  }
+
+  public boolean hasBody() {
+    return body != null || buffers != null;
+  }
+
   @Override
   public String toString() {
     return "RawFragmentBatch [header=" + header + ", body=" + body + "]";
@@ -58,6 +87,11 @@ public class RawFragmentBatch implements AutoCloseable {
     if (body != null) {
       body.release();
     }
+    if (buffers != null) {
+      for (ArrowBuf buffer : buffers) {
+        buffer.release();
+      }
+    }
   }
 
   public AckSender getSender() {
@@ -71,9 +105,27 @@ public class RawFragmentBatch implements AutoCloseable {
   }
 
   public long getByteCount() {
+    if (buffers != null) {
+      long count = 0;
+      for (ArrowBuf buffer : buffers) {
+        count += buffer.readableBytes();
+      }
+      return count;
+    }
     return body == null ? 0 : body.readableBytes();
   }
 
+  public long getPossibleMemoryConsumed() {
+    if (buffers != null) {
+      long size = 0;
+      for (ArrowBuf buffer : buffers) {
+        size += buffer.getPossibleMemoryConsumed();
+      }
+      return size;
+    }
+    return body == null ? 0 : body.getPossibleMemoryConsumed();
+  }
+
   public boolean isAckSent() {
     return ackSent.get();
   }
@@ -50,7 +50,6 @@ import com.google.common.base.Throwables;
 import com.google.common.collect.Queues;
 
 import io.netty.buffer.ArrowBuf;
-import io.netty.buffer.ByteBuf;
 
 /**
  * This implementation of RawBatchBuffer starts writing incoming batches to disk once the buffer size reaches a threshold.
@@ -235,8 +234,7 @@ public class SpoolingRawBatchBuffer extends BaseRawBatchBuffer<SpoolingRawBatchB
 
   @Override
   protected void upkeep(RawFragmentBatch batch) {
-    ArrowBuf body = batch.getBody();
-    if (body != null) {
+    if (batch.hasBody()) {
       currentBatchesInMemory--;
     }
     if (isCurrentlySpooling() && currentBatchesInMemory < threshold * STOP_SPOOLING_FRACTION) {
@@ -324,31 +322,36 @@ public class SpoolingRawBatchBuffer extends BaseRawBatchBuffer<SpoolingRawBatchB
     }
 
     public long getBodySize() {
-      if (batch.getBody() == null) {
-        return 0;
-      }
-      assert batch.getBody().readableBytes() >= 0;
-      return batch.getBody().getPossibleMemoryConsumed();
+      return batch.getPossibleMemoryConsumed();
     }
 
     public void writeToStream(FSDataOutputStream stream) throws IOException {
       Stopwatch watch = Stopwatch.createStarted();
-      ByteBuf buf = null;
+      RawFragmentBatch spooled = null;
       try {
         check = ThreadLocalRandom.current().nextLong();
         start = stream.getPos();
         logger.debug("Writing check value {} at position {}", check, start);
         stream.writeLong(check);
         batch.getHeader().writeDelimitedTo(stream);
-        buf = batch.getBody();
+        spooled = batch;
+        final ArrowBuf buf = batch.getBody();
         if (buf != null) {
           bodyLength = buf.capacity();
+          if (bodyLength > 0) {
+            buf.getBytes(0, stream, bodyLength);
+          }
+        } else if (batch.getBuffers() != null) {
+          // batch from the same process: write the buffers one after the other so it reads back as a single body
+          bodyLength = 0;
+          for (ArrowBuf b : batch.getBuffers()) {
+            final int length = b.readableBytes();
+            b.getBytes(b.readerIndex(), stream, length);
+            bodyLength += length;
+          }
         } else {
           bodyLength = 0;
         }
-        if (bodyLength > 0) {
-          buf.getBytes(0, stream, bodyLength);
-        }
         stream.hsync();
         FileStatus status = spillFile.getFileStatus();
         long len = status.getLen();
@@ -365,8 +368,8 @@ public class SpoolingRawBatchBuffer extends BaseRawBatchBuffer<SpoolingRawBatchB
         } finally {
           state = BatchState.SPILLED;
           batch = null;
-          if (buf != null) {
-            buf.release();
+          if (spooled != null) {
+            spooled.close();
           }
         }
       }
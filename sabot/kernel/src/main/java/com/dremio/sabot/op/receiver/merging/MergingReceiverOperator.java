@@ -294,8 +294,8 @@ public class MergingReceiverOperator implements ProducerOperator {
     }
 
     private void clear(){
-      if(currentBatch != null && currentBatch.getBody() != null){
-        currentBatch.getBody().close();
+      if(currentBatch != null){
+        currentBatch.close();
       }
       valueIndex = 0;
     }
@@ -365,7 +365,7 @@ public class MergingReceiverOperator implements ProducerOperator {
     @Override
     public void close() throws Exception {
       if(currentBatch != null){
-        AutoCloseables.close(currentBatch.getBody(), loader);
+        AutoCloseables.close(currentBatch, loader);
       } else {
         loader.close();
       }
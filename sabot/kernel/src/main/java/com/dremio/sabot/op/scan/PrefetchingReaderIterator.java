@@ -0,0 +1,128 @@
+/*
+ * Copyright (C) 2017-2018 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.op.scan;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+
+import com.dremio.common.AutoCloseables;
+import com.dremio.exec.store.RecordReader;
+import com.dremio.sabot.exec.context.OperatorStats;
+import com.dremio.sabot.exec.context.OperatorStats.WaitRecorder;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Throwables;
+import com.google.common.collect.Lists;
+
+/**
+ * Creates the next readers of a scan ahead of time on another thread, so the work done for every split when its
+ * reader is created (e.g. opening the file and reading its footer) overlaps reading the current split. Readers are
+ * still set up by the scan on the fragment thread, as setting them up changes the output of the scan.
+ *
+ * The wrapped iterator is called by a single thread at a time, in order, but not always by the same thread: it must not
+ * depend on the thread it is called from (e.g. record waits in the stats of the operator).
+ */
+class PrefetchingReaderIterator implements Iterator<RecordReader>, AutoCloseable {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(PrefetchingReaderIterator.class);
+
+  private final Iterator<RecordReader> readers;
+  private final Executor executor;
+  private final OperatorStats stats;
+  private final int depth;
+
+  // readers being created, in order, null once the wrapped iterator is exhausted
+  private final Deque<CompletableFuture<RecordReader>> pending = new ArrayDeque<>();
+  // the last reader requested, each reader is created once the previous one is
+  private CompletableFuture<RecordReader> last = CompletableFuture.completedFuture(null);
+  private RecordReader next;
+  private boolean exhausted;
+  private volatile boolean closed;
+
+  PrefetchingReaderIterator(Iterator<RecordReader> readers, Executor executor, OperatorStats stats, int depth) {
+    Preconditions.checkArgument(depth > 0, "At least one reader must be created ahead");
+    this.readers = readers;
+    this.executor = executor;
+    this.stats = stats;
+    this.depth = depth;
+  }
+
+  private void prefetch() {
+    while (pending.size() < depth) {
+      last = last.thenApplyAsync(previous -> {
+        if (closed || !readers.hasNext()) {
+          return null;
+        }
+        return readers.next();
+      }, executor);
+      pending.add(last);
+    }
+  }
+
+  @Override
+  public boolean hasNext() {
+    if (next == null && !exhausted) {
+      prefetch();
+      final CompletableFuture<RecordReader> future = pending.poll();
+      // keep creating readers while waiting for this one
+      prefetch();
+
+      try (WaitRecorder recorder = OperatorStats.getWaitRecorder(stats)) {
+        next = future.get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new RuntimeException("Interrupted while waiting for the next reader", e);
+      } catch (ExecutionException e) {
+        Throwables.throwIfUnchecked(e.getCause());
+        throw new RuntimeException(e.getCause());
+      }
+
+      exhausted = next == null;
+    }
+    return next != null;
+  }
+
+  @Override
+  public RecordReader next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    final RecordReader reader = next;
+    next = null;
+    return reader;
+  }
+
+  @Override
+  public void close() throws Exception {
+    closed = true;
+    // readers created ahead but not returned yet
+    final List<AutoCloseable> unused = Lists.newArrayList(next);
+    for (CompletableFuture<RecordReader> future : pending) {
+      try {
+        unused.add(future.get());
+      } catch (ExecutionException e) {
+        logger.debug("Failure while creating a reader ahead of time", e.getCause());
+      }
+    }
+    pending.clear();
+    next = null;
+    AutoCloseables.close(unused);
+  }
+}
@@ -88,7 +88,8 @@ public class ScanOperator implements ProducerOperator {
     FILTER_MS,
     PARQUET_EXEC_PATH, // type of readers (vectorized, non-vectorized or combination used) in parquet
     FILTER_EXISTS, // Is there a filter pushed into scan?
-    PARQUET_BYTES_READ // Represents total number of actual bytes (uncompressed) read while parquet scan.
+    PARQUET_BYTES_READ, // Represents total number of actual bytes (uncompressed) read while parquet scan.
+    NUM_ORC_STRIPES_PRUNED // number of ORC stripes skipped using column statistics
     ;
 
     @Override
@@ -102,6 +103,7 @@ public class ScanOperator implements ProducerOperator {
   private State state = State.NEEDS_SETUP;
   private final OperatorContext context;
   private Iterator<RecordReader> readers;
+  private final PrefetchingReaderIterator prefetchingReaders;
   private RecordReader currentReader;
   private final ScanMutator mutator;
   private SchemaChangeCallBack callBack = new SchemaChangeCallBack();
@@ -124,10 +126,27 @@ public class ScanOperator implements ProducerOperator {
 
   public ScanOperator(SchemaChangeListener schemaUpdater, SubScan config, OperatorContext context,
                       Iterator<RecordReader> readers, GlobalDictionaries globalDictionaries, UserGroupInformation readerUGI) {
+    this(schemaUpdater, config, context, readers, globalDictionaries, readerUGI, 0);
+  }
+
+  /**
+   * @param readersToPrefetch number of readers to create ahead of the current one on the executor of the operator, 0
+   *                          to create them when needed. Creating readers ahead requires readers to not depend on the
+   *                          thread they are created from.
+   */
+  public ScanOperator(SchemaChangeListener schemaUpdater, SubScan config, OperatorContext context,
+                      Iterator<RecordReader> readers, GlobalDictionaries globalDictionaries, UserGroupInformation readerUGI,
+                      int readersToPrefetch) {
     if (!readers.hasNext()) {
       this.readers = ImmutableList.<RecordReader>of(new EmptyRecordReader(context)).iterator();
+      this.prefetchingReaders = null;
+    } else if (readersToPrefetch > 0) {
+      this.prefetchingReaders = new PrefetchingReaderIterator(readers, context.getExecutor(), context.getStats(),
+        readersToPrefetch);
+      this.readers = prefetchingReaders;
     } else {
       this.readers = readers;
+      this.prefetchingReaders = null;
     }
     this.context = context;
     this.config = config;
@@ -359,7 +378,7 @@ public class ScanOperator implements ProducerOperator {
 
   @Override
   public void close() throws Exception {
-    AutoCloseables.close(outgoing, currentReader, globalDictionaries);
+    AutoCloseables.close(outgoing, prefetchingReaders, currentReader, globalDictionaries);
   }
 
 }
@@ -93,6 +93,7 @@ public class ExternalSortOperator implements SingleInputOperator {
 
   private int maxBatchesInMemory = 0;
   private int batchsizeMultiplier;
+  private boolean useNormalizedKeys;
 
   private State state = State.NEEDS_SETUP;
 
@@ -140,8 +141,10 @@ public class ExternalSortOperator implements SingleInputOperator {
       this.tracer = new ExternalSortTracer();
       this.output = context.createOutputVectorContainer(incoming.getSchema());
       this.batchsizeMultiplier = (int) context.getOptions().getOption(ExecConstants.EXTERNAL_SORT_BATCHSIZE_MULTIPLIER);
+      this.useNormalizedKeys = context.getOptions().getOption(ExecConstants.EXTERNAL_SORT_NORMALIZED_KEYS);
 
-      this.memoryRun = new MemoryRun(config, producer, context.getAllocator(), incoming.getSchema(), tracer, batchsizeMultiplier);
+      this.memoryRun = new MemoryRun(config, producer, context.getAllocator(), incoming.getSchema(), tracer, batchsizeMultiplier,
+        useNormalizedKeys);
       rollback.add(this.memoryRun);
 
       this.incoming = incoming;
@@ -296,7 +299,8 @@ public class ExternalSortOperator implements SingleInputOperator {
 
     try {
       memoryRun.closeToDisk(diskRuns);
-      memoryRun = new MemoryRun(config, producer, allocator, incoming.getSchema(), tracer, batchsizeMultiplier);
+      memoryRun = new MemoryRun(config, producer, allocator, incoming.getSchema(), tracer, batchsizeMultiplier,
+        useNormalizedKeys);
     } catch (Exception e) {
       throw UserException.dataWriteError(e)
         .message("Failure while attempting to spill sort data to disk.")
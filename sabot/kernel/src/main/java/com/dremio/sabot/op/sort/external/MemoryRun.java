@@ -47,7 +47,7 @@ import io.netty.buffer.ArrowBuf;
  * Describes a set of ordered batches of data. Sorts new data as it is inserted
  * using a SplayTree. Sort has two stages:
  *
- * - Sort each batch using an Sv2
+ * - Sort each batch using an Sv2 (radix sorting normalized keys if all sort keys are fixed width columns)
  * - Insert each batch into a SplayTree as it arrives
  *
  * Memory Guarantees Targeted: ensures that spilling can be done before
@@ -67,6 +67,7 @@ class MemoryRun implements AutoCloseable {
 
   private ArrowBuf splayTreeBuffer;
   private SingleBatchSorter localSorter;
+  private NormalizedKeySorter normalizedKeySorter;
   private SplaySorter treeManager;
   private RecordBatchItem head;
   private RecordBatchItem tail;
@@ -81,6 +82,7 @@ class MemoryRun implements AutoCloseable {
   private long copyTargetSize;
   private final ExternalSortTracer tracer;
   private final int batchsizeMultiplier;
+  private final boolean useNormalizedKeys;
 
   public MemoryRun(
       ExternalSort sortConfig,
@@ -88,7 +90,8 @@ class MemoryRun implements AutoCloseable {
       BufferAllocator allocator,
       Schema schema,
       ExternalSortTracer tracer,
-      int batchsizeMultiplier
+      int batchsizeMultiplier,
+      boolean useNormalizedKeys
       ) {
     this.schema = schema;
     this.sortConfig = sortConfig;
@@ -98,6 +101,7 @@ class MemoryRun implements AutoCloseable {
     splayTreeBuffer.setZero(0, splayTreeBuffer.capacity());
     this.tracer = tracer;
     this.batchsizeMultiplier = batchsizeMultiplier;
+    this.useNormalizedKeys = useNormalizedKeys;
     updateProtectedSize(1 << 16);
   }
 
@@ -152,11 +156,20 @@ class MemoryRun implements AutoCloseable {
       return false;
     }
 
+    if (size == 0 && useNormalizedKeys) {
+      // needed upfront to reserve memory for the normalized keys
+      normalizedKeySorter = NormalizedKeySorter.create(incoming, sortConfig.getOrderings(), classProducer);
+    }
+
     // copy size is BATCH_SIZE_MULTIPLIER worse case batch size since we have to
     // be careful of memory rounding. sv4 for sort output vector is the total
     // number of records x4 bytes per sv4 value. we need to reserve this here
     // (but not allocate so we always guarantee that we can allocate later.
-    final long needed = batchSize * batchsizeMultiplier + nextPowerOfTwo((recordLength + incoming.getRecordCount()) * 4);
+    // The reservation must also fit the buffers used to sort the incoming batch
+    // on its own, which are released before anything else is allocated from it.
+    final long needed = Math.max(
+        batchSize * batchsizeMultiplier + nextPowerOfTwo((recordLength + incoming.getRecordCount()) * 4),
+        getLocalSortSize(incoming.getRecordCount()));
     if (copyTargetSize < needed) {
       logger.debug("Memory Run: new size needed to reserve for spill {} current target copy size {}", needed, copyTargetSize);
       if (!updateProtectedSize(needed)) {
@@ -234,8 +247,8 @@ class MemoryRun implements AutoCloseable {
     //
     // Note that we shouldn't have an issue with allocation here since we'll use
     // the copyTargetAllocator.
-    // This isn't yet used and is guaranteed to be larger than the size of this
-    // ephemeral allocation.
+    // This isn't yet used and its reservation includes the size of these
+    // ephemeral allocations (see getLocalSortSize()).
     try (SelectionVector2 localSortVector = new SelectionVector2(copyTargetAllocator)) {
       final int recordCount = item.getRecordCount();
       localSortVector.allocateNew(recordCount);
@@ -249,9 +262,14 @@ class MemoryRun implements AutoCloseable {
         }
       }
 
-      // quicksort for cache-local performance benefits (includes resetting vector references)
-      localSorter.setup(classProducer.getFunctionContext(), localSortVector, item.data.getContainer());
-      localSorter.sort(localSortVector);
+      if (normalizedKeySorter != null) {
+        // radix sort of the encoded sort keys, no comparisons needed
+        normalizedKeySorter.sort(copyTargetAllocator, localSortVector, item.data.getContainer());
+      } else {
+        // quicksort for cache-local performance benefits (includes resetting vector references)
+        localSorter.setup(classProducer.getFunctionContext(), localSortVector, item.data.getContainer());
+        localSorter.sort(localSortVector);
+      }
 
       // now we need to insert the values into the splay tree.
       treeManager.add(localSortVector, item.data);
@@ -259,10 +277,18 @@ class MemoryRun implements AutoCloseable {
     }
   }
 
+  /**
+   * @return memory needed to sort a batch on its own: its selection vector, and its normalized keys if they are used
+   */
+  private long getLocalSortSize(int recordCount) {
+    final long keysSize = normalizedKeySorter == null ? 0 : nextPowerOfTwo(normalizedKeySorter.getKeysSize(recordCount));
+    return nextPowerOfTwo(recordCount * 2) + keysSize;
+  }
+
   private void compileSortingClasses(VectorAccessible batch)
       throws ClassTransformationException, SchemaChangeException, IOException {
 
-    { // Local (single batch) sorter
+    if (normalizedKeySorter == null) { // Local (single batch) sorter
       CodeGenerator<SingleBatchSorter> cg = classProducer.createGenerator(SingleBatchSorter.TEMPLATE_DEFINITION);
       ClassGenerator<SingleBatchSorter> g = cg.getRoot();
       ExternalSortOperator.generateComparisons(g, batch, sortConfig.getOrderings(), classProducer);
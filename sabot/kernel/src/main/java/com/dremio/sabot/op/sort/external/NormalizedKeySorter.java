@@ -0,0 +1,278 @@
+/*
+ * Copyright (C) 2017-2018 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.op.sort.external;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.calcite.rel.RelFieldCollation.Direction;
+
+import com.dremio.common.expression.LogicalExpression;
+import com.dremio.common.logical.data.Order.Ordering;
+import com.dremio.common.types.TypeProtos.MinorType;
+import com.dremio.exec.expr.ClassProducer;
+import com.dremio.exec.expr.ValueVectorReadExpression;
+import com.dremio.exec.record.VectorAccessible;
+import com.dremio.exec.record.selection.SelectionVector2;
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.ImmutableList;
+
+import io.netty.buffer.ArrowBuf;
+import io.netty.util.internal.PlatformDependent;
+
+/**
+ * Sorts a single batch on fixed width columns without generated comparisons. The sort keys of each record are first
+ * encoded into a fixed width key whose bytes compare in the same order as the records:
+ *
+ *  - each column starts with a byte telling whether its value is null, set so that nulls sort as requested
+ *  - values are written big endian, with the sign bit flipped for integers and the IEEE 754 bits reordered for floats
+ *  - all the bytes of a descending column are inverted
+ *
+ * The keys are then sorted with a least significant byte first radix sort, which skips the bytes that are the same
+ * for all the records (e.g. the high bytes of small integers, or the null bytes of required columns).
+ *
+ * The pivoted layout of the hash tables (see PivotBuilder) isn't reused here: it packs the validity bits of all the
+ * columns in a word and keeps values in native byte order, which is fine to compare keys for equality but not for
+ * ordering them byte by byte.
+ */
+class NormalizedKeySorter {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(NormalizedKeySorter.class);
+
+  private static final int RADIX = 256;
+
+  private final List<KeyColumn> columns;
+  private final int keyWidth;
+
+  private NormalizedKeySorter(List<KeyColumn> columns, int keyWidth) {
+    this.columns = columns;
+    this.keyWidth = keyWidth;
+  }
+
+  /**
+   * @return a sorter for the given orderings, or null if some of the sort keys can't be normalized
+   */
+  static NormalizedKeySorter create(VectorAccessible batch, List<Ordering> orderings, ClassProducer producer) {
+    final ImmutableList.Builder<KeyColumn> columns = ImmutableList.builder();
+    int keyWidth = 0;
+    for (Ordering ordering : orderings) {
+      final LogicalExpression expr = producer.materialize(ordering.getExpr(), batch);
+      if (!(expr instanceof ValueVectorReadExpression)) {
+        return null;
+      }
+
+      final ValueVectorReadExpression read = (ValueVectorReadExpression) expr;
+      if (read.getFieldId().isHyperReader() || read.getFieldId().getFieldIds().length != 1) {
+        return null;
+      }
+
+      final int width = getValueWidth(expr.getCompleteType().toMinorType());
+      if (width == 0) {
+        return null;
+      }
+
+      columns.add(new KeyColumn(read.getFieldId().getFieldIds(), expr.getCompleteType().toMinorType(), width,
+        ordering.nullsSortHigh(), ordering.getDirection() == Direction.DESCENDING, keyWidth));
+      keyWidth += 1 + width;
+    }
+
+    return new NormalizedKeySorter(columns.build(), keyWidth);
+  }
+
+  private static int getValueWidth(MinorType type) {
+    switch (type) {
+    case BIT:
+      return 1;
+    case INT:
+    case TIME:
+    case INTERVALYEAR:
+    case FLOAT4:
+      return 4;
+    case BIGINT:
+    case DATE:
+    case TIMESTAMP:
+    case FLOAT8:
+      return 8;
+    default:
+      return 0;
+    }
+  }
+
+  /**
+   * @return size of the normalized keys of the given number of records
+   */
+  int getKeysSize(int count) {
+    return count * keyWidth;
+  }
+
+  /**
+   * Sorts the records referenced by the selection vector.
+   * @param allocator allocator for the normalized keys
+   * @param vector2 selection vector to sort in place
+   * @param batch batch holding the records
+   */
+  void sort(BufferAllocator allocator, SelectionVector2 vector2, VectorAccessible batch) {
+    final int count = vector2.getCount();
+    if (count == 0) {
+      return;
+    }
+
+    final Stopwatch watch = Stopwatch.createStarted();
+    try (ArrowBuf keys = allocator.buffer(getKeysSize(count))) {
+      final long keysAddr = keys.memoryAddress();
+      final int[] records = new int[count];
+      for (int i = 0; i < count; i++) {
+        records[i] = vector2.getIndex(i);
+      }
+
+      for (KeyColumn column : columns) {
+        final FieldVector vector = batch.getValueAccessorById(FieldVector.class, column.fieldIds).getValueVector();
+        column.encode(vector, records, keysAddr, keyWidth);
+      }
+
+      final int[] sorted = radixSort(keysAddr, count);
+      for (int i = 0; i < count; i++) {
+        vector2.setIndex(i * 2, records[sorted[i]]);
+      }
+    }
+    logger.debug("Took {} us to sort {} records", watch.elapsed(TimeUnit.MICROSECONDS), count);
+  }
+
+  /**
+   * @return positions of the keys in sorted order
+   */
+  private int[] radixSort(final long keysAddr, final int count) {
+    final int keyWidth = this.keyWidth;
+    int[] positions = new int[count];
+    int[] next = new int[count];
+    for (int i = 0; i < count; i++) {
+      positions[i] = i;
+    }
+
+    final int[] offsets = new int[RADIX];
+    for (int b = keyWidth - 1; b >= 0; b--) {
+      Arrays.fill(offsets, 0);
+      for (int i = 0; i < count; i++) {
+        offsets[PlatformDependent.getByte(keysAddr + (long) i * keyWidth + b) & 0xFF]++;
+      }
+
+      // all the keys have the same byte, order is unchanged
+      if (offsets[PlatformDependent.getByte(keysAddr + b) & 0xFF] == count) {
+        continue;
+      }
+
+      int offset = 0;
+      for (int v = 0; v < RADIX; v++) {
+        final int bucketSize = offsets[v];
+        offsets[v] = offset;
+        offset += bucketSize;
+      }
+
+      for (int i = 0; i < count; i++) {
+        final int position = positions[i];
+        next[offsets[PlatformDependent.getByte(keysAddr + (long) position * keyWidth + b) & 0xFF]++] = position;
+      }
+
+      final int[] swap = positions;
+      positions = next;
+      next = swap;
+    }
+
+    return positions;
+  }
+
+  /**
+   * A sort key, along with its position in the normalized key.
+   */
+  private static final class KeyColumn {
+    private final int[] fieldIds;
+    private final MinorType type;
+    private final int width;
+    private final boolean nullsHigh;
+    private final boolean descending;
+    private final int offset;
+
+    private KeyColumn(int[] fieldIds, MinorType type, int width, boolean nullsHigh, boolean descending, int offset) {
+      this.fieldIds = fieldIds;
+      this.type = type;
+      this.width = width;
+      this.nullsHigh = nullsHigh;
+      this.descending = descending;
+      this.offset = offset;
+    }
+
+    private void encode(FieldVector vector, int[] records, long keysAddr, int keyWidth) {
+      final long validityAddr = vector.getValidityBufferAddress();
+      final long dataAddr = vector.getDataBufferAddress();
+      // inverting the bytes of a descending column reverses the order of its values, nulls included
+      final int flip = descending ? 0xFF : 0;
+      final byte nullByte = (byte) ((nullsHigh ? 1 : 0) ^ flip);
+      final byte setByte = (byte) ((nullsHigh ? 0 : 1) ^ flip);
+
+      for (int i = 0; i < records.length; i++) {
+        final int record = records[i];
+        final long keyAddr = keysAddr + (long) i * keyWidth + offset;
+        final boolean isSet = ((PlatformDependent.getByte(validityAddr + (record >>> 3)) >>> (record & 7)) & 1) == 1;
+        if (!isSet) {
+          PlatformDependent.putByte(keyAddr, nullByte);
+          for (int b = 1; b <= width; b++) {
+            PlatformDependent.putByte(keyAddr + b, (byte) flip);
+          }
+          continue;
+        }
+
+        PlatformDependent.putByte(keyAddr, setByte);
+        final long value = getOrderedValue(dataAddr, record);
+        for (int b = 1; b <= width; b++) {
+          PlatformDependent.putByte(keyAddr + b, (byte) ((value >>> ((width - b) * 8)) ^ flip));
+        }
+      }
+    }
+
+    /**
+     * @return the value of the record, as bits comparing in the same order as the values when compared unsigned
+     */
+    private long getOrderedValue(long dataAddr, int record) {
+      switch (type) {
+      case BIT:
+        return (PlatformDependent.getByte(dataAddr + (record >>> 3)) >>> (record & 7)) & 1;
+      case INT:
+      case TIME:
+      case INTERVALYEAR:
+        return (PlatformDependent.getInt(dataAddr + record * 4L) ^ Integer.MIN_VALUE) & 0xFFFFFFFFL;
+      case BIGINT:
+      case DATE:
+      case TIMESTAMP:
+        return PlatformDependent.getLong(dataAddr + record * 8L) ^ Long.MIN_VALUE;
+      case FLOAT4: {
+        // -0.0 and 0.0 compare equal, and NaN has a single representation
+        final float value = Float.intBitsToFloat(PlatformDependent.getInt(dataAddr + record * 4L));
+        final int bits = Float.floatToIntBits(value == 0.0f ? 0.0f : value);
+        return (bits < 0 ? ~bits : bits ^ Integer.MIN_VALUE) & 0xFFFFFFFFL;
+      }
+      case FLOAT8: {
+        final double value = Double.longBitsToDouble(PlatformDependent.getLong(dataAddr + record * 8L));
+        final long bits = Double.doubleToLongBits(value == 0.0d ? 0.0d : value);
+        return bits < 0 ? ~bits : bits ^ Long.MIN_VALUE;
+      }
+      default:
+        throw new UnsupportedOperationException("Unexpected sort key type " + type);
+      }
+    }
+  }
+}
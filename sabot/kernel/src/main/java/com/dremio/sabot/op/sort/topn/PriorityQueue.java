@@ -25,8 +25,15 @@ import com.dremio.sabot.op.sort.external.RecordBatchData;
 import com.dremio.sabot.op.sort.external.Sv4HyperContainer;
 
 public interface PriorityQueue extends AutoCloseable {
+  /**
+   * Adds the records of the batch to the queue, only the ones selected by its selection vector if it has one.
+   */
   void add(RecordBatchData batch);
-  void init(Sv4HyperContainer hyperBatch, int limit, FunctionContext context, BufferAllocator allocator, boolean hasSv2, int maxSize);
+  void init(Sv4HyperContainer hyperBatch, int limit, FunctionContext context, BufferAllocator allocator, int maxSize);
+  /**
+   * @return true if the queue holds limit records, in which case the root of the heap is the k-th record
+   */
+  boolean isFull();
   void generate();
   Sv4HyperContainer getHyperBatch();
   SelectionVector4 getHeapSv4();
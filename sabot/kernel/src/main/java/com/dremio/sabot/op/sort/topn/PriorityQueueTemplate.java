@@ -47,17 +47,15 @@ public abstract class PriorityQueueTemplate implements PriorityQueue {
   private int limit;
   private int queueSize = 0;
   private int batchCount = 0;
-  private boolean hasSv2;
   private int maxSize;
 
   @Override
-  public void init(Sv4HyperContainer hyperBatch, int limit, FunctionContext context, BufferAllocator allocator,  boolean hasSv2, int maxSize) {
+  public void init(Sv4HyperContainer hyperBatch, int limit, FunctionContext context, BufferAllocator allocator, int maxSize) {
     this.limit = limit;
     this.context = context;
     this.allocator = allocator;
     final ArrowBuf ArrowBuf = allocator.buffer(4 * (limit + 1));
     this.heapSv4 = new SelectionVector4(ArrowBuf, limit, Character.MAX_VALUE);
-    this.hasSv2 = hasSv2;
     this.hyperBatch = hyperBatch;
     this.maxSize = maxSize;
     doSetup(context, hyperBatch, null);
@@ -95,10 +93,8 @@ public abstract class PriorityQueueTemplate implements PriorityQueue {
     doSetup(context, hyperBatch, null);
 
     int count = 0;
-    SelectionVector2 sv2 = null;
-    if (hasSv2) {
-      sv2 = batch.getSv2();
-    }
+    final SelectionVector2 sv2 = batch.getSv2();
+    final boolean hasSv2 = sv2 != null;
     for (; queueSize < limit && count < batch.getRecordCount();  count++) {
       heapSv4.set(queueSize, batchCount, hasSv2 ? sv2.getIndex(count) : count);
       queueSize++;
@@ -118,6 +114,11 @@ public abstract class PriorityQueueTemplate implements PriorityQueue {
     logger.debug("Took {} us to add {} records", watch.elapsed(TimeUnit.MICROSECONDS), count);
   }
 
+  @Override
+  public boolean isFull() {
+    return queueSize == limit;
+  }
+
   @Override
   public void generate() throws SchemaChangeException {
     Stopwatch watch = Stopwatch.createStarted();
@@ -43,7 +43,9 @@ import com.dremio.exec.record.BatchSchema.SelectionVectorMode;
 import com.dremio.exec.record.VectorAccessible;
 import com.dremio.exec.record.VectorContainer;
 import com.dremio.exec.record.VectorWrapper;
+import com.dremio.exec.record.selection.SelectionVector2;
 import com.dremio.exec.record.selection.SelectionVector4;
+import com.dremio.sabot.exec.context.MetricDef;
 import com.dremio.sabot.exec.context.OperatorContext;
 import com.dremio.sabot.op.copier.Copier;
 import com.dremio.sabot.op.copier.CopierOperator;
@@ -78,12 +80,27 @@ public class TopNOperator implements SingleInputOperator {
   private PriorityQueue priorityQueue;
   private Copier copier;
 
+  // drops incoming records that can't make it into a full queue, null if disabled or unsupported.
+  private TopNThresholdFilter thresholdFilter;
+  private long recordsFiltered;
+  private int batchesSkipped;
+
   public TopNOperator(OperatorContext context, TopN popConfig) {
     this.config = popConfig;
     this.context = context;
     this.batchPurgeThreshold = context.getConfig().getInt(ExecConstants.BATCH_PURGE_THRESHOLD);
   }
 
+  public enum Metric implements MetricDef {
+    RECORDS_FILTERED, // number of incoming records dropped as they couldn't make it into the queue
+    BATCHES_SKIPPED;  // number of incoming batches dropped as none of their records could make it into the queue
+
+    @Override
+    public int metricId() {
+      return ordinal();
+    }
+  }
+
   @Override
   public State getState() {
     return state;
@@ -101,6 +118,9 @@ public class TopNOperator implements SingleInputOperator {
 
     priorityQueue = createNewPriorityQueue(context.getClassProducer(), config.getOrderings());
     copier = CopierOperator.getGenerated4Copier(context.getClassProducer(), priorityQueue.getHyperBatch(), outgoing);
+    if (config.getLimit() > 0 && context.getOptions().getOption(ExecConstants.TOPN_THRESHOLD_FILTER)) {
+      thresholdFilter = TopNThresholdFilter.create(incoming, config.getOrderings().get(0), context.getClassProducer());
+    }
     state = State.CAN_CONSUME;
     return outgoing;
   }
@@ -108,10 +128,27 @@ public class TopNOperator implements SingleInputOperator {
   @Override
   public void consumeData(int records) throws Exception {
 
-    countSincePurge += incoming.getRecordCount();
+    final RecordBatchData batch;
+    if (thresholdFilter != null && priorityQueue.isFull()) {
+      final SelectionVector2 selected = thresholdFilter.filter(context.getAllocator(), incoming,
+        priorityQueue.getHyperBatch(), priorityQueue.getHeapSv4().get(0));
+      recordsFiltered += incoming.getRecordCount() - selected.getCount();
+      if (selected.getCount() == 0) {
+        // none of the records can make it into the queue, don't hold on to the batch.
+        selected.clear();
+        batchesSkipped++;
+        return;
+      }
+      batch = new RecordBatchData(incoming, context.getAllocator(), false);
+      batch.setSv2(selected);
+    } else {
+      batch = new RecordBatchData(incoming, context.getAllocator());
+    }
+
+    countSincePurge += batch.getRecordCount();
     batchCount++;
 
-    priorityQueue.add(new RecordBatchData(incoming, context.getAllocator()));
+    priorityQueue.add(batch);
 
     if (countSincePurge > config.getLimit() && batchCount > batchPurgeThreshold) {
       purge();
@@ -128,6 +165,8 @@ public class TopNOperator implements SingleInputOperator {
     // get final order.
     priorityQueue.generate();
     finalOrder = priorityQueue.getFinalSv4();
+    context.getStats().setLongStat(Metric.RECORDS_FILTERED, recordsFiltered);
+    context.getStats().setLongStat(Metric.BATCHES_SKIPPED, batchesSkipped);
 
     final Sv4HyperContainer source = priorityQueue.getHyperBatch();
     source.setSelectionVector4(finalOrder);
@@ -245,7 +284,7 @@ public class TopNOperator implements SingleInputOperator {
     g.getEvalBlock()._return(JExpr.lit(0));
 
     PriorityQueue q = cg.getImplementationClass();
-    q.init(hyperBatch, config.getLimit(), context.getFunctionContext(), context.getAllocator(), incoming.getSchema().getSelectionVectorMode() == BatchSchema.SelectionVectorMode.TWO_BYTE, context.getTargetBatchSize());
+    q.init(hyperBatch, config.getLimit(), context.getFunctionContext(), context.getAllocator(), context.getTargetBatchSize());
     return q;
 
   }
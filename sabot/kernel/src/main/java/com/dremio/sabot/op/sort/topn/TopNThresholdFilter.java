@@ -0,0 +1,155 @@
+/*
+ * Copyright (C) 2017-2018 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.op.sort.topn;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.calcite.rel.RelFieldCollation.Direction;
+
+import com.dremio.common.expression.LogicalExpression;
+import com.dremio.common.logical.data.Order.Ordering;
+import com.dremio.common.types.TypeProtos.MinorType;
+import com.dremio.exec.expr.ClassProducer;
+import com.dremio.exec.expr.ValueVectorReadExpression;
+import com.dremio.exec.record.BatchSchema.SelectionVectorMode;
+import com.dremio.exec.record.VectorAccessible;
+import com.dremio.exec.record.selection.SelectionVector2;
+import com.dremio.sabot.op.sort.external.Sv4HyperContainer;
+
+import io.netty.util.internal.PlatformDependent;
+
+/**
+ * Once the queue holds limit records, drops the incoming records whose first sort key is strictly worse than the first
+ * sort key of the k-th record (the root of the heap), before they are transferred and heaped. Records tying with the
+ * k-th record are kept, as later sort keys decide whether they make it into the queue.
+ *
+ * Only applies when the first sort key is a fixed width integer column, as the generated comparisons order floating
+ * point values differently (NaN compares greater than any other value, in both directions).
+ */
+class TopNThresholdFilter {
+
+  private final int[] fieldIds;
+  private final int width;
+  private final boolean nullsHigh;
+  private final boolean descending;
+
+  private TopNThresholdFilter(int[] fieldIds, int width, boolean nullsHigh, boolean descending) {
+    this.fieldIds = fieldIds;
+    this.width = width;
+    this.nullsHigh = nullsHigh;
+    this.descending = descending;
+  }
+
+  /**
+   * @return a filter on the first ordering, or null if its sort key isn't supported
+   */
+  static TopNThresholdFilter create(VectorAccessible incoming, Ordering ordering, ClassProducer producer) {
+    final LogicalExpression expr = producer.materialize(ordering.getExpr(), incoming);
+    if (!(expr instanceof ValueVectorReadExpression)) {
+      return null;
+    }
+
+    final ValueVectorReadExpression read = (ValueVectorReadExpression) expr;
+    if (read.getFieldId().isHyperReader() || read.getFieldId().getFieldIds().length != 1) {
+      return null;
+    }
+
+    final int width = getValueWidth(expr.getCompleteType().toMinorType());
+    if (width == 0) {
+      return null;
+    }
+
+    return new TopNThresholdFilter(read.getFieldId().getFieldIds(), width, ordering.nullsSortHigh(),
+      ordering.getDirection() == Direction.DESCENDING);
+  }
+
+  private static int getValueWidth(MinorType type) {
+    switch (type) {
+    case BIT:
+      return 1;
+    case INT:
+    case TIME:
+    case INTERVALYEAR:
+      return 4;
+    case BIGINT:
+    case DATE:
+    case TIMESTAMP:
+      return 8;
+    default:
+      return 0;
+    }
+  }
+
+  /**
+   * Selects the incoming records that may still make it into the queue.
+   * @param allocator allocator for the selection vector
+   * @param incoming batch to filter
+   * @param hyperBatch batches of the queue
+   * @param threshold compound index of the k-th record in the hyper batch
+   * @return the selected records, possibly none. The caller owns the selection vector.
+   */
+  SelectionVector2 filter(BufferAllocator allocator, VectorAccessible incoming, Sv4HyperContainer hyperBatch, int threshold) {
+    final FieldVector thresholdVector = hyperBatch.getValueAccessorById(FieldVector.class, fieldIds).getValueVectors()[threshold >>> 16];
+    final int thresholdRecord = threshold & 0xFFFF;
+    final boolean thresholdIsNull = !isSet(thresholdVector.getValidityBufferAddress(), thresholdRecord);
+    final long thresholdValue = thresholdIsNull ? 0 : getValue(thresholdVector.getDataBufferAddress(), thresholdRecord);
+
+    final FieldVector vector = incoming.getValueAccessorById(FieldVector.class, fieldIds).getValueVector();
+    final long validityAddr = vector.getValidityBufferAddress();
+    final long dataAddr = vector.getDataBufferAddress();
+    final SelectionVector2 incomingSv2 = incoming.getSchema().getSelectionVectorMode() == SelectionVectorMode.TWO_BYTE
+      ? incoming.getSelectionVector2() : null;
+    final int count = incoming.getRecordCount();
+
+    final SelectionVector2 selected = new SelectionVector2(allocator);
+    selected.allocateNew(count);
+    final long selectedAddr = selected.memoryAddress();
+    int selectedCount = 0;
+    for (int i = 0; i < count; i++) {
+      final int record = incomingSv2 == null ? i : incomingSv2.getIndex(i);
+      final int comparison;
+      if (!isSet(validityAddr, record)) {
+        comparison = thresholdIsNull ? 0 : (nullsHigh ? 1 : -1);
+      } else if (thresholdIsNull) {
+        comparison = nullsHigh ? -1 : 1;
+      } else {
+        comparison = Long.compare(getValue(dataAddr, record), thresholdValue);
+      }
+
+      if ((descending ? -comparison : comparison) <= 0) {
+        PlatformDependent.putShort(selectedAddr + selectedCount * SelectionVector2.RECORD_SIZE, (short) record);
+        selectedCount++;
+      }
+    }
+    selected.setRecordCount(selectedCount);
+    return selected;
+  }
+
+  private static boolean isSet(long validityAddr, int record) {
+    return ((PlatformDependent.getByte(validityAddr + (record >>> 3)) >>> (record & 7)) & 1) == 1;
+  }
+
+  private long getValue(long dataAddr, int record) {
+    switch (width) {
+    case 1:
+      return (PlatformDependent.getByte(dataAddr + (record >>> 3)) >>> (record & 7)) & 1;
+    case 4:
+      return PlatformDependent.getInt(dataAddr + record * 4L);
+    default:
+      return PlatformDependent.getLong(dataAddr + record * 8L);
+    }
+  }
+}
@@ -50,6 +50,7 @@ public abstract class FrameSupportTemplate implements WindowFramer {
   private VectorContainer current;
 
   private int frameLastRow;
+  private int frameLastBatch; // index, in batches, of the batch holding frameLastRow
 
   // true when at least one window function needs to process all batches of a partition before passing any batch downstream
   private boolean requireFullPartition;
@@ -96,6 +97,13 @@ public abstract class FrameSupportTemplate implements WindowFramer {
 
     this.current = batches.get(0);
 
+    if (remainingPeers > 0) {
+      // the frame of the pending peer rows ends in a later batch. The previous batch has been removed since it was
+      // computed and the batch holding the last row may have been spilled, so we need to setup the read again
+      frameLastBatch--;
+      setupReadLastValue(batches.get(frameLastBatch), container);
+    }
+
     setupSaveFirstValue(current, internal);
 
     outputCount = current.getRecordCount();
@@ -258,32 +266,38 @@ public abstract class FrameSupportTemplate implements WindowFramer {
 
     final boolean unboundedFollowing = popConfig.getEnd().isUnbounded();
     VectorAccessible last = current;
+    int lastIndex = 0;
     long length = 0;
 
     // a single frame can include rows from multiple batches
-    // start processing first batch and, if necessary, move to next batches
-    for (VectorAccessible batch : batches) {
+    // start processing first batch and, if necessary, move to next batches.
+    // Stop as soon as the frame ends so we don't read back batches that may have been spilled for nothing
+    outer:
+    for (int i = 0; i < batches.size(); i++) {
+      final VectorAccessible batch = batches.get(i);
       setupEvaluatePeer(batch, container);
       final int recordCount = batch.getRecordCount();
 
       // for every remaining row in the partition, count it if it's a peer row
-      for (int row = (batch == current) ? start : 0; row < recordCount; row++, length++) {
+      for (int row = (i == 0) ? start : 0; row < recordCount; row++, length++) {
         if (unboundedFollowing) {
           if (length >= remainingRows) {
-            break;
+            break outer;
           }
         } else {
           if (!isPeer(start, current, row, batch)) {
-            break;
+            break outer;
           }
         }
 
         evaluatePeer(row);
         last = batch;
+        lastIndex = i;
         frameLastRow = row;
       }
     }
 
+    frameLastBatch = lastIndex;
     setupReadLastValue(last, container);
 
     return length;
@@ -18,7 +18,6 @@ package com.dremio.sabot.op.windowframe;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.LinkedList;
 import java.util.List;
 
 import org.apache.arrow.memory.OutOfMemoryException;
@@ -30,6 +29,7 @@ import com.dremio.common.exceptions.ExecutionSetupException;
 import com.dremio.common.expression.LogicalExpression;
 import com.dremio.common.logical.data.NamedExpression;
 import com.dremio.common.logical.data.Order;
+import com.dremio.exec.ExecConstants;
 import com.dremio.exec.compile.TemplateClassDefinition;
 import com.dremio.exec.compile.sig.GeneratorMapping;
 import com.dremio.exec.compile.sig.MappingSet;
@@ -42,7 +42,10 @@ import com.dremio.exec.physical.config.WindowPOP;
 import com.dremio.exec.record.VectorAccessible;
 import com.dremio.exec.record.VectorContainer;
 import com.dremio.exec.record.VectorWrapper;
+import com.dremio.sabot.exec.context.MetricDef;
 import com.dremio.sabot.exec.context.OperatorContext;
+import com.dremio.sabot.exec.context.OperatorStats;
+import com.dremio.sabot.op.common.spill.SpillableBatchList;
 import com.dremio.sabot.op.spi.SingleInputOperator;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterables;
@@ -59,7 +62,7 @@ public class WindowFrameOperator implements SingleInputOperator {
   private final OperatorContext context;
   private final List<WindowFunction> functions = Lists.newArrayList();
   private final WindowPOP config;
-  private final LinkedList<VectorContainer> batches = new LinkedList<>();
+  private final SpillableBatchList batches;
 
   private VectorAccessible incoming;
   private VectorContainer outgoing;
@@ -73,6 +76,23 @@ public class WindowFrameOperator implements SingleInputOperator {
   public WindowFrameOperator(OperatorContext context, WindowPOP config) throws OutOfMemoryException {
     this.context = context;
     this.config = config;
+    final long spillThreshold = context.getOptions().getOption(ExecConstants.WINDOW_SPILL_ENABLED)
+      ? Math.min(context.getOptions().getOption(ExecConstants.WINDOW_SPILL_THRESHOLD_BYTES), context.getAllocator().getLimit() / 2)
+      : Long.MAX_VALUE;
+    this.batches = new SpillableBatchList(context, "window", config.getOperatorId(), spillThreshold);
+  }
+
+  public enum Metric implements MetricDef {
+    SPILL_COUNT,             // number of times batches were spilled to disk
+    BATCHES_SPILLED,         // total number of batches spilled
+    TOTAL_SPILLED_DATA_SIZE, // total data spilled by window operator
+    SPILL_TIME_NANOS,        // time spent spilling batches
+    READ_TIME_NANOS;         // time spent reading back spilled batches
+
+    @Override
+    public int metricId() {
+      return ordinal();
+    }
   }
 
   @Override
@@ -157,8 +177,7 @@ public class WindowFrameOperator implements SingleInputOperator {
     }
 
     // we can safely free the current batch
-    current.close();
-    batches.remove(0);
+    batches.removeFirst();
 
     logger.trace("doWork() END");
     return recordCount;
@@ -335,15 +354,26 @@ public class WindowFrameOperator implements SingleInputOperator {
 
   @Override
   public void close() throws Exception {
+    // the spill counters are read from the batch list, record them before it is closed
+    updateStats();
     List<AutoCloseable> closeables = new ArrayList<>();
     closeables.add(outgoing);
     if (framers != null) {
       closeables.addAll(Arrays.asList(framers));
     }
-    closeables.addAll(batches);
+    closeables.add(batches);
     AutoCloseables.close(closeables);
   }
 
+  private void updateStats() {
+    final OperatorStats stats = context.getStats();
+    stats.setLongStat(Metric.SPILL_COUNT, batches.getSpillCount());
+    stats.setLongStat(Metric.BATCHES_SPILLED, batches.getBatchesSpilled());
+    stats.setLongStat(Metric.TOTAL_SPILLED_DATA_SIZE, batches.getSpilledDataSize());
+    stats.setLongStat(Metric.SPILL_TIME_NANOS, batches.getSpillTimeNanos());
+    stats.setLongStat(Metric.READ_TIME_NANOS, batches.getReadTimeNanos());
+  }
+
   public static class Creator implements SingleInputOperator.Creator<WindowPOP>{
 
     @Override
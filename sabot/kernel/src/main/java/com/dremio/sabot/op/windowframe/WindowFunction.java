@@ -182,7 +182,8 @@ public abstract class WindowFunction {
 
     @Override
     public boolean canDoWork(int numBatchesAvailable, WindowPOP pop, boolean frameEndReached, boolean partitionEndReached) {
-      return partitionEndReached || (!requiresFullPartition(pop) && frameEndReached);
+      // a ROWS frame ends at the current row, so unlike a RANGE frame there is no need to wait for its last peer row
+      return partitionEndReached || (!requiresFullPartition(pop) && (pop.isFrameUnitsRows() || frameEndReached));
     }
 
     @Override
@@ -509,7 +510,8 @@ public abstract class WindowFunction {
 
     @Override
     public boolean canDoWork(int numBatchesAvailable, WindowPOP pop, boolean frameEndReached, boolean partitionEndReached) {
-      return partitionEndReached || (!requiresFullPartition(pop) && frameEndReached);
+      // a ROWS frame ends at the current row, so unlike a RANGE frame there is no need to wait for its last peer row
+      return partitionEndReached || (!requiresFullPartition(pop) && (pop.isFrameUnitsRows() || frameEndReached));
     }
 
     @Override
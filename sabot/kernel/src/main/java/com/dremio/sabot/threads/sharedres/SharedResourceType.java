@@ -27,6 +27,7 @@ public enum SharedResourceType {
   NWAY_RECV_MEM_BUFFER(SharedResourceCategory.UPSTREAM),
   NWAY_RECV_SPOOL_BUFFER(SharedResourceCategory.UPSTREAM),
   OUTGOING_MSG_ACK(SharedResourceCategory.DOWNSTREAM),
+  SHARED_JOIN_BUILD(SharedResourceCategory.UPSTREAM),
   TEST(SharedResourceCategory.OTHER);
 
   SharedResourceType(SharedResourceCategory category) {
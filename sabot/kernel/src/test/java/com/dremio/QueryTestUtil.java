@@ -15,28 +15,60 @@
  */
 package com.dremio;
 
+import static com.dremio.exec.util.ImpersonationUtil.getProcessUserName;
+
+import java.util.Collections;
 import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import org.apache.arrow.memory.OutOfMemoryException;
 
 import com.dremio.BaseTestQuery.SilentListener;
+import com.dremio.common.AutoCloseables;
+import com.dremio.common.CloseableByteBuf;
 import com.dremio.common.config.SabotConfig;
 import com.dremio.common.util.TestTools;
 import com.dremio.common.utils.SqlUtils;
+import com.dremio.common.utils.protos.ExternalIdHelper;
+import com.dremio.common.utils.protos.QueryWritableBatch;
 import com.dremio.exec.ExecConstants;
 import com.dremio.exec.client.DremioClient;
 import com.dremio.exec.client.PrintingResultsListener;
 import com.dremio.exec.client.QuerySubmitter.Format;
+import com.dremio.exec.planner.observer.AbstractAttemptObserver;
+import com.dremio.exec.planner.observer.AttemptObserver;
+import com.dremio.exec.planner.observer.QueryObserver;
+import com.dremio.exec.proto.GeneralRPCProtos.Ack;
+import com.dremio.exec.proto.UserBitShared.CoreOperatorType;
+import com.dremio.exec.proto.UserBitShared.MajorFragmentProfile;
+import com.dremio.exec.proto.UserBitShared.MetricValue;
+import com.dremio.exec.proto.UserBitShared.MinorFragmentProfile;
+import com.dremio.exec.proto.UserBitShared.OperatorProfile;
+import com.dremio.exec.proto.UserBitShared.QueryProfile;
 import com.dremio.exec.proto.UserBitShared.QueryType;
+import com.dremio.exec.proto.UserProtos.RunQuery;
+import com.dremio.exec.proto.UserProtos.SubmissionSource;
+import com.dremio.exec.rpc.Acks;
 import com.dremio.exec.rpc.RpcException;
+import com.dremio.exec.rpc.RpcOutcomeListener;
 import com.dremio.exec.util.VectorUtil;
+import com.dremio.exec.work.AttemptId;
+import com.dremio.exec.work.protector.UserResult;
+import com.dremio.exec.work.user.LocalExecutionConfig;
+import com.dremio.exec.work.user.LocalQueryExecutor;
+import com.dremio.exec.work.user.SubstitutionSettings;
+import com.dremio.proto.model.attempts.AttemptReason;
+import com.dremio.sabot.exec.context.MetricDef;
 import com.dremio.sabot.rpc.user.AwaitableUserResultsListener;
 import com.dremio.sabot.rpc.user.QueryDataBatch;
 import com.dremio.sabot.rpc.user.UserResultsListener;
 import com.dremio.service.coordinator.ClusterCoordinator;
+import com.google.common.collect.Lists;
+
+import io.netty.buffer.ByteBuf;
 
 /**
  * Utilities useful for tests that issue SQL queries.
@@ -163,4 +195,100 @@ public class QueryTestUtil {
     final String query = QueryTestUtil.normalizeQuery(queryString);
     client.runQuery(type, query, resultListener);
   }
+
+  /**
+   * Runs a single query through the given local query executor, discarding its results.
+   *
+   * @param executor local query executor of a node
+   * @param query the query string
+   * @param resultsStorePath path of the table the query results are stored in
+   * @return the profile of the completed query
+   */
+  public static QueryProfile getQueryProfile(final LocalQueryExecutor executor, final String query,
+      final String resultsStorePath) throws Exception {
+    final LocalExecutionConfig config = LocalExecutionConfig.newBuilder()
+      .setEnableLeafLimits(false)
+      .setFailIfNonEmptySent(false)
+      .setUsername(getProcessUserName())
+      .setSqlContext(Collections.<String>emptyList())
+      .setInternalSingleThreaded(false)
+      .setQueryResultsStorePath(resultsStorePath)
+      .setAllowPartitionPruning(true)
+      .setExposeInternalSources(false)
+      .setSubstitutionSettings(SubstitutionSettings.of())
+      .build();
+
+    final RunQuery queryCmd = RunQuery
+      .newBuilder()
+      .setType(QueryType.SQL)
+      .setSource(SubmissionSource.LOCAL)
+      .setPlan(query)
+      .build();
+
+    final ProfileGrabber grabber = new ProfileGrabber();
+    executor.submitLocalQuery(ExternalIdHelper.generateExternalId(), grabber, queryCmd, false, config);
+    return grabber.getProfile();
+  }
+
+  /**
+   * @return sum of the given metric over all the operators of the given type in the query profile
+   */
+  public static long getOperatorMetric(final QueryProfile profile, final CoreOperatorType operatorType,
+      final MetricDef metric) {
+    long value = 0;
+    for (MajorFragmentProfile major : profile.getFragmentProfileList()) {
+      for (MinorFragmentProfile minor : major.getMinorFragmentProfileList()) {
+        for (OperatorProfile operator : minor.getOperatorProfileList()) {
+          if (operator.getOperatorType() != operatorType.getNumber()) {
+            continue;
+          }
+          for (MetricValue metricValue : operator.getMetricList()) {
+            if (metricValue.getMetricId() == metric.metricId()) {
+              value += metricValue.getLongValue();
+            }
+          }
+        }
+      }
+    }
+    return value;
+  }
+
+  /**
+   * Discards the results of a query and keeps its profile once completed.
+   */
+  private static class ProfileGrabber implements QueryObserver {
+    private final CountDownLatch latch = new CountDownLatch(1);
+    private QueryProfile profile;
+
+    @Override
+    public AttemptObserver newAttempt(AttemptId attemptId, AttemptReason reason) {
+      return new AbstractAttemptObserver() {
+        @Override
+        public void execDataArrived(RpcOutcomeListener<Ack> outcomeListener, QueryWritableBatch result) {
+          final List<AutoCloseable> buffers = Lists.newArrayList();
+          for (ByteBuf buffer : result.getBuffers()) {
+            buffers.add(new CloseableByteBuf(buffer));
+          }
+          try {
+            AutoCloseables.close(buffers);
+          } catch (Exception e) {
+            outcomeListener.failed(new RpcException(e));
+            return;
+          }
+          outcomeListener.success(Acks.OK, null);
+        }
+      };
+    }
+
+    @Override
+    public void execCompletion(UserResult result) {
+      profile = result.getProfile();
+      latch.countDown();
+    }
+
+    QueryProfile getProfile() throws InterruptedException {
+      latch.await();
+      return profile;
+    }
+  }
 }
@@ -17,6 +17,8 @@ package com.dremio;
 
 import org.junit.Test;
 
+import com.dremio.exec.planner.physical.PlannerSettings;
+
 /**
  * Tests functions that are present only in Gandiva.
  * Assumes that code-gen includes Gandiva generation.
@@ -32,4 +34,20 @@ public class TestGandivaOnlyQueries extends BaseTestQuery {
         .baselineValues(true)
         .go();
   }
+
+  @Test
+  public void testGandivaOnlyFunctionOverSelectionVector() throws Exception {
+    final String query = "select starts_with(n_name, 'UNITED') as c from cp.\"tpch/nation.parquet\" where n_regionkey = 1";
+    try (AutoCloseable c = withOption(PlannerSettings.ENABLE_PROJECT_SV2_INPUT, true)) {
+      testBuilder().sqlQuery(query)
+        .unOrdered()
+        .baselineColumns("c")
+        .baselineValues(false)
+        .baselineValues(false)
+        .baselineValues(false)
+        .baselineValues(false)
+        .baselineValues(true)
+        .go();
+    }
+  }
 }
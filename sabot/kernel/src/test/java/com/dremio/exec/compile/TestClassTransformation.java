@@ -23,7 +23,9 @@ import java.io.IOException;
 import org.codehaus.commons.compiler.CompileException;
 import org.junit.Assert;
 import org.junit.BeforeClass;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 import com.dremio.BaseTestQuery;
 import com.dremio.exec.compile.ClassTransformer.ClassSet;
@@ -46,6 +48,9 @@ public class TestClassTransformation extends BaseTestQuery {
 
   private static SessionOptionManager sessionOptions;
 
+  @Rule
+  public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
   @BeforeClass
   public static void beforeTestClassTransformation() throws Exception {
     final UserSession userSession = UserSession.Builder.newBuilder()
@@ -109,6 +114,35 @@ public class TestClassTransformation extends BaseTestQuery {
     logger.debug("Optimized code is {}% smaller than debug code.", (int)((sizeWithDebug - sizeWithoutDebug)/(double)sizeWithDebug*100));
   }
 
+  @Test
+  public void testPersistentClassCache() throws Exception {
+    final PersistentClassCache cache = new PersistentClassCache(temporaryFolder.newFolder().toPath(), null, "test",
+      Long.MAX_VALUE);
+    final ClassTransformer ct = new ClassTransformer(sessionOptions);
+    final ClassCompilerSelector classCompilerSelector = new ClassCompilerSelector(DEFAULT_SABOT_CONFIG, sessionOptions);
+
+    final CodeGenerator<ExampleInner> cg = newCodeGenerator(ExampleInner.class, ExampleTemplateWithInner.class);
+    cg.generate();
+    Assert.assertNull(cache.get(cg));
+    try (QueryClassLoader loader = new QueryClassLoader(classCompilerSelector)) {
+      final ClassBytes[] classes = ct.compile(loader, cg.getDefinition(), cg.getGeneratedCode(), cg.getMaterializedClassName());
+      cache.put(cg, new PersistentClassCache.Entry(cg.getMaterializedClassName(), classes, 10));
+    }
+
+    // an equivalent generator gets the classes compiled for the first one
+    final CodeGenerator<ExampleInner> other = newCodeGenerator(ExampleInner.class, ExampleTemplateWithInner.class);
+    other.generate();
+    final PersistentClassCache.Entry entry = cache.get(other);
+    Assert.assertNotNull(entry);
+    Assert.assertEquals(cg.getMaterializedClassName(), entry.getClassName());
+    try (QueryClassLoader loader = new QueryClassLoader(classCompilerSelector)) {
+      final ExampleInner t = (ExampleInner) ct.loadImplementationClass(loader, other.getDefinition(), entry.getClassName(),
+        entry.getClasses()).newInstance();
+      t.doOutside();
+      t.doInsideOutside();
+    }
+  }
+
   /**
    * Do a test of a three level class to ensure that nested code generators works correctly.
    * @throws Exception
@@ -0,0 +1,119 @@
+/*
+ * Copyright (C) 2017-2018 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.compile;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests {@link PersistentClassCache}
+ */
+public class TestPersistentClassCache {
+
+  @Rule
+  public final TemporaryFolder folder = new TemporaryFolder();
+
+  private Path local;
+  private Path shared;
+
+  @Before
+  public void setup() throws Exception {
+    local = folder.newFolder("local").toPath();
+    shared = folder.newFolder("shared").toPath();
+  }
+
+  private static PersistentClassCache.Entry entry(String className) {
+    return new PersistentClassCache.Entry(className,
+      new ClassBytes[] {new ClassBytes(className, new byte[] {1, 2, 3, 4})}, 25);
+  }
+
+  private Path localFile(String key) {
+    return local.resolve(key + ".classes");
+  }
+
+  private static void setLastModified(Path file, long millis) throws Exception {
+    Files.setLastModifiedTime(file, FileTime.fromMillis(millis));
+  }
+
+  @Test
+  public void roundTrip() {
+    final PersistentClassCache cache = new PersistentClassCache(local, null, "1.0", Long.MAX_VALUE);
+    assertNull(cache.get("k1"));
+
+    cache.put("k1", entry("Gen1"));
+    final PersistentClassCache.Entry entry = cache.get("k1");
+    assertNotNull(entry);
+    assertEquals("Gen1", entry.getClassName());
+    assertEquals(25, entry.getCompileMillis());
+    assertEquals(1, entry.getClasses().length);
+    assertEquals("Gen1", entry.getClasses()[0].getName());
+    assertArrayEquals(new byte[] {1, 2, 3, 4}, entry.getClasses()[0].getBytes());
+  }
+
+  @Test
+  public void sharedEntriesAreCopiedLocally() {
+    new PersistentClassCache(folder.getRoot().toPath().resolve("other"), shared, "1.0", Long.MAX_VALUE)
+      .put("k1", entry("Gen1"));
+
+    final PersistentClassCache cache = new PersistentClassCache(local, shared, "1.0", Long.MAX_VALUE);
+    assertFalse(Files.exists(localFile("k1")));
+    assertNotNull(cache.get("k1"));
+    assertTrue(Files.exists(localFile("k1")));
+  }
+
+  @Test
+  public void evictsLeastRecentlyUsedEntries() throws Exception {
+    final PersistentClassCache sizing = new PersistentClassCache(folder.newFolder("sizing").toPath(), null, "1.0",
+      Long.MAX_VALUE);
+    sizing.put("k0", entry("Gen1"));
+    final long entrySize = Files.size(folder.getRoot().toPath().resolve("sizing").resolve("k0.classes"));
+
+    // holds three entries, evicts down to two entries and a quarter
+    final PersistentClassCache cache = new PersistentClassCache(local, null, "1.0", 3 * entrySize);
+    cache.put("k1", entry("Gen1"));
+    cache.put("k2", entry("Gen1"));
+    setLastModified(localFile("k1"), 1000);
+    setLastModified(localFile("k2"), 2000);
+
+    // reading an entry makes it the most recently used
+    assertNotNull(cache.get("k1"));
+    cache.put("k3", entry("Gen1"));
+    setLastModified(localFile("k3"), 3000);
+    assertTrue(Files.exists(localFile("k1")));
+    assertTrue(Files.exists(localFile("k2")));
+    assertTrue(Files.exists(localFile("k3")));
+
+    cache.put("k4", entry("Gen1"));
+    assertTrue(Files.exists(localFile("k1")));
+    assertFalse(Files.exists(localFile("k2")));
+    assertFalse(Files.exists(localFile("k3")));
+    assertTrue(Files.exists(localFile("k4")));
+    assertNull(cache.get("k2"));
+  }
+}
@@ -0,0 +1,192 @@
+/*
+ * Copyright (C) 2017-2018 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.expr;
+
+import static com.dremio.sabot.Fixtures.t;
+import static com.dremio.sabot.Fixtures.th;
+import static com.dremio.sabot.Fixtures.tr;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.junit.Test;
+
+import com.dremio.common.AutoCloseables;
+import com.dremio.common.expression.FieldReference;
+import com.dremio.common.expression.LogicalExpression;
+import com.dremio.common.expression.SupportedEngines;
+import com.dremio.common.logical.data.NamedExpression;
+import com.dremio.exec.ExecConstants;
+import com.dremio.exec.physical.base.PhysicalOperator;
+import com.dremio.exec.physical.config.Filter;
+import com.dremio.exec.physical.config.Project;
+import com.dremio.exec.record.BatchSchema.SelectionVectorMode;
+import com.dremio.exec.record.VectorAccessible;
+import com.dremio.exec.record.VectorContainer;
+import com.dremio.exec.record.VectorContainerWithSV;
+import com.dremio.exec.record.selection.SelectionVector2;
+import com.dremio.sabot.BaseTestFunction;
+import com.dremio.sabot.Fixtures;
+import com.dremio.sabot.Generator;
+import com.dremio.sabot.exec.context.OperatorContextImpl;
+import com.dremio.sabot.op.filter.Filterer;
+import com.dremio.sabot.op.project.Projector;
+import com.dremio.sabot.op.sort.external.RecordBatchData;
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Tests the interpretation of java expressions while they are compiled in the background by {@link SplitStageExecutor}
+ */
+public class TestAsyncCompilation extends BaseTestFunction {
+
+  // the first two batches are identical, the first one is interpreted and the second one evaluated by compiled code
+  private final Fixtures.Table input = Fixtures.split(
+    th("c0", "c1"),
+    2,
+    tr(10, 11),
+    tr(4, 3),
+    tr(10, 11),
+    tr(4, 3),
+    tr(5, 5),
+    tr(7, 2)
+  );
+
+  private final Stopwatch javaWatch = Stopwatch.createUnstarted();
+  private final Stopwatch gandivaWatch = Stopwatch.createUnstarted();
+
+  private OperatorContextImpl newContext(PhysicalOperator pop) throws Exception {
+    final BufferAllocator allocator = getTestAllocator().newChildAllocator(pop.getClass().getSimpleName(), 0, Long.MAX_VALUE);
+    testCloseables.add(allocator);
+    final OperatorContextImpl context = testContext.getNewOperatorContext(allocator, pop, 2);
+    testCloseables.add(context);
+    return context;
+  }
+
+  private ExpressionEvaluationOptions javaOptions() {
+    final ExpressionEvaluationOptions options = new ExpressionEvaluationOptions(testContext.getOptions());
+    options.setCodeGenOption(SupportedEngines.CodeGenOption.Java.toString());
+    return options;
+  }
+
+  @Test
+  public void projectInterpretedUntilCompiled() throws Exception {
+    final LogicalExpression expr = toExpr("case when c0 > c1 then c0 - c1 else c1 + c0 end");
+    final OperatorContextImpl context = newContext(new Project(Arrays.asList(new NamedExpression(expr, new FieldReference("out"))), null));
+    final ExpressionEvaluationOptions options = javaOptions();
+
+    final List<RecordBatchData> data = new ArrayList<>();
+    try (AutoCloseable async = with(ExecConstants.ASYNC_COMPILATION_ENABLED, true);
+         Generator generator = input.toGenerator(getTestAllocator());
+         VectorContainer output = context.createOutputVectorContainer();
+         ExpressionSplitter splitter = new ExpressionSplitter(context, generator.getOutput(), options)) {
+      final LogicalExpression materialized = context.getClassProducer().materializeAndAllowComplex(options, expr, generator.getOutput());
+      splitter.addExpr(output, new NamedExpression(materialized, new FieldReference("out")));
+      splitter.setupProjector(output, javaWatch, gandivaWatch);
+      output.buildSchema(SelectionVectorMode.NONE);
+
+      final SplitStageExecutor executor = splitter.execPipeline.get(0);
+      assertNotNull("java splits should be compiled in the background", executor.pendingJavaProjector);
+      assertNull(executor.javaProjector);
+
+      // holds the compiled class back until the first batch is interpreted
+      final CompletableFuture<Projector> compiled = executor.pendingJavaProjector;
+      final CompletableFuture<Projector> gate = new CompletableFuture<>();
+      executor.pendingJavaProjector = gate;
+
+      int count = generator.next(2);
+      splitter.projectRecords(count, javaWatch, gandivaWatch);
+      output.setRecordCount(count);
+      data.add(new RecordBatchData(output, getTestAllocator()));
+      assertNull("first batch should be interpreted", executor.javaProjector);
+
+      gate.complete(compiled.get());
+      while ((count = generator.next(2)) != 0) {
+        splitter.projectRecords(count, javaWatch, gandivaWatch);
+        output.setRecordCount(count);
+        data.add(new RecordBatchData(output, getTestAllocator()));
+        assertNotNull("next batches should be evaluated by compiled code", executor.javaProjector);
+        assertNull(executor.pendingJavaProjector);
+      }
+
+      t(th("out"), tr(21), tr(1), tr(21), tr(1), tr(10), tr(5)).checkValid(data);
+    } finally {
+      AutoCloseables.close(data);
+    }
+  }
+
+  @Test
+  public void filterInterpretedUntilCompiled() throws Exception {
+    final LogicalExpression expr = toExpr("c0 > c1");
+    final OperatorContextImpl context = newContext(new Filter(null, expr, 1f));
+    final ExpressionEvaluationOptions options = javaOptions();
+
+    try (AutoCloseable async = with(ExecConstants.ASYNC_COMPILATION_ENABLED, true);
+         Generator generator = input.toGenerator(getTestAllocator());
+         VectorContainerWithSV output = context.createOutputVectorContainerWithSV();
+         ExpressionSplitter splitter = new ExpressionSplitter(context, generator.getOutput(), options)) {
+      final VectorAccessible incoming = generator.getOutput();
+      splitter.setupFilter(context.getClassProducer().materializeAndAllowComplex(options, expr, incoming), output,
+        javaWatch, gandivaWatch);
+
+      final SplitStageExecutor executor = splitter.execPipeline.get(splitter.execPipeline.size() - 1);
+      assertTrue("filter should be compiled in the background",
+        executor.filterFunction instanceof SplitStageExecutor.InterpretedTimedFilter);
+      final SplitStageExecutor.InterpretedTimedFilter filter = (SplitStageExecutor.InterpretedTimedFilter) executor.filterFunction;
+
+      // holds the compiled class back until the first batch is interpreted
+      final CompletableFuture<Filterer> compiled = filter.pendingFilter;
+      final CompletableFuture<Filterer> gate = new CompletableFuture<>();
+      filter.pendingFilter = gate;
+
+      final List<List<Integer>> selected = new ArrayList<>();
+      selected.add(filterNext(generator, splitter, output.getSelectionVector2()));
+      assertNull("first batch should be interpreted", filter.javaFilter);
+
+      gate.complete(compiled.get());
+      List<Integer> next;
+      while ((next = filterNext(generator, splitter, output.getSelectionVector2())) != null) {
+        selected.add(next);
+        assertNotNull("next batches should be evaluated by compiled code", filter.javaFilter);
+        assertNull(filter.pendingFilter);
+      }
+
+      assertEquals(ImmutableList.of(ImmutableList.of(1), ImmutableList.of(1), ImmutableList.of(1)), selected);
+    }
+  }
+
+  // filters the next batch, returns the selected indices or null if there is no more data
+  private List<Integer> filterNext(Generator generator, ExpressionSplitter splitter, SelectionVector2 sv2) throws Exception {
+    final int count = generator.next(2);
+    if (count == 0) {
+      return null;
+    }
+
+    final int selectedCount = splitter.filterData(count, javaWatch, gandivaWatch);
+    final List<Integer> selected = new ArrayList<>();
+    for (int i = 0; i < selectedCount; i++) {
+      selected.add((int) sv2.getIndex(i));
+    }
+    return selected;
+  }
+}
@@ -15,7 +15,11 @@
  */
 package com.dremio.exec.physical.impl.window;
 
+import static com.dremio.QueryTestUtil.getOperatorMetric;
+import static com.dremio.QueryTestUtil.getQueryProfile;
+import static java.lang.String.format;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import org.junit.Test;
@@ -23,8 +27,12 @@ import org.junit.Test;
 import com.dremio.BaseTestQuery;
 import com.dremio.common.exceptions.UserRemoteException;
 import com.dremio.common.util.TestTools;
+import com.dremio.exec.ExecConstants;
+import com.dremio.exec.proto.UserBitShared.CoreOperatorType;
 import com.dremio.exec.proto.UserBitShared.DremioPBError.ErrorType;
+import com.dremio.exec.proto.UserBitShared.QueryProfile;
 import com.dremio.sabot.op.windowframe.Partition;
+import com.dremio.sabot.op.windowframe.WindowFrameOperator.Metric;
 
 public class TestWindowFrame extends BaseTestQuery {
 
@@ -92,6 +100,37 @@ public class TestWindowFrame extends BaseTestQuery {
       .run();
   }
 
+  @Test
+  public void testSpillBatches() throws Exception {
+    final String table = "dfs.\""+TEST_RES_PATH+"/window/b4.p4\"";
+    // spill all batches between the first and the last one as soon as they are buffered, with small enough batches
+    // for every partition to span several of them. Set as system options so they also apply to the query run to get
+    // the profile
+    try (AutoCloseable option1 = withSystemOption(ExecConstants.WINDOW_SPILL_THRESHOLD_BYTES, 1);
+         AutoCloseable option2 = withSystemOption(ExecConstants.TARGET_BATCH_RECORDS_MIN, 4);
+         AutoCloseable option3 = withSystemOption(ExecConstants.TARGET_BATCH_RECORDS_MAX, 4)) {
+      testBuilder()
+        .sqlQuery(getFile("window/q3.sql"), TEST_RES_PATH)
+        .ordered()
+        .sqlBaselineQuery(getFile("window/q4.sql"), TEST_RES_PATH)
+        .build()
+        .run();
+
+      testBuilder()
+        .sqlQuery(getFile("window/aggregate_range_current_current.sql"), table)
+        .unOrdered()
+        .sqlBaselineQuery(getFile("window/aggregate_range_current_current_baseline.sql"), table)
+        .build()
+        .run();
+
+      final QueryProfile profile = getQueryProfile(getLocalQueryExecutor(),
+          String.format(getFile("window/q3.sql"), TEST_RES_PATH), format("%s.\"%s\"", TEMP_SCHEMA, "windowFrame"));
+      assertTrue(getOperatorMetric(profile, CoreOperatorType.WINDOW, Metric.SPILL_COUNT) > 0);
+      assertTrue(getOperatorMetric(profile, CoreOperatorType.WINDOW, Metric.BATCHES_SPILLED) > 0);
+      assertTrue(getOperatorMetric(profile, CoreOperatorType.WINDOW, Metric.TOTAL_SPILLED_DATA_SIZE) > 0);
+    }
+  }
+
   @Test // DRILL-1862
   public void testEmptyPartitionBy() throws Exception {
     test("SELECT employee_id, position_id, salary, SUM(salary) OVER(ORDER BY position_id) FROM cp.\"employee.json\" LIMIT 10");
@@ -162,7 +201,6 @@ public class TestWindowFrame extends BaseTestQuery {
       .run();
   }
 
-
   @Test
   public void testLag() throws Exception {
     testBuilder()
@@ -16,22 +16,32 @@
 package com.dremio.exec.planner.acceleration;
 
 
+import static org.junit.Assert.assertEquals;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.util.List;
+import java.util.Set;
+
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
+import com.dremio.exec.planner.PlanCaptureAttemptObserver;
+import com.dremio.exec.planner.observer.AttemptObserver;
 import com.dremio.exec.planner.sql.SqlConverter;
 import com.dremio.exec.server.MaterializationDescriptorProvider;
 import com.dremio.exec.work.user.SubstitutionSettings;
 import com.dremio.sabot.rpc.user.UserSession;
+import com.google.common.base.Optional;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 
 public class TestMaterializationList {
 
@@ -82,6 +92,78 @@ public class TestMaterializationList {
     verify(included, atLeastOnce()).getMaterializationFor(converter);
   }
 
+  @Test
+  public void testListPrunesUnrelatedMaterializations() {
+    when(excluded.getMaterializationFor(converter)).thenReturn(relOptMat1);
+    when(excluded.getLayoutId()).thenReturn("rid-1");
+    when(excluded.getMaterializationId()).thenReturn("mid-1");
+    when(included.getMaterializationFor(converter)).thenReturn(relOptMat2);
+    when(included.getLayoutId()).thenReturn("rid-2");
+    when(included.getMaterializationId()).thenReturn("mid-2");
 
+    when(session.getSubstitutionSettings()).thenReturn(SubstitutionSettings.of());
+    when(provider.get()).thenReturn(ImmutableList.of(excluded, included));
+    when(provider.getDatasetDependencies(excluded))
+      .thenReturn(Optional.<Set<List<String>>>of(ImmutableSet.<List<String>>of(ImmutableList.of("space", "other"))));
+    when(provider.getDatasetDependencies(included))
+      .thenReturn(Optional.<Set<List<String>>>of(ImmutableSet.<List<String>>of(ImmutableList.of("space", "t1"))));
 
+    final MaterializationList materializations = new MaterializationList(converter, session, provider);
+    materializations.build(provider, ImmutableSet.<List<String>>of(ImmutableList.of("SPACE", "T1")));
+
+    verify(excluded, never()).getMaterializationFor(any(SqlConverter.class));
+    verify(included, atLeastOnce()).getMaterializationFor(converter);
+  }
+
+  @Test
+  public void testPrunedMaterializationsAreCountedOncePerQuery() {
+    final AttemptObserver observer = mock(AttemptObserver.class);
+    when(converter.getObserver()).thenReturn(observer);
+    when(excluded.getMaterializationFor(converter)).thenReturn(relOptMat1);
+    when(excluded.getLayoutId()).thenReturn("rid-1");
+    when(excluded.getMaterializationId()).thenReturn("mid-1");
+    when(included.getMaterializationFor(converter)).thenReturn(relOptMat2);
+    when(included.getLayoutId()).thenReturn("rid-2");
+    when(included.getMaterializationId()).thenReturn("mid-2");
+
+    when(session.getSubstitutionSettings()).thenReturn(SubstitutionSettings.of());
+    when(provider.get()).thenReturn(ImmutableList.of(excluded, included));
+    when(provider.getDatasetDependencies(excluded))
+      .thenReturn(Optional.<Set<List<String>>>of(ImmutableSet.<List<String>>of(ImmutableList.of("space", "other"))));
+    when(provider.getDatasetDependencies(included))
+      .thenReturn(Optional.<Set<List<String>>>of(ImmutableSet.<List<String>>of(ImmutableList.of("space", "t1"))));
+
+    final MaterializationList materializations = new MaterializationList(converter, session, provider);
+    // same tables on every substitution pass: counts don't grow
+    materializations.build(provider, ImmutableSet.<List<String>>of(ImmutableList.of("space", "t1")));
+    materializations.build(provider, ImmutableSet.<List<String>>of(ImmutableList.of("space", "t1")));
+    verify(observer, times(2)).planMaterializationsPruned(1, 1);
+
+    // a materialization pruned by a previous pass and considered by this one is only counted as considered
+    materializations.build(provider, ImmutableSet.<List<String>>of(ImmutableList.of("space", "other")));
+    verify(observer).planMaterializationsPruned(2, 0);
+
+    // each materialization is expanded at most once
+    verify(excluded, times(1)).getMaterializationFor(converter);
+    verify(included, times(1)).getMaterializationFor(converter);
+  }
+
+  @Test
+  public void testFindMaterializationsIsReportedOncePerQuery() {
+    final PlanCaptureAttemptObserver observer = new PlanCaptureAttemptObserver(false, false, null, null);
+    when(converter.getObserver()).thenReturn(observer);
+    when(included.getMaterializationFor(converter)).thenReturn(relOptMat1);
+    when(included.getLayoutId()).thenReturn("rid-1");
+    when(included.getMaterializationId()).thenReturn("mid-1");
+    when(session.getSubstitutionSettings()).thenReturn(SubstitutionSettings.of());
+    when(provider.get()).thenReturn(ImmutableList.of(included));
+
+    final MaterializationList materializations = new MaterializationList(converter, session, provider);
+    materializations.build(provider, ImmutableSet.<List<String>>of(ImmutableList.of("space", "t1")));
+    materializations.build(provider, ImmutableSet.<List<String>>of(ImmutableList.of("space", "t1")));
+
+    // each pass reports the total so far, the profile keeps a single phase
+    assertEquals(1, observer.getPlanPhases().size());
+    assertEquals("Find Materializations", observer.getPlanPhases().get(0).getPhaseName());
+  }
 }
@@ -17,9 +17,11 @@ package com.dremio.exec.record;
 
 import org.apache.arrow.memory.BufferAllocator;
 import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.BigIntVector;
 import org.apache.arrow.vector.complex.ListVector;
 import org.apache.arrow.vector.complex.impl.UnionListWriter;
 import org.apache.arrow.vector.complex.writer.BaseWriter.StructWriter;
+import org.junit.Assert;
 import org.junit.Test;
 
 import com.dremio.exec.proto.UserBitShared.QueryId;
@@ -72,4 +74,48 @@ public class TestArrowRecordBatchLoader {
       buffer.release();
     }
   }
+  @Test
+  public void localBuffers() {
+    try (BufferAllocator allocator = new RootAllocator(Integer.MAX_VALUE);
+         BigIntVector inVector = new BigIntVector("input", allocator)) {
+      inVector.allocateNew(3);
+      inVector.set(0, 1L);
+      inVector.setNull(1);
+      inVector.set(2, 3L);
+
+      VectorContainer container = new VectorContainer(allocator);
+      container.add(inVector);
+      container.setAllCount(3);
+      container.buildSchema();
+
+      FragmentWritableBatch fragmentWritableBatch = FragmentWritableBatch.create(QueryId.getDefaultInstance(), 0, 0, 0, container, 0);
+
+      // hand the sent buffers over without assembling them in a single body, as done for fragments of the same node
+      ByteBuf[] buffers = fragmentWritableBatch.getBuffers();
+      ArrowBuf[] arrowBuffers = new ArrowBuf[buffers.length];
+      for (int i = 0; i < buffers.length; i++) {
+        arrowBuffers[i] = (ArrowBuf) buffers[i];
+      }
+      RawFragmentBatch rawFragmentBatch = new RawFragmentBatch(fragmentWritableBatch.getHeader(), arrowBuffers, null);
+      for (ByteBuf buf : buffers) {
+        buf.release();
+      }
+      container.zeroVectors();
+
+      try (VectorContainer outContainer = new VectorContainer(allocator)) {
+        outContainer.addOrGet(inVector.getField());
+        outContainer.buildSchema();
+        ArrowRecordBatchLoader loader = new ArrowRecordBatchLoader(outContainer);
+        loader.load(rawFragmentBatch);
+        rawFragmentBatch.close();
+
+        BigIntVector outVector = (BigIntVector) outContainer.getValueAccessorById(BigIntVector.class, 0).getValueVector();
+        Assert.assertEquals(3, loader.getRecordCount());
+        Assert.assertEquals(1L, outVector.get(0));
+        Assert.assertTrue(outVector.isNull(1));
+        Assert.assertEquals(3L, outVector.get(2));
+      }
+      container.close();
+    }
+  }
 }
@@ -100,6 +100,7 @@ import com.dremio.sabot.exec.context.OpProfileDef;
 import com.dremio.sabot.exec.context.OperatorContext;
 import com.dremio.sabot.exec.context.OperatorContextImpl;
 import com.dremio.sabot.exec.context.OperatorStats;
+import com.dremio.sabot.exec.context.SharedPhaseState;
 import com.dremio.sabot.exec.fragment.FragmentExecutionContext;
 import com.dremio.sabot.exec.rpc.TunnelProvider;
 import com.dremio.sabot.op.common.spill.SpillServiceOptionsImpl;
@@ -112,6 +113,7 @@ import com.dremio.sabot.op.spi.Operator.MasterState;
 import com.dremio.sabot.op.spi.Operator.OperatorState;
 import com.dremio.sabot.op.spi.SingleInputOperator;
 import com.dremio.sabot.op.spi.SingleInputOperator.State;
+import com.dremio.sabot.threads.sharedres.SharedResourceGroup;
 import com.dremio.service.namespace.NamespaceService;
 import com.dremio.service.namespace.NamespaceServiceImpl;
 import com.dremio.service.scheduler.SchedulerService;
@@ -346,6 +348,15 @@ public class BaseTestOperator extends ExecTest {
     }
 
     public OperatorContextImpl getNewOperatorContext(BufferAllocator child, PhysicalOperator pop, int targetBatchSize) throws Exception {
+      return getNewOperatorContext(child, pop, targetBatchSize, null);
+    }
+
+    public OperatorContextImpl getNewOperatorContext(BufferAllocator child, PhysicalOperator pop, int targetBatchSize, SharedPhaseState sharedPhaseState) throws Exception {
+      return getNewOperatorContext(child, pop, targetBatchSize, sharedPhaseState, null);
+    }
+
+    public OperatorContextImpl getNewOperatorContext(BufferAllocator child, PhysicalOperator pop, int targetBatchSize,
+        SharedPhaseState sharedPhaseState, SharedResourceGroup sharedResourceGroup) throws Exception {
       OperatorStats stats = new OperatorStats(new OpProfileDef(1, 1, 1), child);
       final NamespaceService namespaceService = new NamespaceServiceImpl(testContext.storeProvider);
       final DremioConfig dremioConfig = DremioConfig.create(null, config);
@@ -381,7 +392,9 @@ public class BaseTestOperator extends ExecTest {
           NodeDebugContextProvider.NOOP,
           targetBatchSize,
           Mockito.mock(TunnelProvider.class),
-          ImmutableList.of()
+          ImmutableList.of(),
+          sharedPhaseState,
+          sharedResourceGroup
           );
     }
 
@@ -395,7 +408,7 @@ public class BaseTestOperator extends ExecTest {
     }
     @Override
     public void close() throws Exception {
-      AutoCloseables.close(options, provider, storeProvider, allocator, executor);
+      AutoCloseables.close(compiler, options, provider, storeProvider, allocator, executor);
     }
 
     /**
@@ -552,16 +565,16 @@ public class BaseTestOperator extends ExecTest {
     validateSingle(pop, clazz, generator, result, batchSize, expectedCount);
   }
 
-  protected <T extends SingleInputOperator> void validateSingle(PhysicalOperator pop, Class<T> clazz, Fixtures.Table input, Fixtures.Table result) throws Exception {
-    validateSingle(pop, clazz, input.toGenerator(getTestAllocator()), result, DEFAULT_BATCH);
+  protected <T extends SingleInputOperator> OperatorStats validateSingle(PhysicalOperator pop, Class<T> clazz, Fixtures.Table input, Fixtures.Table result) throws Exception {
+    return validateSingle(pop, clazz, input.toGenerator(getTestAllocator()), result, DEFAULT_BATCH);
   }
 
-  protected <T extends SingleInputOperator> void validateSingle(PhysicalOperator pop, Class<T> clazz, Fixtures.Table input, Fixtures.Table result, int batchSize) throws Exception {
-    validateSingle(pop, clazz, input.toGenerator(getTestAllocator()), result, batchSize);
+  protected <T extends SingleInputOperator> OperatorStats validateSingle(PhysicalOperator pop, Class<T> clazz, Fixtures.Table input, Fixtures.Table result, int batchSize) throws Exception {
+    return validateSingle(pop, clazz, input.toGenerator(getTestAllocator()), result, batchSize);
   }
 
-  protected <T extends SingleInputOperator> void validateSingle(PhysicalOperator pop, Class<T> clazz, Generator generator, Fixtures.Table result, int batchSize) throws Exception {
-    validateSingle(pop, clazz, generator, result, batchSize, null);
+  protected <T extends SingleInputOperator> OperatorStats validateSingle(PhysicalOperator pop, Class<T> clazz, Generator generator, Fixtures.Table result, int batchSize) throws Exception {
+    return validateSingle(pop, clazz, generator, result, batchSize, null);
   }
 
   private <T extends SingleInputOperator> OperatorStats validateSingle(PhysicalOperator pop, Class<T> clazz, Generator generator, Fixtures.Table result, int batchSize, Long expected) throws Exception {
@@ -626,9 +639,10 @@ public class BaseTestOperator extends ExecTest {
    * @param batchSize The target record batch size.
    * @param result The expected result.
    * @param isProduceRequired whether CAN_PRODUCE state should be called or not
+   * @return The stats of the operator.
    * @throws Exception
    */
-  protected <T extends DualInputOperator> void validateDual(
+  protected <T extends DualInputOperator> OperatorStats validateDual(
       PhysicalOperator pop,
       Class<T> clazz,
       Generator left,
@@ -644,7 +658,8 @@ public class BaseTestOperator extends ExecTest {
         ){
 
       // op is added to closeable list and will be closed when test finished. no need to close here.
-      T op = newOperator(clazz, pop, batchSize);
+      final Pair<T, OperatorStats> pair = newOperatorWithStats(clazz, pop, batchSize);
+      T op = pair.first;
 
       final VectorAccessible output = op.setup(leftGen.getOutput(), right.getOutput());
 
@@ -687,6 +702,7 @@ public class BaseTestOperator extends ExecTest {
       }
       result.checkValid(data);
 
+      return pair.second;
     } finally {
       AutoCloseables.close(data);
     }
@@ -701,9 +717,10 @@ public class BaseTestOperator extends ExecTest {
    * @param right The generator to provide the right input.
    * @param batchSize The target record batch size.
    * @param result The expected result.
+   * @return The stats of the operator.
    * @throws Exception
    */
-  protected <T extends DualInputOperator> void validateDual(
+  protected <T extends DualInputOperator> OperatorStats validateDual(
     PhysicalOperator pop,
     Class<T> clazz,
     Generator left,
@@ -711,7 +728,7 @@ public class BaseTestOperator extends ExecTest {
     int batchSize,
     Table result) throws Exception {
 
-    validateDual(pop, clazz, left, right, batchSize, result, true);
+    return validateDual(pop, clazz, left, right, batchSize, result, true);
   }
 
     public static void assertState(Operator operator, MasterState state){
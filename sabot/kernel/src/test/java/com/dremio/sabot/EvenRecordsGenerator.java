@@ -0,0 +1,82 @@
+/*
+ * Copyright (C) 2017-2018 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.ValueVector;
+import org.apache.arrow.vector.util.TransferPair;
+
+import com.dremio.common.AutoCloseables;
+import com.dremio.exec.record.BatchSchema.SelectionVectorMode;
+import com.dremio.exec.record.VectorAccessible;
+import com.dremio.exec.record.VectorWrapper;
+import com.dremio.exec.record.selection.SelectionVector2;
+import com.dremio.sabot.Fixtures.Table;
+import com.dremio.sabot.op.filter.VectorContainerWithSV;
+
+/**
+ * Selects the records at even positions of each batch of a table, using a selection vector.
+ */
+public class EvenRecordsGenerator implements Generator {
+  private final Generator delegate;
+  private final SelectionVector2 sv2;
+  private final VectorContainerWithSV container;
+  private final List<TransferPair> transfers = new ArrayList<>();
+
+  public EvenRecordsGenerator(BufferAllocator allocator, Table table) {
+    this.delegate = table.toGenerator(allocator);
+    this.sv2 = new SelectionVector2(allocator);
+    this.container = new VectorContainerWithSV(allocator, sv2);
+    for (VectorWrapper<?> wrapper : delegate.getOutput()) {
+      final ValueVector vector = wrapper.getValueVector();
+      transfers.add(vector.makeTransferPair(container.addOrGet(vector.getField())));
+    }
+    container.buildSchema(SelectionVectorMode.TWO_BYTE);
+  }
+
+  @Override
+  public VectorAccessible getOutput() {
+    return container;
+  }
+
+  @Override
+  public int next(int records) {
+    final int count = delegate.next(records);
+    if (count == 0) {
+      return 0;
+    }
+
+    for (TransferPair transfer : transfers) {
+      transfer.transfer();
+    }
+    sv2.allocateNew(count);
+    int selected = 0;
+    for (int i = 0; i < count; i += 2) {
+      sv2.setIndex(selected++, i);
+    }
+    sv2.setRecordCount(selected);
+    container.setRecordCount(selected);
+    return selected;
+  }
+
+  @Override
+  public void close() throws Exception {
+    AutoCloseables.close(container, delegate);
+  }
+}
@@ -18,6 +18,7 @@ package com.dremio.sabot.aggregate.hash;
 import static com.dremio.sabot.Fixtures.t;
 import static com.dremio.sabot.Fixtures.th;
 import static com.dremio.sabot.Fixtures.tr;
+import static org.junit.Assert.assertEquals;
 
 import java.math.BigDecimal;
 import java.util.Arrays;
@@ -42,7 +43,9 @@ import com.dremio.sabot.BaseTestOperator;
 import com.dremio.sabot.Fixtures;
 import com.dremio.sabot.Fixtures.Table;
 import com.dremio.sabot.Generator;
+import com.dremio.sabot.exec.context.OperatorStats;
 import com.dremio.sabot.op.aggregate.hash.HashAggOperator;
+import com.dremio.sabot.op.aggregate.vectorized.HashAggStats;
 import com.dremio.sabot.op.aggregate.vectorized.VectorizedHashAggOperator;
 import com.dremio.sabot.op.aggregate.vectorized.nospill.VectorizedHashAggOperatorNoSpill;
 import com.dremio.test.UserExceptionMatcher;
@@ -889,6 +892,50 @@ public class TestHashAgg extends BaseTestOperator {
     validateAggGenerated(conf, inputData, expected);
   }
 
+  @Test
+  public void partialAggregationPassThrough() throws Exception {
+    final Table inputData = t(
+      th("x", "y"),
+      tr(1, 10L),
+      tr(2, 20L),
+      tr(3, 30L),
+      tr(4, 40L),
+      tr(5, 50L),
+      tr(6, 60L),
+      tr(7, 70L)
+    );
+
+    final List<NamedExpression> dim = Arrays.asList(n("x"));
+    final List<NamedExpression> measure = Arrays.asList(
+      n("sum(y)", "sum"),
+      n("count(y)", "cnt")
+    );
+
+    final Table expected = t(
+      th("x", "sum", "cnt"),
+      tr(1, 10L, 1L),
+      tr(2, 20L, 1L),
+      tr(3, 30L, 1L),
+      tr(4, 40L, 1L),
+      tr(5, 50L, 1L),
+      tr(6, 60L, 1L),
+      tr(7, 70L, 1L))
+      .orderInsensitive();
+
+    /* every key is unique, so groups are output after every batch, sampling every other batch */
+    try (AutoCloseable options1 = with(VectorizedHashAggOperator.VECTORIZED_HASHAGG_USE_SPILLING_OPERATOR, true);
+         AutoCloseable options2 = with(VectorizedHashAggOperator.VECTORIZED_HASHAGG_ADAPTIVE_PARTIAL, true);
+         AutoCloseable options3 = with(VectorizedHashAggOperator.VECTORIZED_HASHAGG_ADAPTIVE_PARTIAL_MIN_RECORDS, 1);
+         AutoCloseable options4 = with(VectorizedHashAggOperator.VECTORIZED_HASHAGG_ADAPTIVE_PARTIAL_SAMPLE_INTERVAL, 2)) {
+      final HashAggregate conf = new HashAggregate(null, dim, measure, true, 1f, true);
+      final OperatorStats stats = validateSingle(conf, VectorizedHashAggOperator.class, inputData.toGenerator(allocator), expected, 2);
+      /* switched on the first batch, sampled on the third batch and switched again on the last one */
+      assertEquals(2, stats.getLongStat(HashAggStats.Metric.PASS_THROUGH_SWITCHES));
+      /* records of the second and third batches */
+      assertEquals(4, stats.getLongStat(HashAggStats.Metric.PASS_THROUGH_RECORDS));
+    }
+  }
+
   @Test
   public void minMaxCardinalityLimit() throws Exception {
     final Table inputData = t(
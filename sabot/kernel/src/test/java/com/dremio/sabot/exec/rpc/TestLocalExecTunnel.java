@@ -0,0 +1,246 @@
+/*
+ * Copyright (C) 2017-2018 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.exec.rpc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.util.List;
+import java.util.Queue;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.BigIntVector;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InOrder;
+
+import com.dremio.common.config.SabotConfig;
+import com.dremio.exec.exception.FragmentSetupException;
+import com.dremio.exec.proto.ExecProtos.FragmentHandle;
+import com.dremio.exec.proto.ExecRPC.FragmentStreamComplete;
+import com.dremio.exec.proto.GeneralRPCProtos.Ack;
+import com.dremio.exec.proto.UserBitShared.QueryId;
+import com.dremio.exec.record.ArrowRecordBatchLoader;
+import com.dremio.exec.record.FragmentWritableBatch;
+import com.dremio.exec.record.VectorContainer;
+import com.dremio.exec.rpc.Acks;
+import com.dremio.exec.rpc.RpcOutcomeListener;
+import com.dremio.sabot.exec.FragmentExecutors;
+import com.dremio.sabot.op.receiver.RawFragmentBatch;
+import com.dremio.services.fabric.api.FabricCommandRunner;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.MoreExecutors;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * Tests {@link LocalExecTunnel}
+ */
+public class TestLocalExecTunnel {
+
+  private static final QueryId QUERY_ID = QueryId.newBuilder().setPart1(1).setPart2(2).build();
+
+  private BufferAllocator rootAllocator;
+  private BufferAllocator senderAllocator;
+  private BufferAllocator protocolAllocator;
+  private BufferAllocator receiverAllocator;
+  private FragmentExecutors executors;
+  private LocalExecTunnel tunnel;
+  private RpcOutcomeListener<Ack> listener;
+  private final List<RawFragmentBatch> received = Lists.newArrayList();
+
+  @Before
+  @SuppressWarnings("unchecked")
+  public void setUp() throws Exception {
+    rootAllocator = new RootAllocator(Long.MAX_VALUE);
+    senderAllocator = rootAllocator.newChildAllocator("sender", 0, Long.MAX_VALUE);
+    protocolAllocator = rootAllocator.newChildAllocator("protocol", 0, Long.MAX_VALUE);
+    receiverAllocator = rootAllocator.newChildAllocator("receiver", 0, Long.MAX_VALUE);
+
+    executors = mock(FragmentExecutors.class);
+    doAnswer(invocation -> {
+      final IncomingDataBatch batch = (IncomingDataBatch) invocation.getArguments()[1];
+      // same as IncomingBuffers: the reference taken when creating the batch is released once the batch is queued
+      final RawFragmentBatch rawBatch = batch.newRawFragmentBatch(receiverAllocator);
+      received.add(rawBatch);
+      rawBatch.close();
+      return null;
+    }).when(executors).handle(any(FragmentHandle.class), any(IncomingDataBatch.class));
+
+    tunnel = new LocalExecTunnel(mock(FabricCommandRunner.class),
+      new ExecProtocol(SabotConfig.create(), protocolAllocator, executors), MoreExecutors.directExecutor());
+    listener = mock(RpcOutcomeListener.class);
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    receiverAllocator.close();
+    protocolAllocator.close();
+    senderAllocator.close();
+    rootAllocator.close();
+  }
+
+  @Test
+  public void receiverSharesTheSentBuffers() throws Exception {
+    final VectorContainer container = newContainer();
+    final BigIntVector sent = (BigIntVector) container.getValueAccessorById(BigIntVector.class, 0).getValueVector();
+    final long sentDataAddress = sent.getDataBufferAddress();
+    tunnel.sendRecordBatch(listener, FragmentWritableBatch.create(QUERY_ID, 1, 0, 2, container, 0));
+
+    // the sent buffers now belong to the receiver: nothing was copied, and the sender can release its vectors
+    container.close();
+    assertEquals(0, senderAllocator.getAllocatedMemory());
+    assertEquals(0, protocolAllocator.getAllocatedMemory());
+    assertTrue(receiverAllocator.getAllocatedMemory() > 0);
+
+    assertEquals(1, received.size());
+    final RawFragmentBatch rawBatch = received.get(0);
+    assertNull(rawBatch.getBody());
+    try (VectorContainer outContainer = new VectorContainer(receiverAllocator)) {
+      outContainer.addOrGet(sent.getField());
+      outContainer.buildSchema();
+      final ArrowRecordBatchLoader loader = new ArrowRecordBatchLoader(outContainer);
+      loader.load(rawBatch);
+      rawBatch.sendOk();
+      rawBatch.close();
+
+      final BigIntVector out = (BigIntVector) outContainer.getValueAccessorById(BigIntVector.class, 0).getValueVector();
+      assertEquals(sentDataAddress, out.getDataBufferAddress());
+      assertEquals(3, loader.getRecordCount());
+      assertEquals(1L, out.get(0));
+      assertTrue(out.isNull(1));
+      assertEquals(3L, out.get(2));
+      loader.close();
+    }
+
+    verify(listener).success(eq(Acks.OK), any(ByteBuf.class));
+    assertEquals(0, receiverAllocator.getAllocatedMemory());
+  }
+
+  @Test
+  public void senderIsAckedOnceAllReceiversAreDone() throws Exception {
+    final VectorContainer container = newContainer();
+    tunnel.sendRecordBatch(listener,
+      new FragmentWritableBatch(QUERY_ID, 1, 0, 2, FragmentWritableBatch.getArrowRecordBatch(container), 0, 1));
+    container.close();
+    assertEquals(2, received.size());
+
+    // back-pressure: the sender isn't acked while a receiver still holds the batch
+    received.get(0).sendOk();
+    received.get(0).close();
+    verify(listener, never()).success(any(Ack.class), any(ByteBuf.class));
+
+    received.get(1).sendOk();
+    received.get(1).close();
+    verify(listener).success(eq(Acks.OK), any(ByteBuf.class));
+    assertEquals(0, receiverAllocator.getAllocatedMemory());
+  }
+
+  @Test
+  public void failedDeliveryIsReported() throws Exception {
+    doThrow(new FragmentSetupException("no such fragment"))
+      .when(executors).handle(any(FragmentHandle.class), any(IncomingDataBatch.class));
+
+    final VectorContainer container = newContainer();
+    tunnel.sendRecordBatch(listener, FragmentWritableBatch.create(QUERY_ID, 1, 0, 2, container, 0));
+    container.close();
+
+    verify(listener).success(eq(Acks.FAIL), any(ByteBuf.class));
+    assertEquals(0, senderAllocator.getAllocatedMemory());
+    assertEquals(0, protocolAllocator.getAllocatedMemory());
+  }
+
+  @Test
+  public void streamCompleteIsDelivered() throws Exception {
+    final FragmentStreamComplete completion = FragmentStreamComplete.newBuilder()
+      .setQueryId(QUERY_ID)
+      .setSendingMajorFragmentId(1)
+      .setSendingMinorFragmentId(0)
+      .setReceivingMajorFragmentId(2)
+      .addReceivingMinorFragmentId(0)
+      .build();
+    tunnel.sendStreamComplete(listener, completion);
+
+    verify(executors).handle(FragmentHandle.newBuilder()
+      .setQueryId(QUERY_ID)
+      .setMajorFragmentId(2)
+      .setMinorFragmentId(0)
+      .build(), completion);
+    verify(listener).success(eq(Acks.OK), any(ByteBuf.class));
+  }
+
+  @Test
+  public void deliveryIsOffTheSenderThread() throws Exception {
+    final Queue<Runnable> deliveries = Lists.newLinkedList();
+    final LocalExecTunnel asyncTunnel = new LocalExecTunnel(mock(FabricCommandRunner.class),
+      new ExecProtocol(SabotConfig.create(), protocolAllocator, executors), deliveries::add);
+
+    final VectorContainer container = newContainer();
+    asyncTunnel.sendRecordBatch(listener, FragmentWritableBatch.create(QUERY_ID, 1, 0, 2, container, 0));
+    final FragmentStreamComplete completion = FragmentStreamComplete.newBuilder()
+      .setQueryId(QUERY_ID)
+      .setSendingMajorFragmentId(1)
+      .setSendingMinorFragmentId(0)
+      .setReceivingMajorFragmentId(2)
+      .addReceivingMinorFragmentId(0)
+      .build();
+    asyncTunnel.sendStreamComplete(listener, completion);
+
+    // nothing is delivered yet: the sent buffers stay with the sender until then, even once it releases its vectors
+    container.close();
+    assertTrue(senderAllocator.getAllocatedMemory() > 0);
+    assertTrue(received.isEmpty());
+
+    // messages are delivered one at a time, in the order they were sent
+    assertEquals(1, deliveries.size());
+    deliveries.remove().run();
+    assertTrue(deliveries.isEmpty());
+    assertEquals(1, received.size());
+    assertEquals(0, senderAllocator.getAllocatedMemory());
+    final InOrder inOrder = inOrder(executors);
+    inOrder.verify(executors).handle(any(FragmentHandle.class), any(IncomingDataBatch.class));
+    inOrder.verify(executors).handle(any(FragmentHandle.class), eq(completion));
+
+    received.get(0).sendOk();
+    received.get(0).close();
+    assertEquals(0, receiverAllocator.getAllocatedMemory());
+  }
+
+  private VectorContainer newContainer() {
+    final BigIntVector vector = new BigIntVector("a", senderAllocator);
+    vector.allocateNew(3);
+    vector.set(0, 1L);
+    vector.setNull(1);
+    vector.set(2, 3L);
+
+    final VectorContainer container = new VectorContainer(senderAllocator);
+    container.add(vector);
+    container.setAllCount(3);
+    container.buildSchema();
+    return container;
+  }
+}
@@ -22,8 +22,11 @@ import static com.dremio.sabot.Fixtures.tr;
 import org.junit.Test;
 
 import com.dremio.common.expression.LogicalExpression;
+import com.dremio.common.expression.SupportedEngines;
+import com.dremio.exec.ExecConstants;
 import com.dremio.exec.physical.config.Filter;
 import com.dremio.sabot.BaseTestOperator;
+import com.dremio.sabot.EvenRecordsGenerator;
 import com.dremio.sabot.Fixtures.Table;
 import com.dremio.sabot.op.filter.FilterOperator;
 
@@ -106,4 +109,32 @@ public class TestSimpleFilter extends BaseTestOperator {
 
     validateSingle(f, FilterOperator.class, input, output);
   }
+
+  @Test
+  public void gandivaFilterOverSelectionVector() throws Exception {
+    Filter f = new Filter(null, toExpr("c0 < 10"), 1f);
+    // only the records at even positions are selected, the hidden ones would pass the filter
+    Table input = t(
+      th("c0", "c1"),
+      tr(35, 0),
+      tr(1, 1),
+      tr(8, 2),
+      tr(2, 3),
+      tr(22, 4),
+      tr(3, 5),
+      tr(5, 6),
+      tr(40, 7)
+    );
+
+    // gandiva selects the second and fourth selected records, rows 2 and 6 of the input
+    Table output = t(
+      th("c0", "c1"),
+      tr(8, 2),
+      tr(5, 6)
+    );
+
+    try (AutoCloseable c = with(ExecConstants.QUERY_EXEC_OPTION, SupportedEngines.CodeGenOption.GandivaOnly.toString())) {
+      validateSingle(f, FilterOperator.class, new EvenRecordsGenerator(getTestAllocator(), input), output, DEFAULT_BATCH);
+    }
+  }
 }
@@ -0,0 +1,309 @@
+/*
+ * Copyright (C) 2017-2018 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.join.hash;
+
+import static com.dremio.sabot.Fixtures.NULL_BIGINT;
+import static com.dremio.sabot.Fixtures.NULL_VARCHAR;
+import static com.dremio.sabot.Fixtures.t;
+import static com.dremio.sabot.Fixtures.th;
+import static com.dremio.sabot.Fixtures.tr;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.OutOfMemoryException;
+import org.apache.calcite.rel.core.JoinRelType;
+import org.junit.Test;
+
+import com.dremio.common.AutoCloseables;
+import com.dremio.common.exceptions.UserException;
+import com.dremio.common.logical.data.JoinCondition;
+import com.dremio.exec.ExecConstants;
+import com.dremio.exec.physical.config.HashJoinPOP;
+import com.dremio.exec.record.VectorAccessible;
+import com.dremio.sabot.BaseTestOperator;
+import com.dremio.sabot.Fixtures.Table;
+import com.dremio.sabot.Generator;
+import com.dremio.sabot.exec.context.OperatorContextImpl;
+import com.dremio.sabot.exec.context.SharedPhaseState;
+import com.dremio.sabot.op.join.vhash.VectorizedHashJoinOperator;
+import com.dremio.sabot.op.spi.DualInputOperator.State;
+import com.dremio.sabot.op.sort.external.RecordBatchData;
+import com.dremio.sabot.threads.sharedres.SharedResourceManager;
+import com.google.common.base.Throwables;
+
+/**
+ * Tests hash joins of fragments sharing their build side: the first fragment builds it, the others probe it.
+ */
+public class TestSharedBroadcastHashJoin extends BaseTestOperator {
+
+  private static final Table LEFT = t(
+      th("l_id", "l_name"),
+      tr(1L, "a"),
+      tr(2L, "b"),
+      tr(3L, "c"),
+      tr(4L, "d")
+      );
+
+  private static final Table RIGHT = t(
+      th("r_id", "r_name"),
+      tr(1L, "x"),
+      tr(3L, "y"),
+      tr(5L, "z")
+      );
+
+  @Test
+  public void inner() throws Exception {
+    final Table expected = t(
+        th("r_id", "r_name", "l_id", "l_name"),
+        tr(1L, "x", 1L, "a"),
+        tr(3L, "y", 3L, "c")
+        );
+    validateShared(JoinRelType.INNER, expected);
+  }
+
+  @Test
+  public void left() throws Exception {
+    final Table expected = t(
+        th("r_id", "r_name", "l_id", "l_name"),
+        tr(1L, "x", 1L, "a"),
+        tr(NULL_BIGINT, NULL_VARCHAR, 2L, "b"),
+        tr(3L, "y", 3L, "c"),
+        tr(NULL_BIGINT, NULL_VARCHAR, 4L, "d")
+        );
+    validateShared(JoinRelType.LEFT, expected);
+  }
+
+  @Test
+  public void innerEightByteKey() throws Exception {
+    try (AutoCloseable with = with(ExecConstants.ENABLE_VECTORIZED_HASHJOIN_SPECIFIC, true)) {
+      inner();
+    }
+  }
+
+  @Test
+  public void emptyBuild() throws Exception {
+    final SharedPhaseState sharedState = newSharedState();
+    // the empty generator has a key column
+    try (VectorizedHashJoinOperator builder = newJoin(JoinRelType.INNER, "key", sharedState);
+         VectorizedHashJoinOperator follower = newJoin(JoinRelType.INNER, "key", sharedState);
+         Generator builderLeft = LEFT.toGenerator(getTestAllocator());
+         Generator builderRight = new EmptyGenerator(getTestAllocator());
+         Generator followerLeft = LEFT.toGenerator(getTestAllocator());
+         Generator followerRight = new EmptyGenerator(getTestAllocator())) {
+      builder.setup(builderLeft.getOutput(), builderRight.getOutput());
+      follower.setup(followerLeft.getOutput(), followerRight.getOutput());
+
+      consumeRight(builder, builderRight);
+      assertEquals(State.DONE, builder.getState());
+
+      consumeRight(follower, followerRight);
+      assertEquals(0, follower.outputData());
+      assertEquals(State.DONE, follower.getState());
+    }
+  }
+
+  @Test(expected = UserException.class)
+  public void abandonedBuild() throws Exception {
+    final SharedPhaseState sharedState = newSharedState();
+    try (VectorizedHashJoinOperator follower = newJoin(JoinRelType.INNER, "r_id", sharedState);
+         Generator builderLeft = LEFT.toGenerator(getTestAllocator());
+         Generator builderRight = RIGHT.toGenerator(getTestAllocator());
+         Generator followerLeft = LEFT.toGenerator(getTestAllocator());
+         Generator followerRight = RIGHT.toGenerator(getTestAllocator())) {
+      try (VectorizedHashJoinOperator builder = newJoin(JoinRelType.INNER, "r_id", sharedState)) {
+        builder.setup(builderLeft.getOutput(), builderRight.getOutput());
+        follower.setup(followerLeft.getOutput(), followerRight.getOutput());
+        builder.consumeDataRight(builderRight.next(DEFAULT_BATCH));
+        // builder fails before completing the build
+      }
+
+      consumeRight(follower, followerRight);
+      follower.outputData();
+    }
+  }
+
+  @Test
+  public void followerBlockedUntilPublished() throws Exception {
+    final Table expected = t(
+        th("r_id", "r_name", "l_id", "l_name"),
+        tr(1L, "x", 1L, "a"),
+        tr(3L, "y", 3L, "c")
+        );
+    final SharedPhaseState sharedState = newSharedState();
+    final SharedResourceManager resources = SharedResourceManager.newBuilder().addGroup("pipeline").build();
+    try (VectorizedHashJoinOperator follower = newJoin(JoinRelType.INNER, "r_id", sharedState, Long.MAX_VALUE, resources);
+         Generator builderLeft = LEFT.toGenerator(getTestAllocator());
+         Generator builderRight = RIGHT.toGenerator(getTestAllocator());
+         Generator followerLeft = LEFT.toGenerator(getTestAllocator());
+         Generator followerRight = RIGHT.toGenerator(getTestAllocator())) {
+      final VectorAccessible followerOutput;
+      try (VectorizedHashJoinOperator builder = newJoin(JoinRelType.INNER, "r_id", sharedState)) {
+        builder.setup(builderLeft.getOutput(), builderRight.getOutput());
+        followerOutput = follower.setup(followerLeft.getOutput(), followerRight.getOutput());
+        assertTrue(resources.isAvailable());
+
+        // the follower blocks its pipeline instead of being pumped again until the build is published
+        consumeRight(follower, followerRight);
+        assertEquals(0, follower.outputData());
+        assertFalse(resources.isAvailable());
+
+        consumeRight(builder, builderRight);
+        assertTrue(resources.isAvailable());
+      }
+
+      checkProbe(follower, followerLeft, followerOutput, expected);
+    }
+  }
+
+  @Test
+  public void followerUnblockedWhenAbandoned() throws Exception {
+    final SharedPhaseState sharedState = newSharedState();
+    final SharedResourceManager resources = SharedResourceManager.newBuilder().addGroup("pipeline").build();
+    try (VectorizedHashJoinOperator follower = newJoin(JoinRelType.INNER, "r_id", sharedState, Long.MAX_VALUE, resources);
+         Generator builderLeft = LEFT.toGenerator(getTestAllocator());
+         Generator builderRight = RIGHT.toGenerator(getTestAllocator());
+         Generator followerLeft = LEFT.toGenerator(getTestAllocator());
+         Generator followerRight = RIGHT.toGenerator(getTestAllocator())) {
+      try (VectorizedHashJoinOperator builder = newJoin(JoinRelType.INNER, "r_id", sharedState)) {
+        builder.setup(builderLeft.getOutput(), builderRight.getOutput());
+        follower.setup(followerLeft.getOutput(), followerRight.getOutput());
+        consumeRight(follower, followerRight);
+        assertEquals(0, follower.outputData());
+        assertFalse(resources.isAvailable());
+        // builder fails before completing the build
+      }
+
+      assertTrue(resources.isAvailable());
+      try {
+        follower.outputData();
+        fail("follower should fail once the build is abandoned");
+      } catch (UserException e) {
+        // expected
+      }
+    }
+  }
+
+  @Test
+  public void sharedBuildLimitedToOperatorMemory() throws Exception {
+    final SharedPhaseState sharedState = newSharedState();
+    try (VectorizedHashJoinOperator builder = newJoin(JoinRelType.INNER, "r_id", sharedState, 1, null);
+         Generator builderLeft = LEFT.toGenerator(getTestAllocator());
+         Generator builderRight = RIGHT.toGenerator(getTestAllocator())) {
+      builder.setup(builderLeft.getOutput(), builderRight.getOutput());
+      consumeRight(builder, builderRight);
+      fail("building the shared build side should exceed the memory limit of the operator");
+    } catch (Exception e) {
+      assertTrue(Throwables.getCausalChain(e).stream().anyMatch(t -> t instanceof OutOfMemoryException));
+    }
+  }
+
+  private void validateShared(JoinRelType type, Table expected) throws Exception {
+    final SharedPhaseState sharedState = newSharedState();
+    try (VectorizedHashJoinOperator follower = newJoin(type, "r_id", sharedState);
+         Generator builderLeft = LEFT.toGenerator(getTestAllocator());
+         Generator builderRight = RIGHT.toGenerator(getTestAllocator());
+         Generator followerLeft = LEFT.toGenerator(getTestAllocator());
+         Generator followerRight = RIGHT.toGenerator(getTestAllocator())) {
+      final VectorAccessible followerOutput;
+      try (VectorizedHashJoinOperator builder = newJoin(type, "r_id", sharedState)) {
+        final VectorAccessible builderOutput = builder.setup(builderLeft.getOutput(), builderRight.getOutput());
+        followerOutput = follower.setup(followerLeft.getOutput(), followerRight.getOutput());
+
+        // the follower skips its build side, and waits for the builder to publish the shared one
+        consumeRight(follower, followerRight);
+        assertEquals(State.CAN_PRODUCE, follower.getState());
+        assertEquals(0, follower.outputData());
+        assertEquals(State.CAN_PRODUCE, follower.getState());
+
+        consumeRight(builder, builderRight);
+        checkProbe(builder, builderLeft, builderOutput, expected);
+      }
+
+      // the follower starts probing once the build is published, and keeps probing after the builder completed
+      checkProbe(follower, followerLeft, followerOutput, expected);
+    }
+  }
+
+  private SharedPhaseState newSharedState() {
+    final SharedPhaseState sharedState = new SharedPhaseState(getTestAllocator());
+    testCloseables.add(sharedState);
+    return sharedState;
+  }
+
+  private VectorizedHashJoinOperator newJoin(JoinRelType type, String rightKey, SharedPhaseState sharedState) throws Exception {
+    return newJoin(type, rightKey, sharedState, Long.MAX_VALUE, null);
+  }
+
+  private VectorizedHashJoinOperator newJoin(JoinRelType type, String rightKey, SharedPhaseState sharedState,
+      long maxAllocation, SharedResourceManager resources) throws Exception {
+    final HashJoinPOP pop = new HashJoinPOP(null, null,
+        Arrays.asList(new JoinCondition("EQUALS", f("l_id"), f(rightKey))), type, true, true);
+    pop.setMaxAllocation(maxAllocation);
+    final BufferAllocator child = getTestAllocator().newChildAllocator("shared-join", 0, Long.MAX_VALUE);
+    final OperatorContextImpl context = testContext.getNewOperatorContext(child, pop, DEFAULT_BATCH, sharedState,
+        resources == null ? null : resources.getGroup("pipeline"));
+    testCloseables.add(context);
+    return new VectorizedHashJoinOperator(context, pop);
+  }
+
+  private static void consumeRight(VectorizedHashJoinOperator op, Generator right) throws Exception {
+    while (op.getState() == State.CAN_CONSUME_R) {
+      final int count = right.next(DEFAULT_BATCH);
+      if (count > 0) {
+        op.consumeDataRight(count);
+      } else {
+        op.noMoreToConsumeRight();
+      }
+    }
+  }
+
+  private void checkProbe(VectorizedHashJoinOperator op, Generator left, VectorAccessible output, Table expected) throws Exception {
+    final List<RecordBatchData> data = new ArrayList<>();
+    try {
+      outside: while (true) {
+        switch (op.getState()) {
+        case CAN_CONSUME_L:
+          final int count = left.next(DEFAULT_BATCH);
+          if (count > 0) {
+            op.consumeDataLeft(count);
+          } else {
+            op.noMoreToConsumeLeft();
+          }
+          break;
+        case CAN_PRODUCE:
+          if (op.outputData() > 0) {
+            data.add(new RecordBatchData(output, getTestAllocator()));
+          }
+          break;
+        case DONE:
+          break outside;
+        default:
+          throw new UnsupportedOperationException();
+        }
+      }
+      expected.checkValid(data);
+    } finally {
+      AutoCloseables.close(data);
+    }
+  }
+}
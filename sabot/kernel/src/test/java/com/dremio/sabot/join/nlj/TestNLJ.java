@@ -18,6 +18,8 @@ package com.dremio.sabot.join.nlj;
 import static com.dremio.sabot.Fixtures.t;
 import static com.dremio.sabot.Fixtures.th;
 import static com.dremio.sabot.Fixtures.tr;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 import java.util.Arrays;
 import java.util.Collections;
@@ -26,11 +28,14 @@ import org.apache.calcite.rel.core.JoinRelType;
 import org.junit.Test;
 
 import com.dremio.common.logical.data.JoinCondition;
+import com.dremio.exec.ExecConstants;
 import com.dremio.exec.physical.config.NestedLoopJoinPOP;
 import com.dremio.sabot.BaseTestOperator;
 import com.dremio.sabot.Fixtures.DataRow;
 import com.dremio.sabot.Fixtures.Table;
+import com.dremio.sabot.exec.context.OperatorStats;
 import com.dremio.sabot.op.join.nlj.NLJOperator;
+import com.dremio.sabot.op.join.nlj.VectorizedNLJOperator;
 
 import io.airlift.tpch.GenerationDefinition.TpchTable;
 import io.airlift.tpch.TpchGenerator;
@@ -163,4 +168,46 @@ public class TestNLJ extends BaseTestOperator {
       2047, expected);
   }
 
+  @Test
+  public void nljWithCondition() throws Exception {
+    final OperatorStats stats = validateDual(
+      new NestedLoopJoinPOP(null, null, Collections.<JoinCondition>emptyList(), JoinRelType.INNER,
+        toExpr("r_regionKey < 2 and r_name <> 'ASIA'")),
+      VectorizedNLJOperator.class,
+      TpchGenerator.singleGenerator(TpchTable.REGION, 0.1, getTestAllocator(), "r_regionKey"),
+      TpchGenerator.singleGenerator(TpchTable.REGION, 0.1, getTestAllocator(), "r_name"),
+      3, conditionExpected());
+    assertEquals(0, stats.getLongStat(VectorizedNLJOperator.Metric.SPILL_COUNT));
+  }
+
+  @Test
+  public void nljWithConditionSpill() throws Exception {
+    try (AutoCloseable spillAll = with(ExecConstants.NLJ_SPILL_THRESHOLD_BYTES, 1)) {
+      final OperatorStats stats = validateDual(
+        new NestedLoopJoinPOP(null, null, Collections.<JoinCondition>emptyList(), JoinRelType.INNER,
+          toExpr("r_regionKey < 2 and r_name <> 'ASIA'")),
+        VectorizedNLJOperator.class,
+        TpchGenerator.singleGenerator(TpchTable.REGION, 0.1, getTestAllocator(), "r_regionKey"),
+        TpchGenerator.singleGenerator(TpchTable.REGION, 0.1, getTestAllocator(), "r_name"),
+        1, conditionExpected());
+      assertTrue(stats.getLongStat(VectorizedNLJOperator.Metric.SPILL_COUNT) > 0);
+      assertTrue(stats.getLongStat(VectorizedNLJOperator.Metric.BATCHES_SPILLED) > 0);
+      assertTrue(stats.getLongStat(VectorizedNLJOperator.Metric.TOTAL_SPILLED_DATA_SIZE) > 0);
+    }
+  }
+
+  private static Table conditionExpected() {
+    return t(
+      th("r_name", "r_regionKey"),
+      tr("AFRICA", 0L),
+      tr("AFRICA", 1L),
+      tr("AMERICA", 0L),
+      tr("AMERICA", 1L),
+      tr("EUROPE", 0L),
+      tr("EUROPE", 1L),
+      tr("MIDDLE EAST", 0L),
+      tr("MIDDLE EAST", 1L)
+    );
+  }
+
 }
@@ -0,0 +1,189 @@
+/*
+ * Copyright (C) 2017-2018 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.op.llvm;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.apache.arrow.gandiva.evaluator.Filter;
+import org.apache.arrow.gandiva.evaluator.Projector;
+import org.apache.arrow.gandiva.evaluator.SelectionVector;
+import org.apache.arrow.gandiva.evaluator.SelectionVectorInt16;
+import org.apache.arrow.gandiva.expression.Condition;
+import org.apache.arrow.gandiva.expression.ExpressionTree;
+import org.apache.arrow.gandiva.expression.TreeBuilder;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.ValueVector;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.dremio.exec.ExecTest;
+import com.google.common.collect.ImmutableList;
+
+import io.netty.buffer.ArrowBuf;
+
+/**
+ * Tests {@link GandivaModuleCache}
+ */
+public class TestGandivaModuleCache extends ExecTest {
+  private static final Field A = Field.nullable("a", new ArrowType.Int(32, true));
+  private static final Field B = Field.nullable("b", new ArrowType.Int(32, true));
+  private static final Field C = Field.nullable("c", new ArrowType.Int(32, true));
+  private static final Schema SCHEMA = new Schema(ImmutableList.of(A, B));
+
+  private static final int[] A_VALUES = {1, 5, -3, 10, 7};
+  private static final int[] B_VALUES = {2, 4, -3, 1, 9};
+
+  private IntVector a;
+  private IntVector b;
+
+  @Before
+  public void setupInput() {
+    a = new IntVector(A.getName(), allocator);
+    b = new IntVector(B.getName(), allocator);
+    a.allocateNew(A_VALUES.length);
+    b.allocateNew(B_VALUES.length);
+    for (int i = 0; i < A_VALUES.length; i++) {
+      a.set(i, A_VALUES[i]);
+      b.set(i, B_VALUES[i]);
+    }
+    a.setValueCount(A_VALUES.length);
+    b.setValueCount(B_VALUES.length);
+  }
+
+  @After
+  public void cleanupInput() {
+    a.close();
+    b.close();
+  }
+
+  private static List<ExpressionTree> expression(String function) {
+    // built again for every call, so cache lookups don't depend on the identity of the expressions
+    return ImmutableList.of(TreeBuilder.makeExpression(function, ImmutableList.of(A, B), C));
+  }
+
+  private static Condition condition(String function) {
+    return TreeBuilder.makeCondition(function, ImmutableList.of(A, B));
+  }
+
+  private List<ArrowBuf> buffers() {
+    return ImmutableList.<ArrowBuf>builder()
+        .addAll(a.getFieldBuffers())
+        .addAll(b.getFieldBuffers())
+        .build();
+  }
+
+  private int[] project(Projector projector) throws Exception {
+    try (IntVector c = new IntVector(C.getName(), allocator)) {
+      c.allocateNew(A_VALUES.length);
+      projector.evaluate(A_VALUES.length, buffers(), ImmutableList.<ValueVector>of(c));
+      c.setValueCount(A_VALUES.length);
+
+      final int[] values = new int[A_VALUES.length];
+      for (int i = 0; i < values.length; i++) {
+        values[i] = c.get(i);
+      }
+      return values;
+    }
+  }
+
+  private int[] filter(Filter filter) throws Exception {
+    try (ArrowBuf buffer = allocator.buffer(A_VALUES.length * 2)) {
+      final SelectionVector selectionVector = new SelectionVectorInt16(buffer);
+      filter.evaluate(A_VALUES.length, buffers(), selectionVector);
+
+      final int[] indexes = new int[selectionVector.getRecordCount()];
+      for (int i = 0; i < indexes.length; i++) {
+        indexes[i] = selectionVector.getIndex(i);
+      }
+      return indexes;
+    }
+  }
+
+  @Test
+  public void projectorIsReused() throws Exception {
+    final GandivaModuleCache cache = new GandivaModuleCache(10, 60);
+    try (GandivaModuleCache.Handle<Projector> built = cache.getProjector(SCHEMA, expression("add"));
+         GandivaModuleCache.Handle<Projector> cached = cache.getProjector(SCHEMA, expression("add"))) {
+      assertFalse(built.isCached());
+      assertTrue(cached.isCached());
+      assertSame(built.get(), cached.get());
+
+      assertArrayEquals(new int[] {3, 9, -6, 11, 16}, project(cached.get()));
+    } finally {
+      cache.invalidateAll();
+    }
+  }
+
+  @Test
+  public void filterIsReused() throws Exception {
+    final GandivaModuleCache cache = new GandivaModuleCache(10, 60);
+    try (GandivaModuleCache.Handle<Filter> built = cache.getFilter(SCHEMA, condition("greater_than"));
+         GandivaModuleCache.Handle<Filter> cached = cache.getFilter(SCHEMA, condition("greater_than"))) {
+      assertFalse(built.isCached());
+      assertTrue(cached.isCached());
+      assertSame(built.get(), cached.get());
+
+      assertArrayEquals(new int[] {1, 3}, filter(cached.get()));
+    } finally {
+      cache.invalidateAll();
+    }
+  }
+
+  @Test
+  public void differentExpressionsAreNotShared() throws Exception {
+    final GandivaModuleCache cache = new GandivaModuleCache(10, 60);
+    try (GandivaModuleCache.Handle<Projector> add = cache.getProjector(SCHEMA, expression("add"));
+         GandivaModuleCache.Handle<Projector> subtract = cache.getProjector(SCHEMA, expression("subtract"))) {
+      assertFalse(subtract.isCached());
+      assertNotSame(add.get(), subtract.get());
+
+      assertArrayEquals(new int[] {3, 9, -6, 11, 16}, project(add.get()));
+      assertArrayEquals(new int[] {-1, 1, 0, 9, -2}, project(subtract.get()));
+    } finally {
+      cache.invalidateAll();
+    }
+  }
+
+  @Test
+  public void evictedModuleIsUsableUntilReleased() throws Exception {
+    final GandivaModuleCache cache = new GandivaModuleCache(1, 60);
+    try (GandivaModuleCache.Handle<Projector> add = cache.getProjector(SCHEMA, expression("add"))) {
+      // evicts the projector of the first expression, which is still in use
+      try (GandivaModuleCache.Handle<Projector> subtract = cache.getProjector(SCHEMA, expression("subtract"))) {
+        assertFalse(subtract.isCached());
+      }
+      assertArrayEquals(new int[] {3, 9, -6, 11, 16}, project(add.get()));
+
+      try (GandivaModuleCache.Handle<Projector> rebuilt = cache.getProjector(SCHEMA, expression("add"))) {
+        assertFalse(rebuilt.isCached());
+        assertNotSame(add.get(), rebuilt.get());
+        assertArrayEquals(new int[] {3, 9, -6, 11, 16}, project(rebuilt.get()));
+      }
+    } finally {
+      cache.invalidateAll();
+    }
+  }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright (C) 2017-2018 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.op.scan;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.dremio.exec.store.RecordReader;
+import com.google.common.collect.ImmutableList;
+
+public class TestPrefetchingReaderIterator {
+
+  private ExecutorService executor;
+
+  @Before
+  public void setup() {
+    executor = Executors.newSingleThreadExecutor();
+  }
+
+  @After
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  /**
+   * Iterator over mocked readers, counting the readers created.
+   */
+  private static class CountingIterator implements Iterator<RecordReader> {
+    private final List<RecordReader> readers;
+    private final AtomicInteger created = new AtomicInteger();
+
+    CountingIterator(List<RecordReader> readers) {
+      this.readers = readers;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return created.get() < readers.size();
+    }
+
+    @Override
+    public RecordReader next() {
+      return readers.get(created.getAndIncrement());
+    }
+  }
+
+  private static List<RecordReader> mockReaders(int count) {
+    final ImmutableList.Builder<RecordReader> readers = ImmutableList.builder();
+    for (int i = 0; i < count; i++) {
+      readers.add(mock(RecordReader.class));
+    }
+    return readers.build();
+  }
+
+  @Test
+  public void testOrder() throws Exception {
+    final List<RecordReader> readers = mockReaders(5);
+    try (PrefetchingReaderIterator iterator = new PrefetchingReaderIterator(readers.iterator(), executor, null, 2)) {
+      for (RecordReader reader : readers) {
+        assertTrue(iterator.hasNext());
+        assertSame(reader, iterator.next());
+      }
+      assertFalse(iterator.hasNext());
+      assertFalse(iterator.hasNext());
+    }
+  }
+
+  @Test
+  public void testCreatesReadersAhead() throws Exception {
+    final CountingIterator readers = new CountingIterator(mockReaders(5));
+    try (PrefetchingReaderIterator iterator = new PrefetchingReaderIterator(readers, executor, null, 2)) {
+      iterator.next();
+      // the returned reader and the two next ones
+      while (readers.created.get() < 3) {
+        Thread.sleep(10);
+      }
+      Thread.sleep(50);
+      assertEquals(3, readers.created.get());
+    }
+  }
+
+  @Test
+  public void testClosesReadersCreatedAhead() throws Exception {
+    final List<RecordReader> readers = mockReaders(3);
+    final PrefetchingReaderIterator iterator = new PrefetchingReaderIterator(readers.iterator(), executor, null, 2);
+    final RecordReader first = iterator.next();
+    iterator.close();
+
+    // the returned reader is owned by the caller
+    verify(first, never()).close();
+    verify(readers.get(1)).close();
+    verify(readers.get(2)).close();
+  }
+
+  @Test
+  public void testFailure() throws Exception {
+    final Iterator<RecordReader> readers = new Iterator<RecordReader>() {
+      @Override
+      public boolean hasNext() {
+        return true;
+      }
+
+      @Override
+      public RecordReader next() {
+        throw new IllegalStateException("cannot open file");
+      }
+    };
+
+    try (PrefetchingReaderIterator iterator = new PrefetchingReaderIterator(readers, executor, null, 1)) {
+      iterator.next();
+      fail("Expected the failure to create the reader");
+    } catch (IllegalStateException e) {
+      assertEquals("cannot open file", e.getMessage());
+    }
+  }
+}
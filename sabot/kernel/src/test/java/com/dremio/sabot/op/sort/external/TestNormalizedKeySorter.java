@@ -0,0 +1,279 @@
+/*
+ * Copyright (C) 2017-2018 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.op.sort.external;
+
+import static com.dremio.sabot.Fixtures.NULL_BIGINT;
+import static com.dremio.sabot.Fixtures.NULL_BOOLEAN;
+import static com.dremio.sabot.Fixtures.NULL_DOUBLE;
+import static com.dremio.sabot.Fixtures.NULL_FLOAT;
+import static com.dremio.sabot.Fixtures.NULL_INT;
+import static com.dremio.sabot.Fixtures.t;
+import static com.dremio.sabot.Fixtures.th;
+import static com.dremio.sabot.Fixtures.tr;
+import static org.apache.calcite.rel.RelFieldCollation.Direction.ASCENDING;
+import static org.apache.calcite.rel.RelFieldCollation.Direction.DESCENDING;
+import static org.apache.calcite.rel.RelFieldCollation.NullDirection.FIRST;
+import static org.apache.calcite.rel.RelFieldCollation.NullDirection.LAST;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.BufferManager;
+import org.apache.arrow.vector.FieldVector;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.dremio.common.AutoCloseables;
+import com.dremio.common.logical.data.Order.Ordering;
+import com.dremio.exec.expr.ClassGenerator;
+import com.dremio.exec.expr.ClassProducer;
+import com.dremio.exec.expr.CodeGenerator;
+import com.dremio.exec.record.VectorAccessible;
+import com.dremio.exec.record.selection.SelectionVector2;
+import com.dremio.sabot.BaseTestOperator;
+import com.dremio.sabot.Fixtures;
+import com.dremio.sabot.Fixtures.DataRow;
+import com.dremio.sabot.Generator;
+import com.dremio.sabot.exec.context.BufferManagerImpl;
+
+/**
+ * Tests {@link NormalizedKeySorter} against the generated comparisons of the single batch sorter
+ */
+public class TestNormalizedKeySorter extends BaseTestOperator {
+
+  private BufferAllocator allocator;
+  private BufferManager bufferManager;
+  private ClassProducer producer;
+
+  @Before
+  public void prepare() {
+    allocator = getTestAllocator().newChildAllocator("test-normalized-key-sorter", 0, 10_000_000);
+    bufferManager = new BufferManagerImpl(allocator);
+    producer = testContext.newClassProducer(bufferManager);
+  }
+
+  @After
+  public void cleanup() throws Exception {
+    AutoCloseables.close(bufferManager, allocator);
+  }
+
+  /**
+   * Values of the records of the single batch of the table, in sorted order
+   */
+  private static class Sorted {
+    private final List<List<Object>> normalized;
+    private final List<List<Object>> generated;
+
+    Sorted(List<List<Object>> normalized, List<List<Object>> generated) {
+      this.normalized = normalized;
+      this.generated = generated;
+    }
+  }
+
+  private Sorted sort(Fixtures.Table table, Ordering... orderings) throws Exception {
+    final List<Ordering> orderingList = Arrays.asList(orderings);
+    try (Generator generator = table.toGenerator(allocator)) {
+      final VectorAccessible batch = generator.getOutput();
+      final int count = generator.next(Character.MAX_VALUE);
+
+      final NormalizedKeySorter sorter = NormalizedKeySorter.create(batch, orderingList, producer);
+      assertNotNull("sort keys should be normalized", sorter);
+
+      final CodeGenerator<SingleBatchSorter> cg = producer.createGenerator(SingleBatchSorter.TEMPLATE_DEFINITION);
+      final ClassGenerator<SingleBatchSorter> g = cg.getRoot();
+      ExternalSortOperator.generateComparisons(g, batch, orderingList, producer);
+      final SingleBatchSorter generatedSorter = cg.getImplementationClass();
+
+      try (SelectionVector2 normalizedOrder = newSelectionVector(count);
+           SelectionVector2 generatedOrder = newSelectionVector(count)) {
+        sorter.sort(allocator, normalizedOrder, batch);
+        generatedSorter.setup(producer.getFunctionContext(), generatedOrder, batch);
+        generatedSorter.sort(generatedOrder);
+        return new Sorted(getValues(batch, normalizedOrder), getValues(batch, generatedOrder));
+      }
+    }
+  }
+
+  private SelectionVector2 newSelectionVector(int count) {
+    final SelectionVector2 sv2 = new SelectionVector2(allocator);
+    sv2.allocateNew(count);
+    for (int i = 0; i < count; i++) {
+      sv2.setIndex(i, i);
+    }
+    sv2.setRecordCount(count);
+    return sv2;
+  }
+
+  private static List<List<Object>> getValues(VectorAccessible batch, SelectionVector2 sv2) {
+    final List<List<Object>> values = new ArrayList<>();
+    final int columns = batch.getSchema().getFieldCount();
+    for (int i = 0; i < sv2.getCount(); i++) {
+      final List<Object> row = new ArrayList<>();
+      for (int c = 0; c < columns; c++) {
+        final FieldVector vector = batch.getValueAccessorById(FieldVector.class, c).getValueVector();
+        row.add(normalizeZero(vector.getObject(sv2.getIndex(i))));
+      }
+      values.add(row);
+    }
+    return values;
+  }
+
+  // -0.0 and 0.0 compare equal, so they can be in any order
+  private static Object normalizeZero(Object value) {
+    if (value instanceof Double && (Double) value == 0.0d) {
+      return 0.0d;
+    }
+    if (value instanceof Float && (Float) value == 0.0f) {
+      return 0.0f;
+    }
+    return value;
+  }
+
+  private static List<List<Object>> column(Object... values) {
+    final List<List<Object>> rows = new ArrayList<>();
+    for (Object value : values) {
+      rows.add(Arrays.asList(value));
+    }
+    return rows;
+  }
+
+  @Test
+  public void descendingNullsLast() throws Exception {
+    final Sorted sorted = sort(t(th("c0"), tr(3), tr(NULL_INT), tr(-1), tr(7), tr(NULL_INT), tr(0)),
+      ordering("c0", DESCENDING, LAST));
+
+    assertEquals(column(7, 3, 0, -1, null, null), sorted.normalized);
+    assertEquals(sorted.generated, sorted.normalized);
+  }
+
+  @Test
+  public void descendingNullsFirst() throws Exception {
+    final Sorted sorted = sort(t(th("c0"), tr(3), tr(NULL_INT), tr(-1), tr(7), tr(NULL_INT), tr(0)),
+      ordering("c0", DESCENDING, FIRST));
+
+    assertEquals(column(null, null, 7, 3, 0, -1), sorted.normalized);
+    assertEquals(sorted.generated, sorted.normalized);
+  }
+
+  @Test
+  public void ascendingNullsLast() throws Exception {
+    final Sorted sorted = sort(t(th("c0"), tr(3), tr(NULL_INT), tr(-1), tr(7), tr(NULL_INT), tr(0)),
+      ordering("c0", ASCENDING, LAST));
+
+    assertEquals(column(-1, 0, 3, 7, null, null), sorted.normalized);
+    assertEquals(sorted.generated, sorted.normalized);
+  }
+
+  @Test
+  public void negativeIntegers() throws Exception {
+    final Sorted sorted = sort(
+      t(th("c0"), tr(Integer.MAX_VALUE), tr(-1), tr(Integer.MIN_VALUE), tr(1), tr(0), tr(-256), tr(255), tr(-257)),
+      ordering("c0", ASCENDING, FIRST));
+
+    assertEquals(column(Integer.MIN_VALUE, -257, -256, -1, 0, 1, 255, Integer.MAX_VALUE), sorted.normalized);
+    assertEquals(sorted.generated, sorted.normalized);
+  }
+
+  @Test
+  public void negativeLongs() throws Exception {
+    final Sorted sorted = sort(
+      t(th("c0"), tr(Long.MAX_VALUE), tr(-1L), tr(NULL_BIGINT), tr(Long.MIN_VALUE), tr(1L), tr(0L), tr(-(1L << 40)),
+        tr(1L << 40)),
+      ordering("c0", DESCENDING, LAST));
+
+    assertEquals(column(Long.MAX_VALUE, 1L << 40, 1L, 0L, -1L, -(1L << 40), Long.MIN_VALUE, null), sorted.normalized);
+    assertEquals(sorted.generated, sorted.normalized);
+  }
+
+  @Test
+  public void doubleZerosAndNaN() throws Exception {
+    final Sorted sorted = sort(
+      t(th("c0"), tr(1.5d), tr(Double.NaN), tr(-0.0d), tr(Double.NEGATIVE_INFINITY), tr(0.0d), tr(NULL_DOUBLE),
+        tr(Double.POSITIVE_INFINITY), tr(-2.5d), tr(0.0d), tr(-0.0d), tr(Double.MIN_VALUE), tr(-Double.MIN_VALUE)),
+      ordering("c0", ASCENDING, LAST));
+
+    // NaN sorts above all other values, the generated comparisons don't order it consistently
+    assertEquals(column(Double.NEGATIVE_INFINITY, -2.5d, -Double.MIN_VALUE, 0.0d, 0.0d, 0.0d, 0.0d, Double.MIN_VALUE,
+      1.5d, Double.POSITIVE_INFINITY, Double.NaN, null), sorted.normalized);
+  }
+
+  @Test
+  public void floatZerosAndNaNDescending() throws Exception {
+    final Sorted sorted = sort(
+      t(th("c0"), tr(1.5f), tr(Float.NaN), tr(-0.0f), tr(Float.NEGATIVE_INFINITY), tr(0.0f), tr(NULL_FLOAT),
+        tr(Float.POSITIVE_INFINITY), tr(-2.5f)),
+      ordering("c0", DESCENDING, FIRST));
+
+    assertEquals(column(null, Float.NaN, Float.POSITIVE_INFINITY, 1.5f, 0.0f, 0.0f, -2.5f, Float.NEGATIVE_INFINITY),
+      sorted.normalized);
+  }
+
+  @Test
+  public void floatsWithoutNaN() throws Exception {
+    final Sorted sorted = sort(
+      t(th("c0"), tr(1.5f), tr(-0.0f), tr(Float.NEGATIVE_INFINITY), tr(0.0f), tr(NULL_FLOAT), tr(Float.MAX_VALUE),
+        tr(-Float.MAX_VALUE), tr(-2.5f)),
+      ordering("c0", ASCENDING, FIRST));
+
+    assertEquals(column(null, Float.NEGATIVE_INFINITY, -Float.MAX_VALUE, -2.5f, 0.0f, 0.0f, 1.5f, Float.MAX_VALUE),
+      sorted.normalized);
+    assertEquals(sorted.generated, sorted.normalized);
+  }
+
+  @Test
+  public void bits() throws Exception {
+    final Fixtures.Table table = t(th("c0"), tr(true), tr(NULL_BOOLEAN), tr(false), tr(true), tr(false));
+
+    final Sorted ascending = sort(table, ordering("c0", ASCENDING, FIRST));
+    assertEquals(column(null, false, false, true, true), ascending.normalized);
+    assertEquals(ascending.generated, ascending.normalized);
+
+    final Sorted descending = sort(table, ordering("c0", DESCENDING, LAST));
+    assertEquals(column(true, true, false, false, null), descending.normalized);
+    assertEquals(descending.generated, descending.normalized);
+  }
+
+  @Test
+  public void multipleColumns() throws Exception {
+    final Random random = new Random(42);
+    final DataRow[] rows = new DataRow[1000];
+    for (int i = 0; i < rows.length; i++) {
+      final int c0 = random.nextInt(8) - 4;
+      final long c1 = random.nextInt(6) - 3;
+      final int c2 = random.nextInt(10) - 5;
+      rows[i] = tr(
+        c0 == 3 ? NULL_INT : c0,
+        c1 == 2 ? NULL_BIGINT : c1 * 1000,
+        c2 == 4 ? NULL_DOUBLE : c2 / 2.0d,
+        random.nextBoolean());
+    }
+
+    final Sorted sorted = sort(t(th("c0", "c1", "c2", "c3"), rows),
+      ordering("c0", ASCENDING, FIRST),
+      ordering("c1", DESCENDING, LAST),
+      ordering("c2", ASCENDING, LAST),
+      ordering("c3", DESCENDING, FIRST));
+
+    assertEquals(rows.length, sorted.normalized.size());
+    assertEquals(sorted.generated, sorted.normalized);
+  }
+}
@@ -15,12 +15,16 @@
  */
 package com.dremio.sabot.sort.external.topn;
 
+import static com.dremio.sabot.Fixtures.NULL_INT;
 import static com.dremio.sabot.Fixtures.t;
 import static com.dremio.sabot.Fixtures.tb;
 import static com.dremio.sabot.Fixtures.th;
 import static com.dremio.sabot.Fixtures.tr;
+import static org.junit.Assert.assertEquals;
 
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 import java.util.Properties;
 
 import org.apache.calcite.rel.RelFieldCollation.Direction;
@@ -31,7 +35,9 @@ import com.dremio.common.config.SabotConfig;
 import com.dremio.exec.ExecConstants;
 import com.dremio.exec.physical.config.TopN;
 import com.dremio.sabot.BaseTestOperator;
+import com.dremio.sabot.EvenRecordsGenerator;
 import com.dremio.sabot.Fixtures.Table;
+import com.dremio.sabot.exec.context.OperatorStats;
 import com.dremio.sabot.op.sort.topn.TopNOperator;
 
 public class TestTopN extends BaseTestOperator {
@@ -108,5 +114,123 @@ public class TestTopN extends BaseTestOperator {
     validateSingle(topn, TopNOperator.class, input, output);
   }
 
+  @Test
+  public void topNDataWithThresholdFilter() throws Exception {
+
+    Table input = t(
+      th("c0", "c1"),
+      tb(
+        tr(5, 1),
+        tr(9, 3),
+        tr(7, 0)
+      ),
+      // none of these can make it into the queue
+      tb(
+        tr(1, 0),
+        tr(3, 2),
+        tr(NULL_INT, 1)
+      ),
+      // first record ties with the last record of the queue, and is only better on the second sort key
+      tb(
+        tr(5, 0),
+        tr(4, 9),
+        tr(2, 2)
+      )
+    );
+
+    Table output = t(
+      th("c0", "c1"),
+      tr(9, 3),
+      tr(7, 0),
+      tr(5, 0)
+    );
 
+    TopN topn = new TopN(null, Arrays.asList(
+      ordering("c0", Direction.DESCENDING, NullDirection.LAST),
+      ordering("c1", Direction.ASCENDING, NullDirection.FIRST)), false, 3);
+    final OperatorStats stats = validateSingle(topn, TopNOperator.class, input, output);
+    assertEquals(5, stats.getLongStat(TopNOperator.Metric.RECORDS_FILTERED));
+    assertEquals(1, stats.getLongStat(TopNOperator.Metric.BATCHES_SKIPPED));
+  }
+
+  @Test
+  public void topNDataWithThresholdFilterNullsFirst() throws Exception {
+
+    Table input = t(
+      th("c0", "c1"),
+      tb(
+        tr(4, 0),
+        tr(NULL_INT, 5)
+      ),
+      // nulls are better than any value, 6 is worse than the last record of the queue
+      tb(
+        tr(NULL_INT, 3),
+        tr(6, 0),
+        tr(3, 0),
+        tr(4, 1)
+      ),
+      // the queue now only holds nulls, so only nulls can make it into it
+      tb(
+        tr(1, 0),
+        tr(NULL_INT, 1),
+        tr(9, 0)
+      ),
+      tb(
+        tr(0, 0),
+        tr(2, 0)
+      )
+    );
+
+    Table output = t(
+      th("c0", "c1"),
+      tr(NULL_INT, 1),
+      tr(NULL_INT, 3)
+    );
+
+    TopN topn = new TopN(null, Arrays.asList(
+      ordering("c0", Direction.ASCENDING, NullDirection.FIRST),
+      ordering("c1", Direction.ASCENDING, NullDirection.FIRST)), false, 2);
+    final OperatorStats stats = validateSingle(topn, TopNOperator.class, input, output);
+    assertEquals(5, stats.getLongStat(TopNOperator.Metric.RECORDS_FILTERED));
+    assertEquals(1, stats.getLongStat(TopNOperator.Metric.BATCHES_SKIPPED));
+  }
+
+  @Test
+  public void topNDataWithThresholdFilterOverSelectionVector() throws Exception {
+
+    // records at odd positions are not selected, they would make it into the queue otherwise
+    Table input = t(
+      th("c0"),
+      tb(
+        tr(5),
+        tr(-100),
+        tr(8)
+      ),
+      tb(
+        tr(9),
+        tr(-50),
+        tr(10),
+        tr(-1)
+      ),
+      tb(
+        tr(7),
+        tr(-20),
+        tr(8),
+        tr(0),
+        tr(12)
+      )
+    );
+
+    Table output = t(
+      th("c0"),
+      tr(5),
+      tr(7)
+    );
+
+    TopN topn = new TopN(null, Collections.singletonList(ordering("c0", Direction.ASCENDING, NullDirection.LAST)), false, 2);
+    final OperatorStats stats = validateSingle(topn, TopNOperator.class, new EvenRecordsGenerator(getTestAllocator(), input),
+      output, DEFAULT_BATCH);
+    assertEquals(3, stats.getLongStat(TopNOperator.Metric.RECORDS_FILTERED));
+    assertEquals(1, stats.getLongStat(TopNOperator.Metric.BATCHES_SKIPPED));
+  }
 }
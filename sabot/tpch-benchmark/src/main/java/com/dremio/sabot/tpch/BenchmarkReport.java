@@ -0,0 +1,259 @@
+/*
+ * Copyright (C) 2017-2018 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.tpch;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import com.dremio.exec.proto.UserBitShared.CoreOperatorType;
+import com.dremio.exec.proto.UserBitShared.MajorFragmentProfile;
+import com.dremio.exec.proto.UserBitShared.MinorFragmentProfile;
+import com.dremio.exec.proto.UserBitShared.OperatorProfile;
+import com.dremio.exec.proto.UserBitShared.QueryProfile;
+import com.dremio.exec.proto.UserBitShared.StreamProfile;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.primitives.Longs;
+
+/**
+ * Machine readable results of a benchmark run, written as JSON. Along with the timings of each query, the report
+ * records what is needed to tell whether two reports can be compared: the version, the scale factor, the cluster size,
+ * the options that were changed and the hardware the benchmark ran on.
+ */
+class BenchmarkReport {
+
+  private final String version;
+  private final double scaleFactor;
+  private final int nodes;
+  private final List<String> options;
+  private final Map<String, Object> environment;
+  private final long startTime;
+  private final List<QueryReport> queries = Lists.newArrayList();
+
+  BenchmarkReport(String version, double scaleFactor, int nodes, List<String> options, long startTime) {
+    this.version = version;
+    this.scaleFactor = scaleFactor;
+    this.nodes = nodes;
+    this.options = ImmutableList.copyOf(options);
+    this.startTime = startTime;
+    this.environment = Maps.newLinkedHashMap();
+    environment.put("processors", Runtime.getRuntime().availableProcessors());
+    environment.put("maxHeapMemory", Runtime.getRuntime().maxMemory());
+    environment.put("javaVersion", System.getProperty("java.version"));
+    environment.put("osName", System.getProperty("os.name"));
+    environment.put("osVersion", System.getProperty("os.version"));
+    environment.put("osArch", System.getProperty("os.arch"));
+  }
+
+  public String getVersion() {
+    return version;
+  }
+
+  public double getScaleFactor() {
+    return scaleFactor;
+  }
+
+  public int getNodes() {
+    return nodes;
+  }
+
+  public List<String> getOptions() {
+    return options;
+  }
+
+  public Map<String, Object> getEnvironment() {
+    return environment;
+  }
+
+  public long getStartTime() {
+    return startTime;
+  }
+
+  public List<QueryReport> getQueries() {
+    return queries;
+  }
+
+  void add(QueryReport query) {
+    queries.add(query);
+  }
+
+  void write(File file) throws IOException {
+    new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(file, this);
+  }
+
+  /**
+   * Timings of the measured runs of a query. Operator timings are the ones of the last run, for the statement of the
+   * query that took the longest.
+   */
+  static class QueryReport {
+    private final String name;
+    private final List<Long> elapsedMillis = Lists.newArrayList();
+    private final List<Long> planningMillis = Lists.newArrayList();
+    private List<OperatorReport> operators = Collections.emptyList();
+    private String error;
+
+    QueryReport(String name) {
+      this.name = name;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public boolean isSucceeded() {
+      return error == null;
+    }
+
+    public String getError() {
+      return error;
+    }
+
+    public List<Long> getElapsedMillis() {
+      return elapsedMillis;
+    }
+
+    public List<Long> getPlanningMillis() {
+      return planningMillis;
+    }
+
+    public Long getMinMillis() {
+      return elapsedMillis.isEmpty() ? null : Collections.min(elapsedMillis);
+    }
+
+    public Long getMedianMillis() {
+      if (elapsedMillis.isEmpty()) {
+        return null;
+      }
+      final long[] sorted = Longs.toArray(elapsedMillis);
+      Arrays.sort(sorted);
+      return sorted[sorted.length / 2];
+    }
+
+    public Long getMaxMillis() {
+      return elapsedMillis.isEmpty() ? null : Collections.max(elapsedMillis);
+    }
+
+    public List<OperatorReport> getOperators() {
+      return operators;
+    }
+
+    void addRun(long elapsed, long planning, List<OperatorReport> operators) {
+      elapsedMillis.add(elapsed);
+      planningMillis.add(planning);
+      this.operators = operators;
+    }
+
+    void setError(String error) {
+      this.error = error;
+    }
+  }
+
+  /**
+   * Timings of an operator, summed over all of its minor fragments.
+   */
+  static class OperatorReport {
+    private final String id;
+    private final String type;
+    private int minorFragments;
+    private long setupNanos;
+    private long processNanos;
+    private long waitNanos;
+    private long maxProcessNanos;
+    private long peakMemory;
+    private long inputRecords;
+
+    OperatorReport(String id, String type) {
+      this.id = id;
+      this.type = type;
+    }
+
+    public String getId() {
+      return id;
+    }
+
+    public String getType() {
+      return type;
+    }
+
+    public int getMinorFragments() {
+      return minorFragments;
+    }
+
+    public long getSetupNanos() {
+      return setupNanos;
+    }
+
+    public long getProcessNanos() {
+      return processNanos;
+    }
+
+    public long getWaitNanos() {
+      return waitNanos;
+    }
+
+    /**
+     * @return the longest process time of a minor fragment, which tells about skew when compared to the sum
+     */
+    public long getMaxProcessNanos() {
+      return maxProcessNanos;
+    }
+
+    public long getPeakMemory() {
+      return peakMemory;
+    }
+
+    public long getInputRecords() {
+      return inputRecords;
+    }
+
+    private void add(OperatorProfile profile) {
+      minorFragments++;
+      setupNanos += profile.getSetupNanos();
+      processNanos += profile.getProcessNanos();
+      waitNanos += profile.getWaitNanos();
+      maxProcessNanos = Math.max(maxProcessNanos, profile.getProcessNanos());
+      peakMemory = Math.max(peakMemory, profile.getPeakLocalMemoryAllocated());
+      for (StreamProfile stream : profile.getInputProfileList()) {
+        inputRecords += stream.getRecords();
+      }
+    }
+  }
+
+  /**
+   * @return timings of the operators of the query, identified as in the query profile page
+   */
+  static List<OperatorReport> getOperators(QueryProfile profile) {
+    final Map<String, OperatorReport> operators = Maps.newTreeMap();
+    for (MajorFragmentProfile major : profile.getFragmentProfileList()) {
+      for (MinorFragmentProfile minor : major.getMinorFragmentProfileList()) {
+        for (OperatorProfile operator : minor.getOperatorProfileList()) {
+          final String id = String.format("%02d-%02d", major.getMajorFragmentId(), operator.getOperatorId());
+          final CoreOperatorType type = CoreOperatorType.valueOf(operator.getOperatorType());
+          operators.computeIfAbsent(id, k -> new OperatorReport(k,
+            type == null ? Integer.toString(operator.getOperatorType()) : type.name()))
+            .add(operator);
+        }
+      }
+    }
+    return ImmutableList.copyOf(operators.values());
+  }
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright (C) 2017-2018 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.tpch;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.dremio.common.AutoCloseables;
+import com.dremio.common.config.SabotConfig;
+import com.dremio.common.exceptions.UserException;
+import com.dremio.common.scanner.ClassPathScanner;
+import com.dremio.common.scanner.persistence.ScanResult;
+import com.dremio.common.utils.protos.ExternalIdHelper;
+import com.dremio.exec.client.DremioClient;
+import com.dremio.exec.planner.observer.AttemptObserver;
+import com.dremio.exec.planner.observer.QueryObserver;
+import com.dremio.exec.planner.observer.QueryObserverFactory;
+import com.dremio.exec.proto.UserBitShared.ExternalId;
+import com.dremio.exec.proto.UserBitShared.QueryId;
+import com.dremio.exec.proto.UserBitShared.QueryProfile;
+import com.dremio.exec.proto.UserBitShared.QueryResult.QueryState;
+import com.dremio.exec.proto.UserBitShared.QueryType;
+import com.dremio.exec.rpc.ConnectionThrottle;
+import com.dremio.exec.server.SabotNode;
+import com.dremio.exec.util.TestUtilities;
+import com.dremio.exec.work.AttemptId;
+import com.dremio.exec.work.protector.UserResponseHandler;
+import com.dremio.exec.work.protector.UserResult;
+import com.dremio.proto.model.attempts.AttemptReason;
+import com.dremio.sabot.rpc.user.AwaitableUserResultsListener;
+import com.dremio.sabot.rpc.user.QueryDataBatch;
+import com.dremio.sabot.rpc.user.UserResultsListener;
+import com.dremio.sabot.rpc.user.UserSession;
+import com.dremio.service.coordinator.ClusterCoordinator;
+import com.dremio.service.coordinator.local.LocalClusterCoordinator;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * SabotNodes running in this JVM, along with a client submitting queries to them. The first node has all roles and
+ * the others are executors only, like in the kernel tests. The dfs_test source points to the given data directory.
+ *
+ * Queries go through the regular user RPC path, and their profiles are kept by the coordinator as they complete, so
+ * they can be returned along with the query results.
+ */
+class EmbeddedCluster implements AutoCloseable {
+
+  private final ClusterCoordinator coordinator;
+  private final List<SabotNode> nodes;
+  private final ProfileCollector profiles = new ProfileCollector();
+  private final DremioClient client;
+
+  EmbeddedCluster(SabotConfig config, int nodeCount, String dataPath) throws Exception {
+    Preconditions.checkArgument(nodeCount > 0, "Number of nodes must be at least one");
+    this.coordinator = LocalClusterCoordinator.newRunningCoordinator();
+    final ScanResult scanResult = ClassPathScanner.fromPrescan(config);
+    final ImmutableList.Builder<SabotNode> builder = ImmutableList.builder();
+    for (int i = 0; i < nodeCount; i++) {
+      final SabotNode node = new SabotNode(config, coordinator, scanResult, i == 0);
+      builder.add(node);
+      node.getBindingCreator().replace(QueryObserverFactory.class, profiles);
+      node.run();
+      if (i == 0) {
+        TestUtilities.addDefaultTestPlugins(node.getContext().getCatalogService(), dataPath);
+      }
+    }
+    this.nodes = builder.build();
+    this.client = new DremioClient(config, coordinator);
+    client.connect();
+  }
+
+  /**
+   * Runs a query and discards its results.
+   * @return the profile of the query
+   * @throws UserException if the query failed
+   */
+  QueryProfile run(String sql) throws Exception {
+    final ResultsListener listener = new ResultsListener();
+    final AwaitableUserResultsListener awaitable = new AwaitableUserResultsListener(listener);
+    client.runQuery(QueryType.SQL, sql, awaitable);
+    awaitable.await();
+    return profiles.remove(listener.queryId);
+  }
+
+  @Override
+  public void close() throws Exception {
+    AutoCloseables.close(client, AutoCloseables.all(nodes), coordinator);
+  }
+
+  /**
+   * Releases the results of a query as they arrive.
+   */
+  private static class ResultsListener implements UserResultsListener {
+    private volatile QueryId queryId;
+
+    @Override
+    public void queryIdArrived(QueryId queryId) {
+      this.queryId = queryId;
+    }
+
+    @Override
+    public void submissionFailed(UserException ex) {
+    }
+
+    @Override
+    public void dataArrived(QueryDataBatch result, ConnectionThrottle throttle) {
+      result.release();
+    }
+
+    @Override
+    public void queryCompleted(QueryState state) {
+    }
+  }
+
+  /**
+   * Keeps the final profile of the queries, by the query id returned to the client.
+   */
+  private static class ProfileCollector implements QueryObserverFactory {
+    private final Map<QueryId, QueryProfile> profiles = new ConcurrentHashMap<>();
+
+    @Override
+    public QueryObserver createNewQueryObserver(final ExternalId id, UserSession session, UserResponseHandler handler) {
+      final QueryObserver delegate = QueryObserverFactory.DEFAULT.createNewQueryObserver(id, session, handler);
+      return new QueryObserver() {
+        @Override
+        public AttemptObserver newAttempt(AttemptId attemptId, AttemptReason reason) {
+          return delegate.newAttempt(attemptId, reason);
+        }
+
+        @Override
+        public void execCompletion(UserResult result) {
+          // before the client is notified of the completion
+          if (result.getProfile() != null) {
+            profiles.put(ExternalIdHelper.toQueryId(id), result.getProfile());
+          }
+          delegate.execCompletion(result);
+        }
+      };
+    }
+
+    QueryProfile remove(QueryId queryId) {
+      return queryId == null ? null : profiles.remove(queryId);
+    }
+  }
+}
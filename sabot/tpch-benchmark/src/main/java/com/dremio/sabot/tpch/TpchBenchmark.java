@@ -0,0 +1,197 @@
+/*
+ * Copyright (C) 2017-2018 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.tpch;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.beust.jcommander.JCommander;
+import com.beust.jcommander.Parameter;
+import com.beust.jcommander.ParameterException;
+import com.dremio.common.config.SabotConfig;
+import com.dremio.common.exceptions.UserException;
+import com.dremio.common.util.DremioVersionInfo;
+import com.dremio.exec.ExecConstants;
+import com.dremio.exec.proto.UserBitShared.QueryProfile;
+import com.google.common.base.Splitter;
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.io.Resources;
+
+/**
+ * Runs the TPC-H queries against SabotNodes embedded in this JVM, on data generated at a given scale factor, and
+ * writes the timings of each query and of its operators to a JSON report.
+ *
+ * Reports are meant to compare releases or configuration changes, so they should come from the same hardware, scale
+ * factor and data directory.
+ */
+public class TpchBenchmark {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(TpchBenchmark.class);
+
+  private static final List<String> QUERIES = ImmutableList.of("01", "02", "03", "04", "05", "06", "07", "08", "09",
+    "10", "11", "12", "13", "14", "15", "16", "17", "18", "19", "20", "21", "22");
+
+  // tables of the sample data read by the kernel TPC-H queries
+  private static final Pattern TABLE = Pattern.compile("cp\\.\"tpch/(\\w+)\\.parquet\"");
+
+  static class Options {
+    @Parameter(names = {"-s", "--scale"}, description = "TPC-H scale factor")
+    public double scale = 1;
+
+    @Parameter(names = {"-d", "--data"}, description = "directory of the generated data, reused across runs")
+    public String data = "target/tpch";
+
+    @Parameter(names = {"-n", "--nodes"}, description = "number of nodes to run")
+    public int nodes = 1;
+
+    @Parameter(names = {"-q", "--queries"}, description = "comma separated queries to run, all by default")
+    public List<String> queries = QUERIES;
+
+    @Parameter(names = {"-w", "--warmup"}, description = "number of runs of each query before measuring")
+    public int warmup = 1;
+
+    @Parameter(names = {"-i", "--iterations"}, description = "number of measured runs of each query")
+    public int iterations = 3;
+
+    @Parameter(names = {"-o", "--option"}, description = "system option to set before running the queries, as name=value")
+    public List<String> options = Lists.newArrayList();
+
+    @Parameter(names = {"-t", "--threads"}, description = "number of threads generating the data")
+    public int threads = Runtime.getRuntime().availableProcessors();
+
+    @Parameter(names = {"-r", "--report"}, description = "file the report is written to")
+    public String report = "tpch-report.json";
+
+    @Parameter(names = {"-h", "--help"}, description = "show usage", help = true)
+    public boolean help = false;
+  }
+
+  public static void main(String[] args) throws Exception {
+    final Options options = new Options();
+    final JCommander jc = new JCommander(options);
+    jc.setProgramName("tpch-benchmark");
+    try {
+      jc.parse(args);
+    } catch (ParameterException e) {
+      System.out.println(e.getMessage());
+      jc.usage();
+      System.exit(-1);
+    }
+    if (options.help) {
+      jc.usage();
+      System.exit(0);
+    }
+
+    final BenchmarkReport report = new TpchBenchmark().run(options);
+    report.write(new File(options.report));
+    System.out.println(String.format("Report written to %s", options.report));
+    System.exit(0);
+  }
+
+  BenchmarkReport run(Options options) throws Exception {
+    final Properties properties = new Properties();
+    properties.put(ExecConstants.HTTP_ENABLE, "false");
+    final SabotConfig config = SabotConfig.create(properties);
+    final File dataDir = new File(options.data).getAbsoluteFile();
+    final TpchData data = new TpchData(dataDir, options.scale, options.threads);
+    final BenchmarkReport report = new BenchmarkReport(DremioVersionInfo.getVersion(), options.scale, options.nodes,
+      options.options, System.currentTimeMillis());
+
+    try (EmbeddedCluster cluster = new EmbeddedCluster(config, options.nodes, dataDir.getPath())) {
+      // a failed query is reported as such, not run again
+      cluster.run(String.format("ALTER SYSTEM SET \"%s\" = false", ExecConstants.ENABLE_REATTEMPTS.getOptionName()));
+      data.generate(cluster);
+
+      for (String option : options.options) {
+        final List<String> parts = Splitter.on('=').limit(2).trimResults().splitToList(option);
+        if (parts.size() != 2) {
+          throw new IllegalArgumentException(String.format("Invalid option %s, expected name=value", option));
+        }
+        cluster.run(String.format("ALTER SYSTEM SET \"%s\" = %s", parts.get(0), parts.get(1)));
+      }
+
+      for (String query : options.queries) {
+        report.add(runQuery(cluster, data, query, options.warmup, options.iterations));
+      }
+    }
+    return report;
+  }
+
+  private BenchmarkReport.QueryReport runQuery(EmbeddedCluster cluster, TpchData data, String query, int warmup,
+      int iterations) throws Exception {
+    final BenchmarkReport.QueryReport result = new BenchmarkReport.QueryReport(query);
+    final List<String> statements = getStatements(data, query);
+    try {
+      for (int i = 0; i < warmup + iterations; i++) {
+        long planning = 0;
+        QueryProfile longest = null;
+        final Stopwatch watch = Stopwatch.createStarted();
+        for (String statement : statements) {
+          final QueryProfile profile = cluster.run(statement);
+          if (profile == null) {
+            continue;
+          }
+          planning += profile.getPlanningEnd() - profile.getPlanningStart();
+          if (longest == null || profile.getEnd() - profile.getStart() > longest.getEnd() - longest.getStart()) {
+            longest = profile;
+          }
+        }
+        final long elapsed = watch.elapsed(TimeUnit.MILLISECONDS);
+
+        if (i >= warmup) {
+          result.addRun(elapsed, planning,
+            longest == null ? ImmutableList.<BenchmarkReport.OperatorReport>of() : BenchmarkReport.getOperators(longest));
+        }
+        logger.info("Query {} {} run {} took {} ms", query, i < warmup ? "warmup" : "measured", i + 1, elapsed);
+      }
+    } catch (UserException e) {
+      logger.warn("Query {} failed", query, e);
+      result.setError(e.getOriginalMessage());
+    }
+
+    System.out.println(String.format("Query %s: %s", query,
+      result.isSucceeded() ? String.format("median %d ms", result.getMedianMillis()) : "failed: " + result.getError()));
+    return result;
+  }
+
+  /**
+   * @return the statements of the given query, reading the generated tables
+   */
+  private List<String> getStatements(TpchData data, String query) throws Exception {
+    final String sql = Resources.toString(Resources.getResource(String.format("queries/tpch/%s.sql", query)),
+      StandardCharsets.UTF_8);
+    final StringBuilder stripped = new StringBuilder();
+    for (String line : Splitter.on('\n').split(sql)) {
+      final int comment = line.indexOf("--");
+      stripped.append(comment < 0 ? line : line.substring(0, comment)).append('\n');
+    }
+
+    final Matcher matcher = TABLE.matcher(stripped);
+    final StringBuffer rewritten = new StringBuffer();
+    while (matcher.find()) {
+      matcher.appendReplacement(rewritten, Matcher.quoteReplacement(data.getTableName(matcher.group(1))));
+    }
+    matcher.appendTail(rewritten);
+
+    return Splitter.on(';').trimResults().omitEmptyStrings().splitToList(rewritten);
+  }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright (C) 2017-2018 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.tpch;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.FileUtils;
+
+import com.google.common.base.Joiner;
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+
+import io.airlift.tpch.TpchEntity;
+import io.airlift.tpch.TpchTable;
+
+/**
+ * TPC-H tables at a given scale factor, stored as Parquet under the data directory, which is the root of the
+ * dfs_test source. Tables are generated once with the dbgen compatible airlift generator, written as text, then
+ * converted to Parquet by the cluster itself. Tables found in the data directory are reused, so successive runs,
+ * possibly of different releases, read the exact same files.
+ */
+class TpchData {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(TpchData.class);
+
+  // columns of each table, in the order of the generated text
+  private static final Map<String, List<String>> TABLES = ImmutableMap.<String, List<String>>builder()
+    .put("nation", ImmutableList.of("n_nationkey BIGINT", "n_name VARCHAR", "n_regionkey BIGINT", "n_comment VARCHAR"))
+    .put("region", ImmutableList.of("r_regionkey BIGINT", "r_name VARCHAR", "r_comment VARCHAR"))
+    .put("part", ImmutableList.of("p_partkey BIGINT", "p_name VARCHAR", "p_mfgr VARCHAR", "p_brand VARCHAR",
+      "p_type VARCHAR", "p_size INT", "p_container VARCHAR", "p_retailprice DOUBLE", "p_comment VARCHAR"))
+    .put("supplier", ImmutableList.of("s_suppkey BIGINT", "s_name VARCHAR", "s_address VARCHAR", "s_nationkey BIGINT",
+      "s_phone VARCHAR", "s_acctbal DOUBLE", "s_comment VARCHAR"))
+    .put("partsupp", ImmutableList.of("ps_partkey BIGINT", "ps_suppkey BIGINT", "ps_availqty INT",
+      "ps_supplycost DOUBLE", "ps_comment VARCHAR"))
+    .put("customer", ImmutableList.of("c_custkey BIGINT", "c_name VARCHAR", "c_address VARCHAR", "c_nationkey BIGINT",
+      "c_phone VARCHAR", "c_acctbal DOUBLE", "c_mktsegment VARCHAR", "c_comment VARCHAR"))
+    .put("orders", ImmutableList.of("o_orderkey BIGINT", "o_custkey BIGINT", "o_orderstatus VARCHAR",
+      "o_totalprice DOUBLE", "o_orderdate DATE", "o_orderpriority VARCHAR", "o_clerk VARCHAR", "o_shippriority INT",
+      "o_comment VARCHAR"))
+    .put("lineitem", ImmutableList.of("l_orderkey BIGINT", "l_partkey BIGINT", "l_suppkey BIGINT", "l_linenumber INT",
+      "l_quantity DOUBLE", "l_extendedprice DOUBLE", "l_discount DOUBLE", "l_tax DOUBLE", "l_returnflag VARCHAR",
+      "l_linestatus VARCHAR", "l_shipdate DATE", "l_commitdate DATE", "l_receiptdate DATE", "l_shipinstruct VARCHAR",
+      "l_shipmode VARCHAR", "l_comment VARCHAR"))
+    .build();
+
+  // tables with a fixed number of rows, which can't be generated in parts
+  private static final Set<String> SINGLE_PART_TABLES = ImmutableSet.of("nation", "region");
+
+  private final File dataDir;
+  private final double scale;
+  private final String schema;
+  private final int threads;
+
+  TpchData(File dataDir, double scale, int threads) {
+    this.dataDir = dataDir;
+    this.scale = scale;
+    this.schema = "sf" + BigDecimal.valueOf(scale).stripTrailingZeros().toPlainString().replace('.', '_');
+    this.threads = threads;
+  }
+
+  /**
+   * @return name of the given table, to use in queries
+   */
+  String getTableName(String table) {
+    return String.format("dfs_test.\"%s\".\"%s\"", schema, table);
+  }
+
+  /**
+   * Generates the tables missing from the data directory.
+   */
+  void generate(EmbeddedCluster cluster) throws Exception {
+    for (TpchTable<?> table : TpchTable.getTables()) {
+      final String name = table.getTableName();
+      if (new File(new File(dataDir, schema), name).exists()) {
+        logger.info("Reusing table {} at scale factor {}", name, scale);
+        continue;
+      }
+
+      final Stopwatch watch = Stopwatch.createStarted();
+      final File textDir = new File(new File(new File(dataDir, "text"), schema), name);
+      FileUtils.deleteDirectory(textDir);
+      Files.createDirectories(textDir.toPath());
+      writeText(table, textDir, SINGLE_PART_TABLES.contains(name) ? 1 : threads);
+
+      final List<String> columns = Lists.newArrayList();
+      for (int i = 0; i < TABLES.get(name).size(); i++) {
+        final String[] column = TABLES.get(name).get(i).split(" ");
+        columns.add(String.format("CAST(columns[%d] AS %s) AS %s", i, column[1], column[0]));
+      }
+      cluster.run(String.format("CREATE TABLE %s AS SELECT %s FROM TABLE(dfs.\"%s\"(type => 'text', fieldDelimiter => '|'))",
+        getTableName(name), Joiner.on(", ").join(columns), textDir.getAbsolutePath()));
+      FileUtils.deleteDirectory(textDir);
+      logger.info("Generated table {} at scale factor {} in {} s", name, scale, watch.elapsed(TimeUnit.SECONDS));
+    }
+  }
+
+  private void writeText(TpchTable<?> table, File textDir, int parts) throws Exception {
+    final ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      final List<Future<Void>> futures = Lists.newArrayList();
+      for (int part = 1; part <= parts; part++) {
+        final int current = part;
+        futures.add(executor.submit(() -> {
+          writePart(table, new File(textDir, current + ".tbl"), current, parts);
+          return null;
+        }));
+      }
+      for (Future<Void> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private <E extends TpchEntity> void writePart(TpchTable<E> table, File file, int part, int parts) throws IOException {
+    try (Writer writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+      for (E entity : table.createGenerator(scale, part, parts)) {
+        writer.write(entity.toLine());
+        writer.write('\n');
+      }
+    }
+  }
+}
@@ -58,11 +58,13 @@ class AccelerationManagerImpl implements AccelerationManager {
 
   private final NamespaceService namespace;
   private final ReflectionService reflectionService;
+  private final WarmUpManager warmUpManager;
 
-  public AccelerationManagerImpl(ReflectionService reflectionService, NamespaceService namespace) {
+  AccelerationManagerImpl(ReflectionService reflectionService, NamespaceService namespace, WarmUpManager warmUpManager) {
     super();
     this.reflectionService = reflectionService;
     this.namespace = namespace;
+    this.warmUpManager = warmUpManager;
   }
 
   @Override
@@ -239,7 +241,7 @@ class AccelerationManagerImpl implements AccelerationManager {
 
   @Override
   public AccelerationDetailsPopulator newPopulator() {
-    return new ReflectionDetailsPopulatorImpl(namespace, reflectionService);
+    return new ReflectionDetailsPopulatorImpl(namespace, reflectionService, warmUpManager);
   }
 
   @SuppressWarnings("unchecked")
@@ -20,7 +20,10 @@ import static com.dremio.service.reflection.DependencyUtils.filterReflectionDepe
 import static com.google.common.base.Predicates.not;
 import static com.google.common.base.Predicates.notNull;
 
+import java.util.ArrayDeque;
+import java.util.Collections;
 import java.util.List;
+import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
@@ -48,6 +51,7 @@ import com.google.common.base.Predicate;
 import com.google.common.collect.FluentIterable;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Ordering;
+import com.google.common.collect.Sets;
 
 /**
  * Reflection dependencies manager
@@ -327,6 +331,38 @@ public class DependencyManager {
     return graph.getPredecessors(reflectionId);
   }
 
+  /**
+   * @return paths of all physical datasets the reflection depends on, directly or through other reflections. Empty if
+   * the dependencies of the reflection, or of any reflection it depends on, are unknown
+   */
+  public Set<List<String>> getDatasetDependencies(final ReflectionId reflectionId) {
+    final Set<List<String>> datasets = Sets.newHashSet();
+    final Set<ReflectionId> visited = Sets.newHashSet();
+    final Queue<ReflectionId> queue = new ArrayDeque<>();
+    queue.add(reflectionId);
+
+    while (!queue.isEmpty()) {
+      final ReflectionId current = queue.remove();
+      if (!visited.add(current)) {
+        continue;
+      }
+
+      final List<DependencyEntry> dependencies = graph.getPredecessors(current);
+      if (dependencies.isEmpty()) {
+        return Collections.emptySet();
+      }
+      for (DependencyEntry dependency : dependencies) {
+        if (dependency.getType() == DependencyType.DATASET) {
+          datasets.add(dependency.getPath());
+        } else {
+          queue.add(((ReflectionDependency) dependency).getReflectionId());
+        }
+      }
+    }
+
+    return datasets;
+  }
+
   public void setDependencies(final ReflectionId reflectionId, ExtractedDependencies extracted) throws DependencyException {
     Preconditions.checkState(!extracted.isEmpty(), "expected non empty dependencies");
 
@@ -18,6 +18,7 @@ package com.dremio.service.reflection;
 import static com.dremio.service.reflection.ExternalReflectionStatus.STATUS.OUT_OF_SYNC;
 
 import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicReference;
 
 import com.dremio.exec.planner.acceleration.CachedMaterializationDescriptor;
@@ -48,6 +49,8 @@ class MaterializationCache {
   private static final Map<String, MaterializationDescriptor> EMPTY_MAP = ImmutableMap.of();
 
   private final AtomicReference<Map<String, MaterializationDescriptor>> cached = new AtomicReference<>(EMPTY_MAP);
+  // materializations being warmed up, mapped to whether they were invalidated meanwhile
+  private final ConcurrentMap<String, Boolean> warmingUp = Maps.newConcurrentMap();
 
   interface CacheHelper {
     Iterable<Materialization> getValidMaterializations();
@@ -66,6 +69,13 @@ class MaterializationCache {
      * @return expanded descriptor, or null if failed to deserialize the plan
      */
     CachedMaterializationDescriptor expand(Materialization materialization) throws CacheException;
+
+    /**
+     * tries to expand the materialization's plan while warming up the cache after a restart.
+     * if we fail to deserialize the plan, the reflection will be scheduled for update even once replans are disabled
+     * @return expanded descriptor, or null if failed to deserialize the plan
+     */
+    CachedMaterializationDescriptor warmUp(Materialization materialization) throws CacheException;
   }
 
   public interface CacheViewer {
@@ -198,16 +208,28 @@ class MaterializationCache {
    * @param mId entry to be removed
    */
   void invalidate(MaterializationId mId) {
+    // flagged before removing the entry, so that a concurrent warm up either sees the flag or gets its entry removed
+    warmingUp.replace(mId.getId(), Boolean.FALSE, Boolean.TRUE);
+    remove(mId.getId(), null);
+  }
+
+  /**
+   * remove entry from the cache
+   * @param id entry to be removed
+   * @param expected descriptor to remove, or null to remove whatever descriptor is cached
+   */
+  private void remove(String id, MaterializationDescriptor expected) {
     boolean exchanged;
     do {
       Map<String, MaterializationDescriptor> old = cached.get();
-      if (!old.containsKey(mId.getId())) {
+      final MaterializationDescriptor current = old.get(id);
+      if (current == null || (expected != null && current != expected)) {
         break; // entry not present in the cache, nothing more to do
       }
       //copy over everything
       Map<String, MaterializationDescriptor> updated =  Maps.newHashMap(old);
       //remove the specific materialization.
-      updated.remove(mId.getId());
+      updated.remove(id);
       //update the cache.
       exchanged = cached.compareAndSet(old, updated);
     } while(!exchanged);
@@ -223,6 +245,57 @@ class MaterializationCache {
     } while(!exchanged);
   }
 
+  /**
+   * Expands the materialization and adds it to the cache, unless it is already cached. Used to populate the cache one
+   * entry at a time, so queries planned meanwhile can use the materializations already expanded. The expanded
+   * materialization isn't added if it was invalidated or its cache entry updated while it was being expanded.
+   *
+   * @return true if the materialization was added to the cache
+   */
+  boolean warmUp(Materialization m) {
+    final String id = m.getId().getId();
+    final MaterializationDescriptor cachedDescriptor = cached.get().get(id);
+    if (cachedDescriptor != null && m.getTag().equals(cachedDescriptor.getVersion())) {
+      return false;
+    }
+
+    warmingUp.put(id, Boolean.FALSE);
+    try {
+      // expand outside of the update loop, concurrent updates of the cache shouldn't expand it again
+      final CachedMaterializationDescriptor expanded;
+      try {
+        expanded = provider.warmUp(m);
+      } catch (Exception | AssertionError e) {
+        logger.warn("couldn't expand materialization {}", id, e);
+        return false;
+      }
+      if (expanded == null) {
+        return false;
+      }
+
+      boolean exchanged;
+      do {
+        Map<String, MaterializationDescriptor> old = cached.get();
+        // an invalidated materialization must not be added back, and an entry updated meanwhile is newer than this one
+        if (Boolean.TRUE.equals(warmingUp.get(id)) || old.get(id) != cachedDescriptor) {
+          return false;
+        }
+        Map<String, MaterializationDescriptor> updated =  Maps.newHashMap(old); //copy over everything
+        updated.put(id, expanded);
+        exchanged = cached.compareAndSet(old, updated); //update the cache.
+      } while(!exchanged);
+
+      // invalidated after the check above, but the invalidation may have missed the entry just added
+      if (Boolean.TRUE.equals(warmingUp.get(id))) {
+        remove(id, expanded);
+        return false;
+      }
+      return true;
+    } finally {
+      warmingUp.remove(id);
+    }
+  }
+
   Iterable<MaterializationDescriptor> getAll() {
     return Iterables.unmodifiableIterable(cached.get().values());
   }
@@ -75,6 +75,7 @@ class ReflectionDetailsPopulatorImpl implements AccelerationDetailsPopulator {
 
   private final NamespaceService namespace;
   private final ReflectionService reflections;
+  private final WarmUpManager warmUpManager;
   private final AccelerationDetails details = new AccelerationDetails();
   private final Map<String, ReflectionState> consideredReflections = Maps.newHashMap();
 
@@ -82,9 +83,10 @@ class ReflectionDetailsPopulatorImpl implements AccelerationDetailsPopulator {
   private QueryProfile profile;
   private List<String> substitutionErrors = Collections.emptyList();
 
-  ReflectionDetailsPopulatorImpl(NamespaceService namespace, ReflectionService reflections) {
+  ReflectionDetailsPopulatorImpl(NamespaceService namespace, ReflectionService reflections, WarmUpManager warmUpManager) {
     this.reflections = reflections;
     this.namespace = namespace;
+    this.warmUpManager = warmUpManager;
   }
 
   @Override
@@ -120,6 +122,7 @@ class ReflectionDetailsPopulatorImpl implements AccelerationDetailsPopulator {
         if (consideredReflections.containsKey(layoutId)) {
           consideredReflections.get(sub.getMaterialization().getLayoutId()).chosen = true;
         }
+        warmUpManager.recordReflection(layoutId);
       }
     } catch (Exception e) {
       logger.error("AccelerationDetails populator failed to handle planAccelerated()", e);
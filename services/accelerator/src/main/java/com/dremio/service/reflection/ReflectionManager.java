@@ -642,6 +642,15 @@ public class ReflectionManager implements Runnable {
       return false; // only applies to full refresh
     }
 
+    final ReflectionGoal goal = Preconditions.checkNotNull(userStore.get(entry.getId()),
+      "Couldn't find associated reflection goal to reflection %s", getId(entry));
+    final List<ReflectionField> partitionFields = goal.getDetails().getPartitionFieldList();
+    if (partitionFields != null && !partitionFields.isEmpty()) {
+      // partitioned materializations may also own partition refreshes
+      logger.debug("Cannot compact materialization {} as it contains partition columns", getId(materialization));
+      return false;
+    }
+
     // full refresh materializations must contain a single refresh entry
     Preconditions.checkState(refreshes.size() == 1, "expected 1 refresh entry found %s", refreshes.size());
     final Refresh refresh = refreshes.get(0);
@@ -650,15 +659,6 @@ public class ReflectionManager implements Runnable {
       return false;
     }
 
-    final ReflectionGoal goal = Preconditions.checkNotNull(userStore.get(entry.getId()),
-      "Couldn't find associated reflection goal to reflection %s", getId(entry));
-    final List<ReflectionField> partitionFields = goal.getDetails().getPartitionFieldList();
-    if (partitionFields != null && !partitionFields.isEmpty()) {
-      //TODO warn user through UI
-      logger.warn("Cannot compact materialization {} as it contains partition columns", getId(materialization));
-      return false;
-    }
-
     // mark current materialization as COMPACTED (terminal state)
     materialization
       .setState(MaterializationState.COMPACTED);
@@ -56,4 +56,13 @@ public interface ReflectionOptions {
   PositiveLongValidator COMPACTION_TRIGGER_NUMBER_FILES = new PositiveLongValidator("reflection.compaction.trigger.num_files", Long.MAX_VALUE, 1);
   // Compaction will be triggered if the median file size is less than or equal to this parameter
   PositiveLongValidator COMPACTION_TRIGGER_FILE_SIZE = new PositiveLongValidator("reflection.compaction.trigger.file_size_mb", Long.MAX_VALUE/(1024*1024), 16);
+  // should reflections partitioned on a partition column of their dataset only refresh the partitions that changed
+  BooleanValidator ENABLE_PARTITION_REFRESH = new BooleanValidator("reflection.partition_refresh.enabled", false);
+  // how many partition refreshes can follow a full refresh before the reflection is fully refreshed again
+  PositiveLongValidator MAX_PARTITION_REFRESHES = new PositiveLongValidator("reflection.partition_refresh.max_refreshes", Integer.MAX_VALUE, 30);
+  // should the reflections used before a restart be expanded first, in the background after it, instead of
+  // expanding all the reflections before the coordinator accepts queries
+  BooleanValidator ENABLE_WARM_UP = new BooleanValidator("reflection.warm_up.enabled", true);
+  // how many of the most used reflections should be warmed up first after a restart
+  PositiveLongValidator WARM_UP_MAX_ENTRIES = new PositiveLongValidator("reflection.warm_up.max_entries", Integer.MAX_VALUE, 100);
 }
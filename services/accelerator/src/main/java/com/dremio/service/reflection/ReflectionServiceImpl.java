@@ -17,11 +17,13 @@ package com.dremio.service.reflection;
 
 import static com.dremio.common.utils.SqlUtils.quotedCompound;
 import static com.dremio.options.OptionValue.OptionType.SYSTEM;
+import static com.dremio.service.reflection.ReflectionOptions.ENABLE_WARM_UP;
 import static com.dremio.service.reflection.ReflectionOptions.MATERIALIZATION_CACHE_ENABLED;
 import static com.dremio.service.reflection.ReflectionOptions.MATERIALIZATION_CACHE_REFRESH_DELAY_MILLIS;
 import static com.dremio.service.reflection.ReflectionOptions.REFLECTION_ENABLE_SUBSTITUTION;
 import static com.dremio.service.reflection.ReflectionOptions.REFLECTION_MANAGER_REFRESH_DELAY_MILLIS;
 import static com.dremio.service.reflection.ReflectionOptions.REFLECTION_PERIODIC_WAKEUP_ONLY;
+import static com.dremio.service.reflection.ReflectionOptions.WARM_UP_MAX_ENTRIES;
 import static com.dremio.service.reflection.ReflectionUtils.computeDatasetHash;
 import static com.dremio.service.reflection.ReflectionUtils.hasMissingPartitions;
 import static com.dremio.service.scheduler.ScheduleUtils.scheduleForRunningOnceAt;
@@ -98,6 +100,7 @@ import com.dremio.service.reflection.store.MaterializationStore;
 import com.dremio.service.reflection.store.ReflectionEntriesStore;
 import com.dremio.service.reflection.store.ReflectionGoalsStore;
 import com.dremio.service.reflection.store.RefreshRequestsStore;
+import com.dremio.service.reflection.store.WarmUpStore;
 import com.dremio.service.scheduler.SchedulerService;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Function;
@@ -160,12 +163,14 @@ public class ReflectionServiceImpl extends BaseReflectionService {
   private final BindingCreator bindingCreator;
   private final boolean isMaster;
   private final CacheHelperImpl cacheHelper = new CacheHelperImpl();
+  private final WarmUpManager warmUpManager;
   /** set of all reflections that need to be updated next time the reflection manager wakes up */
   private final Set<ReflectionId> reflectionsToUpdate = Sets.newConcurrentHashSet();
 
   private DependencyManager dependencyManager;
   private MaterializationCache materializationCache;
   private WakeupHandler wakeupHandler;
+  private volatile boolean warmingUp;
 
   private final CacheViewer cacheViewer = new CacheViewer() {
     @Override
@@ -214,6 +219,7 @@ public class ReflectionServiceImpl extends BaseReflectionService {
     externalReflectionStore = new ExternalReflectionStore(storeProvider);
     dependenciesStore = new DependenciesStore(storeProvider);
     requestsStore = new RefreshRequestsStore(storeProvider);
+    warmUpManager = new WarmUpManager(new WarmUpStore(storeProvider));
 
     this.queryContext = new Supplier<QueryContext>() {
       @Override
@@ -242,11 +248,33 @@ public class ReflectionServiceImpl extends BaseReflectionService {
 
     bindingCreator.replace(MaterializationDescriptorProvider.class, new MaterializationDescriptorProviderImpl());
 
-    // populate the materialization cache
+    // populate the materialization cache. No automatic rePlan allowed once it is populated, any failure to expand
+    // should cause the corresponding materialization to be marked as failed
     materializationCache = new MaterializationCache(cacheHelper, namespaceService.get(), reflectionStatusService.get());
-    if (isCacheEnabled()) {
+    if (isCacheEnabled() && getOptionManager().getOption(ENABLE_WARM_UP)) {
+      // fill the cache in the background, starting with what was used before the restart. Queries planned meanwhile
+      // only see the materializations expanded so far. Only the warm up itself may replan the materializations it
+      // fails to expand, the cache updates made meanwhile are not allowed to
+      cacheHelper.disableReplan();
+      warmingUp = true;
+      final int maxEntries = (int) getOptionManager().getOption(WARM_UP_MAX_ENTRIES);
+      executorService.submit(new Runnable() {
+        @Override
+        public void run() {
+          try {
+            warmUpManager.warmUp(materializationCache, getValidMaterializations(), maxEntries);
+            materializationCache.refresh();
+          } catch (Exception e) {
+            logger.warn("Failure while warming up the materialization cache", e);
+          } finally {
+            warmingUp = false;
+          }
+        }
+      });
+    } else if (isCacheEnabled()) {
       // refresh the cache in-thread before any query gets planned
       materializationCache.refresh();
+      cacheHelper.disableReplan();
     } else {
       //expand all descriptors here and replan ones that fail
       for (Materialization m : getValidMaterializations()) {
@@ -256,12 +284,9 @@ public class ReflectionServiceImpl extends BaseReflectionService {
           logger.warn("failed to expand materialization {}", m.getId().getId(), e);
         }
       }
+      cacheHelper.disableReplan();
     }
 
-    // no automatic rePlan allowed after this point. Any failure to expand should cause the corresponding
-    // materialization to be marked as failed
-    cacheHelper.disableReplan();
-
     // only start the managers on the master node
     if (isMaster) {
 
@@ -300,9 +325,25 @@ public class ReflectionServiceImpl extends BaseReflectionService {
         }
       );
     }
-    bindingCreator.replace(AccelerationManager.class, new AccelerationManagerImpl(this, namespaceService.get()));
+    bindingCreator.replace(AccelerationManager.class, new AccelerationManagerImpl(this, namespaceService.get(), warmUpManager));
 
     scheduleNextCacheRefresh(new CacheRefresher());
+
+    // persists the reflections used since the last flush, for the next warm up
+    schedulerService.get().schedule(scheduleForRunningOnceAt(ofEpochMilli(System.currentTimeMillis() + WarmUpManager.FLUSH_PERIOD_MILLIS)),
+      new Runnable() {
+        @Override
+        public void run() {
+          try {
+            warmUpManager.flush();
+          } catch (Exception e) {
+            logger.warn("Failure while saving warm up entries", e);
+          } finally {
+            schedulerService.get().schedule(scheduleForRunningOnceAt(ofEpochMilli(System.currentTimeMillis() + WarmUpManager.FLUSH_PERIOD_MILLIS)), this);
+          }
+        }
+      }
+    );
   }
 
   private void scheduleNextCacheRefresh(CacheRefresher refresher) {
@@ -397,6 +438,11 @@ public class ReflectionServiceImpl extends BaseReflectionService {
 
   @Override
   public void close() throws Exception {
+    try {
+      warmUpManager.flush();
+    } catch (Exception e) {
+      logger.warn("Failure while saving warm up entries", e);
+    }
   }
 
   @Override
@@ -773,6 +819,19 @@ public class ReflectionServiceImpl extends BaseReflectionService {
 
   private final class MaterializationDescriptorProviderImpl implements MaterializationDescriptorProvider {
 
+    @Override
+    public Optional<Set<List<String>>> getDatasetDependencies(MaterializationDescriptor descriptor) {
+      if (dependencyManager == null) {
+        return Optional.absent();
+      }
+
+      final Set<List<String>> datasets = dependencyManager.getDatasetDependencies(new ReflectionId(descriptor.getLayoutId()));
+      if (datasets.isEmpty()) {
+        return Optional.absent();
+      }
+      return Optional.of(datasets);
+    }
+
     @Override
     public List<MaterializationDescriptor> get() {
 
@@ -858,7 +917,7 @@ public class ReflectionServiceImpl extends BaseReflectionService {
   }
 
   private final class CacheHelperImpl implements CacheHelper {
-    private boolean rePlanIfNecessary = true;
+    private volatile boolean rePlanIfNecessary = true;
 
     void disableReplan() {
       rePlanIfNecessary = false;
@@ -885,8 +944,17 @@ public class ReflectionServiceImpl extends BaseReflectionService {
 
     @Override
     public CachedMaterializationDescriptor expand(Materialization materialization) throws CacheException {
+      return expand(materialization, rePlanIfNecessary);
+    }
+
+    @Override
+    public CachedMaterializationDescriptor warmUp(Materialization materialization) throws CacheException {
+      return expand(materialization, true);
+    }
+
+    private CachedMaterializationDescriptor expand(Materialization materialization, boolean allowRePlan) throws CacheException {
       final MaterializationDescriptor descriptor = ReflectionServiceImpl.this.getDescriptor(materialization);
-      final DremioMaterialization expanded = expand(descriptor);
+      final DremioMaterialization expanded = expand(descriptor, allowRePlan);
       if (expanded == null) {
         return null;
       }
@@ -895,6 +963,10 @@ public class ReflectionServiceImpl extends BaseReflectionService {
 
     @Override
     public DremioMaterialization expand(MaterializationDescriptor descriptor) {
+      return expand(descriptor, rePlanIfNecessary);
+    }
+
+    private DremioMaterialization expand(MaterializationDescriptor descriptor, boolean allowRePlan) {
       final ReflectionId rId = new ReflectionId(descriptor.getLayoutId());
       if (reflectionsToUpdate.contains(rId)) {
         // reflection already scheduled for update
@@ -914,7 +986,7 @@ public class ReflectionServiceImpl extends BaseReflectionService {
           return null;
         }
 
-        if (!rePlanIfNecessary) {
+        if (!allowRePlan) {
           // replan not allowed, just rethrow the exception
           throw e;
         }
@@ -922,7 +994,7 @@ public class ReflectionServiceImpl extends BaseReflectionService {
         logger.debug("failed to expand materialization descriptor {}/{}. Associated reflection will be scheduled for update",
           descriptor.getLayoutId(), descriptor.getMaterializationId(), e);
       } catch (MaterializationExpander.ExpansionException e) {
-        if (!rePlanIfNecessary) {
+        if (!allowRePlan) {
           // replan not allowed, just rethrow the exception
           throw e;
         }
@@ -960,7 +1032,10 @@ public class ReflectionServiceImpl extends BaseReflectionService {
     @Override
     public void run() {
       try {
-        refreshCache();
+        // the warm up refreshes the cache once done
+        if (!warmingUp) {
+          refreshCache();
+        }
       } finally {
         scheduleNextCacheRefresh(this);
       }
@@ -601,7 +601,8 @@ public class ReflectionUtils {
     final int numFiles = fileSizes.size();
     // alternative is to implement QuickSelect to compute the median in linear time
     Collections.sort(fileSizes);
-    final long medianFileSize = fileSizes.get(numFiles / 2);
+    // a partition refresh that only removed partitions doesn't write any file
+    final long medianFileSize = numFiles == 0 ? 0 : fileSizes.get(numFiles / 2);
 
     return new MaterializationMetrics()
       .setFootprint(footprint)
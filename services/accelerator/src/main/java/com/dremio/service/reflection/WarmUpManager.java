@@ -0,0 +1,141 @@
+/*
+ * Copyright (C) 2017-2018 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.service.reflection;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.dremio.metrics.Metrics;
+import com.dremio.service.reflection.proto.Materialization;
+import com.dremio.service.reflection.proto.WarmUpEntry;
+import com.dremio.service.reflection.store.WarmUpStore;
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+/**
+ * Keeps track of the reflections used by the queries planned on this coordinator, and expands the materializations of
+ * the most used ones into the materialization cache first after a restart, before the first queries using them get
+ * planned.
+ *
+ * Usage is counted in memory and periodically added to the store, so it survives restarts of the coordinator.
+ * Entries that weren't used for a week are dropped.
+ */
+class WarmUpManager {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(WarmUpManager.class);
+
+  static final long FLUSH_PERIOD_MILLIS = TimeUnit.MINUTES.toMillis(1);
+  private static final long MAX_AGE_MILLIS = TimeUnit.DAYS.toMillis(7);
+
+  private static final Comparator<WarmUpEntry> MOST_USED_FIRST = Comparator
+    .comparing((WarmUpEntry e) -> e.getHits())
+    .thenComparing(e -> e.getLastUsed())
+    .reversed();
+
+  private final WarmUpStore store;
+  // usage not added to the store yet
+  private final ConcurrentMap<String, WarmUpEntry> pending = Maps.newConcurrentMap();
+
+  private final AtomicLong remaining = new AtomicLong();
+  private final Counter materializations = Metrics.getInstance().counter(MetricRegistry.name("reflection", "warm_up", "materializations"));
+  private final Counter millis = Metrics.getInstance().counter(MetricRegistry.name("reflection", "warm_up", "millis"));
+
+  WarmUpManager(WarmUpStore store) {
+    this.store = store;
+    Metrics.registerGauge(MetricRegistry.name("reflection", "warm_up", "remaining"), new Gauge<Long>() {
+      @Override
+      public Long getValue() {
+        return remaining.get();
+      }
+    });
+  }
+
+  void recordReflection(String reflectionId) {
+    final long now = System.currentTimeMillis();
+    pending.merge(reflectionId, new WarmUpEntry().setId(reflectionId).setHits(1L).setLastUsed(now),
+      (previous, ignored) -> previous.setHits(previous.getHits() + 1).setLastUsed(now));
+  }
+
+  /**
+   * Adds the usage counted since the last flush to the store, and drops the entries that are too old.
+   */
+  void flush() {
+    for (String key : Lists.newArrayList(pending.keySet())) {
+      final WarmUpEntry entry = pending.remove(key);
+      final WarmUpEntry stored = store.get(key);
+      if (stored != null) {
+        entry.setHits(entry.getHits() + stored.getHits())
+          .setLastUsed(Math.max(entry.getLastUsed(), stored.getLastUsed()));
+      }
+      store.save(key, entry);
+    }
+
+    final long expiry = System.currentTimeMillis() - MAX_AGE_MILLIS;
+    for (Map.Entry<String, WarmUpEntry> entry : store.getAll()) {
+      if (entry.getValue().getLastUsed() < expiry) {
+        store.delete(entry.getKey());
+      }
+    }
+  }
+
+  /**
+   * @return the entries of the most used reflections, most used first
+   */
+  List<WarmUpEntry> getMostUsed(int max) {
+    final List<WarmUpEntry> entries = Lists.newArrayList();
+    for (Map.Entry<String, WarmUpEntry> entry : store.getAll()) {
+      entries.add(entry.getValue());
+    }
+    entries.sort(MOST_USED_FIRST);
+    return entries.subList(0, Math.min(max, entries.size()));
+  }
+
+  /**
+   * Expands the materializations of the most used reflections into the cache, followed by the other materializations.
+   */
+  void warmUp(MaterializationCache cache, Iterable<Materialization> validMaterializations, int max) {
+    final Stopwatch watch = Stopwatch.createStarted();
+    final Map<String, Integer> hotReflections = Maps.newHashMap();
+    for (WarmUpEntry entry : getMostUsed(max)) {
+      hotReflections.put(entry.getId(), hotReflections.size());
+    }
+
+    // materializations of the most used reflections first, in order of use
+    final List<Materialization> ordered = Lists.newArrayList(validMaterializations);
+    ordered.sort(Comparator.comparing(
+      (Materialization m) -> hotReflections.getOrDefault(m.getReflectionId().getId(), Integer.MAX_VALUE)));
+    remaining.set(ordered.size());
+
+    int expanded = 0;
+    for (Materialization materialization : ordered) {
+      if (cache.warmUp(materialization)) {
+        expanded++;
+        materializations.inc();
+      }
+      remaining.decrementAndGet();
+    }
+
+    millis.inc(watch.elapsed(TimeUnit.MILLISECONDS));
+    logger.info("Warmed up {} materializations in {} ms", expanded, watch.elapsed(TimeUnit.MILLISECONDS));
+  }
+}
@@ -16,7 +16,9 @@
 package com.dremio.service.reflection.materialization;
 
 import java.io.IOException;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Set;
 
 import javax.inject.Provider;
 
@@ -49,11 +51,12 @@ import com.dremio.service.reflection.proto.MaterializationState;
 import com.dremio.service.reflection.proto.ReflectionId;
 import com.dremio.service.reflection.proto.Refresh;
 import com.dremio.service.reflection.store.MaterializationStore;
-import com.google.common.base.Function;
+import com.google.common.base.Optional;
 import com.google.common.base.Throwables;
 import com.google.common.collect.FluentIterable;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterables;
+import com.google.common.collect.Sets;
 
 import io.protostuff.ByteString;
 
@@ -162,25 +165,45 @@ public class AccelerationStoragePlugin extends FileSystemPlugin<AccelerationStor
 
     final String selectionRoot = new Path(getConfig().getPath(), refreshes.first().get().getReflectionId().getId()).toString();
 
-    ImmutableList<FileStatus> allStatus = refreshes.transformAndConcat(new Function<Refresh, Iterable<FileStatus>>(){
+    // partition refreshes replace the partitions they recomputed in the refreshes that precede them
+    final List<Refresh> sortedRefreshes = refreshes.toSortedList(new Comparator<Refresh>() {
       @Override
-      public Iterable<FileStatus> apply(Refresh input) {
-        try {
-          FileSelection selection = FileSelection.create(getSystemUserFS(), resolveTablePathToValidPath(input.getPath()));
-          if(selection != null) {
-            return selection.minusDirectories().getFileStatuses();
+      public int compare(Refresh r1, Refresh r2) {
+        return Integer.compare(r2.getSeriesOrdinal(), r1.getSeriesOrdinal());
+      }
+    });
+    final Set<String> replacedPartitions = Sets.newHashSet();
+    final ImmutableList.Builder<FileStatus> allStatus = ImmutableList.builder();
+    for (Refresh refresh : sortedRefreshes) {
+      if (refresh.getJob() == null || Optional.fromNullable(refresh.getJob().getOutputRecords()).or(1L) > 0) {
+        for (FileStatus status : getFileStatuses(refresh)) {
+          if (!replacedPartitions.contains(status.getPath().getParent().getName())) {
+            allStatus.add(status);
           }
-          throw new IllegalStateException("Unable to retrieve selection for path." + input.getPath());
-        } catch (IOException e) {
-          throw Throwables.propagate(e);
         }
-      }}).toList();
+      }
+      if (refresh.getReplacedPartitionList() != null) {
+        replacedPartitions.addAll(refresh.getReplacedPartitionList());
+      }
+    }
 
-    FileSelection selection = FileSelection.createFromExpanded(allStatus, selectionRoot);
+    FileSelection selection = FileSelection.createFromExpanded(allStatus.build(), selectionRoot);
     return new ParquetFormatDatasetAccessor(oldConfig, getSystemUserFS(), selection, this, datasetPath, EMPTY, formatPlugin,
         options.maxMetadataLeafColumns());
   }
 
+  private List<FileStatus> getFileStatuses(Refresh refresh) {
+    try {
+      FileSelection selection = FileSelection.create(getSystemUserFS(), resolveTablePathToValidPath(refresh.getPath()));
+      if(selection != null) {
+        return selection.minusDirectories().getFileStatuses();
+      }
+      throw new IllegalStateException("Unable to retrieve selection for path." + refresh.getPath());
+    } catch (IOException e) {
+      throw Throwables.propagate(e);
+    }
+  }
+
   @Override
   public CheckResult checkReadSignature(
       ByteString key,
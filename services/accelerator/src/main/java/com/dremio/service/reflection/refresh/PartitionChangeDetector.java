@@ -0,0 +1,279 @@
+/*
+ * Copyright (C) 2017-2018 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.service.reflection.refresh;
+
+import static com.dremio.service.accelerator.AccelerationUtils.selfOrEmpty;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.calcite.rel.RelNode;
+import org.apache.calcite.rel.core.TableScan;
+import org.apache.calcite.rel.metadata.RelColumnOrigin;
+import org.apache.calcite.rel.type.RelDataTypeField;
+import org.apache.calcite.sql.type.SqlTypeName;
+
+import com.dremio.exec.catalog.DremioTable;
+import com.dremio.exec.planner.StatelessRelShuttleImpl;
+import com.dremio.sabot.op.writer.PartitionWriteManager;
+import com.dremio.service.namespace.DatasetSplitId;
+import com.dremio.service.namespace.NamespaceKey;
+import com.dremio.service.namespace.NamespaceService;
+import com.dremio.service.namespace.dataset.proto.DatasetConfig;
+import com.dremio.service.namespace.dataset.proto.DatasetSplit;
+import com.dremio.service.namespace.dataset.proto.PartitionValue;
+import com.dremio.service.reflection.proto.PartitionFingerprint;
+import com.dremio.service.reflection.proto.PartitionRefresh;
+import com.dremio.service.reflection.proto.ReflectionField;
+import com.dremio.service.reflection.proto.ReflectionGoal;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+
+/**
+ * Detects the partitions of a dataset that changed since a reflection was last refreshed. Only applies to reflections
+ * partitioned on a single field read as is from a partition column of their dataset, and that don't scan any other
+ * table: every partition of the reflection is then computed from the splits of the dataset partitions written to the
+ * same directory, and can be recomputed independently of the others.
+ */
+class PartitionChangeDetector {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(PartitionChangeDetector.class);
+
+  private static final Set<SqlTypeName> SUPPORTED_TYPES = ImmutableSet.of(SqlTypeName.VARCHAR, SqlTypeName.INTEGER, SqlTypeName.BIGINT);
+
+  private final String field;
+  private final String column;
+  // dataset partition values, by the reflection partition directory they are written to
+  private final Map<String, Map<Object, PartitionValue>> values;
+  private final List<PartitionFingerprint> fingerprints;
+
+  private PartitionChangeDetector(String field, String column, Map<String, Map<Object, PartitionValue>> values,
+      List<PartitionFingerprint> fingerprints) {
+    this.field = field;
+    this.column = column;
+    this.values = values;
+    this.fingerprints = fingerprints;
+  }
+
+  /**
+   * @return detector for the dataset partitions the reflection is partitioned on, null if the reflection doesn't
+   * support partition refreshes
+   */
+  static PartitionChangeDetector create(ReflectionGoal goal, RelNode plan, Iterable<DremioTable> tables, NamespaceService namespace) {
+    final List<ReflectionField> partitionFields = goal.getDetails().getPartitionFieldList();
+    if (partitionFields == null || partitionFields.size() != 1) {
+      return null;
+    }
+
+    final String field = partitionFields.get(0).getName();
+    final RelDataTypeField planField = plan.getRowType().getField(field, false, false);
+    if (planField == null || !SUPPORTED_TYPES.contains(planField.getType().getSqlTypeName())) {
+      logger.debug("Partition field {} of reflection {} has unsupported type", field, goal.getId().getId());
+      return null;
+    }
+
+    final RelColumnOrigin origin = plan.getCluster().getMetadataQuery().getColumnOrigin(plan, planField.getIndex());
+    if (origin == null || origin.isDerived()) {
+      logger.debug("Partition field {} of reflection {} isn't read as is from its dataset", field, goal.getId().getId());
+      return null;
+    }
+
+    final NamespaceKey originPath = new NamespaceKey(origin.getOriginTable().getQualifiedName());
+    if (!scansOnly(plan, originPath)) {
+      // changes to the data of the other tables wouldn't be detected
+      logger.debug("Reflection {} scans other tables than {}", goal.getId().getId(), originPath);
+      return null;
+    }
+
+    final String column = origin.getOriginTable().getRowType().getFieldList().get(origin.getOriginColumnOrdinal()).getName();
+    DatasetConfig dataset = null;
+    for (DremioTable table : tables) {
+      if (table.getPath().equals(originPath)) {
+        dataset = table.getDatasetConfig();
+      }
+    }
+
+    if (dataset == null || dataset.getReadDefinition() == null
+        || dataset.getReadDefinition().getPartitionColumnsList() == null
+        || !dataset.getReadDefinition().getPartitionColumnsList().contains(column)) {
+      logger.debug("Partition field {} of reflection {} isn't a partition column of its dataset", field, goal.getId().getId());
+      return null;
+    }
+
+    final List<DatasetSplit> splits = Lists.newArrayList();
+    for (Map.Entry<DatasetSplitId, DatasetSplit> entry : namespace.findSplits(DatasetSplitId.getSplitsRange(dataset))) {
+      splits.add(entry.getValue());
+    }
+    return fromSplits(field, column, planField.getType().getSqlTypeName(), splits);
+  }
+
+  /**
+   * @return true if all the table scans of the plan read the given dataset
+   */
+  private static boolean scansOnly(RelNode plan, final NamespaceKey path) {
+    final Set<NamespaceKey> scanned = Sets.newHashSet();
+    plan.accept(new StatelessRelShuttleImpl() {
+      @Override
+      public RelNode visit(TableScan tableScan) {
+        scanned.add(new NamespaceKey(tableScan.getTable().getQualifiedName()));
+        return tableScan;
+      }
+    });
+    return scanned.size() == 1 && scanned.contains(path);
+  }
+
+  /**
+   * @param field partition field of the reflection
+   * @param column partition column of the dataset the field is read from
+   * @param type type of the field
+   * @param splits current splits of the dataset
+   * @return detector for the given dataset splits, null if some of their partition values aren't supported
+   */
+  @VisibleForTesting
+  static PartitionChangeDetector fromSplits(String field, String column, SqlTypeName type, Iterable<DatasetSplit> splits) {
+    final Map<String, Map<Object, PartitionValue>> values = Maps.newHashMap();
+    final Map<String, List<HashCode>> splitHashes = Maps.newHashMap();
+    for (DatasetSplit split : splits) {
+      PartitionValue value = new PartitionValue().setColumn(column);
+      for (PartitionValue splitValue : selfOrEmpty(split.getPartitionValuesList())) {
+        if (column.equals(splitValue.getColumn())) {
+          value = splitValue;
+        }
+      }
+
+      if (!isSupported(value, type)) {
+        logger.debug("Dataset partition value {} of partition field {} isn't supported", value, field);
+        return null;
+      }
+
+      // same directory the writer will use for rows with this value
+      final Object object = getValue(value);
+      final String partition = PartitionWriteManager.fromObj(object);
+      values.computeIfAbsent(partition, k -> Maps.newHashMap()).put(object, value);
+      splitHashes.computeIfAbsent(partition, k -> Lists.newArrayList()).add(hash(split));
+    }
+
+    final List<PartitionFingerprint> fingerprints = Lists.newArrayList();
+    for (Map.Entry<String, List<HashCode>> entry : splitHashes.entrySet()) {
+      fingerprints.add(new PartitionFingerprint()
+        .setPartition(entry.getKey())
+        .setColumn(column)
+        .setHash(Hashing.combineUnordered(entry.getValue()).asLong()));
+    }
+
+    return new PartitionChangeDetector(field, column, values, fingerprints);
+  }
+
+  /**
+   * @return fingerprints of the current dataset partitions
+   */
+  List<PartitionFingerprint> getFingerprints() {
+    return fingerprints;
+  }
+
+  /**
+   * Compares the current dataset partitions to the ones used by the previous refresh.
+   * @return partitions to recompute, null if all partitions need to be recomputed
+   */
+  PartitionRefresh getChanges(List<PartitionFingerprint> previous) {
+    if (previous == null || previous.isEmpty()) {
+      return null;
+    }
+
+    final Map<String, Long> previousHashes = Maps.newHashMap();
+    for (PartitionFingerprint fingerprint : previous) {
+      if (!column.equals(fingerprint.getColumn())) {
+        // the previous partitions were computed from another dataset column, none of them can be reused
+        return null;
+      }
+      previousHashes.put(fingerprint.getPartition(), fingerprint.getHash());
+    }
+
+    final Set<String> changed = Sets.newTreeSet();
+    for (PartitionFingerprint fingerprint : fingerprints) {
+      if (!fingerprint.getHash().equals(previousHashes.remove(fingerprint.getPartition()))) {
+        changed.add(fingerprint.getPartition());
+      }
+    }
+    // partitions that no longer exist in the dataset
+    changed.addAll(previousHashes.keySet());
+
+    if (!fingerprints.isEmpty() && changed.containsAll(values.keySet())) {
+      return null;
+    }
+
+    final List<PartitionValue> changedValues = Lists.newArrayList();
+    for (String partition : changed) {
+      if (values.containsKey(partition)) {
+        changedValues.addAll(values.get(partition).values());
+      }
+    }
+
+    return new PartitionRefresh()
+      .setField(field)
+      .setValueList(changedValues)
+      .setReplacedPartitionList(Lists.newArrayList(changed));
+  }
+
+  private static boolean isSupported(PartitionValue value, SqlTypeName type) {
+    if (value.getBitValue() != null || value.getFloatValue() != null || value.getDoubleValue() != null
+        || value.getBinaryValue() != null) {
+      return false;
+    }
+
+    switch (type) {
+    case VARCHAR:
+      return value.getIntValue() == null && value.getLongValue() == null;
+    case INTEGER:
+      return value.getStringValue() == null && value.getLongValue() == null;
+    case BIGINT:
+      return value.getStringValue() == null && value.getIntValue() == null;
+    default:
+      return false;
+    }
+  }
+
+  /**
+   * @return value of the partition as read by the reflection writer, null if it has no value
+   */
+  static Object getValue(PartitionValue value) {
+    if (value.getStringValue() != null) {
+      return value.getStringValue();
+    }
+    if (value.getIntValue() != null) {
+      return value.getIntValue();
+    }
+    return value.getLongValue();
+  }
+
+  private static HashCode hash(DatasetSplit split) {
+    final Hasher hasher = Hashing.murmur3_128().newHasher()
+      .putString(String.valueOf(split.getSplitKey()), StandardCharsets.UTF_8)
+      .putLong(split.getSize() == null ? -1 : split.getSize())
+      .putLong(split.getRowCount() == null ? -1 : split.getRowCount());
+    if (split.getExtendedProperty() != null) {
+      hasher.putBytes(split.getExtendedProperty().toByteArray());
+    }
+    return hasher.hash();
+  }
+}
@@ -15,12 +15,18 @@
  */
 package com.dremio.service.reflection.refresh;
 
+import static com.dremio.exec.planner.logical.RelBuilder.newCalciteRelBuilderWithoutContext;
 import static com.dremio.service.reflection.ReflectionUtils.removeUpdateColumn;
 
+import java.util.List;
 import java.util.Optional;
 
 import org.apache.calcite.rel.RelNode;
 import org.apache.calcite.rel.RelShuttle;
+import org.apache.calcite.rel.type.RelDataTypeField;
+import org.apache.calcite.rex.RexBuilder;
+import org.apache.calcite.rex.RexNode;
+import org.apache.calcite.tools.RelBuilder;
 
 import com.dremio.common.config.SabotConfig;
 import com.dremio.common.exceptions.UserException;
@@ -37,16 +43,20 @@ import com.dremio.options.OptionManager;
 import com.dremio.service.namespace.NamespaceService;
 import com.dremio.service.namespace.dataset.proto.AccelerationSettings;
 import com.dremio.service.namespace.dataset.proto.DatasetConfig;
+import com.dremio.service.namespace.dataset.proto.PartitionValue;
 import com.dremio.service.namespace.dataset.proto.RefreshMethod;
 import com.dremio.service.reflection.ReflectionSettings;
 import com.dremio.service.reflection.ReflectionUtils;
 import com.dremio.service.reflection.proto.Materialization;
+import com.dremio.service.reflection.proto.PartitionRefresh;
 import com.dremio.service.reflection.proto.ReflectionEntry;
 import com.dremio.service.reflection.proto.ReflectionGoal;
 import com.dremio.service.reflection.proto.ReflectionType;
 import com.dremio.service.reflection.proto.RefreshDecision;
 import com.dremio.service.reflection.store.MaterializationStore;
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
 
 class ReflectionPlanNormalizer implements RelTransformer {
   private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(ReflectionPlanNormalizer.class);
@@ -131,11 +141,13 @@ class ReflectionPlanNormalizer implements RelTransformer {
     final RelSerializerFactory serializerFactory = RelSerializerFactory.getFactory(config, sqlHandlerConfig.getScanResult());
 
     this.refreshDecision = RefreshDecisionMaker.getRefreshDecision(
+      goal,
       entry,
       materialization,
       reflectionSettings,
       namespace,
       materializationStore,
+      optionManager,
       plan,
       strippedPlan,
       requestedTables,
@@ -149,9 +161,41 @@ class ReflectionPlanNormalizer implements RelTransformer {
       }
     }
 
+    if (refreshDecision.getPartitionRefresh() != null) {
+      strippedPlan = filterPartitions(strippedPlan, refreshDecision.getPartitionRefresh());
+    }
+
     return strippedPlan;
   }
 
+  /**
+   * Only keeps the rows of the partitions recomputed by a partition refresh
+   */
+  @VisibleForTesting
+  static RelNode filterPartitions(RelNode plan, PartitionRefresh partitionRefresh) {
+    final RelBuilder relBuilder = newCalciteRelBuilderWithoutContext(plan.getCluster());
+    final RexBuilder rexBuilder = plan.getCluster().getRexBuilder();
+    relBuilder.push(plan);
+
+    final RelDataTypeField field = plan.getRowType().getField(partitionRefresh.getField(), false, false);
+    Preconditions.checkState(field != null, "Partition field %s not found", partitionRefresh.getField());
+    final RexNode ref = relBuilder.field(field.getIndex());
+
+    final List<RexNode> conditions = Lists.newArrayList();
+    if (partitionRefresh.getValueList() != null) {
+      for (PartitionValue partitionValue : partitionRefresh.getValueList()) {
+        final Object value = PartitionChangeDetector.getValue(partitionValue);
+        if (value == null) {
+          conditions.add(relBuilder.isNull(ref));
+        } else {
+          conditions.add(relBuilder.equals(ref, rexBuilder.makeLiteral(value, field.getType(), true)));
+        }
+      }
+    }
+
+    return relBuilder.filter(relBuilder.or(conditions)).build();
+  }
+
 
   private static boolean isIncremental(RefreshDecision decision) {
     return decision.getAccelerationSettings().getMethod() == RefreshMethod.INCREMENTAL;
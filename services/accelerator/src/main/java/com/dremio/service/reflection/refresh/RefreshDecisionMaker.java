@@ -24,19 +24,24 @@ import com.dremio.exec.catalog.DremioTable;
 import com.dremio.exec.planner.acceleration.PlanHasher;
 import com.dremio.exec.planner.serialization.LogicalPlanSerializer;
 import com.dremio.exec.planner.serialization.RelSerializerFactory;
+import com.dremio.options.OptionManager;
 import com.dremio.service.job.proto.ScanPath;
 import com.dremio.service.namespace.NamespaceService;
 import com.dremio.service.namespace.dataset.proto.AccelerationSettings;
 import com.dremio.service.namespace.dataset.proto.DatasetConfig;
 import com.dremio.service.namespace.dataset.proto.RefreshMethod;
 import com.dremio.service.reflection.IncrementalUpdateUtils;
+import com.dremio.service.reflection.ReflectionOptions;
 import com.dremio.service.reflection.ReflectionSettings;
 import com.dremio.service.reflection.ReflectionUtils;
 import com.dremio.service.reflection.proto.Materialization;
+import com.dremio.service.reflection.proto.PartitionRefresh;
 import com.dremio.service.reflection.proto.ReflectionEntry;
+import com.dremio.service.reflection.proto.ReflectionGoal;
 import com.dremio.service.reflection.proto.Refresh;
 import com.dremio.service.reflection.proto.RefreshDecision;
 import com.dremio.service.reflection.store.MaterializationStore;
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Function;
 import com.google.common.base.Objects;
 import com.google.common.base.Predicate;
@@ -54,11 +59,13 @@ class RefreshDecisionMaker {
    * @return The refresh decisions made
    */
   static RefreshDecision getRefreshDecision(
+      ReflectionGoal goal,
       ReflectionEntry entry,
       Materialization materialization,
       ReflectionSettings reflectionSettings,
       NamespaceService namespace,
       MaterializationStore materializationStore,
+      OptionManager optionManager,
       RelNode plan,
       RelNode strippedPlan,
       Iterable<DremioTable> requestedTables,
@@ -97,21 +104,20 @@ class RefreshDecisionMaker {
     decision.setLogicalPlanStrippedHash(PlanHasher.hash(strippedPlan));
 
     if(settings.getMethod() == RefreshMethod.FULL) {
+      if (optionManager.getOption(ReflectionOptions.ENABLE_PARTITION_REFRESH) && requestedTables != null) {
+        final PartitionChangeDetector detector = PartitionChangeDetector.create(goal, strippedPlan, requestedTables, namespace);
+        if (detector != null) {
+          return getPartitionRefreshDecision(decision, detector, entry, namespace, materializationStore,
+            optionManager.getOption(ReflectionOptions.MAX_PARTITION_REFRESHES), newSeriesId);
+        }
+      }
+
       logger.trace("Incremental either not set or not supported for this query.");
       return decision.setInitialRefresh(true)
           .setSeriesId(newSeriesId);
     }
 
-    try {
-      final DatasetConfig dataset = namespace.findDatasetByUUID(entry.getDatasetId());
-      decision.setDatasetHash(ReflectionUtils.computeDatasetHash(dataset, namespace));
-    } catch (Exception e) {
-      throw UserException.validationError()
-        .message("Couldn't expand a materialized view on a non existing dataset")
-        .addContext("reflectionId", entry.getId().getId())
-        .addContext("datasetId", entry.getDatasetId())
-        .build(logger);
-    }
+    decision.setDatasetHash(computeDatasetHash(entry, namespace));
 
     // This is an incremental update dataset.
     // if we already have valid refreshes, we should use the their seriesId
@@ -146,4 +152,71 @@ class RefreshDecisionMaker {
         .setSeriesOrdinal(refresh.getSeriesOrdinal() + 1);
   }
 
+  /**
+   * Decides whether a full refresh of a reflection partitioned on a partition column of its dataset can only recompute
+   * the partitions that changed since its last refresh. Partition refreshes are added to the series of the last
+   * refresh, and replace the partitions they recompute.
+   */
+  @VisibleForTesting
+  static RefreshDecision getPartitionRefreshDecision(
+      RefreshDecision decision,
+      PartitionChangeDetector detector,
+      ReflectionEntry entry,
+      NamespaceService namespace,
+      MaterializationStore materializationStore,
+      long maxPartitionRefreshes,
+      long newSeriesId) {
+    decision.setDatasetHash(computeDatasetHash(entry, namespace))
+      .setPartitionFingerprintList(detector.getFingerprints());
+
+    final Materialization lastDone = materializationStore.getLastMaterializationDone(entry.getId());
+    final Refresh refresh = materializationStore.getMostRecentRefresh(entry.getId());
+    if (lastDone == null || refresh == null) {
+      logger.trace("No existing refresh, doing an initial refresh.");
+      return decision.setInitialRefresh(true)
+          .setSeriesId(newSeriesId);
+    }
+
+    if (entry.getRefreshMethod() != RefreshMethod.FULL
+        || !Objects.equal(entry.getDatasetHash(), decision.getDatasetHash())
+        || !Objects.equal(lastDone.getLogicalPlanStrippedHash(), decision.getLogicalPlanStrippedHash())) {
+      logger.trace("Change in reflection or dataset definition, doing an initial refresh.");
+      return decision.setInitialRefresh(true)
+          .setSeriesId(newSeriesId);
+    }
+
+    if (refresh.getSeriesOrdinal() >= maxPartitionRefreshes) {
+      logger.trace("Too many partition refreshes since the last full refresh, doing an initial refresh.");
+      return decision.setInitialRefresh(true)
+          .setSeriesId(newSeriesId);
+    }
+
+    final PartitionRefresh partitionRefresh = detector.getChanges(lastDone.getPartitionFingerprintList());
+    if (partitionRefresh == null) {
+      logger.trace("All partitions changed, doing an initial refresh.");
+      return decision.setInitialRefresh(true)
+          .setSeriesId(newSeriesId);
+    }
+
+    logger.trace("Refreshing partitions {}", partitionRefresh.getReplacedPartitionList());
+    return decision.setInitialRefresh(false)
+        .setPartitionRefresh(partitionRefresh)
+        .setUpdateId(refresh.getUpdateId())
+        .setSeriesId(refresh.getSeriesId())
+        .setSeriesOrdinal(refresh.getSeriesOrdinal() + 1);
+  }
+
+  private static Integer computeDatasetHash(ReflectionEntry entry, NamespaceService namespace) {
+    try {
+      final DatasetConfig dataset = namespace.findDatasetByUUID(entry.getDatasetId());
+      return ReflectionUtils.computeDatasetHash(dataset, namespace);
+    } catch (Exception e) {
+      throw UserException.validationError()
+        .message("Couldn't expand a materialized view on a non existing dataset")
+        .addContext("reflectionId", entry.getId().getId())
+        .addContext("datasetId", entry.getDatasetId())
+        .build(logger);
+    }
+  }
+
 }
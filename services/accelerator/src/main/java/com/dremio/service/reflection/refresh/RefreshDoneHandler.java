@@ -46,6 +46,7 @@ import com.dremio.service.reflection.DependencyGraph.DependencyException;
 import com.dremio.service.reflection.DependencyManager;
 import com.dremio.service.reflection.DependencyUtils;
 import com.dremio.service.reflection.ExtractedDependencies;
+import com.dremio.service.reflection.ReflectionServiceImpl;
 import com.dremio.service.reflection.ReflectionServiceImpl.ExpansionHelper;
 import com.dremio.service.reflection.ReflectionUtils;
 import com.dremio.service.reflection.proto.DataPartition;
@@ -124,18 +125,23 @@ public class RefreshDoneHandler {
 
     final JobDetails details = ReflectionUtils.computeJobDetails(job.getJobAttempt());
     final boolean dataWritten = Optional.fromNullable(details.getOutputRecords()).or(0L) > 0;
-    if (dataWritten) {
-      createAndSaveRefresh(details, decision);
+    // a partition refresh replacing partitions needs a refresh entry even if the partitions no longer have any data
+    final boolean partitionsReplaced = decision.getPartitionRefresh() != null
+      && !selfOrEmpty(decision.getPartitionRefresh().getReplacedPartitionList()).isEmpty();
+    final boolean refreshCreated = dataWritten || partitionsReplaced;
+    if (refreshCreated) {
+      createAndSaveRefresh(details, decision, dataWritten);
     } else {
       logger.debug("materialization {} didn't write any data, we won't create a refresh entry", getId(materialization));
     }
 
 
-    if (!dataWritten && !decision.getInitialRefresh()) {
+    if (!refreshCreated && !decision.getInitialRefresh()) {
       // for incremental refresh, if we don't create a refresh entry we still need to copy the materialization fields
       // from the previous materialization as it will be owning the same refreshes
-      Preconditions.checkState(decision.getAccelerationSettings().getMethod() == RefreshMethod.INCREMENTAL,
-        "non initial refresh only allowed for INCREMENTAL refreshes");
+      Preconditions.checkState(decision.getAccelerationSettings().getMethod() == RefreshMethod.INCREMENTAL
+          || decision.getPartitionRefresh() != null,
+        "non initial refresh only allowed for INCREMENTAL or partition refreshes");
       final Materialization lastDone = Preconditions.checkNotNull(
         materializationStore.getLastMaterializationDone(materialization.getReflectionId()),
         "incremental refresh didn't write any data and previous materializations expired");
@@ -148,7 +154,8 @@ public class RefreshDoneHandler {
         .setSeriesId(decision.getSeriesId())
         .setSeriesOrdinal(lastDone.getSeriesOrdinal())
         .setJoinAnalysis(lastDone.getJoinAnalysis())
-        .setPartitionList(lastDone.getPartitionList());
+        .setPartitionList(lastDone.getPartitionList())
+        .setPartitionFingerprintList(decision.getPartitionFingerprintList());
     } else {
       final Optional<Long> oldestDependentMaterialization = dependencyManager.getOldestDependentMaterialization(reflection.getId());
       materialization.setExpiration(computeExpiration())
@@ -157,9 +164,10 @@ public class RefreshDoneHandler {
         .setLogicalPlan(planBytes)
         .setLogicalPlanStrippedHash(decision.getLogicalPlanStrippedHash())
         .setSeriesId(decision.getSeriesId())
-        .setSeriesOrdinal(dataWritten ? decision.getSeriesOrdinal() : decision.getSeriesOrdinal() - 1)
+        .setSeriesOrdinal(refreshCreated ? decision.getSeriesOrdinal() : decision.getSeriesOrdinal() - 1)
         .setJoinAnalysis(computeJoinAnalysis())
-        .setPartitionList(getDataPartitions());
+        .setPartitionList(getDataPartitions())
+        .setPartitionFingerprintList(decision.getPartitionFingerprintList());
     }
 
     materializationStore.save(materialization);
@@ -221,14 +229,20 @@ public class RefreshDoneHandler {
     }
   }
 
-  private void createAndSaveRefresh(final JobDetails details, final RefreshDecision decision) {
+  private void createAndSaveRefresh(final JobDetails details, final RefreshDecision decision, final boolean dataWritten) {
     final boolean isFull = decision.getAccelerationSettings().getMethod() == RefreshMethod.FULL;
     final long updateId = isFull ? -1L : getUpdateId(job.getJobId(), job.getData());
     final MaterializationMetrics metrics = ReflectionUtils.computeMetrics(job);
     final List<DataPartition> dataPartitions = ReflectionUtils.computeDataPartitions(job.getJobAttempt().getInfo());
-    final List<String> refreshPath = ReflectionUtils.getRefreshPath(job.getJobId(), job.getData(), accelerationBasePath);
+    // the writer didn't create any file if no data was written, the refresh only removes partitions in that case
+    final List<String> refreshPath = dataWritten
+      ? ReflectionUtils.getRefreshPath(job.getJobId(), job.getData(), accelerationBasePath)
+      : ImmutableList.of(ReflectionServiceImpl.ACCELERATOR_STORAGEPLUGIN_NAME, reflection.getId().getId(), materialization.getId().getId());
     final Refresh refresh = ReflectionUtils.createRefresh(reflection.getId(), refreshPath, decision.getSeriesId(),
       decision.getSeriesOrdinal(), updateId, details, metrics, dataPartitions);
+    if (decision.getPartitionRefresh() != null) {
+      refresh.setReplacedPartitionList(decision.getPartitionRefresh().getReplacedPartitionList());
+    }
 
     logger.trace("Refresh created: {}", refresh);
     materializationStore.save(refresh);
@@ -26,6 +26,7 @@ import com.dremio.service.reflection.proto.ReflectionId;
 import com.dremio.service.reflection.proto.Refresh;
 import com.dremio.service.reflection.proto.RefreshId;
 import com.dremio.service.reflection.proto.RefreshRequest;
+import com.dremio.service.reflection.proto.WarmUpEntry;
 
 /**
  * reflection related {@link SchemaSerializer}s
@@ -120,4 +121,13 @@ class Serializers {
       super(RefreshRequest.getSchema());
     }
   }
+
+  /**
+   * {@link WarmUpEntry} kvStore serializer
+   */
+  static class WarmUpEntrySerializer extends SchemaSerializer<WarmUpEntry> {
+    public WarmUpEntrySerializer() {
+      super(WarmUpEntry.getSchema());
+    }
+  }
 }
@@ -0,0 +1,80 @@
+/*
+ * Copyright (C) 2017-2018 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.service.reflection.store;
+
+import java.util.Map;
+
+import javax.inject.Provider;
+
+import com.dremio.datastore.KVStore;
+import com.dremio.datastore.KVStoreProvider;
+import com.dremio.datastore.StoreBuildingFactory;
+import com.dremio.datastore.StoreCreationFunction;
+import com.dremio.datastore.StringSerializer;
+import com.dremio.service.reflection.proto.WarmUpEntry;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+
+/**
+ * KVStore to store the usage of reflections, keyed by reflection id, so they can be warmed up after a restart.
+ * Entries aren't versioned, the last coordinator saving an entry wins.
+ */
+public class WarmUpStore {
+  private static final String TABLE_NAME = "warm_up";
+
+  private final Supplier<KVStore<String, WarmUpEntry>> store;
+
+  public WarmUpStore(final Provider<KVStoreProvider> provider) {
+    Preconditions.checkNotNull(provider, "kvStore provider required");
+    store = Suppliers.memoize(new Supplier<KVStore<String, WarmUpEntry>>() {
+      @Override
+      public KVStore<String, WarmUpEntry> get() {
+        return provider.get().getStore(StoreCreator.class);
+      }
+    });
+  }
+
+  public void save(String key, WarmUpEntry entry) {
+    store.get().put(key, entry);
+  }
+
+  public WarmUpEntry get(String key) {
+    return store.get().get(key);
+  }
+
+  public Iterable<Map.Entry<String, WarmUpEntry>> getAll() {
+    return store.get().find();
+  }
+
+  public void delete(String key) {
+    store.get().delete(key);
+  }
+
+  /**
+   * {@link WarmUpStore} creator
+   */
+  public static final class StoreCreator implements StoreCreationFunction<KVStore<String, WarmUpEntry>> {
+    @Override
+    public KVStore<String, WarmUpEntry> build(StoreBuildingFactory factory) {
+      return factory.<String, WarmUpEntry>newStore()
+        .name(TABLE_NAME)
+        .keySerializer(StringSerializer.class)
+        .valueSerializer(Serializers.WarmUpEntrySerializer.class)
+        .build();
+    }
+  }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright (C) 2017-2018 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.service.reflection;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.dremio.exec.planner.acceleration.CachedMaterializationDescriptor;
+import com.dremio.service.namespace.NamespaceService;
+import com.dremio.service.reflection.MaterializationCache.CacheHelper;
+import com.dremio.service.reflection.proto.Materialization;
+import com.dremio.service.reflection.proto.MaterializationId;
+import com.google.common.collect.Iterables;
+
+/**
+ * Tests {@link MaterializationCache}
+ */
+public class TestMaterializationCache {
+
+  private final Materialization materialization = new Materialization()
+    .setId(new MaterializationId("m1"))
+    .setTag("1");
+
+  private CacheHelper provider;
+  private MaterializationCache cache;
+
+  @Before
+  public void setUp() {
+    provider = mock(CacheHelper.class);
+    cache = new MaterializationCache(provider, mock(NamespaceService.class), mock(ReflectionStatusService.class));
+  }
+
+  @Test
+  public void warmUpAddsExpandedMaterialization() throws Exception {
+    final CachedMaterializationDescriptor expanded = descriptor("1");
+    when(provider.warmUp(materialization)).thenReturn(expanded);
+
+    assertTrue(cache.warmUp(materialization));
+    assertSame(expanded, Iterables.getOnlyElement(cache.getAll()));
+
+    // already cached
+    assertFalse(cache.warmUp(materialization));
+  }
+
+  @Test
+  public void concurrentInvalidateDuringWarmUp() throws Exception {
+    final CachedMaterializationDescriptor expanded = descriptor("1");
+    when(provider.warmUp(materialization)).then(invocation -> {
+      // the materialization is invalidated by another thread while it is being expanded
+      final Thread invalidator = new Thread(() -> cache.invalidate(materialization.getId()));
+      invalidator.start();
+      invalidator.join();
+      return expanded;
+    });
+
+    assertFalse(cache.warmUp(materialization));
+    assertFalse(cache.contains(materialization.getId()));
+  }
+
+  @Test
+  public void concurrentUpdateDuringWarmUp() throws Exception {
+    final Materialization newer = new Materialization()
+      .setId(materialization.getId())
+      .setTag("2");
+    final CachedMaterializationDescriptor updated = descriptor("2");
+    final CachedMaterializationDescriptor expanded = descriptor("1");
+    when(provider.expand(newer)).thenReturn(updated);
+    final AtomicReference<Exception> failure = new AtomicReference<>();
+    when(provider.warmUp(materialization)).then(invocation -> {
+      // the materialization is refreshed and updated in the cache by another thread while it is being expanded
+      final Thread updater = new Thread(() -> {
+        try {
+          cache.update(newer);
+        } catch (Exception e) {
+          failure.set(e);
+        }
+      });
+      updater.start();
+      updater.join();
+      return expanded;
+    });
+
+    assertFalse(cache.warmUp(materialization));
+    assertNull(failure.get());
+    // the newer entry is kept
+    assertSame(updated, Iterables.getOnlyElement(cache.getAll()));
+  }
+
+  private static CachedMaterializationDescriptor descriptor(String version) {
+    final CachedMaterializationDescriptor descriptor = mock(CachedMaterializationDescriptor.class);
+    when(descriptor.getVersion()).thenReturn(version);
+    return descriptor;
+  }
+}
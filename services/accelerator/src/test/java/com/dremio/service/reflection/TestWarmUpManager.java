@@ -0,0 +1,117 @@
+/*
+ * Copyright (C) 2017-2018 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.service.reflection;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.AbstractMap.SimpleEntry;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import com.dremio.service.reflection.proto.WarmUpEntry;
+import com.dremio.service.reflection.store.WarmUpStore;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Tests {@link WarmUpManager}
+ */
+public class TestWarmUpManager {
+
+  @Test
+  public void testFlushAddsToStoredEntries() {
+    final WarmUpStore store = mock(WarmUpStore.class);
+    when(store.get("r1")).thenReturn(new WarmUpEntry()
+      .setId("r1")
+      .setHits(5L)
+      .setLastUsed(System.currentTimeMillis() - 1000));
+    when(store.getAll()).thenReturn(Collections.<Map.Entry<String, WarmUpEntry>>emptyList());
+
+    final WarmUpManager manager = new WarmUpManager(store);
+    manager.recordReflection("r1");
+    manager.recordReflection("r1");
+    manager.recordReflection("r2");
+    manager.flush();
+
+    final ArgumentCaptor<WarmUpEntry> reflection = ArgumentCaptor.forClass(WarmUpEntry.class);
+    verify(store).save(eq("r1"), reflection.capture());
+    assertEquals(7L, (long) reflection.getValue().getHits());
+
+    final ArgumentCaptor<WarmUpEntry> other = ArgumentCaptor.forClass(WarmUpEntry.class);
+    verify(store).save(eq("r2"), other.capture());
+    assertEquals(1L, (long) other.getValue().getHits());
+    assertEquals("r2", other.getValue().getId());
+
+    // nothing left to flush
+    final WarmUpStore otherStore = mock(WarmUpStore.class);
+    when(otherStore.getAll()).thenReturn(Collections.<Map.Entry<String, WarmUpEntry>>emptyList());
+    new WarmUpManager(otherStore).flush();
+    verify(otherStore, never()).save(anyString(), any(WarmUpEntry.class));
+  }
+
+  @Test
+  public void testFlushDropsOldEntries() {
+    final long now = System.currentTimeMillis();
+    final WarmUpStore store = mock(WarmUpStore.class);
+    when(store.getAll()).thenReturn(ImmutableList.<Map.Entry<String, WarmUpEntry>>of(
+      new SimpleEntry<>("old", new WarmUpEntry().setId("old")
+        .setHits(100L).setLastUsed(now - TimeUnit.DAYS.toMillis(8))),
+      new SimpleEntry<>("recent", new WarmUpEntry().setId("recent")
+        .setHits(1L).setLastUsed(now))));
+
+    new WarmUpManager(store).flush();
+
+    verify(store).delete("old");
+    verify(store, never()).delete("recent");
+  }
+
+  @Test
+  public void testMostUsed() {
+    final long now = System.currentTimeMillis();
+    final WarmUpStore store = mock(WarmUpStore.class);
+    when(store.getAll()).thenReturn(ImmutableList.<Map.Entry<String, WarmUpEntry>>of(
+      new SimpleEntry<>("r1", new WarmUpEntry().setId("r1")
+        .setHits(3L).setLastUsed(now)),
+      new SimpleEntry<>("r2", new WarmUpEntry().setId("r2")
+        .setHits(10L).setLastUsed(now)),
+      new SimpleEntry<>("r3", new WarmUpEntry().setId("r3")
+        .setHits(3L).setLastUsed(now + 1))));
+
+    final WarmUpManager manager = new WarmUpManager(store);
+
+    final List<WarmUpEntry> reflections = manager.getMostUsed(10);
+    assertEquals(3, reflections.size());
+    assertEquals("r2", reflections.get(0).getId());
+    // ties are broken by the most recent use
+    assertEquals("r3", reflections.get(1).getId());
+    assertEquals("r1", reflections.get(2).getId());
+
+    final List<WarmUpEntry> limited = manager.getMostUsed(1);
+    assertEquals(1, limited.size());
+    assertEquals("r2", limited.get(0).getId());
+  }
+}
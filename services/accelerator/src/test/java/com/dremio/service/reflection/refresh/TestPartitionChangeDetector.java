@@ -0,0 +1,277 @@
+/*
+ * Copyright (C) 2017-2018 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.service.reflection.refresh;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Map;
+
+import org.apache.calcite.plan.RelOptCluster;
+import org.apache.calcite.plan.RelOptTable;
+import org.apache.calcite.plan.hep.HepPlanner;
+import org.apache.calcite.plan.hep.HepProgramBuilder;
+import org.apache.calcite.rel.RelNode;
+import org.apache.calcite.rel.core.CorrelationId;
+import org.apache.calcite.rel.core.JoinRelType;
+import org.apache.calcite.rel.logical.LogicalJoin;
+import org.apache.calcite.rel.logical.LogicalProject;
+import org.apache.calcite.rel.logical.LogicalTableScan;
+import org.apache.calcite.rel.type.RelDataType;
+import org.apache.calcite.rel.type.RelDataTypeFactory;
+import org.apache.calcite.rex.RexBuilder;
+import org.apache.calcite.rex.RexNode;
+import org.apache.calcite.sql.fun.SqlStdOperatorTable;
+import org.apache.calcite.sql.type.SqlTypeName;
+import org.junit.Test;
+
+import com.dremio.datastore.KVStore.FindByRange;
+import com.dremio.exec.catalog.DremioTable;
+import com.dremio.exec.planner.types.JavaTypeFactoryImpl;
+import com.dremio.sabot.op.writer.PartitionWriteManager;
+import com.dremio.service.namespace.DatasetSplitId;
+import com.dremio.service.namespace.NamespaceKey;
+import com.dremio.service.namespace.NamespaceService;
+import com.dremio.service.namespace.dataset.proto.DatasetConfig;
+import com.dremio.service.namespace.dataset.proto.DatasetSplit;
+import com.dremio.service.namespace.dataset.proto.PartitionValue;
+import com.dremio.service.namespace.dataset.proto.ReadDefinition;
+import com.dremio.service.namespace.proto.EntityId;
+import com.dremio.service.reflection.proto.PartitionFingerprint;
+import com.dremio.service.reflection.proto.PartitionRefresh;
+import com.dremio.service.reflection.proto.ReflectionDetails;
+import com.dremio.service.reflection.proto.ReflectionField;
+import com.dremio.service.reflection.proto.ReflectionGoal;
+import com.dremio.service.reflection.proto.ReflectionId;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
+
+/**
+ * Tests {@link PartitionChangeDetector}
+ */
+public class TestPartitionChangeDetector {
+
+  private static DatasetSplit split(String key, long size, String value) {
+    final DatasetSplit split = new DatasetSplit()
+      .setSplitKey(key)
+      .setSize(size)
+      .setRowCount(10L);
+    if (value != null) {
+      split.setPartitionValuesList(ImmutableList.of(new PartitionValue().setColumn("dir0").setStringValue(value)));
+    }
+    return split;
+  }
+
+  private static PartitionChangeDetector detector(DatasetSplit... splits) {
+    final PartitionChangeDetector detector = PartitionChangeDetector.fromSplits("f", "dir0", SqlTypeName.VARCHAR,
+      ImmutableList.copyOf(splits));
+    assertNotNull(detector);
+    return detector;
+  }
+
+  private static final List<PartitionFingerprint> PREVIOUS = detector(
+    split("a1", 100, "a"),
+    split("a2", 100, "a"),
+    split("b1", 100, "b"),
+    split("c1", 100, null)).getFingerprints();
+
+  @Test
+  public void unchangedPartitions() {
+    final PartitionRefresh refresh = detector(
+      split("a2", 100, "a"),
+      split("c1", 100, null),
+      split("b1", 100, "b"),
+      split("a1", 100, "a")).getChanges(PREVIOUS);
+
+    assertNotNull(refresh);
+    assertEquals("f", refresh.getField());
+    assertTrue(refresh.getReplacedPartitionList().isEmpty());
+    assertTrue(refresh.getValueList().isEmpty());
+  }
+
+  @Test
+  public void changedPartition() {
+    final PartitionRefresh refresh = detector(
+      split("a1", 100, "a"),
+      split("a2", 200, "a"),
+      split("b1", 100, "b"),
+      split("c1", 100, null)).getChanges(PREVIOUS);
+
+    assertNotNull(refresh);
+    assertEquals(ImmutableList.of("a"), refresh.getReplacedPartitionList());
+    assertEquals(1, refresh.getValueList().size());
+    assertEquals("a", PartitionChangeDetector.getValue(refresh.getValueList().get(0)));
+  }
+
+  @Test
+  public void addedPartition() {
+    final PartitionRefresh refresh = detector(
+      split("a1", 100, "a"),
+      split("a2", 100, "a"),
+      split("b1", 100, "b"),
+      split("c1", 100, null),
+      split("d1", 100, "d")).getChanges(PREVIOUS);
+
+    assertNotNull(refresh);
+    assertEquals(ImmutableList.of("d"), refresh.getReplacedPartitionList());
+    assertEquals("d", PartitionChangeDetector.getValue(refresh.getValueList().get(0)));
+  }
+
+  @Test
+  public void removedPartition() {
+    final PartitionRefresh refresh = detector(
+      split("a1", 100, "a"),
+      split("a2", 100, "a"),
+      split("c1", 100, null)).getChanges(PREVIOUS);
+
+    // the partition directory is replaced, but there is nothing left to recompute
+    assertNotNull(refresh);
+    assertEquals(ImmutableList.of("b"), refresh.getReplacedPartitionList());
+    assertTrue(refresh.getValueList().isEmpty());
+  }
+
+  @Test
+  public void nullPartition() {
+    final PartitionRefresh refresh = detector(
+      split("a1", 100, "a"),
+      split("a2", 100, "a"),
+      split("b1", 100, "b"),
+      split("c1", 200, null)).getChanges(PREVIOUS);
+
+    assertNotNull(refresh);
+    assertEquals(ImmutableList.of(PartitionWriteManager.fromObj(null)), refresh.getReplacedPartitionList());
+    assertNull(PartitionChangeDetector.getValue(refresh.getValueList().get(0)));
+  }
+
+  @Test
+  public void allPartitionsChanged() {
+    assertNull(detector(
+      split("a3", 100, "a"),
+      split("b2", 100, "b"),
+      split("c2", 100, null)).getChanges(PREVIOUS));
+  }
+
+  @Test
+  public void noPreviousPartitions() {
+    final PartitionChangeDetector detector = detector(split("a1", 100, "a"));
+    assertNull(detector.getChanges(null));
+    assertNull(detector.getChanges(ImmutableList.<PartitionFingerprint>of()));
+  }
+
+  @Test
+  public void partitionColumnChanged() {
+    // same splits and partition directories as before, but read from another dataset column
+    final List<DatasetSplit> splits = ImmutableList.of(
+      split("a1", 100, "a"),
+      split("a2", 100, "a"),
+      split("b1", 100, "b"),
+      split("c1", 100, null));
+    for (DatasetSplit split : splits) {
+      if (split.getPartitionValuesList() != null) {
+        split.getPartitionValuesList().get(0).setColumn("dir1");
+      }
+    }
+
+    final PartitionChangeDetector detector = PartitionChangeDetector.fromSplits("f", "dir1", SqlTypeName.VARCHAR, splits);
+    assertNotNull(detector);
+    assertNull(detector.getChanges(PREVIOUS));
+  }
+
+  @Test
+  public void previousPartitionColumnUnknown() {
+    final List<PartitionFingerprint> previous = ImmutableList.of(
+      new PartitionFingerprint().setPartition("a").setHash(PREVIOUS.get(0).getHash()));
+    assertNull(detector(split("a1", 100, "a"), split("b1", 100, "b")).getChanges(previous));
+  }
+
+  @Test
+  public void unsupportedPartitionValue() {
+    final DatasetSplit split = new DatasetSplit()
+      .setSplitKey("a1")
+      .setPartitionValuesList(ImmutableList.of(new PartitionValue().setColumn("dir0").setLongValue(1L)));
+    assertNull(PartitionChangeDetector.fromSplits("f", "dir0", SqlTypeName.VARCHAR, ImmutableList.of(split)));
+  }
+
+  private static final RelDataTypeFactory TYPE_FACTORY = JavaTypeFactoryImpl.INSTANCE;
+
+  private static RelNode scan(RelOptCluster cluster, String... path) {
+    final RelDataType rowType = TYPE_FACTORY.builder()
+      .add("dir0", TYPE_FACTORY.createTypeWithNullability(TYPE_FACTORY.createSqlType(SqlTypeName.VARCHAR), true))
+      .add("k", TYPE_FACTORY.createTypeWithNullability(TYPE_FACTORY.createSqlType(SqlTypeName.INTEGER), true))
+      .build();
+    final RelOptTable table = mock(RelOptTable.class);
+    when(table.getQualifiedName()).thenReturn(ImmutableList.copyOf(path));
+    when(table.getRowType()).thenReturn(rowType);
+    return LogicalTableScan.create(cluster, table);
+  }
+
+  private static PartitionChangeDetector create(RelNode input) {
+    final RexBuilder rexBuilder = input.getCluster().getRexBuilder();
+    final RelNode plan = LogicalProject.create(input, ImmutableList.of(rexBuilder.makeInputRef(input, 0)),
+      ImmutableList.of("f"));
+
+    final ReflectionGoal goal = new ReflectionGoal()
+      .setId(new ReflectionId("r"))
+      .setDetails(new ReflectionDetails().setPartitionFieldList(ImmutableList.of(new ReflectionField("f"))));
+    final DatasetConfig dataset = new DatasetConfig()
+      .setId(new EntityId("t"))
+      .setReadDefinition(new ReadDefinition()
+        .setPartitionColumnsList(ImmutableList.of("dir0"))
+        .setSplitVersion(0L));
+    final DremioTable table = mock(DremioTable.class);
+    when(table.getPath()).thenReturn(new NamespaceKey(ImmutableList.of("s", "t")));
+    when(table.getDatasetConfig()).thenReturn(dataset);
+
+    final NamespaceService namespace = mock(NamespaceService.class);
+    final List<Map.Entry<DatasetSplitId, DatasetSplit>> splits = ImmutableList.of(
+      Maps.immutableEntry(DatasetSplitId.of(dataset, split("a1", 100, "a"), 0L), split("a1", 100, "a")));
+    when(namespace.findSplits(any(FindByRange.class))).thenReturn(splits);
+
+    return PartitionChangeDetector.create(goal, plan, ImmutableList.of(table), namespace);
+  }
+
+  private static RelOptCluster cluster() {
+    return RelOptCluster.create(new HepPlanner(new HepProgramBuilder().build()), new RexBuilder(TYPE_FACTORY));
+  }
+
+  @Test
+  public void singleTable() {
+    final PartitionChangeDetector detector = create(scan(cluster(), "s", "t"));
+    assertNotNull(detector);
+    assertEquals(1, detector.getFingerprints().size());
+  }
+
+  @Test
+  public void joinedTable() {
+    // the partition column is read as is from the first table, but the data of the second one isn't fingerprinted
+    final RelOptCluster cluster = cluster();
+    final RelNode left = scan(cluster, "s", "t");
+    final RelNode right = scan(cluster, "s", "dim");
+    final RexBuilder rexBuilder = cluster.getRexBuilder();
+    final RexNode condition = rexBuilder.makeCall(SqlStdOperatorTable.EQUALS,
+      rexBuilder.makeInputRef(left.getRowType().getFieldList().get(1).getType(), 1),
+      rexBuilder.makeInputRef(right.getRowType().getFieldList().get(1).getType(), 3));
+
+    assertNull(create(LogicalJoin.create(left, right, condition, ImmutableSet.<CorrelationId>of(), JoinRelType.INNER)));
+  }
+}
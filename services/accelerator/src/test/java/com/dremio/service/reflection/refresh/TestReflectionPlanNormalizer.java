@@ -0,0 +1,115 @@
+/*
+ * Copyright (C) 2017-2018 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.service.reflection.refresh;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.apache.calcite.plan.RelOptCluster;
+import org.apache.calcite.plan.RelOptUtil;
+import org.apache.calcite.plan.hep.HepPlanner;
+import org.apache.calcite.plan.hep.HepProgramBuilder;
+import org.apache.calcite.rel.RelNode;
+import org.apache.calcite.rel.core.Filter;
+import org.apache.calcite.rel.logical.LogicalValues;
+import org.apache.calcite.rel.type.RelDataType;
+import org.apache.calcite.rel.type.RelDataTypeFactory;
+import org.apache.calcite.rex.RexBuilder;
+import org.apache.calcite.rex.RexCall;
+import org.apache.calcite.rex.RexInputRef;
+import org.apache.calcite.rex.RexLiteral;
+import org.apache.calcite.rex.RexNode;
+import org.apache.calcite.sql.SqlKind;
+import org.apache.calcite.sql.type.SqlTypeName;
+import org.junit.Test;
+
+import com.dremio.exec.planner.types.JavaTypeFactoryImpl;
+import com.dremio.service.namespace.dataset.proto.PartitionValue;
+import com.dremio.service.reflection.proto.PartitionRefresh;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Tests the plan {@link ReflectionPlanNormalizer} builds for partition refreshes
+ */
+public class TestReflectionPlanNormalizer {
+
+  private static RelNode input() {
+    final RelDataTypeFactory typeFactory = JavaTypeFactoryImpl.INSTANCE;
+    final RelOptCluster cluster = RelOptCluster.create(new HepPlanner(new HepProgramBuilder().build()),
+      new RexBuilder(typeFactory));
+    final RelDataType rowType = typeFactory.builder()
+      .add("a", typeFactory.createTypeWithNullability(typeFactory.createSqlType(SqlTypeName.INTEGER), true))
+      .add("f", typeFactory.createTypeWithNullability(typeFactory.createSqlType(SqlTypeName.VARCHAR), true))
+      .add("g", typeFactory.createTypeWithNullability(typeFactory.createSqlType(SqlTypeName.BIGINT), true))
+      .build();
+    return LogicalValues.createEmpty(cluster, rowType);
+  }
+
+  private static RexNode stripCast(RexNode node) {
+    while (node.getKind() == SqlKind.CAST) {
+      node = ((RexCall) node).getOperands().get(0);
+    }
+    return node;
+  }
+
+  private static void assertEqualsCondition(RexNode condition, int field, Object value) {
+    assertEquals(SqlKind.EQUALS, condition.getKind());
+    final List<RexNode> operands = ((RexCall) condition).getOperands();
+    assertEquals(field, ((RexInputRef) stripCast(operands.get(0))).getIndex());
+    assertEquals(value, ((RexLiteral) stripCast(operands.get(1))).getValue2());
+  }
+
+  @Test
+  public void filterStringPartitions() {
+    final RelNode input = input();
+    final PartitionRefresh refresh = new PartitionRefresh()
+      .setField("f")
+      .setValueList(ImmutableList.of(
+        new PartitionValue().setColumn("dir0").setStringValue("x"),
+        new PartitionValue().setColumn("dir0"),
+        new PartitionValue().setColumn("dir0").setStringValue("y")));
+
+    final RelNode plan = ReflectionPlanNormalizer.filterPartitions(input, refresh);
+
+    assertTrue(plan instanceof Filter);
+    assertEquals(input, ((Filter) plan).getInput());
+    final List<RexNode> conditions = RelOptUtil.disjunctions(((Filter) plan).getCondition());
+    assertEquals(3, conditions.size());
+    assertEqualsCondition(conditions.get(0), 1, "x");
+    assertEquals(SqlKind.IS_NULL, conditions.get(1).getKind());
+    assertEquals(1, ((RexInputRef) ((RexCall) conditions.get(1)).getOperands().get(0)).getIndex());
+    assertEqualsCondition(conditions.get(2), 1, "y");
+  }
+
+  @Test
+  public void filterSinglePartition() {
+    final RelNode plan = ReflectionPlanNormalizer.filterPartitions(input(), new PartitionRefresh()
+      .setField("g")
+      .setValueList(ImmutableList.of(new PartitionValue().setColumn("dir0").setLongValue(12L))));
+
+    assertTrue(plan instanceof Filter);
+    assertEqualsCondition(((Filter) plan).getCondition(), 2, 12L);
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void unknownPartitionField() {
+    ReflectionPlanNormalizer.filterPartitions(input(), new PartitionRefresh()
+      .setField("h")
+      .setValueList(ImmutableList.of(new PartitionValue().setColumn("dir0").setStringValue("x"))));
+  }
+}
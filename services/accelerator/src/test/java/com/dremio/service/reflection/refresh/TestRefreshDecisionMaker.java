@@ -0,0 +1,179 @@
+/*
+ * Copyright (C) 2017-2018 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.service.reflection.refresh;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.apache.calcite.sql.type.SqlTypeName;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.dremio.service.namespace.NamespaceService;
+import com.dremio.service.namespace.dataset.proto.DatasetConfig;
+import com.dremio.service.namespace.dataset.proto.DatasetSplit;
+import com.dremio.service.namespace.dataset.proto.DatasetType;
+import com.dremio.service.namespace.dataset.proto.PartitionValue;
+import com.dremio.service.namespace.dataset.proto.RefreshMethod;
+import com.dremio.service.reflection.ReflectionUtils;
+import com.dremio.service.reflection.proto.Materialization;
+import com.dremio.service.reflection.proto.PartitionFingerprint;
+import com.dremio.service.reflection.proto.ReflectionEntry;
+import com.dremio.service.reflection.proto.ReflectionId;
+import com.dremio.service.reflection.proto.Refresh;
+import com.dremio.service.reflection.proto.RefreshDecision;
+import com.dremio.service.reflection.store.MaterializationStore;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Tests the partition refresh decisions of {@link RefreshDecisionMaker}
+ */
+public class TestRefreshDecisionMaker {
+  private static final long MAX_PARTITION_REFRESHES = 3;
+  private static final long NEW_SERIES_ID = 42;
+  private static final long PLAN_HASH = 7;
+
+  private final ReflectionId reflectionId = new ReflectionId("r1");
+  private final NamespaceService namespace = mock(NamespaceService.class);
+  private final MaterializationStore materializationStore = mock(MaterializationStore.class);
+
+  private ReflectionEntry entry;
+  private Materialization lastDone;
+  private Refresh refresh;
+
+  private static DatasetSplit split(String key, String value) {
+    return new DatasetSplit()
+      .setSplitKey(key)
+      .setSize(100L)
+      .setRowCount(10L)
+      .setPartitionValuesList(ImmutableList.of(new PartitionValue().setColumn("dir0").setStringValue(value)));
+  }
+
+  private static PartitionChangeDetector detector(DatasetSplit... splits) {
+    return PartitionChangeDetector.fromSplits("f", "dir0", SqlTypeName.VARCHAR, ImmutableList.copyOf(splits));
+  }
+
+  private static final List<PartitionFingerprint> PREVIOUS = detector(split("a1", "a"), split("b1", "b")).getFingerprints();
+
+  @Before
+  public void setup() throws Exception {
+    final DatasetConfig dataset = new DatasetConfig()
+      .setType(DatasetType.PHYSICAL_DATASET_SOURCE_FOLDER);
+    when(namespace.findDatasetByUUID("d1")).thenReturn(dataset);
+
+    entry = new ReflectionEntry()
+      .setId(reflectionId)
+      .setDatasetId("d1")
+      .setRefreshMethod(RefreshMethod.FULL)
+      .setDatasetHash(ReflectionUtils.computeDatasetHash(dataset, namespace));
+    lastDone = new Materialization()
+      .setReflectionId(reflectionId)
+      .setSeriesId(10L)
+      .setLogicalPlanStrippedHash(PLAN_HASH)
+      .setPartitionFingerprintList(PREVIOUS);
+    refresh = new Refresh()
+      .setReflectionId(reflectionId)
+      .setSeriesId(10L)
+      .setUpdateId(5L)
+      .setSeriesOrdinal(0);
+
+    when(materializationStore.getLastMaterializationDone(reflectionId)).thenReturn(lastDone);
+    when(materializationStore.getMostRecentRefresh(reflectionId)).thenReturn(refresh);
+  }
+
+  private RefreshDecision decide(PartitionChangeDetector detector) {
+    return RefreshDecisionMaker.getPartitionRefreshDecision(
+      new RefreshDecision().setLogicalPlanStrippedHash(PLAN_HASH),
+      detector, entry, namespace, materializationStore, MAX_PARTITION_REFRESHES, NEW_SERIES_ID);
+  }
+
+  private static void assertInitialRefresh(RefreshDecision decision) {
+    assertTrue(decision.getInitialRefresh());
+    assertEquals(NEW_SERIES_ID, decision.getSeriesId().longValue());
+    assertNull(decision.getPartitionRefresh());
+  }
+
+  @Test
+  public void partitionRefresh() {
+    final PartitionChangeDetector detector = detector(split("a1", "a"), split("b2", "b"));
+    final RefreshDecision decision = decide(detector);
+
+    assertFalse(decision.getInitialRefresh());
+    assertEquals(ImmutableList.of("b"), decision.getPartitionRefresh().getReplacedPartitionList());
+    assertEquals(10L, decision.getSeriesId().longValue());
+    assertEquals(5L, decision.getUpdateId().longValue());
+    assertEquals(1, decision.getSeriesOrdinal().intValue());
+    assertEquals(detector.getFingerprints(), decision.getPartitionFingerprintList());
+  }
+
+  @Test
+  public void fullRefreshAfterMaxPartitionRefreshes() {
+    refresh.setSeriesOrdinal((int) MAX_PARTITION_REFRESHES - 1);
+    assertFalse(decide(detector(split("a1", "a"), split("b2", "b"))).getInitialRefresh());
+
+    refresh.setSeriesOrdinal((int) MAX_PARTITION_REFRESHES);
+    final RefreshDecision decision = decide(detector(split("a1", "a"), split("b2", "b")));
+    assertInitialRefresh(decision);
+    // the next partition refreshes compare against the partitions of this refresh
+    assertEquals(2, decision.getPartitionFingerprintList().size());
+  }
+
+  @Test
+  public void fullRefreshWhenPartitionColumnChanged() {
+    final DatasetSplit a = split("a1", "a");
+    final DatasetSplit b = split("b2", "b");
+    a.getPartitionValuesList().get(0).setColumn("dir1");
+    b.getPartitionValuesList().get(0).setColumn("dir1");
+
+    assertInitialRefresh(decide(PartitionChangeDetector.fromSplits("f", "dir1", SqlTypeName.VARCHAR, ImmutableList.of(a, b))));
+  }
+
+  @Test
+  public void fullRefreshWhenAllPartitionsChanged() {
+    assertInitialRefresh(decide(detector(split("a2", "a"), split("b2", "b"))));
+  }
+
+  @Test
+  public void fullRefreshWithoutPreviousRefresh() {
+    when(materializationStore.getLastMaterializationDone(reflectionId)).thenReturn(null);
+    when(materializationStore.getMostRecentRefresh(reflectionId)).thenReturn(null);
+    assertInitialRefresh(decide(detector(split("a1", "a"), split("b2", "b"))));
+  }
+
+  @Test
+  public void fullRefreshWhenPlanChanged() {
+    lastDone.setLogicalPlanStrippedHash(PLAN_HASH + 1);
+    assertInitialRefresh(decide(detector(split("a1", "a"), split("b2", "b"))));
+  }
+
+  @Test
+  public void fullRefreshWhenDatasetChanged() {
+    entry.setDatasetHash(entry.getDatasetHash() + 1);
+    assertInitialRefresh(decide(detector(split("a1", "a"), split("b2", "b"))));
+  }
+
+  @Test
+  public void fullRefreshWhenRefreshMethodChanged() {
+    entry.setRefreshMethod(RefreshMethod.INCREMENTAL);
+    assertInitialRefresh(decide(detector(split("a1", "a"), split("b2", "b"))));
+  }
+}
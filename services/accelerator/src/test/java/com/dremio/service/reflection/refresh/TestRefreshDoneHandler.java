@@ -0,0 +1,212 @@
+/*
+ * Copyright (C) 2017-2018 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.service.reflection.refresh;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.apache.arrow.vector.util.Text;
+import org.apache.hadoop.fs.Path;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import com.dremio.common.utils.PathUtils;
+import com.dremio.exec.store.RecordWriter;
+import com.dremio.service.job.proto.ExtraInfo;
+import com.dremio.service.job.proto.JobAttempt;
+import com.dremio.service.job.proto.JobId;
+import com.dremio.service.job.proto.JobInfo;
+import com.dremio.service.job.proto.JobState;
+import com.dremio.service.job.proto.JobStats;
+import com.dremio.service.jobs.Job;
+import com.dremio.service.jobs.JobData;
+import com.dremio.service.jobs.JobDataFragment;
+import com.dremio.service.namespace.NamespaceService;
+import com.dremio.service.namespace.dataset.proto.AccelerationSettings;
+import com.dremio.service.namespace.dataset.proto.PartitionValue;
+import com.dremio.service.namespace.dataset.proto.RefreshMethod;
+import com.dremio.service.reflection.DependencyManager;
+import com.dremio.service.reflection.proto.Materialization;
+import com.dremio.service.reflection.proto.MaterializationId;
+import com.dremio.service.reflection.proto.PartitionFingerprint;
+import com.dremio.service.reflection.proto.PartitionRefresh;
+import com.dremio.service.reflection.proto.ReflectionEntry;
+import com.dremio.service.reflection.proto.ReflectionId;
+import com.dremio.service.reflection.proto.Refresh;
+import com.dremio.service.reflection.proto.RefreshDecision;
+import com.dremio.service.reflection.store.MaterializationStore;
+import com.google.common.base.Optional;
+import com.google.common.collect.FluentIterable;
+import com.google.common.collect.ImmutableList;
+
+import io.protostuff.ByteString;
+
+/**
+ * Tests {@link RefreshDoneHandler} with partition refreshes
+ */
+public class TestRefreshDoneHandler {
+  private static final Path ACCELERATION_BASE_PATH = new Path("/accelerator");
+  private static final long SERIES_ID = 10;
+
+  private final ReflectionId reflectionId = new ReflectionId("r1");
+  private final ReflectionEntry entry = new ReflectionEntry().setId(reflectionId);
+  private final NamespaceService namespace = mock(NamespaceService.class);
+  private final MaterializationStore materializationStore = mock(MaterializationStore.class);
+  private final DependencyManager dependencyManager = mock(DependencyManager.class);
+  private final JobData jobData = mock(JobData.class);
+
+  private final List<PartitionFingerprint> fingerprints = ImmutableList.of(
+    new PartitionFingerprint().setPartition("a").setColumn("dir0").setHash(1L),
+    new PartitionFingerprint().setPartition("b").setColumn("dir0").setHash(2L));
+
+  private Materialization materialization;
+  private Materialization lastDone;
+
+  @Before
+  public void setup() {
+    materialization = new Materialization()
+      .setId(new MaterializationId("m2"))
+      .setReflectionId(reflectionId)
+      .setInitRefreshSubmit(100L);
+    lastDone = new Materialization()
+      .setId(new MaterializationId("m1"))
+      .setReflectionId(reflectionId)
+      .setLastRefreshFromPds(50L)
+      .setLogicalPlan(ByteString.copyFrom(new byte[] {2}))
+      .setSeriesId(SERIES_ID)
+      .setSeriesOrdinal(0);
+
+    when(materializationStore.getLastMaterializationDone(reflectionId)).thenReturn(lastDone);
+    when(materializationStore.getRefreshesForSeries(reflectionId, SERIES_ID))
+      .thenReturn(ImmutableList.of(new Refresh().setReflectionId(reflectionId).setSeriesId(SERIES_ID)));
+    when(materializationStore.getRefreshes(any(Materialization.class))).thenReturn(FluentIterable.from(ImmutableList.<Refresh>of()));
+    when(dependencyManager.getGracePeriod(reflectionId)).thenReturn(Optional.of(1000L));
+    when(dependencyManager.getEarliestExpiration(reflectionId)).thenReturn(Optional.<Long>absent());
+    when(dependencyManager.getOldestDependentMaterialization(reflectionId)).thenReturn(Optional.<Long>absent());
+    final JobDataFragment empty = fragment(0, null);
+    when(jobData.range(anyInt(), anyInt())).thenReturn(empty);
+  }
+
+  private static JobDataFragment fragment(int rows, String path) {
+    final JobDataFragment fragment = mock(JobDataFragment.class);
+    when(fragment.getReturnedRowCount()).thenReturn(rows);
+    when(fragment.extractValue(RecordWriter.FILESIZE_COLUMN, 0)).thenReturn(100L);
+    when(fragment.extractValue(RecordWriter.PATH_COLUMN, 0)).thenReturn(path == null ? null : new Text(path));
+    return fragment;
+  }
+
+  private static RefreshDecision decision(String... replacedPartitions) {
+    return new RefreshDecision()
+      .setInitialRefresh(false)
+      .setSeriesId(SERIES_ID)
+      .setSeriesOrdinal(1)
+      .setAccelerationSettings(new AccelerationSettings().setMethod(RefreshMethod.FULL))
+      .setLogicalPlan(ByteString.copyFrom(new byte[] {1}))
+      .setLogicalPlanStrippedHash(7L)
+      .setPartitionRefresh(new PartitionRefresh()
+        .setField("f")
+        .setValueList(ImmutableList.of(new PartitionValue().setColumn("dir0").setStringValue("b")))
+        .setReplacedPartitionList(ImmutableList.copyOf(replacedPartitions)));
+  }
+
+  private RefreshDoneHandler handler(RefreshDecision decision, long outputRecords) {
+    final JobAttempt attempt = new JobAttempt()
+      .setState(JobState.COMPLETED)
+      .setInfo(new JobInfo()
+        .setJobId(new JobId("j1"))
+        .setStartTime(100L)
+        .setFinishTime(200L))
+      .setStats(new JobStats().setOutputRecords(outputRecords))
+      .setExtraInfoList(ImmutableList.of(new ExtraInfo()
+        .setName(RefreshHandler.DECISION_NAME)
+        .setData(ByteString.copyFrom(RefreshHandler.SERIALIZER.serialize(decision.setPartitionFingerprintList(fingerprints))))));
+
+    final Job job = mock(Job.class);
+    when(job.getJobId()).thenReturn(new JobId("j1"));
+    when(job.getJobAttempt()).thenReturn(attempt);
+    when(job.getData()).thenReturn(jobData);
+
+    return new RefreshDoneHandler(entry, materialization, job, namespace, materializationStore, dependencyManager,
+      () -> null, ACCELERATION_BASE_PATH);
+  }
+
+  private Refresh savedRefresh() {
+    final ArgumentCaptor<Refresh> refresh = ArgumentCaptor.forClass(Refresh.class);
+    verify(materializationStore).save(refresh.capture());
+    return refresh.getValue();
+  }
+
+  @Test
+  public void dataWritten() throws Exception {
+    final JobDataFragment written = fragment(1, "/accelerator/r1/m2_0");
+    when(jobData.range(0, 1)).thenReturn(written);
+    when(jobData.range(0, 1000)).thenReturn(written);
+
+    handler(decision("b"), 5).handle();
+
+    final Refresh refresh = savedRefresh();
+    assertEquals(PathUtils.getPathJoiner().join("r1", "m2_0"), refresh.getPath());
+    assertEquals(ImmutableList.of("b"), refresh.getReplacedPartitionList());
+    assertEquals(1, refresh.getSeriesOrdinal().intValue());
+    assertEquals(1, refresh.getMetrics().getNumFiles().intValue());
+    assertEquals(100L, refresh.getMetrics().getFootprint().longValue());
+
+    assertEquals(1, materialization.getSeriesOrdinal().intValue());
+    assertEquals(ByteString.copyFrom(new byte[] {1}), materialization.getLogicalPlan());
+    assertEquals(fingerprints, materialization.getPartitionFingerprintList());
+    verify(materializationStore).save(materialization);
+  }
+
+  @Test
+  public void partitionsReplacedWithoutData() throws Exception {
+    // the only partition recomputed no longer has any row, the writer didn't create any file
+    handler(decision("b"), 0).handle();
+
+    final Refresh refresh = savedRefresh();
+    assertEquals(PathUtils.getPathJoiner().join("r1", "m2"), refresh.getPath());
+    assertEquals(ImmutableList.of("b"), refresh.getReplacedPartitionList());
+    assertEquals(1, refresh.getSeriesOrdinal().intValue());
+    assertEquals(0, refresh.getMetrics().getNumFiles().intValue());
+    assertEquals(0L, refresh.getMetrics().getMedianFileSize().longValue());
+
+    // the materialization owns the new refresh
+    assertEquals(1, materialization.getSeriesOrdinal().intValue());
+    assertEquals(ByteString.copyFrom(new byte[] {1}), materialization.getLogicalPlan());
+    verify(materializationStore).save(materialization);
+  }
+
+  @Test
+  public void nothingReplaced() throws Exception {
+    // no partition changed, the materialization reuses the refreshes of the previous one
+    handler(decision(), 0).handle();
+
+    verify(materializationStore, never()).save(any(Refresh.class));
+    assertEquals(lastDone.getSeriesOrdinal(), materialization.getSeriesOrdinal());
+    assertEquals(lastDone.getLogicalPlan(), materialization.getLogicalPlan());
+    assertEquals(lastDone.getLastRefreshFromPds(), materialization.getLastRefreshFromPds());
+    assertEquals(SERIES_ID, materialization.getSeriesId().longValue());
+    assertEquals(fingerprints, materialization.getPartitionFingerprintList());
+    verify(materializationStore).save(materialization);
+  }
+}
@@ -92,6 +92,13 @@ abstract class CoreBaseTimedStore<K, V> implements CoreKVStore<K, V> {
     }
   }
 
+  @Override
+  public void deleteRange(FindByRange<KVStoreTuple<K>> range) {
+    try (TimedBlock b = time(name + ".deleteRange")) {
+      kvStore.deleteRange(range);
+    }
+  }
+
   @Override
   public void delete(KVStoreTuple<K> key, String previousVersion) {
     try (TimedBlock b = time(name + ".delete(K, long)")) {
@@ -112,6 +112,13 @@ public class CoreKVStoreImpl<KEY, VALUE> implements CoreKVStore<KEY, VALUE> {
     );
   }
 
+  @Override
+  public void deleteRange(FindByRange<KVStoreTuple<KEY>> range) {
+    rawStore.deleteRange(new FindByRange<byte[]>()
+      .setStart(range.getStart().getSerializedBytes(), range.isStartInclusive())
+      .setEnd(range.getEnd().getSerializedBytes(), range.isEndInclusive()));
+  }
+
   @Override
   public Iterable<Map.Entry<KVStoreTuple<KEY>, KVStoreTuple<VALUE>>> find(FindByRange<KVStoreTuple<KEY>> find) {
     final FindByRange<byte[]> convertedRange = new FindByRange<byte[]>()
@@ -75,6 +75,18 @@ public interface KVStore<K, V> {
    */
   void delete(K key);
 
+  /**
+   * Remove all the keys in the given range, and their associated values, from the store.
+   * Stores which can't delete a range at once remove the keys one by one.
+   *
+   * @param range the range of keys to remove. Start and end keys must be set.
+   */
+  default void deleteRange(FindByRange<K> range) {
+    for (Map.Entry<K, V> entry : find(range)) {
+      delete(entry.getKey());
+    }
+  }
+
 
   /**
    * Return a iterable of keys & values for any key within the provided Range
@@ -93,6 +93,13 @@ public class LocalKVStore<K, V> implements KVStore<K, V> {
     coreKVStore.delete(buildKey(key));
   }
 
+  @Override
+  public void deleteRange(FindByRange<K> range) {
+    coreKVStore.deleteRange(new FindByRange<KVStoreTuple<K>>()
+      .setStart(buildKey(range.getStart()), range.isStartInclusive())
+      .setEnd(buildKey(range.getEnd()), range.isEndInclusive()));
+  }
+
   @Override
   public Iterable<Map.Entry<K, V>> find(FindByRange<K> find) {
     final FindByRange<KVStoreTuple<K>> convertedRange = new FindByRange<KVStoreTuple<K>>()
@@ -168,6 +168,11 @@ class OCCStore<KEY, VALUE> implements CoreKVStore<KEY, VALUE> {
     store.delete(key);
   }
 
+  @Override
+  public void deleteRange(FindByRange<KVStoreTuple<KEY>> range) {
+    store.deleteRange(range);
+  }
+
   @Override
   public Iterable<Entry<KVStoreTuple<KEY>, KVStoreTuple<VALUE>>> find(FindByRange<KVStoreTuple<KEY>> find) {
     return () -> StreamSupport.stream(store.find(find).spliterator(), false)
@@ -467,6 +467,24 @@ class RocksDBStore implements ByteStore {
     }
   }
 
+  @Override
+  public void deleteRange(FindByRange<byte[]> range) {
+    // RocksDB deletes from the begin key included to the end key excluded, and the first key after a given key is the
+    // key followed by a 0 byte.
+    final byte[] begin = range.isStartInclusive() ? range.getStart() : nextKey(range.getStart());
+    final byte[] end = range.isEndInclusive() ? nextKey(range.getEnd()) : range.getEnd();
+    try (AutoCloseableLock ac = sharedLock(begin)) {
+      throwIfClosed();
+      db.deleteRange(handle, begin, end);
+    } catch (RocksDBException e) {
+      throw wrap(e);
+    }
+  }
+
+  private static byte[] nextKey(byte[] key) {
+    return Arrays.copyOf(key, key.length + 1);
+  }
+
   @Override
   public Iterable<Entry<byte[], byte[]>> find(com.dremio.datastore.KVStore.FindByRange<byte[]> find) {
     cleanReferences();
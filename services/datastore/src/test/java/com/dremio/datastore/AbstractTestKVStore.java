@@ -210,6 +210,22 @@ public abstract class AbstractTestKVStore {
     assertRange(range, 5, "key1", "key100", "key2", "key3", "key30");
   }
 
+  @Test
+  public void testDeleteRange() throws Exception {
+    getBackend().put("key1", "value1");
+    getBackend().put("key3", "value3");
+    getBackend().put("key2", "value2");
+    getBackend().put("key30", "value30");
+    getBackend().put("key0", "value0");
+    getBackend().put("key100", "value100");
+
+    kvStore.deleteRange(new FindByRange<>("key1", false, "key3", true));
+    assertRange(kvStore.find(), 3, "key0", "key1", "key30");
+
+    kvStore.deleteRange(new FindByRange<>("key0", true, "key1", false));
+    assertRange(kvStore.find(), 2, "key1", "key30");
+  }
+
   private static void assertRange(Iterable<Entry<String, String>> range, int size, String... keys){
     assertSize(range, size);
     assertIncluded(range, keys);
@@ -58,6 +58,10 @@ class ArrowFileReader implements AutoCloseable {
   private final Path path;
 
   private FSDataInputStream inputStream;
+  // record offset in the file right after each batch, to find the batch containing a record without reading the
+  // whole footer
+  private long[] batchEnds;
+  private boolean closed;
 
   ArrowFileReader(final FileSystem dfs, Path basePath, final ArrowFileMetadata metadata, final BufferAllocator allocator) {
     this.dfs = dfs;
@@ -67,6 +71,10 @@ class ArrowFileReader implements AutoCloseable {
   }
 
   private void openFile() throws IOException {
+    if (inputStream != null) {
+      return;
+    }
+
     inputStream = dfs.open(path);
 
     if (false /* disable this until a PDFS getFileStatus() issue is fixed AssertionUtil.ASSERT_ENABLED */) {
@@ -113,7 +121,7 @@ class ArrowFileReader implements AutoCloseable {
    * @param limit number of records to read
    * @return
    */
-  List<RecordBatchHolder> read(final long start, final long limit) throws IOException {
+  synchronized List<RecordBatchHolder> read(final long start, final long limit) throws IOException {
     // Make sure the range is valid according to the metadata in footer
     checkArgument(start == 0 && metadata.getRecordCount() == 0|| start >= 0 && start < metadata.getRecordCount(),
         "Invalid start index (%s). Record count in file (%s)", start, metadata.getRecordCount());
@@ -122,70 +130,142 @@ class ArrowFileReader implements AutoCloseable {
         start, limit, metadata.getRecordCount());
 
     openFile();
+    try {
+      final List<RecordBatchHolder> batches = Lists.newArrayList();
+      final ArrowFileFooter footer = metadata.getFooter();
 
-    final VectorAccessibleSerializable vectorAccessibleSerializable = new VectorAccessibleSerializable(allocator);
-    final List<RecordBatchHolder> batches = Lists.newArrayList();
-    final ArrowFileFooter footer = metadata.getFooter();
+      long remaining = limit;
+      final int numBatches = getBatchCount();
+      for(int batchIndex = findBatch(start); batchIndex < numBatches; batchIndex++) {
+        // Skip past empty batches
+        if (footer.getBatchList().get(batchIndex).getRecordCount() == 0) {
+          continue;
+        }
 
-    long runningCount = 0;
-    long remaining = limit;
-    final int numBatches = footer.getBatchList() == null ? 0 : footer.getBatchList().size();
-    for(int batchIndex = 0; batchIndex < numBatches; batchIndex++) {
-      ArrowRecordBatchSummary batchSummary = footer.getBatchList().get(batchIndex);
-      // Skip past empty batches
-      if (batchSummary.getRecordCount() == 0) {
-        continue;
-      }
+        final RecordBatchHolder batchHolder = readBatch(batchIndex, start, remaining);
+
+        batches.add(batchHolder);
 
-      runningCount += batchSummary.getRecordCount();
+        remaining -= batchHolder.size();
 
-      // Skip batches until we reach a batch that contains the start index
-      if (start >= runningCount) {
-        // valid indices in up until the current batch are in range [0, runningCount - 1]
-        continue;
+        if (remaining == 0) {
+          break;
+        }
       }
 
-      final long currentBatchCount = batchSummary.getRecordCount();
+      if (batches.isEmpty()) {
+        batches.add(getEmptyBatch());
+      }
 
-      // Seek to the place where the batch starts and read
-      inputStream.seek(batchSummary.getOffset());
-      vectorAccessibleSerializable.readFromStream(inputStream);
-      final VectorContainer vectorContainer = vectorAccessibleSerializable.get();
+      return batches;
+    } finally {
+      closeIfReleased();
+    }
+  }
+
+  /**
+   * Read the given batch, only keeping the records in given range.
+   * @param batchIndex index of the batch in the file
+   * @param start Starting record number in file (0 based index)
+   * @param limit maximum number of records to keep
+   * @return
+   */
+  synchronized RecordBatchHolder read(final int batchIndex, final long start, final long limit) throws IOException {
+    checkArgument(batchIndex >= 0 && batchIndex < getBatchCount(),
+        "Invalid batch index (%s). Batch count in file (%s)", batchIndex, getBatchCount());
+
+    openFile();
+    try {
+      return readBatch(batchIndex, start, limit);
+    } finally {
+      closeIfReleased();
+    }
+  }
 
-      // Find the start and end indices within the batch.
-      final int batchStart = Math.max(0, (int) (start - (runningCount - currentBatchCount)));
-      final int batchEnd = (int) Math.min(currentBatchCount, batchStart + remaining);
+  private RecordBatchHolder readBatch(final int batchIndex, final long start, final long limit) throws IOException {
+    final ArrowRecordBatchSummary batchSummary = metadata.getFooter().getBatchList().get(batchIndex);
+    final long currentBatchCount = batchSummary.getRecordCount();
 
-      final RecordBatchHolder batchHolder = newRecordBatchHolder(
-          new RecordBatchData(vectorContainer, allocator),
-          batchStart,
-          batchEnd
-      );
+    // Seek to the place where the batch starts and read
+    final VectorAccessibleSerializable vectorAccessibleSerializable = new VectorAccessibleSerializable(allocator);
+    inputStream.seek(batchSummary.getOffset());
+    vectorAccessibleSerializable.readFromStream(inputStream);
+    final VectorContainer vectorContainer = vectorAccessibleSerializable.get();
+
+    // Find the start and end indices within the batch.
+    final int batchStart = Math.max(0, (int) (start - (getBatchEnds()[batchIndex] - currentBatchCount)));
+    final int batchEnd = (int) Math.min(currentBatchCount, batchStart + limit);
+
+    return newRecordBatchHolder(
+        new RecordBatchData(vectorContainer, allocator),
+        batchStart,
+        batchEnd
+    );
+  }
 
-      batches.add(batchHolder);
+  long getRecordCount() {
+    return metadata.getRecordCount();
+  }
 
-      remaining -= batchHolder.size();
+  int getBatchCount() {
+    final ArrowFileFooter footer = metadata.getFooter();
+    return footer.getBatchList() == null ? 0 : footer.getBatchList().size();
+  }
 
-      if (remaining == 0) {
-        break;
+  /**
+   * Find the batch containing the given record.
+   * @param record record number in file (0 based index)
+   * @return index of the batch, or the number of batches if the record is past the end of the file
+   */
+  int findBatch(final long record) {
+    final long[] ends = getBatchEnds();
+    // first batch ending after the record, it can't be empty
+    int low = 0;
+    int high = ends.length;
+    while (low < high) {
+      final int mid = (low + high) >>> 1;
+      if (ends[mid] <= record) {
+        low = mid + 1;
+      } else {
+        high = mid;
       }
     }
+    return low;
+  }
 
-    if (batches.isEmpty()) {
-      batches.add(getEmptyBatch());
+  private long[] getBatchEnds() {
+    if (batchEnds == null) {
+      final long[] ends = new long[getBatchCount()];
+      long runningCount = 0;
+      for (int i = 0; i < ends.length; i++) {
+        runningCount += metadata.getFooter().getBatchList().get(i).getRecordCount();
+        ends[i] = runningCount;
+      }
+      batchEnds = ends;
     }
+    return batchEnds;
+  }
 
-    return batches;
+  // a reader shared by concurrent readers may be used after it was closed, don't leave its file open in that case
+  private void closeIfReleased() throws IOException {
+    if (closed) {
+      closeInputStream();
+    }
   }
 
-  @Override
-  public void close() throws IOException {
+  private void closeInputStream() throws IOException {
     if (inputStream != null) {
       inputStream.close();
       inputStream = null;
     }
   }
 
+  @Override
+  public synchronized void close() throws IOException {
+    closed = true;
+    closeInputStream();
+  }
+
   /**
    * Helper method that creates an empty batch from schema in Arrow footer.
    * @return
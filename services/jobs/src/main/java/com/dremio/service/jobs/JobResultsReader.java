@@ -0,0 +1,158 @@
+/*
+ * Copyright (C) 2017-2018 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.service.jobs;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+
+import com.dremio.common.AutoCloseables;
+import com.dremio.exec.store.easy.arrow.ArrowFileMetadata;
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+
+/**
+ * Reads ranges of records from the result files of a job. The files are kept open and their batch offsets indexed, so
+ * paging through the results doesn't open the files and walk their footers again for every page.
+ */
+class JobResultsReader implements AutoCloseable {
+
+  private final List<ArrowFileReader> readers;
+  // record offset in the results right after each file
+  private final long[] fileEnds;
+
+  JobResultsReader(FileSystem dfs, Path jobOutputDir, List<ArrowFileMetadata> resultMetadata, BufferAllocator allocator) {
+    final ImmutableList.Builder<ArrowFileReader> builder = ImmutableList.builder();
+    this.fileEnds = new long[resultMetadata.size()];
+    long runningCount = 0;
+    for (int i = 0; i < resultMetadata.size(); i++) {
+      final ArrowFileMetadata metadata = resultMetadata.get(i);
+      builder.add(new ArrowFileReader(dfs, jobOutputDir, metadata, allocator));
+      runningCount += metadata.getRecordCount();
+      fileEnds[i] = runningCount;
+    }
+    this.readers = builder.build();
+  }
+
+  /**
+   * Read the records in given range. If the range is empty or invalid, an empty batch is returned for metadata
+   * purposes.
+   * @param offset Starting record number in the results (0 based index)
+   * @param limit maximum number of records to read
+   * @return
+   */
+  RecordBatches read(long offset, long limit) throws IOException {
+    final List<RecordBatchHolder> batchHolders = Lists.newArrayList();
+    try {
+      final Iterator<RecordBatchHolder> iterator = iterator(offset, limit);
+      while (iterator.hasNext()) {
+        batchHolders.add(iterator.next());
+      }
+
+      if (batchHolders.isEmpty()) {
+        batchHolders.addAll(readers.get(0).read(0, 0));
+      }
+    } catch (IOException | RuntimeException e) {
+      AutoCloseables.close(e, batchHolders);
+      throw e;
+    }
+
+    return new RecordBatches(batchHolders);
+  }
+
+  /**
+   * Lazily read the records in given range, one batch at a time, so the caller only holds a single batch in memory.
+   * Iterating throws {@link UncheckedIOException} if a file can't be read.
+   * @param offset Starting record number in the results (0 based index)
+   * @param limit maximum number of records to read
+   * @return
+   */
+  Iterator<RecordBatchHolder> iterator(final long offset, final long limit) {
+    return new AbstractIterator<RecordBatchHolder>() {
+      private long position = offset;
+      private long remaining = Math.max(0, Math.min(limit, getRecordCount() - offset));
+      private int fileIndex = findFile(offset);
+      private int batchIndex = -1;
+
+      @Override
+      protected RecordBatchHolder computeNext() {
+        while (remaining > 0 && fileIndex < readers.size()) {
+          final ArrowFileReader reader = readers.get(fileIndex);
+          final long fileStart = fileEnds[fileIndex] - reader.getRecordCount();
+          final long fileOffset = position - fileStart;
+          if (batchIndex < 0) {
+            batchIndex = reader.findBatch(fileOffset);
+          }
+
+          if (batchIndex >= reader.getBatchCount()) {
+            fileIndex++;
+            batchIndex = -1;
+            continue;
+          }
+
+          final RecordBatchHolder holder;
+          try {
+            holder = reader.read(batchIndex++, fileOffset, remaining);
+          } catch (IOException e) {
+            throw new UncheckedIOException(e);
+          }
+
+          if (holder.size() == 0) {
+            // empty batches are skipped
+            holder.getData().close();
+            continue;
+          }
+
+          position += holder.size();
+          remaining -= holder.size();
+          return holder;
+        }
+
+        return endOfData();
+      }
+    };
+  }
+
+  long getRecordCount() {
+    return fileEnds.length == 0 ? 0 : fileEnds[fileEnds.length - 1];
+  }
+
+  private int findFile(long record) {
+    // first file ending after the record
+    int low = 0;
+    int high = fileEnds.length;
+    while (low < high) {
+      final int mid = (low + high) >>> 1;
+      if (fileEnds[mid] <= record) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  @Override
+  public void close() throws Exception {
+    AutoCloseables.close(readers);
+  }
+}
@@ -18,9 +18,11 @@ package com.dremio.service.jobs;
 import static com.dremio.common.perf.Timer.time;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ExecutionException;
@@ -47,12 +49,14 @@ import com.google.common.base.FinalizablePhantomReference;
 import com.google.common.base.FinalizableReference;
 import com.google.common.base.FinalizableReferenceQueue;
 import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
+import com.google.common.cache.RemovalListener;
 import com.google.common.collect.Iterables;
-import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 
 /**
  * Stores and manages job results for max 30 days (default).
@@ -70,6 +74,12 @@ public class JobResultsStore implements Service {
   private final Set<FinalizableReference> jobResultReferences = Sets.newConcurrentHashSet();
   private final LoadingCache<JobId, JobData> jobResults;
   private final IndexedStore<JobId, JobResult> store;
+  // open result files of the jobs being paged through
+  private final Cache<JobId, JobResultsReader> readers = CacheBuilder.newBuilder()
+      .maximumSize(100)
+      .expireAfterAccess(5, TimeUnit.MINUTES)
+      .removalListener((RemovalListener<JobId, JobResultsReader>) notification -> closeReader(notification.getValue()))
+      .build();
 
   public JobResultsStore(final FileSystemPlugin plugin, final IndexedStore<JobId, JobResult> store,
       final BufferAllocator allocator) throws IOException {
@@ -113,6 +123,7 @@ public class JobResultsStore implements Service {
   }
 
   public boolean cleanup(JobId jobId) {
+    readers.invalidate(jobId);
     final Path jobOutputDir = getJobOutputDir(jobId);
     try {
       if (dfs.exists(jobOutputDir)) {
@@ -175,89 +186,112 @@ public class JobResultsStore implements Service {
 
   public RecordBatches loadJobData(JobId jobId, JobResult job, int offset, int limit){
     try (TimedBlock b = time("getJobResult")) {
+      return getReader(jobId, job).read(offset, limit);
+    } catch(IOException | UncheckedIOException ex){
+      throw UserException.dataReadError(ex)
+          .message("Failed to load results for job %s", jobId.getId())
+          .build(logger);
+    }
+  }
 
-      final List<JobAttempt> attempts = job.getAttemptsList();
-      if(attempts.size() > 0) {
-        final JobAttempt mostRecentJob = attempts.get(job.getAttemptsList().size() - 1);
-        if (mostRecentJob.getState() == JobState.CANCELED) {
-          throw UserException.dataReadError()
-            .message("Could not load results as the query was canceled")
-            .build(logger);
+  /**
+   * Lazily read the results of the given job, one batch at a time. Nothing is read before the first call to hasNext().
+   * The caller is responsible for closing the returned batches, and the iterator.
+   */
+  public RecordBatchIterator streamJobData(JobId jobId, JobResult job, long offset, long limit) {
+    final Iterator<RecordBatchHolder> iterator = getReader(jobId, job).iterator(offset, limit);
+    return new RecordBatchIterator() {
+      // batch read by hasNext() but not returned yet
+      private RecordBatchHolder pending;
+      private boolean closed;
+
+      @Override
+      public boolean hasNext() {
+        if (pending != null) {
+          return true;
+        }
+        if (closed) {
+          return false;
         }
-      }
 
-      final Path jobOutputDir = getJobOutputDir(jobId);
-      if (!dfs.isDirectory(jobOutputDir)) {
-        throw UserException.dataReadError()
-            .message("Job '%s' output doesn't exist", jobId.getId())
-            .build(logger);
+        try {
+          if (iterator.hasNext()) {
+            pending = iterator.next();
+          }
+        } catch (UncheckedIOException ex) {
+          throw UserException.dataReadError(ex.getCause())
+              .message("Failed to load results for job %s", jobId.getId())
+              .build(logger);
+        }
+        return pending != null;
       }
 
-      // Find out the list of batches that contain the given record ranges
-      final List<ArrowFileMetadata> resultMetadata = getLastAttempt(job).getResultMetadataList();
-
-      if (resultMetadata == null || resultMetadata.isEmpty()) {
-        throw UserException.dataReadError()
-            .message("Job " + jobId.getId() + " has no results")
-            .build(logger);
+      @Override
+      public RecordBatchHolder next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        final RecordBatchHolder holder = pending;
+        pending = null;
+        return holder;
       }
 
-      final List<ArrowFileMetadata> resultFilesToRead = Lists.newArrayList();
-      int runningFileRecordCount = 0;
-      for(ArrowFileMetadata fileMetadata : resultMetadata) {
-        if (offset < runningFileRecordCount + fileMetadata.getRecordCount()) {
-          resultFilesToRead.add(fileMetadata);
-
-          if (resultFilesToRead.size() == 1) {
-            // update the given offset to start from the current file
-            offset -= runningFileRecordCount;
-          }
-
-          // Check if the offset + limit falls within the current file
-          if (offset + limit <= runningFileRecordCount + fileMetadata.getRecordCount()) {
-            break;
-          }
+      @Override
+      public void close() {
+        closed = true;
+        if (pending != null) {
+          pending.getData().close();
+          pending = null;
         }
+      }
+    };
+  }
 
-        runningFileRecordCount += fileMetadata.getRecordCount();
+  private JobResultsReader getReader(JobId jobId, JobResult job) {
+    final List<JobAttempt> attempts = job.getAttemptsList();
+    if(attempts.size() > 0) {
+      final JobAttempt mostRecentJob = attempts.get(job.getAttemptsList().size() - 1);
+      if (mostRecentJob.getState() == JobState.CANCELED) {
+        throw UserException.dataReadError()
+          .message("Could not load results as the query was canceled")
+          .build(logger);
       }
+    }
 
-      final List<RecordBatchHolder> batchHolders = Lists.newArrayList();
-      if (resultFilesToRead.isEmpty()) {
-        // when the query returns no results at all or the requested range is invalid, return an empty record batch
-        // for metadata purposes.
-        try (ArrowFileReader fileReader = new ArrowFileReader(dfs, jobOutputDir, resultMetadata.get(0), allocator)) {
-          batchHolders.addAll(fileReader.read(0, 0));
+    try {
+      return readers.get(jobId, () -> {
+        final Path jobOutputDir = getJobOutputDir(jobId);
+        if (!dfs.isDirectory(jobOutputDir)) {
+          throw UserException.dataReadError()
+              .message("Job '%s' output doesn't exist", jobId.getId())
+              .build(logger);
         }
-      } else {
-        runningFileRecordCount = 0;
-        int remaining = limit;
-        for(ArrowFileMetadata file : resultFilesToRead) {
-
-          // Find the starting record index in file
-          final long fileOffset = Math.max(0, offset - runningFileRecordCount);
 
-          // Find how many records to read from file.
-          // Min of remaining records in file or remaining records in total to read.
-          final long fileLimit = Math.min(file.getRecordCount() - fileOffset, remaining);
-
-          try (ArrowFileReader fileReader = new ArrowFileReader(dfs, jobOutputDir, file, allocator)) {
-            batchHolders.addAll(fileReader.read(fileOffset, fileLimit));
-            remaining -= fileLimit;
-          }
-
-          runningFileRecordCount += file.getRecordCount();
+        final List<ArrowFileMetadata> resultMetadata = getLastAttempt(job).getResultMetadataList();
+        if (resultMetadata == null || resultMetadata.isEmpty()) {
+          throw UserException.dataReadError()
+              .message("Job " + jobId.getId() + " has no results")
+              .build(logger);
         }
-      }
 
-      return new RecordBatches(batchHolders);
-    } catch(IOException ex){
-      throw UserException.dataReadError(ex)
+        return new JobResultsReader(dfs, jobOutputDir, resultMetadata, allocator);
+      });
+    } catch (ExecutionException | UncheckedExecutionException e) {
+      Throwables.propagateIfPossible(e.getCause());
+      throw UserException.dataReadError(e.getCause())
           .message("Failed to load results for job %s", jobId.getId())
           .build(logger);
     }
   }
 
+  private static void closeReader(JobResultsReader reader) {
+    try {
+      reader.close();
+    } catch (Exception e) {
+      logger.warn("Failure while closing job results reader", e);
+    }
+  }
+
   public JobData get(JobId jobId) {
     try{
       return jobResults.get(jobId);
@@ -306,6 +340,9 @@ public class JobResultsStore implements Service {
     jobResults.invalidateAll();
     jobResults.cleanUp();
 
+    readers.invalidateAll();
+    readers.cleanUp();
+
     // Closing open references
     Iterator<FinalizableReference> iterator = jobResultReferences.iterator();
     while(iterator.hasNext()) {
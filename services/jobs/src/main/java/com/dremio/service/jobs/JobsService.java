@@ -169,6 +169,17 @@ public interface JobsService extends Service {
    */
   QueryProfile getProfile(JobId jobId, int attempt) throws JobNotFoundException;
 
+  /**
+   * Lazily read the results of a completed job, one batch at a time. Nothing is read before the first call to
+   * hasNext(). The caller is responsible for closing the returned batches, and the iterator.
+   *
+   * @param jobId    The job id
+   * @param offset   Starting record number in the results (0 based index)
+   * @param limit    Maximum number of records to read
+   * @return
+   */
+  RecordBatchIterator streamJobData(JobId jobId, long offset, long limit) throws JobNotFoundException;
+
   /**
    * Cancel the provided jobId as the provided user.
    *
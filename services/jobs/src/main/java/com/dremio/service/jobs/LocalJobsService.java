@@ -66,6 +66,7 @@ import org.codehaus.jackson.map.ObjectMapper;
 import org.codehaus.jackson.map.annotate.JsonSerialize;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.xerial.snappy.Snappy;
 
 import com.dremio.common.AutoCloseables;
 import com.dremio.common.DeferredException;
@@ -80,6 +81,7 @@ import com.dremio.common.utils.protos.QueryWritableBatch;
 import com.dremio.datastore.IndexedStore;
 import com.dremio.datastore.IndexedStore.FindByCondition;
 import com.dremio.datastore.KVStore;
+import com.dremio.datastore.KVStore.FindByRange;
 import com.dremio.datastore.KVStoreProvider;
 import com.dremio.datastore.KVStoreProvider.DocumentWriter;
 import com.dremio.datastore.ProtostuffSerializer;
@@ -184,7 +186,6 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
-import com.google.protobuf.InvalidProtocolBufferException;
 
 import io.protostuff.ByteString;
 
@@ -749,11 +750,15 @@ public class LocalJobsService implements JobsService {
   }
 
   /**
-   * Serializer for {@link QueryProfile query profile}.
+   * Serializer for {@link QueryProfile query profile}. Profiles are stored compressed with Snappy, after a 0 byte which
+   * can't start a protobuf message, so profiles stored uncompressed by previous versions can still be read.
    */
   public static final class QueryProfileSerializer extends Serializer<QueryProfile> {
     private static final InstanceSerializer<QueryProfile> JSON_SERIALIZER =
         new ProtoSerializer<>(SchemaUserBitShared.QueryProfile.MERGE, SchemaUserBitShared.QueryProfile.WRITE);
+    private static final byte COMPRESSED = 0;
+    private static final byte SNAPPY = 1;
+    private static final int HEADER_SIZE = 2;
 
     @Override
     public QueryProfile fromJson(String profile) throws IOException {
@@ -767,14 +772,32 @@ public class LocalJobsService implements JobsService {
 
     @Override
     public byte[] convert(QueryProfile profile) {
-      return profile.toByteArray();
+      final byte[] bytes = profile.toByteArray();
+      try {
+        final byte[] compressed = new byte[HEADER_SIZE + Snappy.maxCompressedLength(bytes.length)];
+        compressed[0] = COMPRESSED;
+        compressed[1] = SNAPPY;
+        final int length = Snappy.compress(bytes, 0, bytes.length, compressed, HEADER_SIZE);
+        return Arrays.copyOf(compressed, HEADER_SIZE + length);
+      } catch (IOException e) {
+        throw Throwables.propagate(e);
+      }
     }
 
     @Override
     public QueryProfile revert(byte[] profile) {
       try {
-        return QueryProfile.PARSER.parseFrom(profile);
-      } catch (InvalidProtocolBufferException e) {
+        if (profile.length == 0 || profile[0] != COMPRESSED) {
+          return QueryProfile.PARSER.parseFrom(profile);
+        }
+
+        Preconditions.checkArgument(profile.length >= HEADER_SIZE && profile[1] == SNAPPY,
+            "Unknown profile compression");
+        final int length = profile.length - HEADER_SIZE;
+        final byte[] bytes = new byte[Snappy.uncompressedLength(profile, HEADER_SIZE, length)];
+        Snappy.uncompress(profile, HEADER_SIZE, length, bytes, 0);
+        return QueryProfile.PARSER.parseFrom(bytes);
+      } catch (IOException e) {
         throw Throwables.propagate(e);
       }
     }
@@ -1480,6 +1503,16 @@ public class LocalJobsService implements JobsService {
     }
   }
 
+  @Override
+  public RecordBatchIterator streamJobData(JobId jobId, long offset, long limit) throws JobNotFoundException {
+    final JobResult jobResult = store.get(jobId);
+    if (jobResult == null) {
+      throw new JobNotFoundException(jobId);
+    }
+
+    return jobResultsStore.streamJobData(jobId, jobResult, offset, limit);
+  }
+
   @Override
   public QueryProfile getProfile(JobId jobId, int attempt) throws JobNotFoundException {
 
@@ -1577,6 +1610,10 @@ public class LocalJobsService implements JobsService {
       return jobsDeleted;
     }
 
+    /**
+     * @return the number of profiles of the deleted jobs. Most profiles are deleted as a range, without checking that
+     * they exist, so this is an estimate.
+     */
     public long getProfilesDeleted() {
       return profilesDeleted;
     }
@@ -1587,6 +1624,10 @@ public class LocalJobsService implements JobsService {
   /**
    * Delete job details and profiles older than provided number of days.
    *
+   * Profiles are deleted by start time of their query, at once, rather than one by one with their jobs. The deleted
+   * range ends before the profiles of the jobs which are kept as they ended after the cutoff time, or never ended. The
+   * profiles of the deleted jobs outside of the range are then deleted one by one.
+   *
    * Exposed as static so that cleanup tasks can do this without needing to start a jobs service and supporting daemon.
    *
    * @param provider KVStore provider
@@ -1599,8 +1640,17 @@ public class LocalJobsService implements JobsService {
     IndexedStore<JobId, JobResult> jobStore = provider.getStore(JobsStoreCreator.class);
     KVStore<AttemptId, QueryProfile> profileStore = provider.getStore(JobsProfileCreator.class);
 
+    final long cutOffTime = System.currentTimeMillis() - maxDays * ONE_DAY_IN_MILLIS;
+    long oldestBucket = getBucket(cutOffTime);
+    // jobs are keyed by their external id too, so the jobs in the range are the jobs of the profiles in the range
+    for (Entry<JobId, JobResult> entry : jobStore.find(getJobsRange(oldestBucket))) {
+      if (!isOldJob(entry.getValue(), cutOffTime)) {
+        oldestBucket = Math.max(oldestBucket, getBucket(JobsServiceUtil.getJobIdAsExternalId(entry.getKey())) + 1);
+      }
+    }
+    profileStore.deleteRange(getProfilesRange(oldestBucket));
 
-    final FindByCondition oldJobs = getOldJobsCondition(System.currentTimeMillis() - maxDays * 86_400_000);
+    final FindByCondition oldJobs = getOldJobsCondition(cutOffTime);
     for(Entry<JobId, JobResult> entry : jobStore.find(oldJobs)) {
       jobStore.delete(entry.getKey());
       jobsDeleted++;
@@ -1608,12 +1658,14 @@ public class LocalJobsService implements JobsService {
       if(result.getAttemptsList() != null) {
         for(JobAttempt a : result.getAttemptsList()) {
           try {
-            profileStore.delete(AttemptIdUtils.fromString(a.getAttemptId()));
+            final AttemptId attemptId = AttemptIdUtils.fromString(a.getAttemptId());
+            if (getBucket(attemptId.getExternalId()) < oldestBucket) {
+              profileStore.delete(attemptId);
+            }
             profilesDeleted++;
           } catch(Exception e) {
             // don't fail on miss.
           }
-
         }
       }
     }
@@ -1621,6 +1673,75 @@ public class LocalJobsService implements JobsService {
     return new DeleteResult(jobsDeleted, profilesDeleted);
   }
 
+  /**
+   * Get the range of the profiles of the queries started before the cutoff time.
+   *
+   * Profiles are keyed by attempt id, which starts with the number of seconds from the start of the query to
+   * {@code Integer.MAX_VALUE} seconds (see {@link ExternalIdHelper#generateExternalId()}): profiles are bucketed by start
+   * time, newest first, and the profiles older than any time are a single range at the end of the store.
+   *
+   * @param cutOffTime The epoch millis cutoff time.
+   * @return the range for kvstore use.
+   */
+  static FindByRange<AttemptId> getOldProfilesRange(long cutOffTime) {
+    return getProfilesRange(getBucket(cutOffTime));
+  }
+
+  /**
+   * @param cutOffTime The epoch millis cutoff time.
+   * @return the oldest bucket of the external ids created before the cutoff time
+   */
+  private static long getBucket(long cutOffTime) {
+    // the random low bits of the id may borrow from the time bits, so skip the bucket of the cutoff second
+    return Integer.MAX_VALUE - TimeUnit.MILLISECONDS.toSeconds(cutOffTime) + 1;
+  }
+
+  private static long getBucket(ExternalId externalId) {
+    return externalId.getPart1() >>> 32;
+  }
+
+  /**
+   * @return the range of the profiles in the given bucket or older ones
+   */
+  private static FindByRange<AttemptId> getProfilesRange(long bucket) {
+    return new FindByRange<>(new AttemptId(getFirstExternalId(bucket), 0), true,
+        new AttemptId(getLastExternalId(), 0xFF), true);
+  }
+
+  /**
+   * @return the range of the jobs in the given bucket or older ones
+   */
+  private static FindByRange<JobId> getJobsRange(long bucket) {
+    return new FindByRange<>(JobsServiceUtil.getExternalIdAsJobId(getFirstExternalId(bucket)), true,
+        JobsServiceUtil.getExternalIdAsJobId(getLastExternalId()), true);
+  }
+
+  private static ExternalId getFirstExternalId(long bucket) {
+    return ExternalId.newBuilder()
+        .setPart1(Math.min(bucket, Integer.MAX_VALUE) << 32)
+        .setPart2(0)
+        .build();
+  }
+
+  private static ExternalId getLastExternalId() {
+    return ExternalId.newBuilder()
+        .setPart1(Long.MAX_VALUE)
+        .setPart2(ExternalIdHelper.MASK)
+        .build();
+  }
+
+  /**
+   * @return true if the job is returned by {@link #getOldJobsCondition(long)}
+   */
+  private static boolean isOldJob(JobResult job, long cutOffTime) {
+    final List<JobAttempt> attempts = job.getAttemptsList();
+    if (attempts == null || attempts.isEmpty()) {
+      return false;
+    }
+    final Long finishTime = attempts.get(attempts.size() - 1).getInfo().getFinishTime();
+    return finishTime != null && finishTime >= 0 && finishTime <= cutOffTime;
+  }
+
   class CleanupTask implements Runnable {
 
     private static final int MAX_NUMBER_JOBS_TO_FETCH = 10;
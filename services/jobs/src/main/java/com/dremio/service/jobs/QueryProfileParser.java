@@ -434,6 +434,7 @@ class QueryProfileParser {
             case HASH_JOIN:
             case MERGE_JOIN:
             case NESTED_LOOP_JOIN:
+            case VECTORIZED_NESTED_LOOP_JOIN:
               setOperationStats(OperationType.Join, toMillis(operatorProfile.getProcessNanos() + operatorProfile.getSetupNanos()));
               break;
 
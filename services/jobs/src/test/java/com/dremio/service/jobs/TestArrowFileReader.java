@@ -17,16 +17,21 @@ package com.dremio.service.jobs;
 
 import static java.util.Arrays.asList;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.arrow.memory.BufferAllocator;
 import org.apache.arrow.memory.RootAllocator;
@@ -44,6 +49,7 @@ import org.apache.arrow.vector.types.pojo.Field;
 import org.apache.arrow.vector.types.pojo.FieldType;
 import org.apache.arrow.vector.util.Text;
 import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataInputStream;
 import org.apache.hadoop.fs.FileStatus;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
@@ -54,19 +60,31 @@ import org.junit.rules.TemporaryFolder;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 
+import com.dremio.common.exceptions.UserException;
+import com.dremio.datastore.IndexedStore;
 import com.dremio.exec.proto.ExecProtos.FragmentHandle;
+import com.dremio.exec.proto.UserBitShared.DremioPBError.ErrorType;
 import com.dremio.exec.record.BatchSchema;
 import com.dremio.exec.record.BatchSchema.SelectionVectorMode;
 import com.dremio.exec.record.VectorContainer;
 import com.dremio.exec.record.VectorWrapper;
 import com.dremio.exec.store.RecordWriter.OutputEntryListener;
 import com.dremio.exec.store.RecordWriter.WriteStatsListener;
+import com.dremio.exec.store.dfs.FileSystemConf;
+import com.dremio.exec.store.dfs.FileSystemPlugin;
+import com.dremio.exec.store.dfs.FileSystemWrapper;
 import com.dremio.exec.store.dfs.easy.EasyWriter;
 import com.dremio.exec.store.easy.arrow.ArrowFileFormat;
 import com.dremio.exec.store.easy.arrow.ArrowFileMetadata;
 import com.dremio.exec.store.easy.arrow.ArrowFormatPluginConfig;
 import com.dremio.exec.store.easy.arrow.ArrowRecordWriter;
 import com.dremio.sabot.exec.context.OperatorContext;
+import com.dremio.service.job.proto.JobAttempt;
+import com.dremio.service.job.proto.JobId;
+import com.dremio.service.job.proto.JobInfo;
+import com.dremio.service.job.proto.JobResult;
+import com.dremio.service.job.proto.JobState;
+import com.dremio.service.job.proto.QueryType;
 import com.google.common.collect.Iterators;
 import com.google.common.collect.Lists;
 
@@ -334,6 +352,229 @@ public class TestArrowFileReader {
     }
   }
 
+  @Test
+  public void pagingThroughMultiBatchFile() throws Exception {
+    List<VectorContainer> containers = Lists.newArrayList();
+    try {
+      // generate a test file with multiple record batches each containing 5 records.
+      containers.add(createBatch(5, testBitVector(), testVarCharVector()));
+      containers.add(createBatch(5, testBitVector(), testVarCharVector()));
+      containers.add(createBatch(5, testBitVector(), testVarCharVector()));
+
+      Path basePath = new Path(dateGenFolder.getRoot().getPath());
+      ArrowFileMetadata metadata = writeArrowFile(containers.toArray(new VectorContainer[3]));
+      try(JobResultsReader reader = new JobResultsReader(FileSystem.get(FS_CONF), basePath, asList(metadata), ALLOCATOR)) {
+        {
+          // Pages are read out of order from the same open file
+          List<RecordBatchHolder> batchHolders = Lists.newArrayList(reader.iterator(7, 5));
+          assertEquals(2, batchHolders.size());
+
+          verifyBatchHolder(batchHolders.get(0), 2, 5);
+          VectorContainer batchContainer = batchHolders.get(0).getData().getContainer();
+          assertEquals(TEST_BIT_VALUES.subList(2, 5), getBitValues(batchContainer, 2, 5));
+          assertEquals(TEST_VARCHAR_VALUES.subList(2, 5), getVarCharValues(batchContainer, 2, 5));
+
+          verifyBatchHolder(batchHolders.get(1), 0, 2);
+          batchContainer = batchHolders.get(1).getData().getContainer();
+          assertEquals(TEST_BIT_VALUES.subList(0, 2), getBitValues(batchContainer, 0, 2));
+          assertEquals(TEST_VARCHAR_VALUES.subList(0, 2), getVarCharValues(batchContainer, 0, 2));
+
+          releaseBatches(batchHolders);
+        }
+        {
+          List<RecordBatchHolder> batchHolders = Lists.newArrayList(reader.iterator(0, 7));
+          assertEquals(2, batchHolders.size());
+          verifyBatchHolder(batchHolders.get(0), 0, 5);
+          verifyBatchHolder(batchHolders.get(1), 0, 2);
+          releaseBatches(batchHolders);
+        }
+        {
+          // Limit past the end of the results
+          List<RecordBatchHolder> batchHolders = Lists.newArrayList(reader.iterator(12, 10));
+          assertEquals(1, batchHolders.size());
+
+          verifyBatchHolder(batchHolders.get(0), 2, 5);
+          VectorContainer batchContainer = batchHolders.get(0).getData().getContainer();
+          assertEquals(TEST_BIT_VALUES.subList(2, 5), getBitValues(batchContainer, 2, 5));
+          assertEquals(TEST_VARCHAR_VALUES.subList(2, 5), getVarCharValues(batchContainer, 2, 5));
+
+          releaseBatches(batchHolders);
+        }
+        {
+          // Range past the end of the results returns an empty batch
+          RecordBatches batches = reader.read(20, 5);
+          assertEquals(1, batches.getBatches().size());
+          assertEquals(0, batches.getSize());
+          releaseBatches(batches.getBatches());
+        }
+      }
+    } finally {
+      for(VectorContainer container : containers) {
+        if (container != null) {
+          container.clear();
+        }
+      }
+    }
+  }
+
+  @Test
+  public void pagingThroughMultipleFiles() throws Exception {
+    List<VectorContainer> containers = Lists.newArrayList();
+    try {
+      Path basePath = new Path(dateGenFolder.getRoot().getPath());
+      // records 0-9, with an empty batch between the two batches of 5 records
+      containers.add(createBatch(5, testBitVector(), testVarCharVector()));
+      containers.add(createBatch(0, testBitVector(), testVarCharVector()));
+      containers.add(createBatch(5, testBitVector(), testVarCharVector()));
+      ArrowFileMetadata first = writeArrowFile(basePath, 1, containers.get(0), containers.get(1), containers.get(2));
+      // no records
+      containers.add(createBatch(0, testBitVector(), testVarCharVector()));
+      ArrowFileMetadata empty = writeArrowFile(basePath, 2, containers.get(3));
+      // records 10-14
+      containers.add(createBatch(5, testBitVector(), testVarCharVector()));
+      ArrowFileMetadata last = writeArrowFile(basePath, 3, containers.get(4));
+
+      try(JobResultsReader reader = new JobResultsReader(FileSystem.get(FS_CONF), basePath, asList(first, empty, last), ALLOCATOR)) {
+        assertEquals(15, reader.getRecordCount());
+        {
+          // Range spanning all the files, the empty batch and the empty file are skipped
+          List<RecordBatchHolder> batchHolders = Lists.newArrayList(reader.iterator(3, 10));
+          assertEquals(3, batchHolders.size());
+
+          verifyBatchHolder(batchHolders.get(0), 3, 5);
+          VectorContainer batchContainer = batchHolders.get(0).getData().getContainer();
+          assertEquals(TEST_BIT_VALUES.subList(3, 5), getBitValues(batchContainer, 3, 5));
+          assertEquals(TEST_VARCHAR_VALUES.subList(3, 5), getVarCharValues(batchContainer, 3, 5));
+
+          verifyBatchHolder(batchHolders.get(1), 0, 5);
+          batchContainer = batchHolders.get(1).getData().getContainer();
+          assertEquals(TEST_BIT_VALUES, getBitValues(batchContainer, 0, 5));
+          assertEquals(TEST_VARCHAR_VALUES, getVarCharValues(batchContainer, 0, 5));
+
+          verifyBatchHolder(batchHolders.get(2), 0, 3);
+          batchContainer = batchHolders.get(2).getData().getContainer();
+          assertEquals(TEST_BIT_VALUES.subList(0, 3), getBitValues(batchContainer, 0, 3));
+          assertEquals(TEST_VARCHAR_VALUES.subList(0, 3), getVarCharValues(batchContainer, 0, 3));
+
+          releaseBatches(batchHolders);
+        }
+        {
+          // Range starting at the first record of the last file, right after the empty file
+          List<RecordBatchHolder> batchHolders = Lists.newArrayList(reader.iterator(10, 5));
+          assertEquals(1, batchHolders.size());
+          verifyBatchHolder(batchHolders.get(0), 0, 5);
+          releaseBatches(batchHolders);
+        }
+        {
+          // Range ending at the last record of the first file
+          List<RecordBatchHolder> batchHolders = Lists.newArrayList(reader.iterator(5, 5));
+          assertEquals(1, batchHolders.size());
+          verifyBatchHolder(batchHolders.get(0), 0, 5);
+          releaseBatches(batchHolders);
+        }
+        {
+          // Range starting at the last record of the first file
+          List<RecordBatchHolder> batchHolders = Lists.newArrayList(reader.iterator(9, 2));
+          assertEquals(2, batchHolders.size());
+          verifyBatchHolder(batchHolders.get(0), 4, 5);
+          verifyBatchHolder(batchHolders.get(1), 0, 1);
+          releaseBatches(batchHolders);
+        }
+        {
+          // Range starting at the end of the results
+          assertFalse(reader.iterator(15, 5).hasNext());
+          RecordBatches batches = reader.read(15, 5);
+          assertEquals(1, batches.getBatches().size());
+          assertEquals(0, batches.getSize());
+          releaseBatches(batches.getBatches());
+        }
+      }
+    } finally {
+      for(VectorContainer container : containers) {
+        if (container != null) {
+          container.clear();
+        }
+      }
+    }
+  }
+
+  @Test
+  public void readersAreCachedUntilCleanup() throws Exception {
+    final JobId jobId = new JobId("readersAreCachedUntilCleanup");
+    final Path storeLocation = new Path(dateGenFolder.getRoot().getPath());
+    final Path jobOutputDir = new Path(storeLocation, jobId.getId());
+
+    List<VectorContainer> containers = Lists.newArrayList();
+    try {
+      containers.add(createBatch(5, testBitVector(), testVarCharVector()));
+      containers.add(createBatch(5, testBitVector(), testVarCharVector()));
+      ArrowFileMetadata metadata = writeArrowFile(jobOutputDir, 1, containers.toArray(new VectorContainer[2]));
+
+      // keep track of the files opened by the store
+      final FileSystemWrapper dfs = Mockito.spy(new FileSystemWrapper(FS_CONF, FileSystem.get(FS_CONF)));
+      final AtomicInteger opened = new AtomicInteger();
+      final AtomicInteger closed = new AtomicInteger();
+      doAnswer(invocation -> {
+        opened.incrementAndGet();
+        return new FSDataInputStream((FSDataInputStream) invocation.callRealMethod()) {
+          @Override
+          public void close() throws IOException {
+            closed.incrementAndGet();
+            super.close();
+          }
+        };
+      }).when(dfs).open(any(Path.class));
+
+      final FileSystemConf<?, ?> conf = mock(FileSystemConf.class);
+      when(conf.getPath()).thenReturn(storeLocation);
+      final FileSystemPlugin plugin = mock(FileSystemPlugin.class);
+      when(plugin.getName()).thenReturn("__jobResultsStore");
+      when(plugin.getSystemUserFS()).thenReturn(dfs);
+      when(plugin.getConfig()).thenReturn(conf);
+
+      final JobResult job = new JobResult().setAttemptsList(asList(new JobAttempt()
+          .setState(JobState.COMPLETED)
+          .setInfo(new JobInfo(jobId, "SELECT 1", "1", QueryType.UI_RUN)
+              .setOutputTableList(asList("__jobResultsStore", jobId.getId()))
+              .setResultMetadataList(asList(metadata)))));
+      @SuppressWarnings("unchecked")
+      final IndexedStore<JobId, JobResult> jobStore = mock(IndexedStore.class);
+      when(jobStore.get(jobId)).thenReturn(job);
+
+      final JobResultsStore store = new JobResultsStore(plugin, jobStore, ALLOCATOR);
+      try {
+        // pages are read from the same open file
+        RecordBatches batches = store.loadJobData(jobId, job, 0, 3);
+        assertEquals(3, batches.getSize());
+        releaseBatches(batches.getBatches());
+        batches = store.loadJobData(jobId, job, 3, 5);
+        assertEquals(5, batches.getSize());
+        releaseBatches(batches.getBatches());
+        assertEquals(1, opened.get());
+        assertEquals(0, closed.get());
+
+        // the cached reader is dropped along with the results, closing the file
+        assertTrue(store.cleanup(jobId));
+        assertEquals(1, closed.get());
+        try {
+          store.loadJobData(jobId, job, 0, 3);
+          fail("shouldn't be here");
+        } catch (UserException e) {
+          assertEquals(ErrorType.DATA_READ, e.getErrorType());
+        }
+        assertEquals(1, opened.get());
+      } finally {
+        store.close();
+      }
+    } finally {
+      for(VectorContainer container : containers) {
+        if (container != null) {
+          container.clear();
+        }
+      }
+    }
+  }
+
   @Test
   public void writeAndReadEmptyListVectors() throws Exception {
     try (final VectorContainer batchData = createBatch(1, testEmptyListVector())) {
@@ -495,12 +736,20 @@ public class TestArrowFileReader {
 
   /** Helper method that write the given batches to a file with given name and returns the file metadata */
   private ArrowFileMetadata writeArrowFile(VectorContainer... batches) throws Exception {
+    return writeArrowFile(new Path(dateGenFolder.getRoot().getPath()), 234234, batches);
+  }
+
+  /**
+   * Helper method that write the given batches to a file in the given directory and returns the file metadata. Files
+   * written by different minor fragments have different names.
+   */
+  private ArrowFileMetadata writeArrowFile(Path location, int minorFragmentId, VectorContainer... batches) throws Exception {
     OperatorContext opContext = Mockito.mock(OperatorContext.class);
-    when(opContext.getFragmentHandle()).thenReturn(FragmentHandle.newBuilder().setMajorFragmentId(2323).setMinorFragmentId(234234).build());
+    when(opContext.getFragmentHandle()).thenReturn(FragmentHandle.newBuilder().setMajorFragmentId(2323).setMinorFragmentId(minorFragmentId).build());
 
     EasyWriter writerConf = mock(EasyWriter.class);
     when(writerConf.getFsConf()).thenReturn(FS_CONF);
-    when(writerConf.getLocation()).thenReturn(dateGenFolder.getRoot().toString());
+    when(writerConf.getLocation()).thenReturn(location.toString());
 
     ArrowRecordWriter writer = new ArrowRecordWriter(
         opContext,
@@ -534,13 +783,12 @@ public class TestArrowFileReader {
     verify(outputEntryListener, times(1)).recordsWritten(recordWrittenCaptor.capture(), fileSizeCaptor.capture(), pathCaptor.capture(), metadataCaptor.capture(), partitionCaptor.capture());
     verify(writeStatsListener, times(batches.length)).bytesWritten(bytesWrittenCaptor.capture());
 
-    Path path = new Path(dateGenFolder.getRoot().getPath());
-    FileSystem fs = path.getFileSystem(FS_CONF);
-    for (FileStatus file : fs.listStatus(path)) {
-      assertEquals(Long.valueOf(fileSizeCaptor.getValue()), Long.valueOf(file.getLen()));
-    }
+    ArrowFileMetadata metadata = ArrowFileReader.toBean(ArrowFileFormat.ArrowFileMetadata.parseFrom(metadataCaptor.getValue()));
+    FileSystem fs = location.getFileSystem(FS_CONF);
+    FileStatus file = fs.getFileStatus(new Path(location, metadata.getPath()));
+    assertEquals(Long.valueOf(fileSizeCaptor.getValue()), Long.valueOf(file.getLen()));
 
-    return ArrowFileReader.toBean(ArrowFileFormat.ArrowFileMetadata.parseFrom(metadataCaptor.getValue()));
+    return metadata;
   }
 
   @AfterClass
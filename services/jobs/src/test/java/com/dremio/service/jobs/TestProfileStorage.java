@@ -0,0 +1,179 @@
+/*
+ * Copyright (C) 2017-2018 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.service.jobs;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.dremio.common.utils.protos.ExternalIdHelper;
+import com.dremio.datastore.IndexedStore;
+import com.dremio.datastore.KVStore;
+import com.dremio.datastore.KVStore.FindByRange;
+import com.dremio.datastore.LocalKVStoreProvider;
+import com.dremio.exec.proto.UserBitShared.ExternalId;
+import com.dremio.exec.proto.UserBitShared.QueryProfile;
+import com.dremio.exec.work.AttemptId;
+import com.dremio.service.job.proto.JobAttempt;
+import com.dremio.service.job.proto.JobId;
+import com.dremio.service.job.proto.JobInfo;
+import com.dremio.service.job.proto.JobResult;
+import com.dremio.service.job.proto.JobState;
+import com.dremio.service.job.proto.QueryType;
+import com.dremio.service.jobs.LocalJobsService.DeleteResult;
+import com.dremio.service.jobs.LocalJobsService.JobsProfileCreator;
+import com.dremio.service.jobs.LocalJobsService.JobsStoreCreator;
+import com.dremio.service.jobs.LocalJobsService.QueryProfileSerializer;
+import com.dremio.test.DremioTest;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Sets;
+
+/**
+ * Tests for the storage of query profiles: compression, and deletion of the profiles older than a cutoff time.
+ */
+public class TestProfileStorage {
+
+  @Rule
+  public final TemporaryFolder tmpFolder = new TemporaryFolder();
+
+  @Test
+  public void testCompressedProfile() {
+    final QueryProfileSerializer serializer = new QueryProfileSerializer();
+    final QueryProfile profile = QueryProfile.newBuilder()
+        .setPlan(new String(new char[10_000]).replace('\0', 'a'))
+        .setQuery("SELECT 1")
+        .build();
+
+    final byte[] bytes = serializer.convert(profile);
+    assertTrue(bytes.length < profile.getSerializedSize());
+    assertEquals(profile, serializer.revert(bytes));
+  }
+
+  @Test
+  public void testUncompressedProfile() {
+    // as stored by previous versions
+    final QueryProfile profile = QueryProfile.newBuilder()
+        .setQuery("SELECT 1")
+        .build();
+    assertEquals(profile, new QueryProfileSerializer().revert(profile.toByteArray()));
+  }
+
+  @Test
+  public void testOldProfilesRange() {
+    final long now = System.currentTimeMillis();
+    final FindByRange<AttemptId> range = LocalJobsService.getOldProfilesRange(now - TimeUnit.DAYS.toMillis(1));
+
+    // the profile of a query started now isn't deleted
+    assertFalse(isInRange(range, new AttemptId(ExternalIdHelper.generateExternalId(), 3)));
+
+    // the profile of a query started two days ago is, see ExternalIdHelper#generateExternalId()
+    final long time = TimeUnit.MILLISECONDS.toSeconds(now) - TimeUnit.DAYS.toSeconds(2);
+    final ExternalId externalId = ExternalId.newBuilder()
+        .setPart1(((Integer.MAX_VALUE - time) << 32) - 42)
+        .setPart2(0)
+        .build();
+    assertTrue(isInRange(range, new AttemptId(externalId, 0)));
+  }
+
+  @Test
+  public void testDeleteOldJobs() throws Exception {
+    try (final LocalKVStoreProvider provider = new LocalKVStoreProvider(DremioTest.CLASSPATH_SCAN_RESULT,
+        tmpFolder.getRoot().toString(), false, false)) {
+      provider.start();
+      final IndexedStore<JobId, JobResult> jobStore = provider.getStore(JobsStoreCreator.class);
+      final KVStore<AttemptId, QueryProfile> profileStore = provider.getStore(JobsProfileCreator.class);
+
+      final long now = System.currentTimeMillis();
+      final long day = TimeUnit.DAYS.toMillis(1);
+      // started and ended before the cutoff time, next to a kept job
+      addJob(jobStore, profileStore, 1, now - 3 * day - 10_000, now - 3 * day);
+      // started before the cutoff time but still queried after it, is kept
+      final AttemptId endedNow = addJob(jobStore, profileStore, 2, now - 3 * day, now);
+      // started and ended before the cutoff time, after the kept job
+      addJob(jobStore, profileStore, 3, now - 2 * day, now - 2 * day);
+      // started and ended before the cutoff time, before the kept job
+      addJob(jobStore, profileStore, 4, now - 4 * day, now - 4 * day);
+      // still running, is kept
+      final AttemptId running = addJob(jobStore, profileStore, 5, now, null);
+      // profile of a job which was already deleted
+      final AttemptId orphan = newAttemptId(6, now - 5 * day);
+      profileStore.put(orphan, QueryProfile.getDefaultInstance());
+
+      final DeleteResult result = LocalJobsService.deleteOldJobs(provider, 1);
+      assertEquals(3, result.getJobsDeleted());
+      assertEquals(3, result.getProfilesDeleted());
+
+      // attempt ids are compared by their string representation, as keyed in the store
+      final Set<String> profiles = Sets.newHashSet();
+      for (Entry<AttemptId, QueryProfile> entry : profileStore.find()) {
+        profiles.add(AttemptIdUtils.toString(entry.getKey()));
+      }
+      assertEquals(ImmutableSet.of(AttemptIdUtils.toString(endedNow), AttemptIdUtils.toString(running)), profiles);
+
+      final Set<JobId> jobs = Sets.newHashSet();
+      for (Entry<JobId, JobResult> entry : jobStore.find()) {
+        jobs.add(entry.getKey());
+      }
+      assertEquals(ImmutableSet.of(toJobId(endedNow), toJobId(running)), jobs);
+    }
+  }
+
+  private static AttemptId addJob(IndexedStore<JobId, JobResult> jobStore,
+      KVStore<AttemptId, QueryProfile> profileStore, long index, long startTime, Long finishTime) {
+    final AttemptId attemptId = newAttemptId(index, startTime);
+    final JobId jobId = toJobId(attemptId);
+    final JobInfo info = new JobInfo(jobId, "SELECT 1", "1", QueryType.UI_RUN)
+        .setDatasetPathList(Collections.<String>emptyList())
+        .setStartTime(startTime)
+        .setFinishTime(finishTime);
+    final JobAttempt attempt = new JobAttempt()
+        .setAttemptId(AttemptIdUtils.toString(attemptId))
+        .setState(finishTime == null ? JobState.RUNNING : JobState.COMPLETED)
+        .setInfo(info);
+    jobStore.put(jobId, new JobResult().setAttemptsList(Collections.singletonList(attempt)));
+    profileStore.put(attemptId, QueryProfile.getDefaultInstance());
+    return attemptId;
+  }
+
+  private static AttemptId newAttemptId(long index, long startTime) {
+    // see ExternalIdHelper#generateExternalId()
+    final long time = TimeUnit.MILLISECONDS.toSeconds(startTime);
+    return new AttemptId(ExternalId.newBuilder()
+        .setPart1(((Integer.MAX_VALUE - time) << 32) + 42)
+        .setPart2(index << 8)
+        .build(), 0);
+  }
+
+  private static JobId toJobId(AttemptId attemptId) {
+    return JobsServiceUtil.getExternalIdAsJobId(attemptId.getExternalId());
+  }
+
+  private static boolean isInRange(FindByRange<AttemptId> range, AttemptId attemptId) {
+    // profiles are keyed by the string representation of their attempt id
+    final String key = AttemptIdUtils.toString(attemptId);
+    return key.compareTo(AttemptIdUtils.toString(range.getStart())) >= 0
+        && key.compareTo(AttemptIdUtils.toString(range.getEnd())) <= 0;
+  }
+}